@@ -18,9 +18,14 @@
  */
 package org.georchestra.gateway.accounts.admin;
 
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.georchestra.ds.orgs.Org;
 import org.georchestra.gateway.security.exceptions.DuplicatedEmailFoundException;
@@ -29,6 +34,9 @@ import org.georchestra.security.model.GeorchestraUser;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.util.StringUtils;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Striped;
+
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
@@ -37,8 +45,12 @@ import lombok.RequiredArgsConstructor;
  * management logic.
  * <p>
  * This class ensures thread-safe user retrieval and creation by using a
- * {@link ReadWriteLock}. Implementations must define specific storage
- * operations for finding and creating users.
+ * {@link ReadWriteLock} per user identity, as returned by
+ * {@link #identity(GeorchestraUser)}. Locks are striped, so lookups and
+ * creations of unrelated users don't contend with each other. Implementations
+ * must define specific storage operations for finding and creating users, and
+ * shall guard updates to entries shared among users (such as organizations and
+ * roles) with {@link #sharedEntryLock(String, String)}.
  * </p>
  *
  * <p>
@@ -56,20 +68,37 @@ public abstract class AbstractAccountsManager implements AccountManager {
 
     private final @NonNull ApplicationEventPublisher eventPublisher;
 
-    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Number of lock stripes for user identities and shared entries
+     */
+    static final int LOCK_STRIPES = 256;
+
+    private final Striped<ReadWriteLock> identityLocks = Striped.readWriteLock(LOCK_STRIPES);
+
+    private final Striped<Lock> sharedEntryLocks = Striped.lock(LOCK_STRIPES);
 
     private final OpenIdConnectCustomConfig providersConfig;
 
+    /**
+     * {@link #getOrCreate(GeorchestraUser)} calls in progress, by user identity
+     */
+    private final ConcurrentMap<String, CompletableFuture<GeorchestraUser>> inFlightCalls = new ConcurrentHashMap<>();
+
     /**
      * Retrieves an existing stored user corresponding to {@code mappedUser} or
      * creates a new one if not found.
      * <p>
-     * This method ensures thread safety by acquiring a read lock when searching for
-     * the user and a write lock when creating a new user.
+     * This method ensures thread safety by acquiring the user identity's read lock
+     * when searching for the user and its write lock when creating a new user.
      * </p>
      * <p>
      * If a new user is created, an {@link AccountCreated} event is published.
      * </p>
+     * <p>
+     * Concurrent calls for the same user identity are coalesced: only the first one
+     * looks up and eventually creates the user, and the others wait for and share
+     * its outcome, be it the stored user or an exception.
+     * </p>
      *
      * @param mappedUser the user to find or create
      * @return the existing or newly created {@link GeorchestraUser}
@@ -78,14 +107,48 @@ public abstract class AbstractAccountsManager implements AccountManager {
      */
     @Override
     public GeorchestraUser getOrCreate(@NonNull GeorchestraUser mappedUser) throws DuplicatedEmailFoundException {
-        return find(mappedUser).orElseGet(() -> createIfMissing(mappedUser));
+        final String identity = identity(mappedUser);
+        final CompletableFuture<GeorchestraUser> call = new CompletableFuture<>();
+        final CompletableFuture<GeorchestraUser> inFlight = inFlightCalls.putIfAbsent(identity, call);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            GeorchestraUser user = find(mappedUser).orElseGet(() -> createIfMissing(mappedUser));
+            call.complete(user);
+            return user;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightCalls.remove(identity, call);
+        }
+    }
+
+    /**
+     * Waits for a {@link #getOrCreate(GeorchestraUser)} call for the same identity
+     * running on another thread, rethrowing its exception if it failed.
+     */
+    private GeorchestraUser await(CompletableFuture<GeorchestraUser> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException rte) {
+                throw rte;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
     }
 
     /**
      * Retrieves the stored user corresponding to {@code mappedUser}, if it exists.
      * <p>
-     * This method is thread-safe and acquires a read lock to ensure consistent
-     * reads.
+     * This method is thread-safe and acquires the user identity's read lock to
+     * ensure consistent reads.
      * </p>
      *
      * @param mappedUser the user to search for
@@ -93,14 +156,62 @@ public abstract class AbstractAccountsManager implements AccountManager {
      *         {@link Optional} if not found
      */
     public Optional<GeorchestraUser> find(GeorchestraUser mappedUser) {
-        lock.readLock().lock();
+        Lock readLock = identityLock(mappedUser).readLock();
+        readLock.lock();
         try {
             return findInternal(mappedUser);
         } finally {
-            lock.readLock().unlock();
+            readLock.unlock();
         }
     }
 
+    /**
+     * Returns the normalized identity under which the stored version of
+     * {@code mappedUser} is looked up by {@link #findInternal(GeorchestraUser)}.
+     * <p>
+     * That is, the lower-case email for OAuth2 providers configured to match users
+     * by email, the provider and OAuth2 uid for other OAuth2 users, and the
+     * lower-case username otherwise.
+     * </p>
+     *
+     * @param mappedUser the user to get the identity of
+     * @return the user identity, used as lock key
+     */
+    @VisibleForTesting
+    String identity(@NonNull GeorchestraUser mappedUser) {
+        String oAuth2Provider = mappedUser.getOAuth2Provider();
+        String oAuth2UId = mappedUser.getOAuth2Uid();
+        if (oAuth2Provider != null && oAuth2UId != null) {
+            if (providersConfig.useEmail(oAuth2Provider) && mappedUser.getEmail() != null) {
+                return "email:" + mappedUser.getEmail().toLowerCase(Locale.ROOT);
+            }
+            return "oauth2:" + oAuth2Provider + ":" + oAuth2UId;
+        }
+        String username = mappedUser.getUsername();
+        return "username:" + (username == null ? "" : username.toLowerCase(Locale.ROOT));
+    }
+
+    private ReadWriteLock identityLock(GeorchestraUser mappedUser) {
+        return identityLocks.get(identity(mappedUser));
+    }
+
+    /**
+     * Returns the lock guarding updates to an entry shared among users, such as an
+     * organization or a role, or to a value that must be unique among users, such
+     * as an email.
+     * <p>
+     * Shared entry locks are acquired while holding a user identity lock, and
+     * implementations shall not hold more than one at a time.
+     * </p>
+     *
+     * @param type the type of entry, e.g. {@code "org"} or {@code "role"}
+     * @param name the entry name
+     * @return the lock for the entry
+     */
+    protected Lock sharedEntryLock(@NonNull String type, String name) {
+        return sharedEntryLocks.get(type + ":" + (name == null ? "" : name.toLowerCase(Locale.ROOT)));
+    }
+
     /**
      * Internal method to search for a user based on OAuth2 credentials or username.
      * <p>
@@ -191,7 +302,8 @@ public abstract class AbstractAccountsManager implements AccountManager {
 
     @Override
     public void createUserOrgUniqueIdIfMissing(@NonNull GeorchestraUser mapped) throws DuplicatedEmailFoundException {
-        lock.writeLock().lock();
+        Lock writeLock = identityLock(mapped).writeLock();
+        writeLock.lock();
         try {
             // verify if user exist
             GeorchestraUser existing = findInternal(mapped).orElse(null);
@@ -199,7 +311,8 @@ public abstract class AbstractAccountsManager implements AccountManager {
                 return;
             }
 
-            // Provider did not send orgUniqueId (or mapping resolves to empty) -> keep org unchanged
+            // Provider did not send orgUniqueId (or mapping resolves to empty) -> keep org
+            // unchanged
             String mappedOrgUniqueId = normalizeOrgUniqueId(mapped.getOAuth2OrgId());
             if (mappedOrgUniqueId.isEmpty()) {
                 return;
@@ -212,15 +325,16 @@ public abstract class AbstractAccountsManager implements AccountManager {
             // create org if necessary and add user to org
             ensureOrgExists(mapped);
         } finally {
-            lock.writeLock().unlock();
+            writeLock.unlock();
         }
     }
 
     /**
      * Creates a user if it does not already exist in the repository.
      * <p>
-     * This method acquires a write lock to ensure only one thread creates a user at
-     * a time. If a user is created, an {@link AccountCreated} event is published.
+     * This method acquires the user identity's write lock to ensure only one thread
+     * creates a given user at a time. If a user is created, an
+     * {@link AccountCreated} event is published.
      * </p>
      *
      * @param mapped the user to create if missing
@@ -229,7 +343,8 @@ public abstract class AbstractAccountsManager implements AccountManager {
      *                                       exists
      */
     protected GeorchestraUser createIfMissing(GeorchestraUser mapped) throws DuplicatedEmailFoundException {
-        lock.writeLock().lock();
+        Lock writeLock = identityLock(mapped).writeLock();
+        writeLock.lock();
         try {
             // verify if user exist
             GeorchestraUser existing = findInternal(mapped).orElse(null);
@@ -245,7 +360,7 @@ public abstract class AbstractAccountsManager implements AccountManager {
 
             return existing;
         } finally {
-            lock.writeLock().unlock();
+            writeLock.unlock();
         }
     }
 
@@ -18,9 +18,9 @@
  */
 package org.georchestra.gateway.accounts.admin;
 
+import java.time.Duration;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
 
 import org.georchestra.ds.DataServiceException;
 import org.georchestra.ds.users.Account;
@@ -35,21 +35,90 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 /**
  * {@link GeorchestraUserCustomizerExtension} that
  * {@link AccountManager#getOrCreate creates an account} when authenticated
  * through request headers (trusted proxy feature) or through OAuth2.
+ * <p>
+ * The stored user and its pending status are kept in a time and size bounded
+ * cache keyed by {@link Authentication}, so that subsequent requests of a
+ * logged in user don't hit the LDAP database until the entry expires or is
+ * {@link #invalidate(Authentication) invalidated}.
+ * </p>
+ * <p>
+ * The {@link AccountManager#createUserOrgUniqueIdIfMissing organization unique
+ * id check} scans the organizations, so rather than every time a logged in user
+ * expires, it's run once per login, that is per {@link Authentication}, and
+ * again when the identity provider sends a different organization or the
+ * authentication is invalidated, for example on logout.
+ * </p>
  */
-@RequiredArgsConstructor
 public class CreateAccountUserCustomizer implements GeorchestraUserCustomizerExtension, Ordered {
 
+    /**
+     * Default time logged in users are cached for
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+    /**
+     * Default maximum number of cached logged in users
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
     private final @NonNull AccountManager accounts;
     private final @NonNull AccountDao accountDao;
 
-    private final WeakHashMap<Authentication, GeorchestraUser> loggedInUsers = new WeakHashMap<>();
+    private final Cache<Authentication, LoggedInUser> loggedInUsers;
+
+    /**
+     * Organization unique id whose membership was last checked, by authentication
+     */
+    private final Cache<Authentication, String> checkedOrgMemberships;
+
+    /**
+     * A logged in user as stored in the accounts database, and whether its account
+     * is pending approval
+     */
+    private static record LoggedInUser(GeorchestraUser user, boolean pending) {
+    }
+
+    /**
+     * Creates a customizer caching logged in users for {@link #DEFAULT_TTL}, up to
+     * {@link #DEFAULT_MAXIMUM_SIZE} entries.
+     */
+    public CreateAccountUserCustomizer(@NonNull AccountManager accounts, @NonNull AccountDao accountDao) {
+        this(accounts, accountDao, DEFAULT_TTL, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param ttl         how long a logged in user is cached after being looked up,
+     *                    {@code 0} to look it up on every request
+     * @param maximumSize the maximum number of cached logged in users
+     */
+    public CreateAccountUserCustomizer(@NonNull AccountManager accounts, @NonNull AccountDao accountDao,
+            @NonNull Duration ttl, long maximumSize) {
+        this(accounts, accountDao, ttl, maximumSize, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    CreateAccountUserCustomizer(@NonNull AccountManager accounts, @NonNull AccountDao accountDao, @NonNull Duration ttl,
+            long maximumSize, @NonNull Ticker ticker) {
+        this.accounts = accounts;
+        this.accountDao = accountDao;
+        this.loggedInUsers = CacheBuilder.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).ticker(ticker)
+                .recordStats().build();
+        this.checkedOrgMemberships = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
 
     /**
      * @return {@link Ordered#LOWEST_PRECEDENCE} so it runs after all other
@@ -80,30 +149,81 @@ public class CreateAccountUserCustomizer implements GeorchestraUserCustomizerExt
             Objects.requireNonNull(mappedUser.getUsername(), "GeorchestraUser.username is null");
         }
         if (isOauth2 || isPreAuth) {
-            GeorchestraUser user = loggedInUsers.get(auth);
-            boolean ensureOrgUniqueId = false;
-            if (user != null) {
-                Optional<GeorchestraUser> ldapUser = accounts.find(mappedUser);
-                if (ldapUser.isPresent()) {
-                    user = ldapUser.get();
-                }
-            } else {
-                user = accounts.getOrCreate(mappedUser);
-                ensureOrgUniqueId = true;
-            }
-            if (isPendingAccount(user)) {
+            LoggedInUser loggedIn = login(auth, mappedUser);
+            if (loggedIn.pending()) {
                 throw new PendingUserException("User is pending approval.");
             }
-            if (ensureOrgUniqueId) {
-                accounts.createUserOrgUniqueIdIfMissing(mappedUser);
-            }
-            user.setIsExternalAuth(true);
-            loggedInUsers.put(auth, user);
-            return user;
+            return loggedIn.user();
         }
         return mappedUser;
     }
 
+    /**
+     * Returns the cached logged in user, or looks up or creates the stored user and
+     * caches it.
+     * <p>
+     * Concurrent logins with the same authentication are coalesced by the cache, so
+     * that only one of them hits the accounts database, and the others wait for its
+     * result.
+     * </p>
+     */
+    private LoggedInUser login(Authentication auth, GeorchestraUser mappedUser) {
+        try {
+            return loggedInUsers.get(auth, () -> {
+                GeorchestraUser user = accounts.getOrCreate(mappedUser);
+                LoggedInUser loggedIn = new LoggedInUser(user, isPendingAccount(user));
+                if (!loggedIn.pending()) {
+                    checkOrgMembership(auth, mappedUser);
+                    user.setIsExternalAuth(true);
+                }
+                return loggedIn;
+            });
+        } catch (UncheckedExecutionException | ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs {@link AccountManager#createUserOrgUniqueIdIfMissing} unless it already
+     * ran for this authentication and organization unique id.
+     */
+    private void checkOrgMembership(Authentication auth, GeorchestraUser mappedUser) {
+        String orgUniqueId = Objects.toString(mappedUser.getOAuth2OrgId(), "");
+        if (!orgUniqueId.equals(checkedOrgMemberships.getIfPresent(auth))) {
+            accounts.createUserOrgUniqueIdIfMissing(mappedUser);
+            checkedOrgMemberships.put(auth, orgUniqueId);
+        }
+    }
+
+    /**
+     * Evicts the cached user for the given authentication, if any, so that it's
+     * looked up and its organization membership checked again on its next request.
+     */
+    public void invalidate(@NonNull Authentication auth) {
+        loggedInUsers.invalidate(auth);
+        checkedOrgMemberships.invalidate(auth);
+    }
+
+    /**
+     * Evicts all the cached users, and forgets which organization memberships were
+     * checked.
+     */
+    public void invalidateAll() {
+        loggedInUsers.invalidateAll();
+        checkedOrgMemberships.invalidateAll();
+    }
+
+    /**
+     * @return the cache of logged in users, to expose its metrics
+     */
+    public Cache<Authentication, ?> getLoggedInUsers() {
+        return loggedInUsers;
+    }
+
     /**
      * Checks the pending status against the original LDAP account using
      * {@link AccountDao#findByUID(String)}.
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.accounts.admin;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.security.web.server.authentication.logout.ServerLogoutHandler;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ServerLogoutHandler} evicting the logged out authentication from the
+ * {@link CreateAccountUserCustomizer}'s logged in users, so that logging back in
+ * looks the account up and checks its organization membership again.
+ */
+@RequiredArgsConstructor
+public class LoggedInUsersLogoutHandler implements ServerLogoutHandler {
+
+    private final @NonNull CreateAccountUserCustomizer customizer;
+
+    @Override
+    public Mono<Void> logout(WebFilterExchange exchange, Authentication authentication) {
+        if (authentication != null) {
+            customizer.invalidate(authentication);
+        }
+        return Mono.empty();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.accounts.admin.ldap;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Explicit compensating actions of a multi-step LDAP update.
+ * <p>
+ * LDAP has no transactions spanning several entries. Each step that succeeds
+ * registers the action that undoes it, and if a later step fails,
+ * {@link #run()} undoes the completed steps in reverse order.
+ * </p>
+ */
+@Slf4j(topic = "org.georchestra.gateway.accounts.admin.ldap")
+class Compensations {
+
+    /**
+     * An action undoing a completed step
+     */
+    @FunctionalInterface
+    interface Action {
+        void run() throws Exception;
+    }
+
+    private static record Step(String description, Action undo) {
+    }
+
+    private final Deque<Step> steps = new ArrayDeque<>();
+
+    /**
+     * Registers the action undoing a completed step
+     *
+     * @param description describes the undo action, for logging purposes
+     * @param undo        the action undoing the step
+     */
+    public void add(@NonNull String description, @NonNull Action undo) {
+        steps.push(new Step(description, undo));
+    }
+
+    /**
+     * Runs the registered actions, most recent first.
+     * <p>
+     * A failing action is logged and doesn't prevent the remaining ones from
+     * running.
+     * </p>
+     *
+     * @return {@code true} if all the actions succeeded
+     */
+    public boolean run() {
+        boolean success = true;
+        while (!steps.isEmpty()) {
+            Step step = steps.pop();
+            try {
+                log.debug("Compensating failed update: {}", step.description());
+                step.undo().run();
+            } catch (Exception e) {
+                success = false;
+                log.warn("Error compensating failed update: {}", step.description(), e);
+            }
+        }
+        return success;
+    }
+}
@@ -30,25 +30,30 @@ import org.georchestra.ds.users.AccountDao;
 import org.georchestra.ds.users.AccountDaoImpl;
 import org.georchestra.gateway.accounts.admin.AccountManager;
 import org.georchestra.gateway.accounts.admin.CreateAccountUserCustomizer;
+import org.georchestra.gateway.accounts.admin.LoggedInUsersLogoutHandler;
 import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties;
+import org.georchestra.gateway.security.ldap.LdapContextSources;
 import org.georchestra.gateway.security.ldap.extended.DemultiplexingUsersApi;
 import org.georchestra.gateway.security.ldap.extended.ExtendedLdapConfig;
 import org.georchestra.gateway.security.oauth2.OpenIdConnectCustomConfig;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.ldap.core.LdapTemplate;
-import org.springframework.ldap.core.support.LdapContextSource;
-import org.springframework.ldap.pool.factory.PoolingContextSource;
-import org.springframework.ldap.pool.validation.DefaultDirContextValidator;
+import org.springframework.ldap.core.support.BaseLdapPathContextSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 
 /**
  * Spring Boot configuration class for geOrchestra's LDAP-based account
  * management.
  * <p>
  * This class defines beans for managing LDAP user accounts, roles, and
- * organizations using Spring LDAP and pooled connections.
+ * organizations using Spring LDAP and the pooled connections shared with the
+ * LDAP authentication provider, as provided by {@link LdapContextSources}.
  * </p>
  * <p>
  * The configuration is driven by properties defined in
@@ -69,6 +74,8 @@ public class GeorchestraLdapAccountManagementConfiguration {
      * @param demultiplexingUsersApi API for resolving users based on OAuth2
      *                               credentials
      * @param configProperties       the security configuration properties
+     * @param ldapTemplate           the LDAP template to look up the existing roles
+     *                               with
      * @return an instance of {@link LdapAccountsManager}
      */
     @Bean
@@ -79,70 +86,84 @@ public class GeorchestraLdapAccountManagementConfiguration {
             OrgsDao orgsDao, //
             DemultiplexingUsersApi demultiplexingUsersApi, //
             GeorchestraGatewaySecurityConfigProperties configProperties, //
-            OpenIdConnectCustomConfig providerConfig) {
+            OpenIdConnectCustomConfig providerConfig, //
+            LdapTemplate ldapTemplate) {
 
+        String rolesRdn = configProperties.extendedEnabled().getFirst().getRolesRdn();
         return new LdapAccountsManager(eventPublisher::publishEvent, accountDao, roleDao, orgsDao,
-                demultiplexingUsersApi, configProperties, providerConfig);
+                demultiplexingUsersApi, configProperties, providerConfig,
+                LdapRoleNames.search(ldapTemplate, rolesRdn));
     }
 
     /**
      * Registers a {@link CreateAccountUserCustomizer} bean to handle automatic
      * account creation when a user logs in via trusted authentication mechanisms.
+     * <p>
+     * Logged in users are cached as configured by
+     * {@code georchestra.gateway.security.logged-in-users.*}, and the cache metrics
+     * published under the
+     * {@code cache.*{cache=georchestra.accounts.logged-in-users}} meters.
+     * </p>
      *
      * @param accountManager the account manager responsible for user retrieval and
      *                       creation
+     * @param accountDao     the DAO to check the accounts pending status with
+     * @param config         the security configuration properties
+     * @param meterRegistry  the meter registry to publish the cache metrics to, if
+     *                       available
      * @return a {@link CreateAccountUserCustomizer} instance
      */
     @Bean
-    CreateAccountUserCustomizer createAccountUserCustomizer(AccountManager accountManager, AccountDao accountDao) {
-        return new CreateAccountUserCustomizer(accountManager, accountDao);
+    CreateAccountUserCustomizer createAccountUserCustomizer(AccountManager accountManager, AccountDao accountDao,
+            GeorchestraGatewaySecurityConfigProperties config, ObjectProvider<MeterRegistry> meterRegistry) {
+        var cacheConfig = config.getLoggedInUsers();
+        CreateAccountUserCustomizer customizer = new CreateAccountUserCustomizer(accountManager, accountDao,
+                cacheConfig.getTtl(), cacheConfig.getMaximumSize());
+        meterRegistry.ifAvailable(registry -> GuavaCacheMetrics.monitor(registry, customizer.getLoggedInUsers(),
+                "georchestra.accounts.logged-in-users"));
+        return customizer;
     }
 
     /**
-     * Creates an LDAP context source for connecting to a single LDAP directory.
+     * Evicts the logged out users from the {@link CreateAccountUserCustomizer}
+     * cache, applied by the security filter chain logout handling.
      *
-     * @param config the LDAP configuration properties
-     * @return a configured {@link LdapContextSource} instance
+     * @param customizer the customizer caching logged in users
+     * @return a {@link LoggedInUsersLogoutHandler} instance
      */
     @Bean
-    LdapContextSource singleContextSource(GeorchestraGatewaySecurityConfigProperties config) {
-        ExtendedLdapConfig ldapConfig = config.extendedEnabled().getFirst();
-        LdapContextSource singleContextSource = new LdapContextSource();
-        singleContextSource.setUrl(ldapConfig.getUrl());
-        singleContextSource.setBase(ldapConfig.getBaseDn());
-        singleContextSource.setUserDn(ldapConfig.getAdminDn().orElseThrow());
-        singleContextSource.setPassword(ldapConfig.getAdminPassword().orElseThrow());
-        return singleContextSource;
+    LoggedInUsersLogoutHandler loggedInUsersLogoutHandler(CreateAccountUserCustomizer customizer) {
+        return new LoggedInUsersLogoutHandler(customizer);
     }
 
     /**
-     * Configures a pooling LDAP context source to optimize connection management.
+     * Provides the LDAP context source of the first enabled extended LDAP
+     * configuration, shared with the LDAP authentication provider and users API for
+     * that server, and pooled as configured by
+     * {@code georchestra.gateway.security.ldap.<name>.pool.*}.
      *
-     * @param singleContextSource the base LDAP context source
-     * @return a {@link PoolingContextSource} with connection pooling enabled
+     * @param config         the LDAP configuration properties
+     * @param contextSources the shared, per LDAP server, context sources
+     * @return the admin-authenticated context source to manage accounts with
      */
     @Bean
-    PoolingContextSource contextSource(LdapContextSource singleContextSource) {
-        PoolingContextSource contextSource = new PoolingContextSource();
-        contextSource.setContextSource(singleContextSource);
-        contextSource.setDirContextValidator(new DefaultDirContextValidator());
-        contextSource.setTestOnBorrow(true);
-        contextSource.setMaxActive(8);
-        contextSource.setMinIdle(1);
-        contextSource.setMaxIdle(8);
-        contextSource.setMaxTotal(-1);
-        contextSource.setMaxWait(-1);
-        return contextSource;
+    BaseLdapPathContextSource contextSource(GeorchestraGatewaySecurityConfigProperties config,
+            LdapContextSources contextSources) {
+        ExtendedLdapConfig ldapConfig = config.extendedEnabled().getFirst();
+        // accounts management requires write access
+        ldapConfig.getAdminDn().orElseThrow();
+        ldapConfig.getAdminPassword().orElseThrow();
+        return contextSources.get(ldapConfig.getName());
     }
 
     /**
      * Creates an {@link LdapTemplate} for interacting with LDAP.
      *
-     * @param contextSource the pooled LDAP context source
+     * @param contextSource the shared LDAP context source
      * @return an initialized {@link LdapTemplate}
      */
     @Bean
-    LdapTemplate ldapTemplate(PoolingContextSource contextSource) {
+    LdapTemplate ldapTemplate(BaseLdapPathContextSource contextSource) {
         return new LdapTemplate(contextSource);
     }
 
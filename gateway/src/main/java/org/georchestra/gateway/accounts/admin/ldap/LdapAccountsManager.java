@@ -18,13 +18,20 @@
  */
 package org.georchestra.gateway.accounts.admin.ldap;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.georchestra.ds.DataServiceException;
 import org.georchestra.ds.DuplicatedCommonNameException;
@@ -93,6 +100,16 @@ class LdapAccountsManager extends AbstractAccountsManager {
     private final @NonNull DemultiplexingUsersApi demultiplexingUsersApi;
     private final @NonNull OpenIdConnectCustomConfig providersConfig;
 
+    /** Looks up which roles exist in LDAP, without their member lists. */
+    private final @NonNull LdapRoleNames roleNames;
+
+    /**
+     * Names of the roles recently found to exist, so that provisioning accounts
+     * doesn't look them up again
+     */
+    private final Cache<String, Boolean> knownRoles = CacheBuilder.newBuilder().maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5)).build();
+
     /**
      * Constructs an instance of {@code LdapAccountsManager}.
      *
@@ -117,7 +134,20 @@ class LdapAccountsManager extends AbstractAccountsManager {
             OrgsDao orgsDao, DemultiplexingUsersApi demultiplexingUsersApi,
             GeorchestraGatewaySecurityConfigProperties georchestraGatewaySecurityConfigProperties,
             OpenIdConnectCustomConfig providersConfig) {
+        this(eventPublisher, accountDao, roleDao, orgsDao, demultiplexingUsersApi,
+                georchestraGatewaySecurityConfigProperties, providersConfig, LdapRoleNames.lookup(roleDao));
+    }
+
+    /**
+     * Constructs an instance of {@code LdapAccountsManager} looking up the existing
+     * roles with {@code roleNames}.
+     */
+    public LdapAccountsManager(ApplicationEventPublisher eventPublisher, AccountDao accountDao, RoleDao roleDao,
+            OrgsDao orgsDao, DemultiplexingUsersApi demultiplexingUsersApi,
+            GeorchestraGatewaySecurityConfigProperties georchestraGatewaySecurityConfigProperties,
+            OpenIdConnectCustomConfig providersConfig, LdapRoleNames roleNames) {
         super(eventPublisher, providersConfig);
+        this.roleNames = roleNames;
         this.accountDao = accountDao;
         this.roleDao = roleDao;
         this.orgsDao = orgsDao;
@@ -189,16 +219,18 @@ class LdapAccountsManager extends AbstractAccountsManager {
     /**
      * Creates a new user in the LDAP repository if one does not already exist.
      * <p>
-     * This method first attempts to insert the user into LDAP. If an error occurs
-     * due to duplicate emails or usernames, appropriate exceptions are thrown.
+     * The account is provisioned as a sequence of steps: the account insert, its
+     * addition to its organization (creating it if necessary), the creation of the
+     * missing roles, and the role memberships. If an error occurs due to duplicate
+     * emails or usernames, appropriate exceptions are thrown.
      * </p>
      * <p>
-     * If the user is successfully inserted, their organization is ensured to exist.
-     * If an error occurs while managing the organization, the user account creation
-     * is rolled back.
-     * </p>
-     * <p>
-     * Finally, roles are assigned to the user to ensure correct access levels.
+     * Each completed step registers an explicit compensating action, and if a later
+     * step fails, the completed ones are undone in reverse order: role memberships
+     * are removed, the account is unlinked from its organization, the organization
+     * is deleted if it was created on the way and no other user joined it, and the
+     * account is deleted. Roles created on the way are shared with other users and
+     * hence kept.
      * </p>
      *
      * @param mapped the user to create
@@ -206,10 +238,16 @@ class LdapAccountsManager extends AbstractAccountsManager {
      *                                          already exists
      * @throws DuplicatedUsernameFoundException if a user with the same username
      *                                          already exists
+     * @throws IllegalStateException            if any other provisioning step
+     *                                          fails
      */
     @Override
     protected void createInternal(GeorchestraUser mapped) throws DuplicatedEmailFoundException {
         Account newAccount = mapToAccountBrief(mapped);
+        // the DAO checks for a duplicate email before inserting, and users with
+        // different identities may share an email
+        Lock emailLock = sharedEntryLock("email", newAccount.getEmail());
+        emailLock.lock();
         try {
             accountDao.insert(newAccount);
         } catch (DataServiceException accountError) {
@@ -218,49 +256,82 @@ class LdapAccountsManager extends AbstractAccountsManager {
             throw new DuplicatedEmailFoundException(accountError.getMessage());
         } catch (DuplicatedUidException accountError) {
             throw new DuplicatedUsernameFoundException(accountError.getMessage());
+        } finally {
+            emailLock.unlock();
         }
 
+        Compensations compensations = new Compensations();
+        compensations.add("delete account " + newAccount.getUid(), () -> accountDao.delete(newAccount));
         try {
-            ensureOrgExists(newAccount);
-        } catch (IllegalStateException orgError) {
-            log.error("Error when trying to create / update the organisation {}, reverting the account creation",
-                    newAccount.getOrg(), orgError);
-            rollbackAccount(newAccount);
-            throw orgError;
+            Optional<Org> org = ensureOrgExists(newAccount, compensations);
+            ensureRolesExist(mapped, newAccount, org, compensations);
+        } catch (RuntimeException | DataServiceException provisioningError) {
+            log.error("Error provisioning account {}, reverting the account creation", newAccount.getUid(),
+                    provisioningError);
+            compensations.run();
+            if (provisioningError instanceof IllegalStateException ise) {
+                throw ise;
+            }
+            throw new IllegalStateException(provisioningError);
         }
+    }
+
+    /**
+     * Adds the new account to all its roles at once: {@code USER}, the roles of its
+     * organization, and the user's roles without the {@code "ROLE_"} prefix.
+     * <p>
+     * The user's roles missing in LDAP are resolved with at most one search and
+     * created before adding the memberships.
+     * </p>
+     */
+    private void ensureRolesExist(GeorchestraUser mapped, Account newAccount, Optional<Org> org,
+            Compensations compensations) throws DataServiceException {
 
-        ensureRolesExist(mapped, newAccount);
+        Set<String> roles = new LinkedHashSet<>();
+        if (!mapped.getRoles().contains("ROLE_USER")) {
+            roles.add("USER");
+        }
+        if (org.isPresent()) {
+            roleDao.findAllForOrg(org.get()).stream().map(Role::getName).forEach(roles::add);
+        }
+        List<String> userRoles = mapped.getRoles().stream().map(role -> role.replaceFirst("^ROLE_", "")).toList();
+        for (String missing : findMissingRoles(userRoles)) {
+            ensureRoleExists(missing);
+            knownRoles.put(missing, Boolean.TRUE);
+        }
+        roles.addAll(userRoles);
+        if (roles.isEmpty()) {
+            return;
+        }
+        // registered beforehand, a failed batch may have been partially applied
+        compensations.add("remove account " + newAccount.getUid() + " from roles " + roles,
+                () -> roleDao.deleteUser(newAccount));
+        try {
+            roleDao.addUsersInRoles(new ArrayList<>(roles), List.of(newAccount));
+        } catch (NameNotFoundException roleRemoved) {
+            knownRoles.invalidateAll();
+            throw roleRemoved;
+        }
     }
 
     /**
-     * Ensures all roles assigned to a user are prefixed with {@code "ROLE_"}.
-     *
-     * @param user the user whose roles need to be normalized
-     * @return the updated user with properly formatted roles
+     * Returns which of the given roles don't exist in LDAP.
+     * <p>
+     * Roles known to exist from a recent lookup are not searched for again, and the
+     * others are looked up all at once, by name only.
+     * </p>
      */
-    private void ensureRolesExist(GeorchestraUser mapped, Account newAccount) {
-        try {// account created, add roles
-            if (!mapped.getRoles().contains("ROLE_USER")) {
-                roleDao.addUser("USER", newAccount);
-            }
-            if (newAccount.getOrg() != null) {
-                List<Role> r = roleDao.findAllForOrg(orgsDao.findByCommonName(newAccount.getOrg()));
-                if (!r.isEmpty())
-                    roleDao.addUsersInRoles(r.stream().map(Role::getName).collect(Collectors.toList()), List.of(newAccount));
-            }
-            for (String role : mapped.getRoles()) {
-                role = role.replaceFirst("^ROLE_", "");
-                ensureRoleExists(role);
-                roleDao.addUser(role, newAccount);
-            }
-        } catch (NameNotFoundException | DataServiceException roleError) {
-            try {// roll-back account
-                accountDao.delete(newAccount);
-            } catch (NameNotFoundException | DataServiceException rollbackError) {
-                log.warn("Error reverting user creation after roleDao update failure", rollbackError);
+    @VisibleForTesting
+    Set<String> findMissingRoles(Collection<String> roles) throws DataServiceException {
+        Set<String> missing = roles.stream().filter(role -> knownRoles.getIfPresent(role) == null)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!missing.isEmpty()) {
+            for (String existing : roleNames.findExisting(missing)) {
+                knownRoles.put(existing, Boolean.TRUE);
+                missing.remove(existing);
             }
-            throw new IllegalStateException(roleError);
         }
+        return missing;
     }
 
     /**
@@ -271,6 +342,8 @@ class LdapAccountsManager extends AbstractAccountsManager {
      */
     @VisibleForTesting
     void ensureRoleExists(String role) throws DataServiceException {
+        Lock roleLock = sharedEntryLock("role", role);
+        roleLock.lock();
         try {
             roleDao.findByCommonName(role);
         } catch (NameNotFoundException notFound) {
@@ -279,6 +352,8 @@ class LdapAccountsManager extends AbstractAccountsManager {
             } catch (DuplicatedCommonNameException e) {
                 throw new IllegalStateException(e);
             }
+        } finally {
+            roleLock.unlock();
         }
     }
 
@@ -335,8 +410,14 @@ class LdapAccountsManager extends AbstractAccountsManager {
     protected void unlinkUserOrg(@NonNull GeorchestraUser user) {
         if (user.getOrganization() != null) {
             Account newAccount = mapToAccountBrief(user);
-            orgsDao.unlinkUser(newAccount);
-            verifySingleOrgMembership(newAccount, null);
+            Lock orgLock = orgLock(resolveOrgCommonName(newAccount));
+            orgLock.lock();
+            try {
+                orgsDao.unlinkUser(newAccount);
+                verifySingleOrgMembership(newAccount, null);
+            } finally {
+                orgLock.unlock();
+            }
         }
     }
 
@@ -346,51 +427,139 @@ class LdapAccountsManager extends AbstractAccountsManager {
     @Override
     protected void ensureOrgExists(@NonNull GeorchestraUser mappedUser) {
         Account newAccount = mapToAccountBrief(mappedUser);
-        ensureOrgExists(newAccount);
+        ensureOrgExists(newAccount, new Compensations());
     }
 
     /**
      * Retrieve LDAP organization from org value
      * 
+     * @param newAccount    the account to add to the organization
+     * @param compensations where to register unlinking the account from the
+     *                      organization, as soon as it's been added to it
      * @throws IllegalStateException if the org can't be created/updated
      */
-    private void ensureOrgExists(@NonNull Account newAccount) {
+    private Optional<Org> ensureOrgExists(@NonNull Account newAccount, @NonNull Compensations compensations) {
         final String orgId = newAccount.getOrg();
         String orgUniqueId = Optional.ofNullable(newAccount.getOAuth2OrgId()).orElse("");
 
         // search by orgUniqueId or CN
-        if (!StringUtils.isEmpty(orgId)) {
-            Optional<Org> existingOrg = StringUtils.isNotEmpty(orgUniqueId) ? findOrgById(orgId, orgUniqueId)
-                    : findOrg(orgId);
+        if (StringUtils.isEmpty(orgId)) {
+            return Optional.empty();
+        }
+        final String cn = resolveOrgCommonName(newAccount);
+        // the org members list is read, updated, and written back
+        Lock orgLock = orgLock(cn);
+        orgLock.lock();
+        try {
+            Optional<Org> existingOrg = findOrg(cn);
 
-            existingOrg.ifPresentOrElse(org -> addAccountToOrg(newAccount, org),
-                    () -> createOrgAndAddAccount(newAccount, orgId, orgUniqueId));
+            return Optional.of(existingOrg.map(org -> addAccountToOrg(newAccount, org, compensations))
+                    .orElseGet(() -> createOrgAndAddAccount(newAccount, cn, orgUniqueId, compensations)));
+        } finally {
+            orgLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the lock guarding the members list of an organization, keyed by its
+     * common name, so that an organization looked up by unique id or by common name
+     * is guarded by the same lock
+     */
+    private Lock orgLock(String cn) {
+        return sharedEntryLock("org", cn);
+    }
+
+    /**
+     * Resolves the common name of the account's organization, and sets it as the
+     * account's org, so that unlinking the account targets and locks the same org
+     * entry it was added to, even if that was found by unique id
+     *
+     * @return the organization common name
+     */
+    private String resolveOrgCommonName(Account account) {
+        String uniqueId = Optional.ofNullable(account.getOAuth2OrgId()).orElse("");
+        String cn = findOrgCommonName(account.getOrg(), uniqueId);
+        account.setOrg(cn);
+        return cn;
+    }
+
+    /**
+     * Removes the account from its organization's members, the account's org
+     * having been resolved to its common name beforehand
+     */
+    private void unlinkAccount(Account account) {
+        Lock orgLock = orgLock(account.getOrg());
+        orgLock.lock();
+        try {
+            orgsDao.unlinkUser(account);
+        } finally {
+            orgLock.unlock();
         }
     }
 
     /**
      * Creates an organization and assigns the user to it.
      *
-     * @param newAccount the user account to add to the new organization
-     * @param orgId      the identifier of the organization
+     * @param newAccount    the user account to add to the new organization
+     * @param orgId         the identifier of the organization
+     * @param compensations where to register unlinking the account from the
+     *                      organization
      */
-    private void createOrgAndAddAccount(Account newAccount, final String orgId, final String orgUniqueId) {
+    private Org createOrgAndAddAccount(Account newAccount, final String orgId, final String orgUniqueId,
+            Compensations compensations) {
         try {
             log.info("Org {} does not exist, trying to create it", orgId);
             Org org = newOrg(orgId, orgUniqueId);
             org.getMembers().add(newAccount.getUid());
             orgsDao.insert(org);
+            // registered first, so it runs after the account is unlinked
+            compensations.add("delete org " + orgId + " if it has no members", () -> deleteIfEmpty(orgId));
+            registerUnlink(newAccount, compensations);
             verifySingleOrgMembership(newAccount, org.getId());
+            return org;
         } catch (Exception orgError) {
             throw new IllegalStateException(orgError);
         }
     }
 
-    private void addAccountToOrg(Account newAccount, Org org) {
+    private Org addAccountToOrg(Account newAccount, Org org, Compensations compensations) {
         // org already in the LDAP, add the newly created account to it
         org.getMembers().add(newAccount.getUid());
         orgsDao.update(org);
+        registerUnlink(newAccount, compensations);
         verifySingleOrgMembership(newAccount, org.getId());
+        return org;
+    }
+
+    /**
+     * Deletes an organization created while provisioning an account that failed,
+     * unless other users joined it in the meantime
+     */
+    private void deleteIfEmpty(String cn) {
+        Lock orgLock = orgLock(cn);
+        orgLock.lock();
+        try {
+            Optional<Org> org = findOrg(cn);
+            if (org.isPresent()) {
+                List<String> members = org.get().getMembers();
+                if (members == null || members.isEmpty()) {
+                    orgsDao.delete(org.get());
+                } else {
+                    log.info("Keeping org {} created for a failed account creation, it has members {}", cn, members);
+                }
+            }
+        } finally {
+            orgLock.unlock();
+        }
+    }
+
+    /**
+     * Registers unlinking the account from its organization, right after adding it
+     * as a member, so it's undone even if the membership verification fails
+     */
+    private void registerUnlink(Account account, Compensations compensations) {
+        compensations.add("unlink account " + account.getUid() + " from org " + account.getOrg(),
+                () -> unlinkAccount(account));
     }
 
     @VisibleForTesting
@@ -436,13 +605,25 @@ class LdapAccountsManager extends AbstractAccountsManager {
     }
 
     protected Optional<Org> findOrgById(String orgId, String orgUniqueId) {
-        orgUniqueId = (orgUniqueId == null || orgUniqueId.isEmpty()) ? null : orgUniqueId;
+        return findOrg(findOrgCommonName(orgId, orgUniqueId));
+    }
+
+    /**
+     * Resolves the common name of an organization, looking it up by unique id if
+     * given, and falling back to {@code orgId} if there's none or it's not found.
+     *
+     * @param orgId       the organization common name to fall back to
+     * @param orgUniqueId the organization unique id, may be null or empty
+     * @return the organization common name
+     */
+    private String findOrgCommonName(String orgId, String orgUniqueId) {
+        if (StringUtils.isEmpty(orgUniqueId)) {
+            return orgId;
+        }
         try {
-            String cn = Optional.ofNullable(orgUniqueId)
-                    .flatMap(id -> Optional.ofNullable(orgsDao.findByOrgUniqueId(id))).map(Org::getId).orElse(orgId);
-            return findOrg(cn);
+            return Optional.ofNullable(orgsDao.findByOrgUniqueId(orgUniqueId)).map(Org::getId).orElse(orgId);
         } catch (NameNotFoundException e) {
-            return Optional.empty();
+            return orgId;
         }
     }
 
@@ -461,19 +642,6 @@ class LdapAccountsManager extends AbstractAccountsManager {
         }
     }
 
-    /**
-     * Rolls back user creation if an error occurs.
-     *
-     * @param newAccount the user account to remove from LDAP
-     */
-    private void rollbackAccount(Account newAccount) {
-        try {// roll-back account
-            accountDao.delete(newAccount);
-        } catch (NameNotFoundException | DataServiceException rollbackError) {
-            log.warn("Error reverting user creation after orgsDao update failure", rollbackError);
-        }
-    }
-
     /**
      * Factory method to create a new org with the given id. Will set orgUniqueId if
      * not null.
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.accounts.admin.ldap;
+
+import static org.springframework.ldap.query.LdapQueryBuilder.query;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.georchestra.ds.DataServiceException;
+import org.georchestra.ds.roles.RoleDao;
+import org.springframework.ldap.NameNotFoundException;
+import org.springframework.ldap.core.AttributesMapper;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.query.ContainerCriteria;
+
+import lombok.NonNull;
+
+/**
+ * Looks up which of a set of role names exist in LDAP.
+ */
+@FunctionalInterface
+interface LdapRoleNames {
+
+    /**
+     * @param roleNames the role common names to look up
+     * @return the given role names that exist
+     */
+    Set<String> findExisting(Collection<String> roleNames) throws DataServiceException;
+
+    /**
+     * Searches for all the role names at once under the roles base, with a single
+     * {@code (|(cn=role1)(cn=role2)...)} filter, only returning their common name,
+     * and not their member lists.
+     *
+     * @param ldapTemplate the template to search with
+     * @param rolesRdn     the roles search base, relative to the base DN
+     */
+    static LdapRoleNames search(@NonNull LdapTemplate ldapTemplate, @NonNull String rolesRdn) {
+        final AttributesMapper<String> cnMapper = attributes -> (String) attributes.get("cn").get();
+        return roleNames -> {
+            Set<String> existing = new LinkedHashSet<>();
+            if (roleNames.isEmpty()) {
+                return existing;
+            }
+            Iterator<String> names = roleNames.iterator();
+            ContainerCriteria rolesQuery = query().base(rolesRdn).attributes("cn").where("cn").is(names.next());
+            while (names.hasNext()) {
+                rolesQuery = rolesQuery.or("cn").is(names.next());
+            }
+            // LDAP matches common names ignoring case, return them as requested
+            Set<String> found = new LinkedHashSet<>();
+            ldapTemplate.search(rolesQuery, cnMapper).forEach(cn -> found.add(cn.toLowerCase()));
+            roleNames.stream().filter(name -> found.contains(name.toLowerCase())).forEach(existing::add);
+            return existing;
+        };
+    }
+
+    /**
+     * Looks up the role names one at a time through {@link RoleDao#findByCommonName}
+     *
+     * @param roleDao the role DAO to look up the roles with
+     */
+    static LdapRoleNames lookup(@NonNull RoleDao roleDao) {
+        return roleNames -> {
+            Set<String> existing = new LinkedHashSet<>();
+            for (String roleName : roleNames) {
+                try {
+                    roleDao.findByCommonName(roleName);
+                    existing.add(roleName);
+                } catch (NameNotFoundException notFound) {
+                    // missing
+                }
+            }
+            return existing;
+        };
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.accounts.events.rabbitmq;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.georchestra.gateway.accounts.events.rabbitmq.RabbitmqEventsOutbox.Entry;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only file journal of the {@link RabbitmqEventsOutbox} messages.
+ * <p>
+ * Each queued message is appended as a {@code P <sequence> <message>} line, and
+ * each published batch as an {@code A <sequence>} line acknowledging all the
+ * messages up to the batch's last sequence number. Messages are single-line
+ * JSON documents.
+ * </p>
+ * <p>
+ * The journal is truncated whenever the outbox is empty, and compacted to the
+ * pending messages on {@link #recover() recovery}. Lines are flushed but not
+ * synced to disk, so messages survive a process crash, but not necessarily an
+ * operating system one. A last line left partially written by a crash, and any
+ * malformed line, are discarded on recovery.
+ * </p>
+ */
+@Slf4j(topic = "org.georchestra.gateway.accounts.events.rabbitmq")
+class OutboxJournal implements Closeable {
+
+    private final Path file;
+
+    private BufferedWriter writer;
+
+    OutboxJournal(@NonNull Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the messages not yet acknowledged, and compacts the journal to them.
+     *
+     * @return the pending messages, in sequence order
+     */
+    public synchronized List<Entry> recover() throws IOException {
+        List<Entry> pending = new ArrayList<>();
+        if (Files.exists(file)) {
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            List<String> lines = content.lines().toList();
+            if (!content.isEmpty() && !content.endsWith("\n")) {
+                // the last record was not completely written before a crash
+                log.warn("Discarding partially written RabbitMQ outbox journal entry {}", lines.getLast());
+                lines = lines.subList(0, lines.size() - 1);
+            }
+            long acknowledged = -1;
+            for (String line : lines) {
+                try {
+                    if (line.startsWith("P ")) {
+                        int separator = line.indexOf(' ', 2);
+                        if (separator == -1) {
+                            throw new IllegalArgumentException("missing message");
+                        }
+                        long sequence = Long.parseLong(line.substring(2, separator));
+                        pending.add(new Entry(sequence, line.substring(separator + 1)));
+                    } else if (line.startsWith("A ")) {
+                        acknowledged = Math.max(acknowledged, Long.parseLong(line.substring(2)));
+                    } else if (!line.isEmpty()) {
+                        throw new IllegalArgumentException("unknown record type");
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping malformed RabbitMQ outbox journal entry {}: {}", line, e.getMessage());
+                }
+            }
+            final long lastAcknowledged = acknowledged;
+            pending.removeIf(entry -> entry.sequence() <= lastAcknowledged);
+        } else if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Entry entry : pending) {
+                write(out, entry);
+            }
+        }
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writer = open(StandardOpenOption.APPEND);
+        return pending;
+    }
+
+    public synchronized void append(@NonNull Entry entry) throws IOException {
+        write(writer, entry);
+        writer.flush();
+    }
+
+    public synchronized void acknowledge(long sequence) throws IOException {
+        writer.write("A " + sequence);
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Discards all the journal entries, to be called when there are no pending
+     * messages
+     */
+    public synchronized void truncate() throws IOException {
+        writer.close();
+        writer = open(StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private BufferedWriter open(StandardOpenOption mode) throws IOException {
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, mode);
+    }
+
+    private static void write(BufferedWriter out, Entry entry) throws IOException {
+        out.write("P " + entry.sequence() + " " + entry.message());
+        out.newLine();
+    }
+}
@@ -23,7 +23,6 @@ import java.util.UUID;
 import org.georchestra.gateway.accounts.admin.AccountCreated;
 import org.georchestra.security.model.GeorchestraUser;
 import org.json.JSONObject;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.context.event.EventListener;
 
 /**
@@ -33,27 +32,32 @@ import org.springframework.context.event.EventListener;
  * <p>
  * This class is responsible for notifying other services when a new user
  * account is created via OAuth2 authentication. It transforms the event data
- * into a JSON message and sends it to the configured RabbitMQ routing key.
+ * into a JSON message and queues it to the {@link RabbitmqEventsOutbox}, which
+ * sends it to the {@link #ROUTING_KEY} routing key asynchronously, so that
+ * account creations don't wait for the broker.
  * </p>
  *
  * @see AccountCreated
- * @see AmqpTemplate
+ * @see RabbitmqEventsOutbox
  */
 public class RabbitmqAccountCreatedEventSender {
 
     /** The RabbitMQ queue name for OAuth2 account creation events. */
     public static final String OAUTH2_ACCOUNT_CREATION = "OAUTH2-ACCOUNT-CREATION";
 
-    /** The AMQP template for sending messages to the RabbitMQ exchange. */
-    private final AmqpTemplate eventTemplate;
+    /** The routing key messages are sent with. */
+    public static final String ROUTING_KEY = "routing-gateway";
+
+    /** The outbox messages are queued to before being sent to RabbitMQ. */
+    private final RabbitmqEventsOutbox outbox;
 
     /**
      * Constructs a new {@code RabbitmqAccountCreatedEventSender}.
      *
-     * @param eventTemplate the AMQP template used for sending messages
+     * @param outbox the outbox to queue messages to
      */
-    public RabbitmqAccountCreatedEventSender(AmqpTemplate eventTemplate) {
-        this.eventTemplate = eventTemplate;
+    public RabbitmqAccountCreatedEventSender(RabbitmqEventsOutbox outbox) {
+        this.outbox = outbox;
     }
 
     /**
@@ -82,8 +86,9 @@ public class RabbitmqAccountCreatedEventSender {
      * Sends a message to RabbitMQ indicating that a new OAuth2 user account has
      * been created.
      * <p>
-     * This method constructs a JSON object containing user details and publishes it
-     * to the RabbitMQ exchange with the routing key {@code routing-gateway}.
+     * This method constructs a JSON object containing user details and queues it to
+     * be published to the RabbitMQ exchange with the routing key
+     * {@code routing-gateway}.
      * </p>
      *
      * <p>
@@ -122,7 +127,7 @@ public class RabbitmqAccountCreatedEventSender {
         jsonObj.put("providerName", providerName);
         jsonObj.put("providerUid", providerUid);
 
-        // Publish the message to the RabbitMQ queue
-        eventTemplate.convertAndSend("routing-gateway", jsonObj.toString());
+        // Queue the message to be published to the RabbitMQ queue
+        outbox.offer(jsonObj.toString());
     }
 }
@@ -19,8 +19,13 @@
 package org.georchestra.gateway.accounts.events.rabbitmq;
 
 import org.georchestra.gateway.accounts.admin.AccountCreated;
+import org.georchestra.gateway.accounts.events.rabbitmq.RabbitmqEventsConfigurationProperties.Listener;
+import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory.ConfirmType;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.amqp.RabbitHealthIndicator;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -28,6 +33,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ImportResource;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
 /**
  * Configures RabbitMQ event handling for geOrchestra account creation events.
  * <p>
@@ -43,7 +51,8 @@ import org.springframework.context.annotation.ImportResource;
  * <p>
  * This configuration also imports RabbitMQ-related XML context files:
  * <ul>
- * <li>{@code rabbit-listener-context.xml} - Configures message listeners</li>
+ * <li>{@code rabbit-listener-context.xml} - Declares the queue and exchange
+ * messages are received from</li>
  * <li>{@code rabbit-sender-context.xml} - Configures message senders</li>
  * </ul>
  * </p>
@@ -59,13 +68,71 @@ public class RabbitmqEventsConfiguration {
     /**
      * Defines the RabbitMQ event sender for publishing account creation events.
      *
+     * @param eventsOutbox the outbox messages are queued to
+     * @return an instance of {@link RabbitmqAccountCreatedEventSender}
+     */
+    @Bean
+    RabbitmqAccountCreatedEventSender eventsSender(RabbitmqEventsOutbox eventsOutbox) {
+        return new RabbitmqAccountCreatedEventSender(eventsOutbox);
+    }
+
+    /**
+     * Defines the outbox account creation events are queued to, and published from
+     * asynchronously.
+     *
      * @param eventTemplate the RabbitMQ {@link RabbitTemplate} used for message
      *                      publishing
-     * @return an instance of {@link RabbitmqAccountCreatedEventSender}
+     * @param config        the RabbitMQ configuration properties
+     * @param meterRegistry the registry to publish the queue depth and publish
+     *                      latency meters to, if available
+     * @return the events outbox, started and stopped with the application context
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    RabbitmqEventsOutbox eventsOutbox(@Qualifier("eventTemplate") RabbitTemplate eventTemplate,
+            RabbitmqEventsConfigurationProperties config, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RabbitmqEventsOutbox(eventTemplate, RabbitmqAccountCreatedEventSender.ROUTING_KEY,
+                config.getOutbox(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Defines the listener of the messages sent back by the console.
+     *
+     * @param config        the RabbitMQ configuration properties
+     * @param meterRegistry the registry to publish the message counters to, if
+     *                      available
+     * @return the events listener
+     */
+    @Bean
+    RabbitmqEventsListener eventsListener(RabbitmqEventsConfigurationProperties config,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        Listener listener = config.getListener();
+        return new RabbitmqEventsListener(listener.getDedupTtl(), listener.getDedupMaximumSize(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Binds the {@link RabbitmqEventsListener} to the {@code OAuth2ReplyQueue}
+     * declared in {@code rabbit-listener-context.xml}, with the configured number
+     * of consumers and prefetch count.
+     *
+     * @param connectionFactory the RabbitMQ connection factory
+     * @param replyQueue        the queue the console sends messages to
+     * @param eventsListener    the messages listener
+     * @param config            the RabbitMQ configuration properties
+     * @return the message listener container
      */
     @Bean
-    RabbitmqAccountCreatedEventSender eventsSender(@Qualifier("eventTemplate") RabbitTemplate eventTemplate) {
-        return new RabbitmqAccountCreatedEventSender(eventTemplate);
+    SimpleMessageListenerContainer eventsListenerContainer(CachingConnectionFactory connectionFactory,
+            @Qualifier("OAuth2ReplyQueue") Queue replyQueue, RabbitmqEventsListener eventsListener,
+            RabbitmqEventsConfigurationProperties config) {
+        Listener listener = config.getListener();
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueues(replyQueue);
+        container.setMessageListener(eventsListener);
+        container.setConcurrentConsumers(listener.getConcurrency());
+        container.setMaxConcurrentConsumers(Math.max(listener.getConcurrency(), listener.getMaxConcurrency()));
+        container.setPrefetchCount(listener.getPrefetch());
+        return container;
     }
 
     /**
@@ -73,7 +140,8 @@ public class RabbitmqEventsConfiguration {
      * <p>
      * This method initializes a {@link CachingConnectionFactory} using the RabbitMQ
      * connection properties defined in
-     * {@link RabbitmqEventsConfigurationProperties}.
+     * {@link RabbitmqEventsConfigurationProperties}, with simple publisher confirms
+     * if enabled for the {@link RabbitmqEventsOutbox}.
      * </p>
      *
      * @param config the RabbitMQ configuration properties
@@ -87,7 +155,11 @@ public class RabbitmqEventsConfiguration {
         fac.setUsername(config.getUser());
         fac.setPassword(config.getPassword());
 
-        return new CachingConnectionFactory(fac);
+        CachingConnectionFactory connectionFactory = new CachingConnectionFactory(fac);
+        if (config.getOutbox().isPublisherConfirms()) {
+            connectionFactory.setPublisherConfirmType(ConfirmType.SIMPLE);
+        }
+        return connectionFactory;
     }
 
     /**
@@ -18,11 +18,18 @@
  */
 package org.georchestra.gateway.accounts.events.rabbitmq;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import lombok.Generated;
+import lombok.experimental.Accessors;
 
 /**
  * Configuration properties for RabbitMQ event dispatching related to account
@@ -53,6 +60,10 @@ import lombok.Generated;
  *           port: 5672
  *           user: myRabbitUser
  *           password: mySecretPassword
+ *           outbox:
+ *             capacity: 10000
+ *             batch-size: 100
+ *             journal: /var/lib/georchestra/gateway/rabbitmq-outbox.journal
  * </pre>
  *
  * @see org.springframework.boot.context.properties.ConfigurationProperties
@@ -100,4 +111,109 @@ public class RabbitmqEventsConfigurationProperties {
      * The password used for authentication with the RabbitMQ server.
      */
     private String password;
+
+    /**
+     * Asynchronous publishing of the events, so that account creations don't wait
+     * for the RabbitMQ broker.
+     */
+    @Valid
+    private Outbox outbox = new Outbox();
+
+    /**
+     * Consumption of the messages sent back by the console.
+     */
+    @Valid
+    private Listener listener = new Listener();
+
+    /**
+     * Configuration of the {@link RabbitmqEventsOutbox}.
+     */
+    @Generated
+    public static @Data @Accessors(chain = true) class Outbox {
+
+        /**
+         * Maximum number of messages waiting to be published. Further messages are
+         * dropped until the queue drains.
+         */
+        @Positive
+        private int capacity = 10_000;
+
+        /**
+         * Maximum number of messages published at once, before waiting for the broker's
+         * confirmation.
+         */
+        @Positive
+        private int batchSize = 100;
+
+        /**
+         * Whether to wait for the broker's publisher confirms before considering a
+         * batch as published.
+         */
+        private boolean publisherConfirms = true;
+
+        /**
+         * How long to wait for the broker to confirm a batch before retrying it.
+         */
+        @NotNull
+        private Duration confirmTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Time to wait before retrying a failed batch, doubled on each consecutive
+         * failure up to {@link #maxBackoff}.
+         */
+        @NotNull
+        private Duration initialBackoff = Duration.ofMillis(100);
+
+        /**
+         * Maximum time to wait before retrying a failed batch.
+         */
+        @NotNull
+        private Duration maxBackoff = Duration.ofSeconds(30);
+
+        /**
+         * Optional local file to append queued messages to, so that messages not yet
+         * published when the gateway stops are published after restart.
+         */
+        private Path journal;
+    }
+
+    /**
+     * Configuration of the {@link RabbitmqEventsListener} and its message listener
+     * container.
+     */
+    @Generated
+    public static @Data @Accessors(chain = true) class Listener {
+
+        /**
+         * Number of concurrent consumers to start.
+         */
+        @Positive
+        private int concurrency = 1;
+
+        /**
+         * Maximum number of concurrent consumers, started on demand. Values lower than
+         * {@link #concurrency} mean a fixed number of consumers.
+         */
+        @Positive
+        private int maxConcurrency = 1;
+
+        /**
+         * Number of unacknowledged messages the broker sends to each consumer.
+         */
+        @Positive
+        private int prefetch = 250;
+
+        /**
+         * How long the UID of a processed message is remembered to ignore duplicate
+         * deliveries.
+         */
+        @NotNull
+        private Duration dedupTtl = Duration.ofHours(1);
+
+        /**
+         * Maximum number of remembered message UIDs.
+         */
+        @Positive
+        private long dedupMaximumSize = 100_000;
+    }
 }
@@ -18,8 +18,9 @@
  */
 package org.georchestra.gateway.accounts.events.rabbitmq;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
 import org.json.JSONObject;
@@ -27,7 +28,13 @@ import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageListener;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -35,13 +42,20 @@ import lombok.extern.slf4j.Slf4j;
  * <p>
  * This listener processes incoming messages related to OAuth2 account creation
  * events. It ensures that duplicate messages are not logged more than once by
- * maintaining a synchronized set of processed message UIDs.
+ * keeping track of the processed message UIDs for a limited time, in a
+ * concurrent, time and size bounded cache.
  * </p>
  *
  * <p>
  * If an error occurs while processing a message, it is logged and silently
  * discarded.
  * </p>
+ * <p>
+ * The {@code georchestra.events.rabbitmq.listener.processed},
+ * {@code georchestra.events.rabbitmq.listener.duplicates}, and
+ * {@code georchestra.events.rabbitmq.listener.failures} counters are registered
+ * to count the processed, duplicate, and failed messages respectively.
+ * </p>
  */
 @Slf4j
 public class RabbitmqEventsListener implements MessageListener {
@@ -53,10 +67,37 @@ public class RabbitmqEventsListener implements MessageListener {
     public static final String OAUTH2_ACCOUNT_CREATION_RECEIVED = "OAUTH2-ACCOUNT-CREATION-RECEIVED";
 
     /**
-     * A synchronized set to track processed message UIDs and prevent duplicate
-     * processing.
+     * The UIDs of the recently processed messages, to prevent duplicate processing.
+     */
+    private final Cache<String, Boolean> receivedMessageUids;
+
+    private final Counter processedCounter;
+    private final Counter duplicatesCounter;
+    private final Counter failuresCounter;
+
+    /**
+     * @param dedupTtl         how long the UID of a processed message is kept to
+     *                         detect duplicates
+     * @param dedupMaximumSize maximum number of kept message UIDs
+     * @param registry         the registry to register the meters with
      */
-    private static final Set<String> synReceivedMessageUid = Collections.synchronizedSet(new HashSet<>());
+    public RabbitmqEventsListener(@NonNull Duration dedupTtl, long dedupMaximumSize, @NonNull MeterRegistry registry) {
+        this(dedupTtl, dedupMaximumSize, registry, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    RabbitmqEventsListener(@NonNull Duration dedupTtl, long dedupMaximumSize, @NonNull MeterRegistry registry,
+            @NonNull Ticker ticker) {
+        this.receivedMessageUids = CacheBuilder.newBuilder().expireAfterWrite(dedupTtl).maximumSize(dedupMaximumSize)
+                .ticker(ticker).build();
+        final String prefix = "georchestra.events.rabbitmq.listener";
+        this.processedCounter = Counter.builder(prefix + ".processed").description("RabbitMQ event messages processed")
+                .register(registry);
+        this.duplicatesCounter = Counter.builder(prefix + ".duplicates")
+                .description("Duplicate RabbitMQ event messages ignored").register(registry);
+        this.failuresCounter = Counter.builder(prefix + ".failures")
+                .description("RabbitMQ event messages discarded due to an error").register(registry);
+    }
 
     /**
      * Processes an incoming RabbitMQ message.
@@ -71,28 +112,34 @@ public class RabbitmqEventsListener implements MessageListener {
     @Override
     public void onMessage(Message message) {
         try {
-            String messageBody = new String(message.getBody());
+            String messageBody = new String(message.getBody(), StandardCharsets.UTF_8);
             JSONObject jsonObj = new JSONObject(messageBody);
             String uid = jsonObj.getString("uid");
             String subject = jsonObj.getString("subject");
 
-            if (subject.equals(OAUTH2_ACCOUNT_CREATION_RECEIVED) && !synReceivedMessageUid.contains(uid)) {
+            if (subject.equals(OAUTH2_ACCOUNT_CREATION_RECEIVED)) {
                 String msg = jsonObj.getString("msg");
-                synReceivedMessageUid.add(uid);
-                log.info(msg);
+                if (receivedMessageUids.asMap().putIfAbsent(uid, Boolean.TRUE) == null) {
+                    processedCounter.increment();
+                    log.info(msg);
+                } else {
+                    duplicatesCounter.increment();
+                    log.debug("Ignoring duplicate message {}", uid);
+                }
             }
         } catch (Exception e) {
+            failuresCounter.increment();
             log.error("Exception caught when evaluating a message from RabbitMQ. It will be silently discarded.", e);
         }
     }
 
     /**
-     * Returns the set of received message UIDs for testing purposes.
+     * Returns the UIDs of the recently received messages for testing purposes.
      *
      * @return an unmodifiable view of the received message UIDs
      */
     @VisibleForTesting
-    public static Set<String> getSynReceivedMessageUid() {
-        return Collections.unmodifiableSet(synReceivedMessageUid);
+    public Set<String> getReceivedMessageUids() {
+        return Collections.unmodifiableSet(receivedMessageUids.asMap().keySet());
     }
 }
@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.accounts.events.rabbitmq;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.georchestra.gateway.accounts.events.rabbitmq.RabbitmqEventsConfigurationProperties.Outbox;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous outbox of RabbitMQ event messages.
+ * <p>
+ * {@link #offer(String)} adds messages to a bounded in-memory queue and returns
+ * immediately, so that publishing events doesn't block the calling thread on
+ * the broker. A background thread drains the queue in batches of up to
+ * {@link Outbox#getBatchSize() batchSize} messages, publishes each batch on a
+ * dedicated channel and waits for the broker's publisher confirms. Failed
+ * batches are retried with exponential backoff until published.
+ * </p>
+ * <p>
+ * When the queue is full, further messages are dropped, and the number of
+ * dropped messages is logged at most once per minute, without their contents,
+ * since they hold personal data. If a
+ * {@link Outbox#getJournal() journal} file is configured, queued messages are
+ * also appended to it, and the messages still pending when the gateway stops
+ * are published on the next start.
+ * </p>
+ * <p>
+ * The following meters are registered:
+ * <ul>
+ * <li>{@code georchestra.events.rabbitmq.outbox.queued}: number of messages
+ * waiting to be published.</li>
+ * <li>{@code georchestra.events.rabbitmq.outbox.publish}: time to publish a
+ * batch and get it confirmed.</li>
+ * <li>{@code georchestra.events.rabbitmq.outbox.latency}: time from a message
+ * being queued to its publication being confirmed.</li>
+ * <li>{@code georchestra.events.rabbitmq.outbox.published},
+ * {@code georchestra.events.rabbitmq.outbox.dropped}, and
+ * {@code georchestra.events.rabbitmq.outbox.failures}: number of published and
+ * dropped messages, and of failed batch publications.</li>
+ * </ul>
+ * </p>
+ */
+@Slf4j(topic = "org.georchestra.gateway.accounts.events.rabbitmq")
+public class RabbitmqEventsOutbox {
+
+    /**
+     * A queued message and its sequence number
+     */
+    static record Entry(long sequence, String message, long queuedNanos) {
+
+        Entry(long sequence, String message) {
+            this(sequence, message, System.nanoTime());
+        }
+    }
+
+    private final @NonNull RabbitOperations template;
+    private final @NonNull String routingKey;
+    private final @NonNull Outbox config;
+
+    private final BlockingQueue<Entry> queue;
+
+    private final OutboxJournal journal;
+
+    /**
+     * Guards the assignment of sequence numbers, and the journal updates, so that
+     * queue and journal orders match
+     */
+    private final Lock offerLock = new ReentrantLock();
+
+    private long sequence;
+
+    private final Timer publishTimer;
+    private final Timer latencyTimer;
+    private final Counter publishedCounter;
+    private final Counter droppedCounter;
+    private final Counter failuresCounter;
+
+    /**
+     * Minimum time between two warnings about dropped messages
+     */
+    private static final long DROP_REPORT_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Number of dropped messages, and when and at which count they were last
+     * reported
+     */
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong reportedDropped = new AtomicLong();
+    private final AtomicLong lastDropReport = new AtomicLong(System.nanoTime() - DROP_REPORT_INTERVAL_NANOS);
+
+    private volatile boolean running;
+
+    private Thread publisher;
+
+    /**
+     * @param template   the template to publish messages with, to its default
+     *                   exchange
+     * @param routingKey the routing key to publish messages with
+     * @param config     the outbox configuration
+     * @param registry   the registry to register the meters with
+     */
+    public RabbitmqEventsOutbox(@NonNull RabbitOperations template, @NonNull String routingKey, @NonNull Outbox config,
+            @NonNull MeterRegistry registry) {
+        this.template = template;
+        this.routingKey = routingKey;
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.getCapacity());
+        this.journal = config.getJournal() == null ? null : new OutboxJournal(config.getJournal());
+
+        final String prefix = "georchestra.events.rabbitmq.outbox";
+        Gauge.builder(prefix + ".queued", queue, BlockingQueue::size)
+                .description("RabbitMQ event messages waiting to be published").register(registry);
+        this.publishTimer = Timer.builder(prefix + ".publish")
+                .description("Time to publish a batch of RabbitMQ event messages and get it confirmed")
+                .register(registry);
+        this.latencyTimer = Timer.builder(prefix + ".latency")
+                .description("Time from a RabbitMQ event message being queued to it being published")
+                .register(registry);
+        this.publishedCounter = Counter.builder(prefix + ".published").description("RabbitMQ event messages published")
+                .register(registry);
+        this.droppedCounter = Counter.builder(prefix + ".dropped")
+                .description("RabbitMQ event messages dropped because the outbox was full").register(registry);
+        this.failuresCounter = Counter.builder(prefix + ".failures")
+                .description("Failed publications of RabbitMQ event message batches").register(registry);
+    }
+
+    /**
+     * Recovers the messages pending in the journal, if any, and starts the
+     * background publisher.
+     */
+    public void start() throws IOException {
+        if (journal != null) {
+            List<Entry> pending = journal.recover();
+            for (Entry entry : pending) {
+                if (!queue.offer(entry)) {
+                    reportDropped(entry.message());
+                }
+                sequence = Math.max(sequence, entry.sequence());
+            }
+            if (!pending.isEmpty()) {
+                log.info("Recovered {} RabbitMQ event messages from {}", pending.size(), config.getJournal());
+            }
+        }
+        running = true;
+        publisher = new Thread(this::run, "rabbitmq-events-outbox");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    /**
+     * Stops the background publisher, waiting for the batch being published, if
+     * any, to complete.
+     */
+    public void stop() throws IOException {
+        running = false;
+        if (publisher != null) {
+            try {
+                publisher.join(config.getConfirmTimeout().plusSeconds(1).toMillis());
+                publisher.interrupt();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} RabbitMQ event messages not published, {}", queue.size(),
+                    journal == null ? "they're lost" : "they'll be published on restart");
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Queues a message to be published.
+     *
+     * @param message the message to publish
+     * @return {@code true} if the message was queued, {@code false} if it was
+     *         dropped because the outbox is full
+     */
+    public boolean offer(@NonNull String message) {
+        boolean queued;
+        offerLock.lock();
+        try {
+            Entry entry = new Entry(sequence + 1, message);
+            queued = queue.offer(entry);
+            if (queued) {
+                sequence = entry.sequence();
+                journal(entry);
+            }
+        } finally {
+            offerLock.unlock();
+        }
+        if (!queued) {
+            reportDropped(message);
+        }
+        return queued;
+    }
+
+    /**
+     * @return the number of messages waiting to be published
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(config.getBatchSize());
+        Duration backoff = config.getInitialBackoff();
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    Entry first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, config.getBatchSize() - 1);
+                }
+                publish(batch);
+                batch.clear();
+                backoff = config.getInitialBackoff();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failuresCounter.increment();
+                log.warn("Error publishing {} RabbitMQ event messages, retrying in {}", batch.size(), backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = min(backoff.multipliedBy(2), config.getMaxBackoff());
+            }
+        }
+    }
+
+    /**
+     * Publishes a batch of messages on a dedicated channel and, if enabled, waits
+     * for the broker to confirm them.
+     *
+     * @throws RuntimeException if publishing fails or the broker doesn't confirm
+     *                          the messages in time
+     */
+    @VisibleForTesting
+    void publish(List<Entry> batch) {
+        publishTimer.record(() -> template.invoke(operations -> {
+            for (Entry entry : batch) {
+                operations.convertAndSend(routingKey, entry.message());
+            }
+            if (config.isPublisherConfirms()) {
+                operations.waitForConfirmsOrDie(config.getConfirmTimeout().toMillis());
+            }
+            return null;
+        }));
+        long now = System.nanoTime();
+        batch.forEach(entry -> latencyTimer.record(now - entry.queuedNanos(), TimeUnit.NANOSECONDS));
+        publishedCounter.increment(batch.size());
+        acknowledge(batch.get(batch.size() - 1).sequence());
+    }
+
+    private void journal(Entry entry) {
+        if (journal != null) {
+            try {
+                journal.append(entry);
+            } catch (IOException e) {
+                log.error("Error appending RabbitMQ event message to {}, it won't survive a restart",
+                        config.getJournal(), e);
+            }
+        }
+    }
+
+    private void acknowledge(long lastSequence) {
+        if (journal != null) {
+            offerLock.lock();
+            try {
+                if (queue.isEmpty()) {
+                    journal.truncate();
+                } else {
+                    journal.acknowledge(lastSequence);
+                }
+            } catch (IOException e) {
+                log.error("Error updating {}, published messages may be published again on restart",
+                        config.getJournal(), e);
+            } finally {
+                offerLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Counts a dropped message, and logs the number of messages dropped since the
+     * last report if it was long enough ago. Only the message uid is logged, the
+     * message body holds the user's personal data.
+     */
+    private void reportDropped(String message) {
+        droppedCounter.increment();
+        long total = dropped.incrementAndGet();
+        long now = System.nanoTime();
+        long last = lastDropReport.get();
+        if (now - last >= DROP_REPORT_INTERVAL_NANOS && lastDropReport.compareAndSet(last, now)) {
+            long count = total - reportedDropped.getAndSet(total);
+            log.warn("RabbitMQ events outbox full ({} messages), dropped {} messages, last one with uid {}",
+                    config.getCapacity(), count, messageUid(message));
+        }
+    }
+
+    private static String messageUid(String message) {
+        try {
+            return new JSONObject(message).optString("uid", null);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    private static Duration min(Duration d1, Duration d2) {
+        return d1.compareTo(d2) <= 0 ? d1 : d2;
+    }
+}
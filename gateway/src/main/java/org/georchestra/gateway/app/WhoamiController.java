@@ -25,6 +25,7 @@ import java.util.Optional;
 import org.georchestra.gateway.security.GeorchestraUserMapper;
 import org.georchestra.gateway.security.exceptions.DuplicatedEmailFoundException;
 import org.georchestra.security.model.GeorchestraUser;
+import org.springframework.beans.BeanUtils;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -96,25 +97,31 @@ public class WhoamiController {
     @GetMapping(path = "/whoami", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
     public Mono<Map<String, Object>> whoami(Authentication principal, ServerWebExchange exchange) {
-        GeorchestraUser user;
-        try {
-            user = Optional.ofNullable(principal).flatMap(userMapper::resolve).orElse(null);
-        } catch (DuplicatedEmailFoundException e) {
-            user = null;
-        }
+        Mono<GeorchestraUser> user = principal == null ? Mono.empty()
+                : userMapper.resolveAsync(principal, exchange).onErrorResume(DuplicatedEmailFoundException.class,
+                        e -> Mono.empty());
 
-        Map<String, Object> ret = new LinkedHashMap<>();
-        if (user != null) {
-            // notes is an internal field and should not be provided by the /whoami endpoint
-            // (see #170)
-            user.setNotes(null);
-        }
-        ret.put("GeorchestraUser", user);
-        if (principal == null) {
-            ret.put("Authentication", null);
-        } else {
-            ret.put(principal.getClass().getCanonicalName(), principal);
-        }
-        return Mono.just(ret);
+        return user.map(Optional::of).defaultIfEmpty(Optional.empty()).map(resolved -> {
+            Map<String, Object> ret = new LinkedHashMap<>();
+            ret.put("GeorchestraUser", resolved.map(this::withoutNotes).orElse(null));
+            if (principal == null) {
+                ret.put("Authentication", null);
+            } else {
+                ret.put(principal.getClass().getCanonicalName(), principal);
+            }
+            return ret;
+        });
+    }
+
+    /**
+     * notes is an internal field and should not be provided by the /whoami endpoint
+     * (see #170). Works on a copy, the resolved user may be shared with other
+     * requests through the user cache.
+     */
+    private GeorchestraUser withoutNotes(GeorchestraUser user) {
+        GeorchestraUser copy = new GeorchestraUser();
+        BeanUtils.copyProperties(user, copy);
+        copy.setNotes(null);
+        return copy;
     }
 }
@@ -20,6 +20,7 @@ package org.georchestra.gateway.autoconfigure.security;
 
 import org.georchestra.gateway.security.GatewaySecurityConfiguration;
 import org.georchestra.gateway.security.accessrules.AccessRulesConfiguration;
+import org.georchestra.gateway.security.cache.GeorchestraUserCacheConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.security.ConditionalOnDefaultWebSecurity;
 import org.springframework.context.annotation.Import;
@@ -39,6 +40,8 @@ import org.springframework.context.annotation.Import;
  * the gateway.</li>
  * <li>{@link AccessRulesConfiguration} - Manages access rules and security
  * policies.</li>
+ * <li>{@link GeorchestraUserCacheConfiguration} - Caches resolved users across
+ * requests, if enabled.</li>
  * </ul>
  * </p>
  *
@@ -48,6 +51,6 @@ import org.springframework.context.annotation.Import;
  */
 @AutoConfiguration
 @ConditionalOnDefaultWebSecurity
-@Import({ GatewaySecurityConfiguration.class, AccessRulesConfiguration.class })
+@Import({ GatewaySecurityConfiguration.class, AccessRulesConfiguration.class, GeorchestraUserCacheConfiguration.class })
 public class WebSecurityAutoConfiguration {
 }
@@ -22,6 +22,7 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.georchestra.gateway.logging.mdc.config.AuthenticationMdcConfigProperties;
+import org.georchestra.gateway.logging.mdc.webflux.MdcSnapshot;
 import org.georchestra.gateway.logging.mdc.webflux.ReactorContextHolder;
 import org.georchestra.gateway.model.*;
 import org.georchestra.gateway.security.ResolveGeorchestraUserGlobalFilter;
@@ -81,31 +82,32 @@ public class MdcUserAndOrgGlobalFilter implements GlobalFilter, Ordered {
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         log.debug("Activated GeorchestraUserMdcGlobalFilter");
         return chain.filter(exchange).contextWrite(context -> {
-            Map<String, String> mdcMap = context.getOrEmpty(ReactorContextHolder.MDC_CONTEXT_KEY)
-                    .map(map -> new HashMap<>((Map<String, String>) map)).orElseGet(HashMap::new);
+            // append to the immutable snapshot instead of copying the MDC map
+            MdcSnapshot mdc = MdcSnapshot.from(context);
             if (authConfig.isOrg()) {
                 // Add custom MDC attributes
                 Optional<Organization> opt_org = GeorchestraOrganizations.resolve(exchange);
-                opt_org.ifPresent(org -> {
-                    mdcMap.put("enduser.org.uuid", org.getId());
-                    mdcMap.put("enduser.org.id", org.getShortName());
+                if (opt_org.isPresent()) {
+                    Organization org = opt_org.get();
+                    mdc = mdc.with("enduser.org.uuid", org.getId()).with("enduser.org.id", org.getShortName());
                     if (authConfig.isExtras()) {
-                        mdcMap.put("enduser.org.fullname", org.getName());
+                        mdc = mdc.with("enduser.org.fullname", org.getName());
                     }
-                });
+                }
             }
             if (authConfig.isId()) {
                 // Add custom MDC attributes
                 Optional<GeorchestraUser> opt_user = GeorchestraUsers.resolve(exchange);
-                opt_user.ifPresent(user -> {
-                    mdcMap.put("enduser.uuid", user.getId());
+                if (opt_user.isPresent()) {
+                    GeorchestraUser user = opt_user.get();
+                    mdc = mdc.with("enduser.uuid", user.getId());
                     if (authConfig.isExtras()) {
-                        mdcMap.put("enduser.firstname", user.getFirstName());
-                        mdcMap.put("enduser.lastname", user.getLastName());
+                        mdc = mdc.with("enduser.firstname", user.getFirstName()).with("enduser.lastname",
+                                user.getLastName());
                     }
-                });
+                }
             }
-            return context.put(ReactorContextHolder.MDC_CONTEXT_KEY, mdcMap);
+            return context.put(ReactorContextHolder.MDC_CONTEXT_KEY, mdc);
         });
     }
 }
@@ -24,6 +24,8 @@ import java.net.URI;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.georchestra.gateway.model.GatewayConfigProperties;
 import org.georchestra.gateway.model.GeorchestraTargetConfig;
@@ -31,10 +33,14 @@ import org.georchestra.gateway.model.HeaderMappings;
 import org.georchestra.gateway.model.RoleBasedAccessRule;
 import org.georchestra.gateway.model.Service;
 import org.georchestra.gateway.security.ResolveGeorchestraUserGlobalFilter;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
 import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.Ordered;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -55,6 +61,14 @@ import reactor.core.publisher.Mono;
  * {@link ResolveGeorchestraUserGlobalFilter} and before request routing in
  * {@link RouteToRequestUrlFilter}.
  * </p>
+ * <p>
+ * The target configuration only depends on the route and the gateway
+ * configuration, so it is computed once per route id and reused for every
+ * request, making the per-request cost a single map lookup. The cache is
+ * discarded whenever routes are refreshed ({@link RefreshRoutesEvent}) or the
+ * configuration is reloaded ({@link EnvironmentChangeEvent},
+ * {@link RefreshScopeRefreshedEvent}).
+ * </p>
  */
 @RequiredArgsConstructor
 @Slf4j
@@ -68,6 +82,15 @@ public class ResolveTargetGlobalFilter implements GlobalFilter, Ordered {
 
     private final @NonNull GatewayConfigProperties config;
 
+    /**
+     * Resolved target configurations by route id, along with the route URI they
+     * were resolved for
+     */
+    private final ConcurrentMap<String, ResolvedTarget> targets = new ConcurrentHashMap<>();
+
+    private static record ResolvedTarget(URI uri, GeorchestraTargetConfig target) {
+    }
+
     /**
      * Ensures that this filter runs after the matched {@link Route} has been set as
      * an attribute in the {@link ServerWebExchange}.
@@ -92,12 +115,44 @@ public class ResolveTargetGlobalFilter implements GlobalFilter, Ordered {
         Route route = (Route) exchange.getAttributes().get(GATEWAY_ROUTE_ATTR);
         Objects.requireNonNull(route, "No route matched, filter should not be executed");
 
-        GeorchestraTargetConfig targetConfig = resolveTarget(route);
+        GeorchestraTargetConfig targetConfig = getTarget(route);
         log.debug("Storing geOrchestra target config for Route {} request context", route.getId());
         GeorchestraTargetConfig.setTarget(exchange, targetConfig);
         return chain.filter(exchange);
     }
 
+    /**
+     * Discards all the cached target configurations, forcing them to be resolved
+     * again against the current routes and configuration.
+     */
+    @EventListener({ RefreshRoutesEvent.class, EnvironmentChangeEvent.class, RefreshScopeRefreshedEvent.class })
+    public void clearCache() {
+        log.debug("Clearing {} cached route target configs", targets.size());
+        targets.clear();
+    }
+
+    /**
+     * Returns the cached {@link GeorchestraTargetConfig} for the route, resolving
+     * it if it's not cached yet or the route's URI changed since it was resolved.
+     *
+     * @param route the matched route
+     * @return the shared, read-only target configuration for the route
+     */
+    @VisibleForTesting
+    @NonNull
+    GeorchestraTargetConfig getTarget(@NonNull Route route) {
+        final String routeId = route.getId();
+        if (routeId == null) {
+            return resolveTarget(route);
+        }
+        ResolvedTarget resolved = targets.get(routeId);
+        if (resolved == null || !Objects.equals(resolved.uri(), route.getUri())) {
+            resolved = new ResolvedTarget(route.getUri(), resolveTarget(route));
+            targets.put(routeId, resolved);
+        }
+        return resolved.target();
+    }
+
     /**
      * Resolves the {@link GeorchestraTargetConfig} for the given route by applying
      * the service-specific or global access rules and header mappings.
@@ -112,6 +167,7 @@ public class ResolveTargetGlobalFilter implements GlobalFilter, Ordered {
         GeorchestraTargetConfig target = new GeorchestraTargetConfig();
 
         Optional<Service> service = findService(route);
+        target.service(service.orElse(null));
         setAccessRules(target, service);
         setHeaderMappings(target, service);
 
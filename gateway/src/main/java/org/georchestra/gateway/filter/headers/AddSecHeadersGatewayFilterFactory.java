@@ -18,19 +18,27 @@
  */
 package org.georchestra.gateway.filter.headers;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.georchestra.gateway.filter.global.ResolveTargetGlobalFilter;
+import org.georchestra.gateway.model.GeorchestraOrganizations;
+import org.georchestra.gateway.model.GeorchestraTargetConfig;
+import org.georchestra.gateway.model.GeorchestraUsers;
+import org.georchestra.security.model.GeorchestraUser;
+import org.georchestra.security.model.Organization;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.server.ServerWebExchange;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
 /**
@@ -43,6 +51,15 @@ import reactor.core.publisher.Mono;
  * bypassed.
  * </p>
  * <p>
+ * Contributors supporting it are compiled into a {@link HeaderPlan} out of the
+ * route's {@link GeorchestraTargetConfig#headers() header mappings} the first
+ * time the route is hit, and the plan is reused until the route's target
+ * configuration is resolved again (e.g. after a configuration refresh).
+ * Remaining contributors are called through
+ * {@link HeaderContributor#prepare(ServerWebExchange)} for each request, after
+ * the plan has been applied.
+ * </p>
+ * <p>
  * Sample usage in {@code application.yaml} to apply the filter globally:
  * </p>
  * 
@@ -106,10 +123,22 @@ public class AddSecHeadersGatewayFilterFactory
      * headers to proxied requests.
      */
     @RequiredArgsConstructor
+    @Slf4j(topic = "org.georchestra.gateway.filter.headers")
     private static class AddSecHeadersGatewayFilter implements GatewayFilter, Ordered {
 
         private final @NonNull List<HeaderContributor> providers;
 
+        /**
+         * The header plan compiled for the last target config seen by this filter.
+         * Filter instances are created per route, so this is effectively a per route
+         * cache.
+         */
+        private volatile CompiledHeaders compiled;
+
+        private static record CompiledHeaders(GeorchestraTargetConfig target, HeaderPlan plan,
+                HeaderContributor[] dynamic) {
+        }
+
         /**
          * Applies the configured security headers to the request unless the
          * {@link #DISABLE_SECURITY_HEADERS} attribute is present.
@@ -123,7 +152,13 @@ public class AddSecHeadersGatewayFilterFactory
             if (exchange.getAttribute(DISABLE_SECURITY_HEADERS) == null) {
                 ServerHttpRequest.Builder requestBuilder = exchange.getRequest().mutate();
 
-                providers.stream().map(provider -> provider.prepare(exchange)).forEach(requestBuilder::headers);
+                GeorchestraTargetConfig target = GeorchestraTargetConfig.getTarget(exchange).orElse(null);
+                if (target == null || target.headers() == null) {
+                    providers.stream().map(provider -> provider.prepare(exchange)).forEach(requestBuilder::headers);
+                } else {
+                    CompiledHeaders headers = compiled(target);
+                    requestBuilder.headers(httpHeaders -> apply(headers, exchange, httpHeaders));
+                }
 
                 ServerHttpRequest request = requestBuilder.build();
                 ServerWebExchange updatedExchange = exchange.mutate().request(request).build();
@@ -132,6 +167,38 @@ public class AddSecHeadersGatewayFilterFactory
             return chain.filter(exchange);
         }
 
+        private void apply(CompiledHeaders compiled, ServerWebExchange exchange, HttpHeaders target) {
+            GeorchestraUser user = GeorchestraUsers.resolve(exchange).orElse(null);
+            Organization org = GeorchestraOrganizations.resolve(exchange).orElse(null);
+            compiled.plan().apply(user, org, target);
+            for (HeaderContributor provider : compiled.dynamic()) {
+                provider.prepare(exchange).accept(target);
+            }
+        }
+
+        private CompiledHeaders compiled(GeorchestraTargetConfig target) {
+            CompiledHeaders current = this.compiled;
+            if (current == null || current.target() != target) {
+                current = compile(target);
+                this.compiled = current;
+            }
+            return current;
+        }
+
+        private CompiledHeaders compile(GeorchestraTargetConfig target) {
+            HeaderPlan.Builder builder = HeaderPlan.builder();
+            List<HeaderContributor> dynamic = new ArrayList<>();
+            for (HeaderContributor provider : providers) {
+                if (!provider.compile(target.headers(), builder)) {
+                    dynamic.add(provider);
+                }
+            }
+            HeaderPlan plan = builder.build();
+            log.debug("Compiled security headers plan with {} headers and {} dynamic contributors", plan.size(),
+                    dynamic.size());
+            return new CompiledHeaders(target, plan, dynamic.toArray(HeaderContributor[]::new));
+        }
+
         /**
          * Specifies the execution order of this filter to run immediately after
          * {@link ResolveTargetGlobalFilter}.
@@ -27,6 +27,7 @@ import org.georchestra.gateway.filter.headers.providers.GeorchestraOrganizationH
 import org.georchestra.gateway.filter.headers.providers.GeorchestraUserHeadersContributor;
 import org.georchestra.gateway.filter.headers.providers.JsonPayloadHeadersContributor;
 import org.georchestra.gateway.filter.headers.providers.SecProxyHeaderContributor;
+import org.georchestra.gateway.model.HeaderMappings;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.server.ServerWebExchange;
@@ -74,6 +75,35 @@ public abstract class HeaderContributor implements Ordered {
      */
     public abstract Consumer<HttpHeaders> prepare(ServerWebExchange exchange);
 
+    /**
+     * Adds the headers this contributor appends for a route to the route's
+     * {@link HeaderPlan}.
+     * <p>
+     * Contributors whose headers only depend on the route's {@link HeaderMappings}
+     * and the request's user and organization should override this method, so that
+     * the header mappings are evaluated once per route instead of once per request.
+     * The default implementation returns {@code false}, meaning
+     * {@link #prepare(ServerWebExchange)} is called for every request instead.
+     * </p>
+     *
+     * @param mappings the merged header mappings of the route
+     * @param plan     the plan builder to add the enabled headers to
+     * @return {@code true} if the contributor's headers were compiled into the
+     *         plan, {@code false} if it shall be called through
+     *         {@link #prepare(ServerWebExchange)}
+     */
+    public boolean compile(@NonNull HeaderMappings mappings, @NonNull HeaderPlan.Builder plan) {
+        return false;
+    }
+
+    /**
+     * @param flag a header mapping flag
+     * @return whether the flag is present and {@code true}
+     */
+    protected static boolean enabled(@NonNull Optional<Boolean> flag) {
+        return flag.orElse(Boolean.FALSE).booleanValue();
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -24,7 +24,9 @@ import java.util.function.BooleanSupplier;
 import org.georchestra.gateway.filter.headers.providers.GeorchestraOrganizationHeadersContributor;
 import org.georchestra.gateway.filter.headers.providers.GeorchestraUserHeadersContributor;
 import org.georchestra.gateway.filter.headers.providers.JsonPayloadHeadersContributor;
+import org.georchestra.gateway.filter.headers.providers.RequestIdHeaderContributor;
 import org.georchestra.gateway.filter.headers.providers.SecProxyHeaderContributor;
+import org.georchestra.gateway.logging.requestid.RequestIdConfigProperties;
 import org.georchestra.gateway.model.GatewayConfigProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
@@ -44,7 +46,7 @@ import org.springframework.context.annotation.Configuration;
  * @see RemoveSecurityHeadersGatewayFilterFactory
  */
 @Configuration(proxyBeanMethods = false)
-@EnableConfigurationProperties(GatewayConfigProperties.class)
+@EnableConfigurationProperties({ GatewayConfigProperties.class, RequestIdConfigProperties.class })
 public class HeaderFiltersConfiguration {
 
     /**
@@ -58,6 +60,7 @@ public class HeaderFiltersConfiguration {
      * @see #userSecurityHeadersProvider()
      * @see #organizationSecurityHeadersProvider()
      * @see #jsonPayloadHeadersContributor()
+     * @see #requestIdHeaderContributor(RequestIdConfigProperties)
      */
     @Bean
     AddSecHeadersGatewayFilterFactory addSecHeadersGatewayFilterFactory(List<HeaderContributor> providers) {
@@ -121,6 +124,18 @@ public class HeaderFiltersConfiguration {
         return new JsonPayloadHeadersContributor();
     }
 
+    /**
+     * {@link HeaderContributor} that sends the request id, shared with the MDC and
+     * access logs, to proxied services.
+     *
+     * @param config the request id configuration properties
+     * @return the configured {@link RequestIdHeaderContributor}
+     */
+    @Bean
+    RequestIdHeaderContributor requestIdHeaderContributor(RequestIdConfigProperties config) {
+        return new RequestIdHeaderContributor(config);
+    }
+
     /**
      * General-purpose {@link GatewayFilterFactory} to remove incoming HTTP request
      * headers based on a Java regular expression.
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.filter.headers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.georchestra.security.model.GeorchestraUser;
+import org.georchestra.security.model.Organization;
+import org.springframework.http.HttpHeaders;
+
+import lombok.NonNull;
+
+/**
+ * A precompiled list of headers to append to proxied requests.
+ * <p>
+ * A plan is built once per route by {@link AddSecHeadersGatewayFilterFactory},
+ * asking each {@link HeaderContributor} to
+ * {@link HeaderContributor#compile(org.georchestra.gateway.model.HeaderMappings, Builder)
+ * compile} the headers enabled by the route's merged header mappings. Applying
+ * it to a request is then a single pass over a flat array of header name and
+ * value accessor pairs, with no further checks of the header mappings.
+ * </p>
+ * <p>
+ * Value accessors receive the request's {@link GeorchestraUser} and
+ * {@link Organization}, either of which may be {@code null}. Headers whose
+ * accessor returns {@code null} are not added.
+ * </p>
+ */
+public final class HeaderPlan {
+
+    /**
+     * Computes a header value out of the request's user and organization.
+     */
+    @FunctionalInterface
+    public interface ValueAccessor {
+
+        /**
+         * @param user the authenticated user, or {@code null}
+         * @param org  the user's organization, or {@code null}
+         * @return the header value, or {@code null} if the header shall not be added
+         */
+        String get(GeorchestraUser user, Organization org);
+    }
+
+    private final String[] names;
+
+    private final ValueAccessor[] accessors;
+
+    private HeaderPlan(String[] names, ValueAccessor[] accessors) {
+        this.names = names;
+        this.accessors = accessors;
+    }
+
+    /**
+     * @return a new builder for a header plan
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the number of headers this plan may add
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Appends the headers of this plan that have a value for the given user and
+     * organization.
+     *
+     * @param user   the authenticated user, or {@code null}
+     * @param org    the user's organization, or {@code null}
+     * @param target the headers to append to
+     */
+    public void apply(GeorchestraUser user, Organization org, @NonNull HttpHeaders target) {
+        final String[] names = this.names;
+        final ValueAccessor[] accessors = this.accessors;
+        for (int i = 0; i < names.length; i++) {
+            String value = accessors[i].get(user, org);
+            if (value != null) {
+                target.add(names[i], value);
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link HeaderPlan}, preserving the order in which headers are
+     * added.
+     */
+    public static class Builder {
+
+        private final List<String> names = new ArrayList<>();
+
+        private final List<ValueAccessor> accessors = new ArrayList<>();
+
+        /**
+         * Adds a header computed out of the request's user and organization.
+         *
+         * @param header   the header name
+         * @param accessor the header value accessor
+         * @return this builder
+         */
+        public Builder add(@NonNull String header, @NonNull ValueAccessor accessor) {
+            names.add(header);
+            accessors.add(accessor);
+            return this;
+        }
+
+        /**
+         * Adds a header with a constant value.
+         *
+         * @param header the header name
+         * @param value  the header value
+         * @return this builder
+         */
+        public Builder constant(@NonNull String header, @NonNull String value) {
+            return add(header, (user, org) -> value);
+        }
+
+        /**
+         * Adds a header computed out of the request's user, only added if there's an
+         * authenticated user.
+         *
+         * @param header   the header name
+         * @param accessor the header value accessor
+         * @return this builder
+         */
+        public Builder user(@NonNull String header, @NonNull Function<GeorchestraUser, String> accessor) {
+            return add(header, (user, org) -> user == null ? null : accessor.apply(user));
+        }
+
+        /**
+         * Adds a header computed out of the user's organization, only added if there's
+         * one.
+         *
+         * @param header   the header name
+         * @param accessor the header value accessor
+         * @return this builder
+         */
+        public Builder organization(@NonNull String header, @NonNull Function<Organization, String> accessor) {
+            return add(header, (user, org) -> org == null ? null : accessor.apply(org));
+        }
+
+        /**
+         * @return the header plan
+         */
+        public HeaderPlan build() {
+            return new HeaderPlan(names.toArray(String[]::new), accessors.toArray(ValueAccessor[]::new));
+        }
+    }
+}
@@ -22,8 +22,10 @@ import java.util.Optional;
 import java.util.function.Consumer;
 
 import org.georchestra.gateway.filter.headers.HeaderContributor;
+import org.georchestra.gateway.filter.headers.HeaderPlan;
 import org.georchestra.gateway.model.GeorchestraOrganizations;
 import org.georchestra.gateway.model.GeorchestraTargetConfig;
+import org.georchestra.gateway.model.HeaderMappings;
 import org.georchestra.security.model.Organization;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.server.ServerWebExchange;
@@ -68,4 +70,23 @@ public class GeorchestraOrganizationHeadersContributor extends HeaderContributor
             });
         };
     }
+
+    /**
+     * Compiles the organization-related headers enabled by the route's header
+     * mappings, appending the same headers as {@link #prepare(ServerWebExchange)}.
+     *
+     * @param mappings the merged header mappings of the route
+     * @param plan     the plan builder to add the enabled headers to
+     * @return {@code true}
+     */
+    public @Override boolean compile(HeaderMappings mappings, HeaderPlan.Builder plan) {
+        if (enabled(mappings.getOrgname())) {
+            plan.organization("sec-orgname", Organization::getName);
+        }
+        if (enabled(mappings.getOrgid())) {
+            plan.organization("sec-orgid", Organization::getId);
+            plan.organization("sec-org-lastupdated", Organization::getLastUpdated);
+        }
+        return true;
+    }
 }
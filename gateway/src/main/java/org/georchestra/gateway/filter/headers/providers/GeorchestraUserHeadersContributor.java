@@ -38,8 +38,10 @@ import java.util.Optional;
 import java.util.function.Consumer;
 
 import org.georchestra.gateway.filter.headers.HeaderContributor;
+import org.georchestra.gateway.filter.headers.HeaderPlan;
 import org.georchestra.gateway.model.GeorchestraTargetConfig;
 import org.georchestra.gateway.model.GeorchestraUsers;
+import org.georchestra.gateway.model.HeaderMappings;
 import org.georchestra.security.model.GeorchestraUser;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.server.ServerWebExchange;
@@ -113,4 +115,62 @@ public class GeorchestraUserHeadersContributor extends HeaderContributor {
                             String.valueOf(user.isPresent() && Boolean.TRUE.equals(user.get().getIsExternalAuth())));
                 });
     }
+
+    /**
+     * Compiles the user-related headers enabled by the route's header mappings,
+     * appending the same headers as {@link #prepare(ServerWebExchange)}.
+     *
+     * @param mappings the merged header mappings of the route
+     * @param plan     the plan builder to add the enabled headers to
+     * @return {@code true}
+     */
+    public @Override boolean compile(HeaderMappings mappings, HeaderPlan.Builder plan) {
+        if (enabled(mappings.getUserid())) {
+            plan.user(SEC_USERID, GeorchestraUser::getId);
+        }
+        if (enabled(mappings.getUsername())) {
+            plan.user(SEC_USERNAME, GeorchestraUser::getUsername);
+        }
+        if (enabled(mappings.getOrg())) {
+            plan.user(SEC_ORG, GeorchestraUser::getOrganization);
+        }
+        if (enabled(mappings.getEmail())) {
+            plan.user(SEC_EMAIL, GeorchestraUser::getEmail);
+        }
+        if (enabled(mappings.getFirstname())) {
+            plan.user(SEC_FIRSTNAME, GeorchestraUser::getFirstName);
+        }
+        if (enabled(mappings.getLastname())) {
+            plan.user(SEC_LASTNAME, GeorchestraUser::getLastName);
+        }
+        if (enabled(mappings.getTel())) {
+            plan.user(SEC_TEL, GeorchestraUser::getTelephoneNumber);
+        }
+        if (enabled(mappings.getRoles())) {
+            plan.user(SEC_ROLES, GeorchestraUserHeadersContributor::roles);
+        }
+        if (enabled(mappings.getLastUpdated())) {
+            plan.user(SEC_LASTUPDATED, GeorchestraUser::getLastUpdated);
+        }
+        if (enabled(mappings.getAddress())) {
+            plan.user(SEC_ADDRESS, GeorchestraUser::getPostalAddress);
+        }
+        if (enabled(mappings.getTitle())) {
+            plan.user(SEC_TITLE, GeorchestraUser::getTitle);
+        }
+        if (enabled(mappings.getNotes())) {
+            plan.user(SEC_NOTES, GeorchestraUser::getNotes);
+        }
+
+        plan.user(SEC_LDAP_REMAINING_DAYS,
+                user -> Boolean.TRUE.equals(user.getLdapWarn()) ? user.getLdapRemainingDays() : null);
+        plan.user(SEC_EXTERNAL_AUTHENTICATION,
+                user -> Boolean.TRUE.equals(user.getIsExternalAuth()) ? "true" : "false");
+        return true;
+    }
+
+    private static String roles(GeorchestraUser user) {
+        List<String> roles = user.getRoles();
+        return roles == null || roles.isEmpty() ? null : String.join(";", roles);
+    }
 }
@@ -18,12 +18,17 @@
  */
 package org.georchestra.gateway.filter.headers.providers;
 
+import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Optional;
 import java.util.function.Consumer;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.georchestra.commons.security.SecurityHeaders;
 import org.georchestra.gateway.filter.headers.HeaderContributor;
+import org.georchestra.gateway.filter.headers.HeaderPlan;
 import org.georchestra.gateway.model.GeorchestraOrganizations;
 import org.georchestra.gateway.model.GeorchestraTargetConfig;
 import org.georchestra.gateway.model.GeorchestraUsers;
@@ -36,7 +41,11 @@ import org.springframework.web.server.ServerWebExchange;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * {@link HeaderContributor} that appends user and organization information as
@@ -56,6 +65,13 @@ import com.fasterxml.jackson.databind.SerializationFeature;
  * enabled via {@link HeaderMappings#getJsonUser()} and
  * {@link HeaderMappings#getJsonOrganization()}.
  * </p>
+ * <p>
+ * Encoded payloads are cached by the whole state of the user or organization,
+ * so the same version of a user or organization is only serialized once, and
+ * any property change, even one not reflected by its last update timestamp,
+ * produces a new payload. Payloads are serialized to UTF-8 bytes and
+ * Base64-encoded without intermediate strings.
+ * </p>
  *
  * @see GeorchestraUsers#resolve
  * @see GeorchestraOrganizations#resolve
@@ -63,21 +79,39 @@ import com.fasterxml.jackson.databind.SerializationFeature;
  */
 public class JsonPayloadHeadersContributor extends HeaderContributor {
 
+    /**
+     * Maximum number of encoded payloads to keep in cache.
+     */
+    static final long MAXIMUM_CACHE_SIZE = 10_000;
+
+    /**
+     * Time after which an encoded payload is evicted from the cache.
+     */
+    static final Duration CACHE_EXPIRY = Duration.ofMinutes(30);
+
     /**
      * JSON encoder for serializing {@link GeorchestraUser} and {@link Organization}
      * objects.
      */
-    private final ObjectMapper encoder;
+    private final ObjectWriter encoder;
+
+    /**
+     * Base64-encoded JSON payloads by copies of the {@link GeorchestraUser} or
+     * {@link Organization} they were encoded from
+     */
+    private final Cache<Object, String> payloads = CacheBuilder.newBuilder().maximumSize(MAXIMUM_CACHE_SIZE)
+            .expireAfterWrite(CACHE_EXPIRY).build();
 
     /**
      * Initializes a new {@link JsonPayloadHeadersContributor} with a configured
      * JSON encoder.
      */
     public JsonPayloadHeadersContributor() {
-        this.encoder = new ObjectMapper();
-        this.encoder.configure(SerializationFeature.INDENT_OUTPUT, false);
-        this.encoder.configure(SerializationFeature.WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED, false);
-        this.encoder.setSerializationInclusion(Include.NON_NULL);
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(SerializationFeature.INDENT_OUTPUT, false);
+        mapper.configure(SerializationFeature.WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED, false);
+        mapper.setSerializationInclusion(Include.NON_NULL);
+        this.encoder = mapper.writer();
     }
 
     /**
@@ -96,26 +130,80 @@ public class JsonPayloadHeadersContributor extends HeaderContributor {
         Optional<GeorchestraUser> user = GeorchestraUsers.resolve(exchange);
         Optional<Organization> org = GeorchestraOrganizations.resolve(exchange);
 
-        addJson(headers, "sec-user", mappings.getJsonUser().orElse(false), user);
-        addJson(headers, "sec-organization", mappings.getJsonOrganization().orElse(false), org);
+        if (enabled(mappings.getJsonUser())) {
+            user.map(this::userPayload).ifPresent(encoded -> headers.add("sec-user", encoded));
+        }
+        if (enabled(mappings.getJsonOrganization())) {
+            org.map(this::organizationPayload).ifPresent(encoded -> headers.add("sec-organization", encoded));
+        }
+    }
+
+    /**
+     * Compiles the JSON payload headers enabled by the route's header mappings,
+     * appending the same headers as {@link #prepare(ServerWebExchange)}.
+     *
+     * @param mappings the merged header mappings of the route
+     * @param plan     the plan builder to add the enabled headers to
+     * @return {@code true}
+     */
+    public @Override boolean compile(HeaderMappings mappings, HeaderPlan.Builder plan) {
+        if (enabled(mappings.getJsonUser())) {
+            plan.user("sec-user", this::userPayload);
+        }
+        if (enabled(mappings.getJsonOrganization())) {
+            plan.organization("sec-organization", this::organizationPayload);
+        }
+        return true;
+    }
+
+    /**
+     * @param user the user to encode
+     * @return the Base64-encoded JSON representation of the user, cached by the
+     *         user's state
+     */
+    @VisibleForTesting
+    String userPayload(GeorchestraUser user) {
+        return payload(user);
+    }
+
+    /**
+     * @param org the organization to encode
+     * @return the Base64-encoded JSON representation of the organization, cached by
+     *         the organization's state
+     */
+    @VisibleForTesting
+    String organizationPayload(Organization org) {
+        return payload(org);
     }
 
-    private void addJson(HttpHeaders target, String headerName, boolean enabled, Optional<?> toEncode) {
-        if (enabled) {
-            toEncode.map(this::encodeJson).map(this::encodeBase64)
-                    .ifPresent(encoded -> target.add(headerName, encoded));
+    /**
+     * Looks up the payload by the object itself, whose {@code equals()} and
+     * {@code hashCode()} cover all its serialized properties, and caches it under a
+     * copy, since the object may be modified later on.
+     */
+    private <T extends Serializable> String payload(T object) {
+        String encoded = payloads.getIfPresent(object);
+        if (encoded == null) {
+            encoded = encode(object);
+            payloads.put(SerializationUtils.clone(object), encoded);
         }
+        return encoded;
     }
 
-    private String encodeJson(Object payloadObject) {
+    /**
+     * Serializes the object straight to UTF-8 bytes and Base64-encodes them, the
+     * same as {@link SecurityHeaders#encodeBase64(String)} would do with the JSON
+     * string, without the intermediate string.
+     */
+    private String encode(Object payloadObject) {
+        return Base64.getEncoder().encodeToString(encodeJson(payloadObject));
+    }
+
+    private byte[] encodeJson(Object payloadObject) {
         try {
-            return this.encoder.writer().writeValueAsString(payloadObject);
+            return encoder.writeValueAsBytes(payloadObject);
         } catch (JsonProcessingException e) {
             throw new UncheckedIOException(e);
         }
     }
-
-    private String encodeBase64(String json) {
-        return SecurityHeaders.encodeBase64(json);
-    }
 }
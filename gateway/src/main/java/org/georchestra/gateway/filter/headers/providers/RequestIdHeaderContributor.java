@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.filter.headers.providers;
+
+import java.util.function.Consumer;
+
+import org.georchestra.gateway.filter.headers.HeaderContributor;
+import org.georchestra.gateway.logging.requestid.RequestIdConfigProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link HeaderContributor} that sends the request id to proxied services, with
+ * the header configured by {@code logging.request-id.header} (defaults to
+ * {@code X-Request-ID}), unless {@code logging.request-id.propagate=false}.
+ * <p>
+ * The request id is resolved once per request by
+ * {@link RequestIdConfigProperties#requestId(ServerWebExchange)}, so it's the
+ * same one used in the MDC ({@code http.request.id}) and access logs.
+ * </p>
+ *
+ * @see HeaderContributor
+ */
+@RequiredArgsConstructor
+public class RequestIdHeaderContributor extends HeaderContributor {
+
+    private final @NonNull RequestIdConfigProperties config;
+
+    /**
+     * Prepares a header contributor that sets the request id header, replacing the
+     * incoming one, if any.
+     *
+     * @param exchange the current {@link ServerWebExchange}
+     * @return a {@link Consumer} that modifies the request headers
+     */
+    public @Override Consumer<HttpHeaders> prepare(ServerWebExchange exchange) {
+        String header = config.propagationHeader();
+        if (header == null) {
+            return headers -> {
+            };
+        }
+        String requestId = config.requestId(exchange);
+        return headers -> headers.set(header, requestId);
+    }
+}
@@ -22,6 +22,8 @@ import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 
 import org.georchestra.gateway.filter.headers.HeaderContributor;
+import org.georchestra.gateway.filter.headers.HeaderPlan;
+import org.georchestra.gateway.model.HeaderMappings;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -61,4 +63,19 @@ public class SecProxyHeaderContributor extends HeaderContributor {
             }
         };
     }
+
+    /**
+     * Compiles the {@code sec-proxy} header if enabled. The header plan is
+     * recompiled when the gateway configuration is refreshed.
+     *
+     * @param mappings the merged header mappings of the route
+     * @param plan     the plan builder to add the enabled headers to
+     * @return {@code true}
+     */
+    public @Override boolean compile(HeaderMappings mappings, HeaderPlan.Builder plan) {
+        if (secProxyHeaderEnabled.getAsBoolean()) {
+            plan.constant("sec-proxy", "true");
+        }
+        return true;
+    }
 }
@@ -58,6 +58,13 @@ public class GatewayConfigProperties {
      */
     private List<RoleBasedAccessRule> globalAccessRules = List.of();
 
+    /**
+     * Whether to compile all the service-specific and global access rules into a
+     * single matcher indexed by path prefix, instead of evaluating them one after
+     * the other on each request. Both produce the same access decisions.
+     */
+    private boolean compiledAccessRules = false;
+
     /**
      * Maps logical service names to their corresponding back-end service URLs and
      * security settings.
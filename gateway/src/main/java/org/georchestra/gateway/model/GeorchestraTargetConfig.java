@@ -35,6 +35,11 @@ import lombok.experimental.Accessors;
  * This class defines role-based access rules and headers to be applied to
  * proxied requests for a given route.
  * </p>
+ * <p>
+ * Instances stored in the exchange by the {@code ResolveTargetGlobalFilter} are
+ * computed once per route and shared by all the requests to that route, hence
+ * they must be treated as read-only.
+ * </p>
  */
 @Data
 @Generated
@@ -46,6 +51,12 @@ public class GeorchestraTargetConfig {
      */
     private static final String TARGET_CONFIG_KEY = GeorchestraTargetConfig.class.getCanonicalName() + ".target";
 
+    /**
+     * The service definition whose target matches the route's URI, or {@code null}
+     * if the route doesn't map to a configured service.
+     */
+    private Service service;
+
     /**
      * HTTP request headers to append when forwarding requests.
      */
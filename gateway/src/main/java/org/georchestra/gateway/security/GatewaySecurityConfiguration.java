@@ -19,11 +19,15 @@
 package org.georchestra.gateway.security;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
 import org.georchestra.gateway.model.GatewayConfigProperties;
+import org.georchestra.gateway.security.cache.GeorchestraUserCache;
+import org.georchestra.gateway.security.cache.GeorchestraUserCacheLogoutHandler;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -38,10 +42,16 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.authentication.RedirectServerAuthenticationEntryPoint;
 import org.springframework.security.web.server.authentication.ServerAuthenticationFailureHandler;
+import org.springframework.security.web.server.authentication.logout.DelegatingServerLogoutHandler;
 import org.springframework.security.web.server.authentication.logout.RedirectServerLogoutSuccessHandler;
+import org.springframework.security.web.server.authentication.logout.SecurityContextServerLogoutHandler;
+import org.springframework.security.web.server.authentication.logout.ServerLogoutHandler;
 import org.springframework.security.web.server.authentication.logout.ServerLogoutSuccessHandler;
 import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -61,13 +71,19 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Configuration(proxyBeanMethods = false)
 @EnableWebFluxSecurity
-@EnableConfigurationProperties({ GatewayConfigProperties.class })
+@EnableConfigurationProperties({ GatewayConfigProperties.class, UserResolutionConfigProperties.class })
 @Slf4j(topic = "org.georchestra.gateway.security")
 public class GatewaySecurityConfiguration {
 
     @Autowired(required = false)
     ServerLogoutSuccessHandler oidcLogoutSuccessHandler;
 
+    @Autowired(required = false)
+    GeorchestraUserCache userCache;
+
+    @Autowired(required = false)
+    List<ServerLogoutHandler> logoutHandlers;
+
     private @Value("${georchestra.gateway.logoutUrl:/?logout}") String georchestraLogoutUrl;
 
     /**
@@ -83,8 +99,9 @@ public class GatewaySecurityConfiguration {
      * <li>Sets up form-based login handling.</li>
      * <li>Applies all available {@link ServerHttpSecurityCustomizer} extensions in
      * order.</li>
-     * <li>Configures logout handling, using an OIDC logout handler if
-     * available.</li>
+     * <li>Configures logout handling, using an OIDC logout handler if available,
+     * evicting the user from the {@link GeorchestraUserCache} if enabled, and
+     * applying the {@link ServerLogoutHandler} beans, if any.</li>
      * </ul>
      * </p>
      *
@@ -169,9 +186,22 @@ public class GatewaySecurityConfiguration {
         RedirectServerLogoutSuccessHandler defaultRedirect = new RedirectServerLogoutSuccessHandler();
         defaultRedirect.setLogoutSuccessUrl(URI.create(georchestraLogoutUrl));
 
-        ServerHttpSecurity logoutSpec = http.logout(logout -> logout
-                .requiresLogout(ServerWebExchangeMatchers.pathMatchers(HttpMethod.GET, "/logout"))
-                .logoutSuccessHandler(oidcLogoutSuccessHandler != null ? oidcLogoutSuccessHandler : defaultRedirect));
+        ServerHttpSecurity logoutSpec = http.logout(logout -> {
+            logout.requiresLogout(ServerWebExchangeMatchers.pathMatchers(HttpMethod.GET, "/logout"))
+                    .logoutSuccessHandler(
+                            oidcLogoutSuccessHandler != null ? oidcLogoutSuccessHandler : defaultRedirect);
+            List<ServerLogoutHandler> handlers = new ArrayList<>();
+            handlers.add(new SecurityContextServerLogoutHandler());
+            if (userCache != null) {
+                handlers.add(new GeorchestraUserCacheLogoutHandler(userCache));
+            }
+            if (logoutHandlers != null) {
+                handlers.addAll(logoutHandlers);
+            }
+            if (handlers.size() > 1) {
+                logout.logoutHandler(new DelegatingServerLogoutHandler(handlers));
+            }
+        });
 
         return logoutSpec.build();
     }
@@ -188,16 +218,43 @@ public class GatewaySecurityConfiguration {
 
     /**
      * Creates a {@link GeorchestraUserMapper} to resolve user identities using the
-     * configured resolvers and customizers.
+     * configured resolvers and customizers, and the {@link GeorchestraUserCache} if
+     * enabled.
      *
-     * @param resolvers   the list of user resolvers
-     * @param customizers the list of user customizers
+     * @param resolvers           the list of blocking user resolvers
+     * @param reactiveResolvers   the list of non-blocking user resolvers
+     * @param customizers         the list of blocking user customizers
+     * @param reactiveCustomizers the list of non-blocking user customizers
+     * @param scheduler           the scheduler to run blocking resolvers and
+     *                            customizers on
      * @return an instance of {@link GeorchestraUserMapper}
      */
     @Bean
     GeorchestraUserMapper georchestraUserResolver(List<GeorchestraUserMapperExtension> resolvers,
-            List<GeorchestraUserCustomizerExtension> customizers) {
-        return new GeorchestraUserMapper(resolvers, customizers);
+            ObjectProvider<ReactiveGeorchestraUserMapperExtension> reactiveResolvers,
+            List<GeorchestraUserCustomizerExtension> customizers,
+            ObjectProvider<ReactiveGeorchestraUserCustomizerExtension> reactiveCustomizers,
+            UserResolutionScheduler scheduler) {
+        return new GeorchestraUserMapper(resolvers, reactiveResolvers.orderedStream().toList(), customizers,
+                reactiveCustomizers.orderedStream().toList(), userCache, scheduler);
+    }
+
+    /**
+     * Creates the bounded {@link UserResolutionScheduler} blocking user resolution
+     * calls are offloaded to, keeping them off the reactor-netty event loop.
+     *
+     * @param config        the scheduler configuration
+     * @param meterRegistry the registry to publish the queue depth and latency
+     *                      meters to, if available
+     * @return the user resolution scheduler
+     */
+    @Bean(destroyMethod = "dispose")
+    UserResolutionScheduler userResolutionScheduler(UserResolutionConfigProperties config,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        log.info("User resolution scheduler: max threads: {}, max queued tasks: {}, virtual threads: {}",
+                config.getMaxThreads(), config.getMaxQueuedTasks(), config.isVirtualThreads());
+        return UserResolutionScheduler.newBounded(config.getMaxThreads(), config.getMaxQueuedTasks(),
+                config.isVirtualThreads(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
     }
 
     /**
@@ -220,13 +277,19 @@ public class GatewaySecurityConfiguration {
      * {@link GatewayConfigProperties#getRolesMappings()}.
      * </p>
      *
-     * @param config the gateway configuration properties
+     * @param config        the gateway configuration properties
+     * @param meterRegistry the meter registry to publish the expanded roles cache
+     *                      metrics to, if available
      * @return an instance of {@link RolesMappingsUserCustomizer}
      */
     @Bean
-    RolesMappingsUserCustomizer rolesMappingsUserCustomizer(GatewayConfigProperties config) {
+    RolesMappingsUserCustomizer rolesMappingsUserCustomizer(GatewayConfigProperties config,
+            ObjectProvider<MeterRegistry> meterRegistry) {
         Map<String, List<String>> rolesMappings = config.getRolesMappings();
         log.info("Creating {}", RolesMappingsUserCustomizer.class.getSimpleName());
-        return new RolesMappingsUserCustomizer(rolesMappings);
+        RolesMappingsUserCustomizer customizer = new RolesMappingsUserCustomizer(rolesMappings);
+        meterRegistry.ifAvailable(registry -> GuavaCacheMetrics.monitor(registry, customizer.getExpandedRoles(),
+                "georchestra.roles-mappings"));
+        return customizer;
     }
 }
@@ -18,6 +18,8 @@
  */
 package org.georchestra.gateway.security;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -33,6 +35,9 @@ import org.springframework.validation.Validator;
 import org.springframework.validation.annotation.Validated;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
 import lombok.Generated;
 import lombok.Setter;
@@ -77,12 +82,33 @@ public class GeorchestraGatewaySecurityConfigProperties implements Validator {
 
     private boolean moderatedSignup = false;
 
+    /**
+     * Cache of the stored accounts of users logged in through OAuth2 or trusted
+     * proxy headers, to avoid looking them up in LDAP on every request.
+     */
+    @Valid
+    private LoggedInUsersCache loggedInUsers = new LoggedInUsersCache();
+
     /**
      * LDAP server configurations mapped by their respective names.
      */
     @Valid
     private Map<String, Server> ldap = Map.of();
 
+    /**
+     * Cache of LDAP authentication outcomes, to avoid binding against the LDAP
+     * server on every request of clients sending HTTP Basic credentials.
+     */
+    @Valid
+    private AuthenticationCache ldapAuthenticationCache = new AuthenticationCache();
+
+    /**
+     * Concurrent authentication against all the configured LDAP databases, instead
+     * of trying them one after the other.
+     */
+    @Valid
+    private ParallelAuthentication ldapParallelAuthentication = new ParallelAuthentication();
+
     /**
      * Represents a configured LDAP server.
      */
@@ -146,6 +172,93 @@ public class GeorchestraGatewaySecurityConfigProperties implements Validator {
          * Password for the administrator user used for LDAP authentication operations.
          */
         private String adminPassword;
+
+        /**
+         * Maximum time to wait while opening a connection to the LDAP server. A
+         * {@code null} or zero value waits as long as the operating system allows.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Maximum time to wait for the LDAP server to answer a request. A {@code null}
+         * or zero value waits indefinitely.
+         */
+        private Duration readTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Connection pool shared by the authentication provider's user and role
+         * searches and the geOrchestra users, organizations, and roles DAOs.
+         */
+        @Valid
+        private ConnectionPool pool = new ConnectionPool();
+    }
+
+    /**
+     * Configuration of the pool of LDAP connections of a {@link Server}.
+     * <p>
+     * Connections are authenticated as the server's {@code adminDn}, or anonymous
+     * if not set. User password binds always use a dedicated connection and never
+     * go through the pool.
+     */
+    @Generated
+    public static @Data @Accessors(chain = true) class ConnectionPool {
+
+        /**
+         * Whether LDAP connections are pooled.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Minimum number of idle connections kept open, per connection type (read-only
+         * and read-write).
+         */
+        @PositiveOrZero
+        private int minIdle = 1;
+
+        /**
+         * Maximum number of idle connections kept open, per connection type. A negative
+         * value means no limit.
+         */
+        private int maxIdle = 8;
+
+        /**
+         * Maximum number of connections in use at any time, per connection type. A
+         * non-positive value means no limit.
+         */
+        private int maxActive = 8;
+
+        /**
+         * Maximum number of connections, across connection types. A non-positive value
+         * means no limit.
+         */
+        private int maxTotal = -1;
+
+        /**
+         * Maximum time to wait for a connection when the pool is exhausted, before
+         * failing. A {@code null}, zero, or negative value waits indefinitely.
+         */
+        private Duration maxWait = Duration.ofSeconds(10);
+
+        /**
+         * Whether connections are validated before being borrowed from the pool.
+         */
+        private boolean testOnBorrow = true;
+
+        /**
+         * Whether idle connections are validated by the idle connection evictor. Only
+         * used if {@code time-between-eviction-runs} is set.
+         */
+        private boolean testWhileIdle = false;
+
+        /**
+         * Time between runs of the idle connection evictor. {@code null} disables it.
+         */
+        private Duration timeBetweenEvictionRuns;
+
+        /**
+         * Minimum time a connection may sit idle before the evictor closes it.
+         */
+        private Duration minEvictableIdleTime = Duration.ofMinutes(30);
     }
 
     /**
@@ -213,6 +326,114 @@ public class GeorchestraGatewaySecurityConfigProperties implements Validator {
         private String pendingRdn = "ou=pendingorgs";
     }
 
+    /**
+     * Configuration of the LDAP authentication cache.
+     * <p>
+     * When enabled, successful authentications are cached for {@code ttl}, keyed by
+     * a salted hash of the username and password, and failed authentications due to
+     * bad credentials or account status (e.g. an expired password) for
+     * {@code failure-ttl}. Authentications are never cached past the time the LDAP
+     * password policy reports the password will expire.
+     */
+    @Generated
+    public static @Data @Accessors(chain = true) class AuthenticationCache {
+
+        /**
+         * Whether LDAP authentication outcomes are cached. Disabled by default.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long a successful authentication is cached.
+         */
+        @NotNull
+        private Duration ttl = Duration.ofMinutes(1);
+
+        /**
+         * How long a failed authentication is cached.
+         */
+        @NotNull
+        private Duration failureTtl = Duration.ofSeconds(10);
+
+        /**
+         * Maximum number of cached successful, and failed, authentications.
+         */
+        @Positive
+        private long maximumSize = 10_000;
+    }
+
+    /**
+     * Configuration of the concurrent authentication against multiple LDAP
+     * databases.
+     * <p>
+     * When enabled, all the LDAP databases are queried at once, each one bound by
+     * its timeout, and the first successful authentication in configuration order
+     * wins. The database each username belongs to is remembered for
+     * {@code directory-ttl}, and queried alone on subsequent logins.
+     */
+    @Generated
+    public static @Data @Accessors(chain = true) class ParallelAuthentication {
+
+        /**
+         * Whether LDAP databases are queried concurrently. Disabled by default.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Default maximum time to wait for an LDAP database to authenticate a user.
+         */
+        @NotNull
+        private Duration timeout = Duration.ofSeconds(5);
+
+        /**
+         * Per LDAP database overrides of {@code timeout}, keyed by LDAP configuration
+         * name.
+         */
+        private Map<String, Duration> timeouts = new HashMap<>();
+
+        /**
+         * How long the LDAP database a username belongs to is remembered.
+         */
+        @NotNull
+        private Duration directoryTtl = Duration.ofHours(1);
+
+        /**
+         * Maximum number of remembered usernames.
+         */
+        @Positive
+        private long maximumSize = 10_000;
+
+        /**
+         * @param configName the LDAP configuration name
+         * @return the maximum time to wait for the given LDAP database
+         */
+        public Duration timeout(String configName) {
+            return timeouts.getOrDefault(configName, timeout);
+        }
+    }
+
+    /**
+     * Configuration of the cache of accounts of users logged in through OAuth2 or
+     * trusted proxy headers, when {@link #isCreateNonExistingUsersInLDAP() creating
+     * non existing users} is enabled.
+     */
+    @Generated
+    public static @Data @Accessors(chain = true) class LoggedInUsersCache {
+
+        /**
+         * How long a logged in user's account and pending status are cached. Changes to
+         * the account in LDAP are visible after this time. Zero disables caching.
+         */
+        @NotNull
+        private Duration ttl = Duration.ofMinutes(1);
+
+        /**
+         * Maximum number of cached logged in users.
+         */
+        @Positive
+        private long maximumSize = 10_000;
+    }
+
     /**
      * {@inheritDoc}
      */
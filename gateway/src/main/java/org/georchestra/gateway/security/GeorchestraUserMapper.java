@@ -18,20 +18,27 @@
  */
 package org.georchestra.gateway.security;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.georchestra.gateway.security.cache.GeorchestraUserCache;
 import org.georchestra.gateway.security.exceptions.DuplicatedEmailFoundException;
 import org.georchestra.security.model.GeorchestraUser;
+import org.springframework.core.OrderComparator;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.server.ServerWebExchange;
 
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Resolves a {@link GeorchestraUser} from an {@link Authentication} token by
- * delegating to available {@link GeorchestraUserMapperExtension}
- * implementations.
+ * delegating to available {@link GeorchestraUserMapperExtension} and
+ * {@link ReactiveGeorchestraUserMapperExtension} implementations.
  * <p>
  * This class acts as an abstraction layer that allows multiple authentication
  * strategies to provide user resolution mechanisms, such as LDAP, OAuth2, or
@@ -39,33 +46,130 @@ import lombok.RequiredArgsConstructor;
  * </p>
  * <p>
  * Once a user is successfully resolved, any registered
- * {@link GeorchestraUserCustomizerExtension} implementations are applied in
- * order to modify or enrich the user attributes.
+ * {@link GeorchestraUserCustomizerExtension} and
+ * {@link ReactiveGeorchestraUserCustomizerExtension} implementations are
+ * applied in order to modify or enrich the user attributes.
  * </p>
  * <p>
  * This component is primarily used by
  * {@link ResolveGeorchestraUserGlobalFilter} to extract user details from
  * authentication tokens in the request lifecycle.
  * </p>
+ * <p>
+ * Resolution is non-blocking: {@link #resolveAsync(Authentication)} runs the
+ * blocking extensions (which may perform synchronous LDAP lookups) on a
+ * dedicated {@link UserResolutionScheduler}, so that a slow identity backend
+ * doesn't stall the reactor-netty event loop. The blocking
+ * {@link #resolve(Authentication)} variant is kept for callers that are not
+ * running on an event loop thread.
+ * </p>
+ * <p>
+ * Since mapping a user may involve remote lookups (e.g. LDAP), callers that
+ * have access to the current {@link ServerWebExchange} should use
+ * {@link #resolveAsync(Authentication, ServerWebExchange)}, which maps the user
+ * only once per request and shares the result among the access rules
+ * authorization manager, the global filters, and the controllers handling the
+ * same exchange.
+ * </p>
+ * <p>
+ * Additionally, if a {@link GeorchestraUserCache} is provided, resolved users
+ * are cached across requests for a limited time, keyed by principal and
+ * authentication type.
+ * </p>
  * 
  * @see GeorchestraUserMapperExtension
  * @see GeorchestraUserCustomizerExtension
+ * @see ReactiveGeorchestraUserMapperExtension
+ * @see ReactiveGeorchestraUserCustomizerExtension
  * @see ResolveGeorchestraUserGlobalFilter
+ * @see GeorchestraUserCache
  */
-@RequiredArgsConstructor
 public class GeorchestraUserMapper {
 
+    /**
+     * Exchange attribute key under which the outcome of
+     * {@link #resolveAsync(Authentication, ServerWebExchange)} is memoized.
+     */
+    static final String RESOLVED_USER_KEY = GeorchestraUserMapper.class.getCanonicalName() + ".resolved";
+
     /**
      * Ordered list of user mapper extensions responsible for resolving a
-     * {@link GeorchestraUser} from an {@link Authentication} token.
+     * {@link GeorchestraUser} from an {@link Authentication} token, with blocking
+     * extensions adapted to run on the {@link UserResolutionScheduler}.
      */
-    private final @NonNull List<GeorchestraUserMapperExtension> resolvers;
+    private final List<ReactiveGeorchestraUserMapperExtension> resolvers;
 
     /**
      * Ordered list of user customizer extensions that apply modifications to a
-     * resolved {@link GeorchestraUser}.
+     * resolved {@link GeorchestraUser}, with blocking extensions adapted to run on
+     * the {@link UserResolutionScheduler}.
+     */
+    private final List<ReactiveGeorchestraUserCustomizerExtension> customizers;
+
+    /**
+     * Optional cross-request cache of resolved users, {@code null} if disabled.
+     */
+    private final GeorchestraUserCache cache;
+
+    /**
+     * Creates a user mapper with blocking and non-blocking extensions.
+     * 
+     * @param resolvers           the blocking
+     *                            {@link GeorchestraUserMapperExtension} instances
+     * @param reactiveResolvers   the non-blocking
+     *                            {@link ReactiveGeorchestraUserMapperExtension}
+     *                            instances
+     * @param customizers         the blocking
+     *                            {@link GeorchestraUserCustomizerExtension}
+     *                            instances
+     * @param reactiveCustomizers the non-blocking
+     *                            {@link ReactiveGeorchestraUserCustomizerExtension}
+     *                            instances
+     * @param cache               the user cache, or {@code null} to disable caching
+     *                            across requests
+     * @param scheduler           the scheduler to run blocking extensions on
+     */
+    public GeorchestraUserMapper(@NonNull List<GeorchestraUserMapperExtension> resolvers,
+            @NonNull List<ReactiveGeorchestraUserMapperExtension> reactiveResolvers,
+            @NonNull List<GeorchestraUserCustomizerExtension> customizers,
+            @NonNull List<ReactiveGeorchestraUserCustomizerExtension> reactiveCustomizers, GeorchestraUserCache cache,
+            @NonNull UserResolutionScheduler scheduler) {
+
+        this.resolvers = sorted(resolvers.stream().map(r -> new BlockingResolver(r, scheduler)), reactiveResolvers);
+        this.customizers = sorted(customizers.stream().map(c -> new BlockingCustomizer(c, scheduler)),
+                reactiveCustomizers);
+        this.cache = cache;
+    }
+
+    /**
+     * Constructor for initializing with blocking user resolvers and customizers,
+     * and a user cache.
+     * 
+     * @param resolvers   the list of {@link GeorchestraUserMapperExtension}
+     *                    instances
+     * @param customizers the list of {@link GeorchestraUserCustomizerExtension}
+     *                    instances
+     * @param cache       the user cache, or {@code null} to disable caching across
+     *                    requests
      */
-    private final @NonNull List<GeorchestraUserCustomizerExtension> customizers;
+    public GeorchestraUserMapper(List<GeorchestraUserMapperExtension> resolvers,
+            List<GeorchestraUserCustomizerExtension> customizers, GeorchestraUserCache cache) {
+        this(resolvers, List.of(), customizers, List.of(), cache, UserResolutionScheduler.shared());
+    }
+
+    /**
+     * Constructor for initializing with blocking user resolvers and customizers,
+     * and no user cache.
+     * 
+     * @param resolvers   the list of {@link GeorchestraUserMapperExtension}
+     *                    instances
+     * @param customizers the list of {@link GeorchestraUserCustomizerExtension}
+     *                    instances
+     */
+    public GeorchestraUserMapper(List<GeorchestraUserMapperExtension> resolvers,
+            List<GeorchestraUserCustomizerExtension> customizers) {
+        this(resolvers, customizers, null);
+    }
 
     /**
      * Default constructor for use when no resolvers or customizers are provided.
@@ -85,30 +189,112 @@ public class GeorchestraUserMapper {
 
     /**
      * Attempts to resolve a {@link GeorchestraUser} from the provided
-     * authentication token.
+     * authentication token, blocking the calling thread until done.
+     * <p>
+     * Must not be called from an event loop thread, use
+     * {@link #resolveAsync(Authentication)} instead.
+     * </p>
+     * 
+     * @param authToken the authentication token to resolve
+     * @return an optional {@link GeorchestraUser} if resolution is successful
+     * @throws DuplicatedEmailFoundException if multiple users with the same email
+     *                                       are found
+     * @see #resolveAsync(Authentication)
+     */
+    public Optional<GeorchestraUser> resolve(@NonNull Authentication authToken) throws DuplicatedEmailFoundException {
+        return resolveAsync(authToken).blockOptional();
+    }
+
+    /**
+     * Attempts to resolve a {@link GeorchestraUser} from the provided
+     * authentication token without blocking the calling thread.
      * <p>
-     * Each {@link GeorchestraUserMapperExtension} is queried in order until one
-     * successfully resolves a user. If no extension handles the authentication
-     * token, an empty result is returned.
+     * Each mapper extension is queried in order until one successfully resolves a
+     * user. If no extension handles the authentication token, an empty {@link Mono}
+     * is returned.
      * </p>
      * <p>
-     * If a user is resolved, it is then processed through all registered
-     * {@link GeorchestraUserCustomizerExtension} instances in order.
+     * If a user is resolved, it is then processed through all registered customizer
+     * extensions in order.
+     * </p>
+     * <p>
+     * If a {@link GeorchestraUserCache} is configured, a previously resolved user
+     * for the same principal is returned instead, as long as it hasn't expired.
      * </p>
      * 
      * @param authToken the authentication token to resolve
+     * @return the resolved {@link GeorchestraUser}, or an empty {@link Mono}
+     * @throws DuplicatedEmailFoundException (as an error signal) if multiple users
+     *                                       with the same email are found
+     */
+    public Mono<GeorchestraUser> resolveAsync(@NonNull Authentication authToken) {
+        if (cache != null) {
+            return cache.get(authToken, this::map);
+        }
+        return map(authToken);
+    }
+
+    /**
+     * Resolves a {@link GeorchestraUser} from the provided authentication token,
+     * mapping it at most once per {@link ServerWebExchange}, and blocking the
+     * calling thread until done.
+     * <p>
+     * Must not be called from an event loop thread, use
+     * {@link #resolveAsync(Authentication, ServerWebExchange)} instead.
+     * </p>
+     *
+     * @param authToken the authentication token to resolve
+     * @param exchange  the exchange the resolution is scoped to
      * @return an optional {@link GeorchestraUser} if resolution is successful
      * @throws DuplicatedEmailFoundException if multiple users with the same email
      *                                       are found
+     * @see #resolveAsync(Authentication, ServerWebExchange)
      */
-    public Optional<GeorchestraUser> resolve(@NonNull Authentication authToken) throws DuplicatedEmailFoundException {
-        return resolvers.stream().map(resolver -> resolver.resolve(authToken)).filter(Optional::isPresent)
-                .map(Optional::orElseThrow).map(mapped -> customize(authToken, mapped)).findFirst();
+    public Optional<GeorchestraUser> resolve(@NonNull Authentication authToken, @NonNull ServerWebExchange exchange)
+            throws DuplicatedEmailFoundException {
+        return resolveAsync(authToken, exchange).blockOptional();
+    }
+
+    /**
+     * Resolves a {@link GeorchestraUser} from the provided authentication token,
+     * mapping it at most once per {@link ServerWebExchange}.
+     * <p>
+     * The first call for a given exchange delegates to
+     * {@link #resolveAsync(Authentication)} and stores the outcome (including an
+     * empty result) as an exchange attribute. Subsequent calls for the same
+     * exchange and authentication token return the stored outcome without running
+     * the mapper and customizer extensions again. Errors are not memoized.
+     * </p>
+     *
+     * @param authToken the authentication token to resolve
+     * @param exchange  the exchange the resolution is scoped to
+     * @return the resolved {@link GeorchestraUser}, or an empty {@link Mono}
+     * @throws DuplicatedEmailFoundException (as an error signal) if multiple users
+     *                                       with the same email are found
+     */
+    public Mono<GeorchestraUser> resolveAsync(@NonNull Authentication authToken, @NonNull ServerWebExchange exchange) {
+        return Mono.defer(() -> {
+            if (exchange.getAttribute(RESOLVED_USER_KEY) instanceof ResolvedUser resolved
+                    && Objects.equals(authToken, resolved.authentication())) {
+                return Mono.justOrEmpty(resolved.user());
+            }
+            return resolveAsync(authToken).map(Optional::of).defaultIfEmpty(Optional.empty())
+                    .doOnNext(user -> exchange.getAttributes().put(RESOLVED_USER_KEY, new ResolvedUser(authToken, user)))
+                    .flatMap(Mono::justOrEmpty);
+        });
     }
 
     /**
-     * Applies registered {@link GeorchestraUserCustomizerExtension} instances to
-     * the resolved user.
+     * Maps the authentication token through the resolvers and customizers,
+     * bypassing the cache.
+     */
+    private Mono<GeorchestraUser> map(Authentication authToken) {
+        return Flux.fromIterable(resolvers).concatMap(resolver -> resolver.resolve(authToken)).next()
+                .flatMap(mapped -> customize(authToken, mapped));
+    }
+
+    /**
+     * Applies registered customizer extensions to the resolved user.
      * <p>
      * This allows for modifications such as role mappings, attribute enrichment, or
      * other custom transformations based on the authentication context.
@@ -118,14 +304,61 @@ public class GeorchestraUserMapper {
      * @param mapped    the resolved {@link GeorchestraUser} instance
      * @return the customized {@link GeorchestraUser} after all modifications are
      *         applied
-     * @throws DuplicatedEmailFoundException if an issue occurs during customization
      */
-    private GeorchestraUser customize(@NonNull Authentication authToken, GeorchestraUser mapped)
-            throws DuplicatedEmailFoundException {
-        GeorchestraUser customized = mapped;
-        for (GeorchestraUserCustomizerExtension customizer : customizers) {
-            customized = customizer.apply(authToken, customized);
+    private Mono<GeorchestraUser> customize(@NonNull Authentication authToken, GeorchestraUser mapped) {
+        Mono<GeorchestraUser> customized = Mono.just(mapped);
+        for (ReactiveGeorchestraUserCustomizerExtension customizer : customizers) {
+            customized = customized.flatMap(user -> customizer.apply(authToken, user));
         }
         return customized;
     }
+
+    private static <T> List<T> sorted(Stream<? extends T> blocking, List<? extends T> reactive) {
+        List<T> all = new ArrayList<>(Stream.concat(blocking, reactive.stream()).toList());
+        OrderComparator.sort(all);
+        return List.copyOf(all);
+    }
+
+    /**
+     * Adapts a blocking {@link GeorchestraUserMapperExtension} to run on the
+     * {@link UserResolutionScheduler}.
+     */
+    private record BlockingResolver(GeorchestraUserMapperExtension delegate,
+            UserResolutionScheduler scheduler) implements ReactiveGeorchestraUserMapperExtension {
+
+        @Override
+        public Mono<GeorchestraUser> resolve(Authentication authToken) {
+            return scheduler.execute(() -> delegate.resolve(authToken).orElse(null));
+        }
+
+        @Override
+        public int getOrder() {
+            return delegate.getOrder();
+        }
+    }
+
+    /**
+     * Adapts a blocking {@link GeorchestraUserCustomizerExtension} to run on the
+     * {@link UserResolutionScheduler}.
+     */
+    private record BlockingCustomizer(GeorchestraUserCustomizerExtension delegate,
+            UserResolutionScheduler scheduler) implements ReactiveGeorchestraUserCustomizerExtension {
+
+        @Override
+        public Mono<GeorchestraUser> apply(Authentication auth, GeorchestraUser user) {
+            return scheduler.execute(() -> delegate.apply(auth, user));
+        }
+
+        @Override
+        public int getOrder() {
+            return delegate.getOrder();
+        }
+    }
+
+    /**
+     * Outcome of resolving a user for a given authentication token, memoized as an
+     * exchange attribute.
+     */
+    private record ResolvedUser(Authentication authentication, Optional<GeorchestraUser> user) {
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security;
+
+import org.georchestra.security.model.GeorchestraUser;
+import org.springframework.core.Ordered;
+import org.springframework.security.core.Authentication;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link GeorchestraUserCustomizerExtension}.
+ * <p>
+ * Implementations are expected not to block the calling thread. Customizers
+ * that perform blocking I/O should implement
+ * {@link GeorchestraUserCustomizerExtension} instead, which
+ * {@link GeorchestraUserMapper#resolveAsync(Authentication)} runs on a
+ * dedicated {@link UserResolutionScheduler bounded scheduler}.
+ * </p>
+ * <p>
+ * Both kinds of customizers are applied together, sorted by {@link #getOrder()
+ * order}.
+ * </p>
+ *
+ * @see GeorchestraUserMapper
+ * @see GeorchestraUserCustomizerExtension
+ */
+public interface ReactiveGeorchestraUserCustomizerExtension extends Ordered {
+
+    /**
+     * Customizes a resolved {@link GeorchestraUser}.
+     *
+     * @param auth the authentication token the user was resolved from
+     * @param user the resolved user
+     * @return the customized user, which may be the same instance
+     */
+    Mono<GeorchestraUser> apply(Authentication auth, GeorchestraUser user);
+
+    /**
+     * @return {@code 0} as the default order. Implementations can override this if
+     *         needed.
+     */
+    default int getOrder() {
+        return 0;
+    }
+}
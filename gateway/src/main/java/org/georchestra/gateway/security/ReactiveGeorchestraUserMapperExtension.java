@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security;
+
+import org.georchestra.security.model.GeorchestraUser;
+import org.springframework.core.Ordered;
+import org.springframework.security.core.Authentication;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link GeorchestraUserMapperExtension}.
+ * <p>
+ * Implementations are expected not to block the calling thread, for example by
+ * using a reactive client to reach the identity backend. Extensions that
+ * perform blocking I/O (such as Spring LDAP lookups) should implement
+ * {@link GeorchestraUserMapperExtension} instead, which
+ * {@link GeorchestraUserMapper#resolveAsync(Authentication)} runs on a
+ * dedicated {@link UserResolutionScheduler bounded scheduler}.
+ * </p>
+ * <p>
+ * Both kinds of extensions are queried together, sorted by {@link #getOrder()
+ * order}.
+ * </p>
+ *
+ * @see GeorchestraUserMapper
+ * @see GeorchestraUserMapperExtension
+ */
+public interface ReactiveGeorchestraUserMapperExtension extends Ordered {
+
+    /**
+     * Attempts to map an {@link Authentication} token to a {@link GeorchestraUser}.
+     *
+     * @param authToken the authentication token representing the user's credentials
+     * @return the mapped {@link GeorchestraUser}, or an empty {@link Mono} to let
+     *         other resolvers handle the authentication token
+     */
+    Mono<GeorchestraUser> resolve(Authentication authToken);
+
+    /**
+     * @return {@code 0} as the default order. Implementations can override this if
+     *         needed.
+     */
+    default int getOrder() {
+        return 0;
+    }
+}
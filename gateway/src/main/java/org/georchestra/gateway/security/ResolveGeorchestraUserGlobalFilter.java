@@ -19,6 +19,7 @@
 package org.georchestra.gateway.security;
 
 import java.net.URI;
+import java.util.Optional;
 
 import org.georchestra.gateway.model.GeorchestraOrganizations;
 import org.georchestra.gateway.model.GeorchestraUsers;
@@ -105,6 +106,12 @@ public class ResolveGeorchestraUserGlobalFilter implements GlobalFilter, Ordered
      * Resolves the authenticated {@link GeorchestraUser} from the request context
      * and stores it for downstream processing.
      * <p>
+     * The user is resolved through
+     * {@link GeorchestraUserMapper#resolveAsync(Authentication, ServerWebExchange)},
+     * so it's not mapped again if the access rules authorization manager already
+     * did it for this exchange, and blocking lookups don't run on the event loop.
+     * </p>
+     * <p>
      * If an {@link ExtendedGeorchestraUser} is found, the associated
      * {@link Organization} is also extracted and stored.
      * </p>
@@ -122,7 +129,9 @@ public class ResolveGeorchestraUserGlobalFilter implements GlobalFilter, Ordered
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         return exchange.getPrincipal()
                 .doOnNext(principal -> log.debug("Resolving user from {}", principal.getClass().getName()))
-                .filter(Authentication.class::isInstance).map(Authentication.class::cast).map(resolver::resolve)
+                .filter(Authentication.class::isInstance).map(Authentication.class::cast)
+                .flatMap(authentication -> resolver.resolveAsync(authentication, exchange).map(Optional::of)
+                        .defaultIfEmpty(Optional.empty()))
                 .map(user -> storeUserAndOrganization(exchange, user.orElse(null))).defaultIfEmpty(exchange)
                 .flatMap(chain::filter)
                 .onErrorResume(DuplicatedEmailFoundException.class, error -> handleDuplicateEmailError(exchange))
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Matches role names against the keys of the {@link RolesMappingsUserCustomizer
+ * role mappings} without evaluating each key as a regular expression.
+ * <p>
+ * Mapping keys are sorted into:
+ * <ul>
+ * <li>Literal keys, looked up in a hash map.</li>
+ * <li>Wildcard keys, where {@code *} matches any sequence of characters,
+ * indexed by the literal prefix before their first {@code *} in a character
+ * trie. Only the keys whose prefix the role starts with are then checked
+ * against their remaining segments and suffix.</li>
+ * <li>Keys using any other regular expression syntax, matched with
+ * {@link RolesMappingsUserCustomizer#compilePattern(String)} as before.</li>
+ * </ul>
+ * A {@code .} in a key always matches a literal period.
+ */
+class RoleMappingsMatcher {
+
+    private static final String REGEX_SYNTAX = "\\^$|?+()[]{}";
+
+    private final Map<String, List<String>> literals = new HashMap<>();
+
+    private final Node wildcards = new Node();
+
+    private final List<RegexMapping> regexes = new ArrayList<>();
+
+    private final int size;
+
+    RoleMappingsMatcher(@NonNull Map<String, List<String>> mappings) {
+        mappings.forEach(this::add);
+        this.size = mappings.size();
+    }
+
+    private void add(String key, List<String> extraRoles) {
+        List<String> roles = List.copyOf(extraRoles);
+        if (key.chars().anyMatch(c -> REGEX_SYNTAX.indexOf(c) >= 0)) {
+            regexes.add(new RegexMapping(RolesMappingsUserCustomizer.compilePattern(key), roles));
+        } else if (key.indexOf('*') < 0) {
+            literals.merge(key, roles, RoleMappingsMatcher::concat);
+        } else {
+            Glob glob = new Glob(key.split("\\*", -1), roles);
+            Node node = wildcards;
+            for (char c : glob.prefix().toCharArray()) {
+                node = node.children.computeIfAbsent(c, k -> new Node());
+            }
+            node.globs.add(glob);
+        }
+    }
+
+    private static List<String> concat(List<String> l1, List<String> l2) {
+        List<String> roles = new ArrayList<>(l1);
+        roles.addAll(l2);
+        return List.copyOf(roles);
+    }
+
+    /**
+     * @return the number of role mappings
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds the extra roles of every mapping whose key matches {@code role} to
+     * {@code target}
+     */
+    public void addExtraRoles(@NonNull String role, @NonNull Collection<String> target) {
+        List<String> literal = literals.get(role);
+        if (literal != null) {
+            target.addAll(literal);
+        }
+        Node node = wildcards;
+        for (int i = 0; node != null; i++) {
+            for (Glob glob : node.globs) {
+                if (glob.matches(role)) {
+                    target.addAll(glob.extraRoles());
+                }
+            }
+            node = i < role.length() ? node.children.get(role.charAt(i)) : null;
+        }
+        for (RegexMapping regex : regexes) {
+            if (regex.pattern().matcher(role).matches()) {
+                target.addAll(regex.extraRoles());
+            }
+        }
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final List<Glob> globs = new ArrayList<>(1);
+    }
+
+    private static record RegexMapping(Pattern pattern, List<String> extraRoles) {
+    }
+
+    /**
+     * A wildcard key split on {@code *}, where the first segment is the prefix
+     * already matched by the trie, and the last one the suffix
+     */
+    @RequiredArgsConstructor
+    private static class Glob {
+        private final @NonNull String[] segments;
+        private final @NonNull List<String> extraRoles;
+
+        String prefix() {
+            return segments[0];
+        }
+
+        List<String> extraRoles() {
+            return extraRoles;
+        }
+
+        /**
+         * Checks the role, known to start with the {@link #prefix()}, matches the rest
+         * of the key, matching each inner segment at its leftmost position
+         */
+        boolean matches(String role) {
+            final String suffix = segments[segments.length - 1];
+            final int end = role.length() - suffix.length();
+            int from = prefix().length();
+            if (end < from || !role.endsWith(suffix)) {
+                return false;
+            }
+            for (int i = 1; i < segments.length - 1; i++) {
+                String segment = segments[i];
+                int index = role.indexOf(segment, from);
+                if (index < 0 || index + segment.length() > end) {
+                    return false;
+                }
+                from = index + segment.length();
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "%s -> %s".formatted(String.join("*", segments), extraRoles);
+        }
+    }
+}
@@ -20,12 +20,11 @@
 package org.georchestra.gateway.security;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import org.georchestra.security.model.GeorchestraUser;
 import org.springframework.security.core.Authentication;
@@ -36,7 +35,6 @@ import com.google.common.cache.CacheBuilder;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -49,9 +47,10 @@ import lombok.extern.slf4j.Slf4j;
  * </p>
  * 
  * <p>
- * Role mappings are stored as a set of regular expression patterns. When a
- * user's authenticated role matches a pattern, the corresponding mapped roles
- * are added to the user's role set.
+ * Role mapping keys are role names where {@code *} matches any sequence of
+ * characters. When a user's authenticated role matches a key, the corresponding
+ * mapped roles are added to the user's role set. Keys are matched by a
+ * {@link RoleMappingsMatcher}, which scales to thousands of mappings.
  * </p>
  * 
  * <p>
@@ -73,9 +72,9 @@ import lombok.extern.slf4j.Slf4j;
  * </p>
  * 
  * <p>
- * This component also employs caching for performance optimization, avoiding
- * redundant computations when resolving additional roles for a given
- * authentication.
+ * The final role list of each distinct set of authenticated roles is memoized
+ * in the {@link #getExpandedRoles() expanded roles cache}, avoiding redundant
+ * computations for users sharing the same roles.
  * </p>
  * 
  * @see GeorchestraUserMapper
@@ -84,34 +83,19 @@ import lombok.extern.slf4j.Slf4j;
 public class RolesMappingsUserCustomizer implements GeorchestraUserCustomizerExtension {
 
     /**
-     * Represents a role mapping rule, associating a regex-based pattern with a set
-     * of additional roles.
+     * Maximum number of distinct role sets whose expanded roles are memoized
      */
-    @RequiredArgsConstructor
-    private static class Matcher {
-        private final @NonNull Pattern pattern;
-        private final @NonNull @Getter List<String> extraRoles;
-
-        /**
-         * Checks if the given role matches the pattern.
-         *
-         * @param role the role name to check
-         * @return {@code true} if the role matches the pattern, otherwise {@code false}
-         */
-        public boolean matches(String role) {
-            return pattern.matcher(role).matches();
-        }
-
-        @Override
-        public String toString() {
-            return "%s -> %s".formatted(pattern.pattern(), extraRoles);
-        }
-    }
+    static final long EXPANDED_ROLES_MAXIMUM_SIZE = 10_000;
 
     @VisibleForTesting
-    final List<Matcher> rolesMappings;
+    final RoleMappingsMatcher rolesMappings;
 
-    private final Cache<String, List<String>> byRoleNameCache = CacheBuilder.newBuilder().maximumSize(1_000).build();
+    /**
+     * Memoized final role list by authenticated role list, or an empty list if no
+     * mapping applies to any of the roles
+     */
+    private final @Getter Cache<List<String>, List<String>> expandedRoles = CacheBuilder.newBuilder()
+            .maximumSize(EXPANDED_ROLES_MAXIMUM_SIZE).recordStats().build();
 
     /**
      * Constructs an instance of {@link RolesMappingsUserCustomizer} with the
@@ -122,19 +106,9 @@ public class RolesMappingsUserCustomizer implements GeorchestraUserCustomizerExt
      *                      pattern matches
      */
     public RolesMappingsUserCustomizer(@NonNull Map<String, List<String>> rolesMappings) {
-        this.rolesMappings = convertKeysToPatterns(rolesMappings);
-    }
-
-    /**
-     * Converts role mapping keys into regex-based {@link Matcher} objects.
-     *
-     * @param mappings a map where each key is a role name pattern, and the
-     *                 corresponding value is a list of additional roles
-     * @return a list of compiled role matchers
-     */
-    private @NonNull List<Matcher> convertKeysToPatterns(Map<String, List<String>> mappings) {
-        return mappings.entrySet().stream().map(entry -> new Matcher(compilePattern(entry.getKey()), entry.getValue()))
-                .peek(matcher -> log.info("Loaded role mapping {}", matcher)).toList();
+        rolesMappings.forEach((role, extraRoles) -> log.debug("Loaded role mapping {} -> {}", role, extraRoles));
+        this.rolesMappings = new RoleMappingsMatcher(rolesMappings);
+        log.info("Loaded {} role mappings", this.rolesMappings.size());
     }
 
     /**
@@ -146,6 +120,10 @@ public class RolesMappingsUserCustomizer implements GeorchestraUserCustomizerExt
      * <li>{@code *} is converted to {@code .*} (match any characters).</li>
      * <li>{@code .} is escaped to match a literal period.</li>
      * </ul>
+     * <p>
+     * Only used by {@link RoleMappingsMatcher} for keys containing other regular
+     * expression syntax.
+     * </p>
      *
      * @param role the role name pattern
      * @return the compiled {@link Pattern}
@@ -168,40 +146,37 @@ public class RolesMappingsUserCustomizer implements GeorchestraUserCustomizerExt
      */
     @Override
     public GeorchestraUser apply(Authentication authToken, GeorchestraUser mappedUser) {
-        Set<String> additionalRoles = computeAdditionalRoles(mappedUser.getRoles());
-
-        if (!additionalRoles.isEmpty()) {
-            additionalRoles.addAll(mappedUser.getRoles());
-            mappedUser.setRoles(new ArrayList<>(additionalRoles)); // Ensure mutability
+        if (rolesMappings.isEmpty()) {
+            return mappedUser;
+        }
+        List<String> authenticatedRoles = List.copyOf(mappedUser.getRoles());
+        List<String> roles = expandedRoles.getIfPresent(authenticatedRoles);
+        if (roles == null) {
+            roles = expandRoles(authenticatedRoles);
+            expandedRoles.put(authenticatedRoles, roles);
+        }
+        if (!roles.isEmpty()) {
+            mappedUser.setRoles(new ArrayList<>(roles)); // Ensure mutability
         }
-
         return mappedUser;
     }
 
     /**
-     * Computes additional roles for the user based on their existing roles.
+     * Computes the final roles of a user based on their existing roles.
      * 
      * @param authenticatedRoles the roles assigned by the authentication provider
-     * @return a set of additional roles derived from mapping rules
-     */
-    private Set<String> computeAdditionalRoles(List<String> authenticatedRoles) {
-        final ConcurrentMap<String, List<String>> cache = byRoleNameCache.asMap();
-        return authenticatedRoles.stream().map(role -> cache.computeIfAbsent(role, this::resolveAdditionalRoles))
-                .flatMap(List::stream).collect(Collectors.toSet());
-    }
-
-    /**
-     * Resolves additional roles for a given authenticated role by evaluating the
-     * configured role mappings.
-     *
-     * @param authenticatedRole the role assigned by the authentication provider
-     * @return a list of additional roles assigned based on mappings
+     * @return the authenticated roles followed by the additional roles derived from
+     *         mapping rules, or an empty list if no mapping rule applies
      */
-    private List<String> resolveAdditionalRoles(@NonNull String authenticatedRole) {
-        List<String> roles = rolesMappings.stream().filter(matcher -> matcher.matches(authenticatedRole))
-                .map(Matcher::getExtraRoles).flatMap(List::stream).toList();
-
-        log.info("Computed additional roles for {}: {}", authenticatedRole, roles);
-        return roles;
+    private List<String> expandRoles(List<String> authenticatedRoles) {
+        Set<String> additionalRoles = new LinkedHashSet<>();
+        authenticatedRoles.forEach(role -> rolesMappings.addExtraRoles(role, additionalRoles));
+        log.debug("Computed additional roles for {}: {}", authenticatedRoles, additionalRoles);
+        if (additionalRoles.isEmpty()) {
+            return List.of();
+        }
+        Set<String> roles = new LinkedHashSet<>(authenticatedRoles);
+        roles.addAll(additionalRoles);
+        return List.copyOf(roles);
     }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.Generated;
+import lombok.experimental.Accessors;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Configuration properties for the {@link UserResolutionScheduler}, the bounded
+ * scheduler {@link GeorchestraUserMapper} runs blocking user resolution calls
+ * (e.g. LDAP lookups) on.
+ * <p>
+ * Example configuration in {@code application.yml}:
+ * 
+ * <pre>
+ * {@code
+ * georchestra:
+ *   gateway:
+ *     security:
+ *       user-resolution:
+ *         max-threads: 40
+ *         max-queued-tasks: 10000
+ *         virtual-threads: true
+ * }
+ * </pre>
+ */
+@Data
+@Generated
+@Validated
+@Accessors(chain = true)
+@ConfigurationProperties(prefix = "georchestra.gateway.security.user-resolution")
+public class UserResolutionConfigProperties {
+
+    /**
+     * Maximum number of threads running blocking user resolution calls
+     * concurrently. Defaults to ten times the number of available processors.
+     */
+    @Positive
+    private int maxThreads = Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+
+    /**
+     * Maximum number of blocking user resolution calls waiting for a thread.
+     * Further calls fail until the backlog is drained.
+     */
+    @Positive
+    private int maxQueuedTasks = 10_000;
+
+    /**
+     * Whether to run blocking user resolution calls on virtual threads.
+     */
+    private boolean virtualThreads = false;
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs the blocking parts of user resolution (i.e.
+ * {@link GeorchestraUserMapperExtension} and
+ * {@link GeorchestraUserCustomizerExtension} calls, which may perform
+ * synchronous LDAP lookups) off the reactor-netty event loop, on a dedicated
+ * bounded {@link Scheduler}.
+ * <p>
+ * Blocking calls are only offloaded when issued from a non-blocking thread.
+ * Once running on the scheduler's workers, subsequent blocking calls of the
+ * same resolution run in place, so a user resolution incurs at most one thread
+ * hop.
+ * </p>
+ * <p>
+ * The following meters are registered:
+ * <ul>
+ * <li>{@code georchestra.users.resolution.queued}: number of offloaded calls
+ * waiting for a worker.</li>
+ * <li>{@code georchestra.users.resolution.wait}: time offloaded calls spent
+ * waiting for a worker.</li>
+ * <li>{@code georchestra.users.resolution.execution}: execution time of
+ * blocking calls.</li>
+ * </ul>
+ * </p>
+ */
+public class UserResolutionScheduler {
+
+    private final Scheduler scheduler;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Timer waitTimer;
+
+    private final Timer executionTimer;
+
+    /**
+     * Creates a user resolution scheduler running on the given {@link Scheduler}.
+     *
+     * @param scheduler the scheduler to offload blocking calls to
+     * @param registry  the registry to register the meters with
+     */
+    public UserResolutionScheduler(@NonNull Scheduler scheduler, @NonNull MeterRegistry registry) {
+        this.scheduler = scheduler;
+        Gauge.builder("georchestra.users.resolution.queued", queued, AtomicInteger::get)
+                .description("Blocking user resolution calls waiting for a worker thread").register(registry);
+        this.waitTimer = Timer.builder("georchestra.users.resolution.wait")
+                .description("Time blocking user resolution calls wait for a worker thread").register(registry);
+        this.executionTimer = Timer.builder("georchestra.users.resolution.execution")
+                .description("Execution time of blocking user resolution calls").register(registry);
+    }
+
+    /**
+     * Creates a user resolution scheduler backed by a new bounded elastic
+     * {@link Scheduler}.
+     *
+     * @param maxThreads     maximum number of worker threads
+     * @param maxQueuedTasks maximum number of calls waiting for a worker, further
+     *                       calls are rejected
+     * @param virtualThreads whether to use virtual threads as workers
+     * @param registry       the registry to register the meters with
+     */
+    public static UserResolutionScheduler newBounded(int maxThreads, int maxQueuedTasks, boolean virtualThreads,
+            @NonNull MeterRegistry registry) {
+        final String name = "georchestra-user-resolution";
+        final int ttlSeconds = 60;
+        Scheduler scheduler;
+        if (virtualThreads) {
+            ThreadFactory factory = Thread.ofVirtual().name(name + "-", 0).factory();
+            scheduler = Schedulers.newBoundedElastic(maxThreads, maxQueuedTasks, factory, ttlSeconds);
+        } else {
+            scheduler = Schedulers.newBoundedElastic(maxThreads, maxQueuedTasks, name, ttlSeconds, true);
+        }
+        return new UserResolutionScheduler(scheduler, registry);
+    }
+
+    /**
+     * @return the single user resolution scheduler running on the shared
+     *         {@link Schedulers#boundedElastic() bounded elastic} scheduler, whose
+     *         meters are registered once with the global registry; it must not be
+     *         {@link #dispose() disposed}
+     */
+    public static UserResolutionScheduler shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Lazily creates the {@link #shared()} instance, so its meters are only
+     * registered the first time it's requested
+     */
+    private static class SharedHolder {
+        static final UserResolutionScheduler INSTANCE = new UserResolutionScheduler(Schedulers.boundedElastic(),
+                Metrics.globalRegistry);
+    }
+
+    /**
+     * Runs a blocking call, offloading it to the scheduler if the subscribing
+     * thread is a non-blocking one.
+     *
+     * @param call the blocking call, may return {@code null} to signal no value
+     * @return a {@link Mono} emitting the call's result
+     */
+    public <T> Mono<T> execute(@NonNull Callable<T> call) {
+        return Mono.defer(() -> {
+            if (!Schedulers.isInNonBlockingThread()) {
+                return Mono.fromCallable(() -> executionTimer.recordCallable(call));
+            }
+            final long submitted = System.nanoTime();
+            final AtomicBoolean started = new AtomicBoolean();
+            queued.incrementAndGet();
+            return Mono.fromCallable(() -> {
+                if (started.compareAndSet(false, true)) {
+                    queued.decrementAndGet();
+                }
+                waitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return executionTimer.recordCallable(call);
+            }).subscribeOn(scheduler).doFinally(signal -> {
+                if (started.compareAndSet(false, true)) {
+                    queued.decrementAndGet();
+                }
+            });
+        });
+    }
+
+    /**
+     * Disposes the underlying scheduler.
+     */
+    public void dispose() {
+        scheduler.dispose();
+    }
+}
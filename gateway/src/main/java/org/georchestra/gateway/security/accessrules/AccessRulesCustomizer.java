@@ -26,15 +26,20 @@ import org.georchestra.gateway.model.RoleBasedAccessRule;
 import org.georchestra.gateway.model.Service;
 import org.georchestra.gateway.security.GeorchestraUserMapper;
 import org.georchestra.gateway.security.ServerHttpSecurityCustomizer;
+import org.springframework.security.authorization.AuthenticatedReactiveAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity.AuthorizeExchangeSpec;
 import org.springframework.security.config.web.server.ServerHttpSecurity.AuthorizeExchangeSpec.Access;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
 
 import com.google.common.annotations.VisibleForTesting;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 /**
  * {@link ServerHttpSecurityCustomizer} responsible for applying
@@ -48,6 +53,13 @@ import lombok.extern.slf4j.Slf4j;
  * {@link GatewayConfigProperties#getServices()}, which override the global
  * rules for particular services.</li>
  * </ul>
+ * <p>
+ * By default each rule is registered as a separate
+ * {@code pathMatchers(...).access(...)} entry, evaluated one after the other
+ * for each request. If {@link GatewayConfigProperties#isCompiledAccessRules()}
+ * is {@code true}, they're all compiled into a single
+ * {@link CompiledAccessRules} entry instead, with the same first-match
+ * semantics.
  *
  * @see RoleBasedAccessRule
  * @see GatewayConfigProperties#getGlobalAccessRules()
@@ -66,6 +78,15 @@ public class AccessRulesCustomizer implements ServerHttpSecurityCustomizer {
 
         AuthorizeExchangeSpec authorizeExchange = http.authorizeExchange();
 
+        if (config.isCompiledAccessRules()) {
+            CompiledAccessRules rules = compile();
+            log.info("Applying {} compiled access rules intercept URLs", rules.size());
+            if (rules.size() > 0) {
+                authorizeExchange.matchers(rules).access(rules);
+            }
+            return;
+        }
+
         // Apply service-specific rules before global rules.
         // This ensures that service-specific paths take precedence over general rules.
         config.getServices().forEach((name, service) -> {
@@ -77,6 +98,52 @@ public class AccessRulesCustomizer implements ServerHttpSecurityCustomizer {
         apply("global", authorizeExchange, config.getGlobalAccessRules());
     }
 
+    /**
+     * Compiles the service-specific rules, followed by the global rules, into a
+     * single matcher and authorization manager.
+     *
+     * @return the compiled access rules
+     * @see GatewayConfigProperties#isCompiledAccessRules()
+     */
+    @VisibleForTesting
+    CompiledAccessRules compile() {
+        PathPatternIndex.Builder<ReactiveAuthorizationManager<AuthorizationContext>> index = PathPatternIndex.builder();
+        config.getServices().forEach((name, service) -> compile(index, service.getAccessRules()));
+        compile(index, config.getGlobalAccessRules());
+        return new CompiledAccessRules(index.build());
+    }
+
+    private void compile(PathPatternIndex.Builder<ReactiveAuthorizationManager<AuthorizationContext>> index,
+            List<RoleBasedAccessRule> accessRules) {
+        if (accessRules == null) {
+            return;
+        }
+        for (RoleBasedAccessRule rule : accessRules) {
+            final List<String> antPatterns = resolveAntPatterns(rule);
+            final ReactiveAuthorizationManager<AuthorizationContext> manager = authorizationManager(rule);
+            antPatterns.forEach(pattern -> index.add(pattern, manager));
+        }
+    }
+
+    /**
+     * Creates the authorization manager granting or denying access as described in
+     * {@link #apply(AuthorizeExchangeSpec, RoleBasedAccessRule)}.
+     */
+    private ReactiveAuthorizationManager<AuthorizationContext> authorizationManager(RoleBasedAccessRule rule) {
+        final List<String> allowedRoles = rule.getAllowedRoles() == null ? List.of() : rule.getAllowedRoles();
+        if (rule.isForbidden()) {
+            return (authentication, context) -> Mono.just(new AuthorizationDecision(false));
+        }
+        if (rule.isAnonymous()) {
+            return (authentication, context) -> Mono.just(new AuthorizationDecision(true));
+        }
+        if (allowedRoles.isEmpty()) {
+            return AuthenticatedReactiveAuthorizationManager.authenticated();
+        }
+        List<String> roles = resolveRoles(rule.getInterceptUrl(), allowedRoles);
+        return GeorchestraUserRolesAuthorizationManager.hasAnyAuthority(userMapper, roles.toArray(String[]::new));
+    }
+
     /**
      * Applies a set of access rules to the provided {@link AuthorizeExchangeSpec}.
      *
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.accessrules;
+
+import java.util.Map;
+
+import org.georchestra.gateway.model.RoleBasedAccessRule;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.web.server.ServerWebExchange;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Evaluates all the {@link RoleBasedAccessRule role-based access rules} as a
+ * single {@link ServerWebExchangeMatcher} and
+ * {@link ReactiveAuthorizationManager} pair, instead of one
+ * {@code pathMatchers(...).access(...)} entry per rule.
+ * <p>
+ * The rules intercept URLs are compiled into a {@link PathPatternIndex}, so
+ * finding the rule that applies to a request costs about the depth of its path,
+ * with the same first-match semantics as the chain of path matchers. The
+ * matcher matches if any rule applies, and hands the rule's authorization
+ * manager over to {@link #check} as a match variable, so the lookup is done
+ * only once per request.
+ *
+ * @see AccessRulesCustomizer
+ */
+@RequiredArgsConstructor
+class CompiledAccessRules implements ServerWebExchangeMatcher, ReactiveAuthorizationManager<AuthorizationContext> {
+
+    static final String RULE_VARIABLE = CompiledAccessRules.class.getName() + ".rule";
+
+    private static final Mono<AuthorizationDecision> DENIED = Mono.just(new AuthorizationDecision(false));
+
+    private final @NonNull PathPatternIndex<ReactiveAuthorizationManager<AuthorizationContext>> index;
+
+    /**
+     * @return the number of compiled intercept URLs
+     */
+    int size() {
+        return index.size();
+    }
+
+    @Override
+    public Mono<MatchResult> matches(ServerWebExchange exchange) {
+        ReactiveAuthorizationManager<AuthorizationContext> manager = lookup(exchange);
+        return manager == null ? MatchResult.notMatch() : MatchResult.match(Map.of(RULE_VARIABLE, manager));
+    }
+
+    @SuppressWarnings({ "unchecked", "deprecation" })
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        Object matched = context.getVariables().get(RULE_VARIABLE);
+        ReactiveAuthorizationManager<AuthorizationContext> manager = matched instanceof ReactiveAuthorizationManager<?> m
+                ? (ReactiveAuthorizationManager<AuthorizationContext>) m
+                : lookup(context.getExchange());
+        return manager == null ? DENIED : manager.check(authentication, context);
+    }
+
+    private ReactiveAuthorizationManager<AuthorizationContext> lookup(ServerWebExchange exchange) {
+        return index.match(exchange.getRequest().getPath().pathWithinApplication());
+    }
+}
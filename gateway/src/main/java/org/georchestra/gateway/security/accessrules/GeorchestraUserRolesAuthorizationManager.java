@@ -32,7 +32,9 @@ import org.springframework.security.authorization.ReactiveAuthorizationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
 import org.springframework.util.Assert;
+import org.springframework.web.server.ServerWebExchange;
 
 import com.google.common.annotations.VisibleForTesting;
 
@@ -50,6 +52,11 @@ import reactor.core.publisher.Mono;
  * {@code sec-roles} header, and we need to also account for those derived role
  * names when granting access to an URI (see {@link AccessRulesCustomizer#apply}
  * and {@link AccessRulesCustomizer#hasAnyAuthority}).
+ * <p>
+ * When the authorized object is an {@link AuthorizationContext}, the user is
+ * resolved through
+ * {@link GeorchestraUserMapper#resolveAsync(Authentication, ServerWebExchange)}
+ * so that the mapping is reused by the rest of the request processing chain.
  */
 class GeorchestraUserRolesAuthorizationManager<T> implements ReactiveAuthorizationManager<T> {
 
@@ -67,17 +74,30 @@ class GeorchestraUserRolesAuthorizationManager<T> implements ReactiveAuthorizati
 
     @Override
     public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, T object) {
-        return authentication.map(this::authorize).map(
+        final ServerWebExchange exchange = object instanceof AuthorizationContext context ? context.getExchange()
+                : null;
+        return authentication.flatMap(auth -> authorize(auth, exchange)).map(
                 (granted) -> ((AuthorizationDecision) new AuthorityAuthorizationDecision(granted, this.authorities)))
                 .defaultIfEmpty(unauthorized);
     }
 
     @VisibleForTesting
     boolean authorize(Authentication authentication) {
+        return authorize(authentication, null).block();
+    }
+
+    @VisibleForTesting
+    Mono<Boolean> authorize(Authentication authentication, ServerWebExchange exchange) {
         if (!authentication.isAuthenticated()) {
-            return false;
+            return Mono.just(false);
         }
-        Optional<GeorchestraUser> user = userMapper.resolve(authentication);
+        Mono<GeorchestraUser> user = exchange == null ? userMapper.resolveAsync(authentication)
+                : userMapper.resolveAsync(authentication, exchange);
+        return user.map(Optional::of).defaultIfEmpty(Optional.empty())
+                .map(resolved -> hasAnyAuthority(authentication, resolved));
+    }
+
+    private boolean hasAnyAuthority(Authentication authentication, Optional<GeorchestraUser> user) {
         Stream<String> effectiveRoles = user.map(GeorchestraUser::getRoles).map(List::stream).orElse(Stream.empty());
         Stream<String> grandtedAuthorities = authentication.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority);
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.accessrules;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.PathContainer.PathSegment;
+import org.springframework.lang.Nullable;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import lombok.NonNull;
+
+/**
+ * Index of URI path patterns, each one associated to a value, returning the
+ * value of the first pattern, in insertion order, matching a request path.
+ * <p>
+ * Patterns are parsed the same way Spring Security's
+ * {@code ServerHttpSecurity.AuthorizeExchangeSpec#pathMatchers(String...)}
+ * does, and indexed in a prefix trie by their leading literal path segments
+ * (i.e. the ones up to the first segment containing a wildcard or a URI
+ * variable). Looking up a path walks down the trie following the path's
+ * segments, and only evaluates the patterns indexed at the visited nodes, so
+ * the cost is proportional to the path depth and the number of patterns sharing
+ * its prefix, instead of the total number of patterns.
+ * <p>
+ * The result is the same as evaluating all the patterns in order, since a
+ * pattern can only match a path starting with its leading literal segments.
+ *
+ * @param <T> the type of the values associated to the patterns
+ */
+class PathPatternIndex<T> {
+
+    private static final PathPatternParser PARSER = PathPatternParser.defaultInstance;
+
+    private final Node<T> root;
+
+    private final int size;
+
+    private PathPatternIndex(Node<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return a builder to add patterns to, in priority order
+     */
+    static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @return the number of indexed patterns
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of the first pattern matching {@code path}.
+     *
+     * @param path the request path, usually
+     *             {@code ServerHttpRequest.getPath().pathWithinApplication()}
+     * @return the value associated to the first matching pattern, or {@code null}
+     *         if no pattern matches
+     */
+    @Nullable
+    T match(@NonNull PathContainer path) {
+        Node<T> node = root;
+        Entry<T> best = node.firstMatch(path, null);
+        for (PathContainer.Element element : path.elements()) {
+            if (element instanceof PathSegment segment) {
+                node = node.children.get(segment.valueToMatch());
+                if (node == null) {
+                    break;
+                }
+                best = node.firstMatch(path, best);
+            }
+        }
+        return best == null ? null : best.value();
+    }
+
+    private static record Entry<T>(int order, PathPattern pattern, T value) {
+    }
+
+    private static class Node<T> {
+        private Map<String, Node<T>> children = new HashMap<>();
+        private List<Entry<T>> entries = new ArrayList<>();
+
+        Node<T> child(String segment) {
+            return children.computeIfAbsent(segment, s -> new Node<>());
+        }
+
+        /**
+         * Returns the first entry of this node matching {@code path} if it has
+         * precedence over {@code best}, or {@code best} otherwise. Entries are sorted
+         * by order, so only the ones preceding {@code best} are evaluated.
+         */
+        Entry<T> firstMatch(PathContainer path, @Nullable Entry<T> best) {
+            final int limit = best == null ? Integer.MAX_VALUE : best.order();
+            for (int i = 0; i < entries.size(); i++) {
+                Entry<T> entry = entries.get(i);
+                if (entry.order() >= limit) {
+                    break;
+                }
+                if (entry.pattern().matches(path)) {
+                    return entry;
+                }
+            }
+            return best;
+        }
+
+        void freeze() {
+            children.values().forEach(Node::freeze);
+            children = Map.copyOf(children);
+            entries = List.copyOf(entries);
+        }
+    }
+
+    /**
+     * Collects the patterns of a {@link PathPatternIndex}, in priority order.
+     */
+    static class Builder<T> {
+        private final Node<T> root = new Node<>();
+        private int size;
+
+        /**
+         * Adds a pattern with lower priority than the previously added ones.
+         *
+         * @param pattern the path pattern, as accepted by
+         *                {@code AuthorizeExchangeSpec#pathMatchers(String...)}
+         * @param value   the value to return when {@code pattern} is the first one
+         *                matching a path
+         * @return {@code this}
+         */
+        Builder<T> add(@NonNull String pattern, @NonNull T value) {
+            final String fullPattern = PARSER.initFullPathPattern(pattern);
+            final PathPattern parsed = PARSER.parse(fullPattern);
+            Node<T> node = root;
+            for (String segment : literalPrefix(fullPattern)) {
+                node = node.child(segment);
+            }
+            node.entries.add(new Entry<>(size++, parsed, value));
+            return this;
+        }
+
+        PathPatternIndex<T> build() {
+            root.freeze();
+            return new PathPatternIndex<>(root, size);
+        }
+
+        /**
+         * Returns the leading path segments of {@code pattern} that can only match
+         * themselves.
+         */
+        private static List<String> literalPrefix(String pattern) {
+            List<String> literals = new ArrayList<>();
+            if (!pattern.startsWith("/")) {
+                return literals;
+            }
+            String[] segments = pattern.substring(1).split("/", -1);
+            // stop at empty segments too (i.e. double or trailing separators)
+            for (String segment : segments) {
+                if (segment.isEmpty() || !isLiteral(segment)) {
+                    break;
+                }
+                literals.add(segment);
+            }
+            return literals;
+        }
+
+        private static boolean isLiteral(String segment) {
+            for (int i = 0; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (c == '*' || c == '?' || c == '{' || c == ';') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
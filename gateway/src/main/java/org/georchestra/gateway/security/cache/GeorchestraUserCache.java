@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.georchestra.gateway.accounts.admin.AccountCreated;
+import org.georchestra.gateway.security.GeorchestraUserMapper;
+import org.georchestra.security.model.GeorchestraUser;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Time and size bounded cache of resolved {@link GeorchestraUser}s, used by
+ * {@link GeorchestraUserMapper} to avoid mapping the same authenticated
+ * principal (which may involve several LDAP lookups) on every request of its
+ * session.
+ * <p>
+ * Entries are keyed by principal name and authentication type (see
+ * {@link UserCacheKey}) and expire a fixed time after being resolved. Only
+ * successfully resolved users are cached; empty results and errors are not.
+ * <p>
+ * Entries are evicted:
+ * <ul>
+ * <li>On logout, through {@link GeorchestraUserCacheLogoutHandler}.</li>
+ * <li>When an {@link AccountCreated} event is published for the user.</li>
+ * <li>On demand, through the {@link GeorchestraUserCacheEndpoint actuator
+ * endpoint}.</li>
+ * </ul>
+ * <p>
+ * Cached {@link GeorchestraUser} instances are shared by all the requests of
+ * the principal, and hence must be treated as read-only.
+ */
+@Slf4j(topic = "org.georchestra.gateway.security.cache")
+public class GeorchestraUserCache {
+
+    private final Cache<UserCacheKey, GeorchestraUser> cache;
+
+    /**
+     * @param ttl         how long entries are kept after being resolved
+     * @param maximumSize the maximum number of cached entries
+     */
+    public GeorchestraUserCache(@NonNull Duration ttl, long maximumSize) {
+        this(ttl, maximumSize, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    GeorchestraUserCache(@NonNull Duration ttl, long maximumSize, @NonNull Ticker ticker) {
+        this.cache = CacheBuilder.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).ticker(ticker)
+                .recordStats().build();
+    }
+
+    /**
+     * Returns the cached user for the given authentication, or resolves it with
+     * {@code loader} and caches the result if present.
+     *
+     * @param auth   the authentication token to resolve the user for
+     * @param loader function to resolve the user on a cache miss
+     * @return the cached or freshly resolved user
+     */
+    public Mono<GeorchestraUser> get(@NonNull Authentication auth,
+            @NonNull Function<Authentication, Mono<GeorchestraUser>> loader) {
+        return Mono.defer(() -> {
+            final UserCacheKey key = UserCacheKey.of(auth);
+            GeorchestraUser cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return loader.apply(auth).doOnNext(user -> cache.put(key, user));
+        });
+    }
+
+    /**
+     * Evicts the cached user for the given authentication token, if any.
+     */
+    public void invalidate(@NonNull Authentication auth) {
+        cache.invalidate(UserCacheKey.of(auth));
+    }
+
+    /**
+     * Evicts all cached entries for the user with the given
+     * {@link GeorchestraUser#getUsername() username}, regardless of the
+     * authentication mechanism it was resolved from.
+     *
+     * @return the number of evicted entries
+     */
+    public int invalidate(@NonNull String username) {
+        int evicted = 0;
+        for (Iterator<GeorchestraUser> it = cache.asMap().values().iterator(); it.hasNext();) {
+            if (Objects.equals(username, it.next().getUsername())) {
+                it.remove();
+                evicted++;
+            }
+        }
+        log.debug("Evicted {} cached entries for user {}", evicted, username);
+        return evicted;
+    }
+
+    /**
+     * Evicts all cached entries.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        log.debug("Evicted all cached users");
+    }
+
+    /**
+     * @return the approximate number of cached entries
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * @return a snapshot of the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Evicts the cached entries for a newly created account, so that the next
+     * request resolves it again with all the attributes assigned on creation.
+     */
+    @EventListener
+    public void on(AccountCreated event) {
+        invalidate(event.getUser().getUsername());
+    }
+
+    @VisibleForTesting
+    Cache<UserCacheKey, GeorchestraUser> getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.Generated;
+import lombok.experimental.Accessors;
+
+/**
+ * Configuration properties for the {@link GeorchestraUserCache}, a short-lived
+ * cache of resolved {@link org.georchestra.security.model.GeorchestraUser}s
+ * shared across the requests of an authenticated session.
+ * <p>
+ * The cache is disabled by default. When enabled, changes made to a user in the
+ * identity backend (e.g. roles granted through the console) are picked up at
+ * most {@link #getTtl() ttl} after the user was first resolved, or right away
+ * after logging out.
+ * <p>
+ * Example configuration in {@code application.yml}:
+ * 
+ * <pre>
+ * {@code
+ * georchestra:
+ *   gateway:
+ *     security:
+ *       user-cache:
+ *         enabled: true
+ *         ttl: 1m
+ *         maximum-size: 10000
+ * }
+ * </pre>
+ */
+@Data
+@Generated
+@Validated
+@Accessors(chain = true)
+@ConfigurationProperties(GeorchestraUserCacheConfigProperties.PROPERTY_BASE)
+public class GeorchestraUserCacheConfigProperties {
+
+    /** Base property prefix for the user cache settings. */
+    static final String PROPERTY_BASE = "georchestra.gateway.security.user-cache";
+
+    /** Property key for enabling the user cache. */
+    public static final String ENABLED_PROPERTY = PROPERTY_BASE + ".enabled";
+
+    /**
+     * Whether resolved users are cached across requests.
+     */
+    private boolean enabled = false;
+
+    /**
+     * How long a resolved user is kept in the cache after it's been resolved.
+     */
+    @NotNull
+    private Duration ttl = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of cached users. When exceeded, least recently used entries
+     * are evicted.
+     */
+    @Positive
+    private long maximumSize = 10_000;
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configures the {@link GeorchestraUserCache} when
+ * {@code georchestra.gateway.security.user-cache.enabled=true}.
+ * <p>
+ * Contributes the cache itself, picked up by
+ * {@link org.georchestra.gateway.security.GatewaySecurityConfiguration} to
+ * decorate the {@link org.georchestra.gateway.security.GeorchestraUserMapper}
+ * and the logout handlers, its Micrometer metrics (under the
+ * {@code cache.*{cache=georchestra.users}} meters), and the
+ * {@link GeorchestraUserCacheEndpoint} actuator endpoint.
+ *
+ * @see GeorchestraUserCacheConfigProperties
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = GeorchestraUserCacheConfigProperties.ENABLED_PROPERTY, havingValue = "true")
+@EnableConfigurationProperties(GeorchestraUserCacheConfigProperties.class)
+@Slf4j(topic = "org.georchestra.gateway.security.cache")
+public class GeorchestraUserCacheConfiguration {
+
+    @Bean
+    GeorchestraUserCache georchestraUserCache(GeorchestraUserCacheConfigProperties config,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        log.info("Caching resolved users for {}, up to {} entries", config.getTtl(), config.getMaximumSize());
+        GeorchestraUserCache cache = new GeorchestraUserCache(config.getTtl(), config.getMaximumSize());
+        meterRegistry
+                .ifAvailable(registry -> GuavaCacheMetrics.monitor(registry, cache.getCache(), "georchestra.users"));
+        return cache;
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    GeorchestraUserCacheEndpoint georchestraUserCacheEndpoint(GeorchestraUserCache cache) {
+        return new GeorchestraUserCacheEndpoint(cache);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import com.google.common.cache.CacheStats;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint to inspect and evict the {@link GeorchestraUserCache}.
+ * <ul>
+ * <li>{@code GET /actuator/usercache}: returns the cache statistics.</li>
+ * <li>{@code DELETE /actuator/usercache}: evicts all cached users.</li>
+ * <li>{@code DELETE /actuator/usercache/{username}}: evicts the cached entries
+ * of a single user, for example after changing its roles.</li>
+ * </ul>
+ */
+@Endpoint(id = "usercache")
+@RequiredArgsConstructor
+public class GeorchestraUserCacheEndpoint {
+
+    private final @NonNull GeorchestraUserCache cache;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("size", cache.size());
+        ret.put("hitCount", stats.hitCount());
+        ret.put("missCount", stats.missCount());
+        ret.put("hitRate", stats.hitRate());
+        ret.put("evictionCount", stats.evictionCount());
+        return ret;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> invalidateAll() {
+        long size = cache.size();
+        cache.invalidateAll();
+        return Map.of("evicted", size);
+    }
+
+    @DeleteOperation
+    public Map<String, Object> invalidate(@Selector String username) {
+        return Map.of("evicted", cache.invalidate(username));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.cache;
+
+import org.georchestra.gateway.security.ldap.extended.GeorchestraUserNamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import lombok.NonNull;
+
+/**
+ * {@link GeorchestraUserCache} key, identifying a principal for a given kind of
+ * {@link Authentication}.
+ * <p>
+ * The {@code source} discriminates principals with the same name coming from
+ * different identity sources of the same authentication type: the client
+ * registration id for OAuth2/OpenID Connect, the LDAP configuration name for
+ * geOrchestra LDAP databases, and the full set of {@code preauth-*} headers for
+ * header pre-authentication, since those carry the user attributes themselves.
+ *
+ * @param authenticationType the {@link Authentication} implementation class
+ *                           name
+ * @param principal          the {@link Authentication#getName() principal name}
+ * @param source             the identity source discriminator, may be
+ *                           {@code null}
+ */
+record UserCacheKey(@NonNull String authenticationType, @NonNull String principal, Object source) {
+
+    static UserCacheKey of(@NonNull Authentication auth) {
+        return new UserCacheKey(auth.getClass().getName(), String.valueOf(auth.getName()), source(auth));
+    }
+
+    private static Object source(Authentication auth) {
+        if (auth instanceof OAuth2AuthenticationToken oauth2) {
+            return oauth2.getAuthorizedClientRegistrationId();
+        }
+        if (auth instanceof GeorchestraUserNamePasswordAuthenticationToken ldap) {
+            return ldap.getConfigName();
+        }
+        if (auth instanceof PreAuthenticatedAuthenticationToken preauth) {
+            return preauth.getCredentials();
+        }
+        return null;
+    }
+}
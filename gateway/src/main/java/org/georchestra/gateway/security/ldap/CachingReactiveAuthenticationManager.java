@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.ldap;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+import org.georchestra.gateway.security.ldap.extended.ExtendedPasswordPolicyAwareContextSource;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.ldap.ppolicy.PasswordPolicyData;
+import org.springframework.util.StringUtils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveAuthenticationManager} decorator that caches the outcome of
+ * username/password authentications, so that clients sending HTTP Basic
+ * credentials on every request (e.g. QGIS or GDAL fetching tiles) don't cause
+ * an LDAP bind and roles search each time.
+ * <p>
+ * Entries are keyed by a SHA-256 hash of the username and password, salted with
+ * a random value generated at startup, so that no credentials are kept in
+ * memory. Only {@link UsernamePasswordAuthenticationToken}s with non-empty
+ * credentials are cached; any other authentication is delegated as is.
+ * <p>
+ * Successful authentications are cached for a short time. Failures caused by
+ * bad credentials or the account status (e.g. a locked account or an expired
+ * password, as reported by {@link ExtendedPasswordPolicyAwareContextSource})
+ * are cached for an even shorter time, and replayed with the same exception, so
+ * failure handlers behave the same. Transient failures (e.g. the LDAP server
+ * being unreachable) are never cached.
+ * <p>
+ * Password policy semantics are preserved: a successful authentication is never
+ * cached past the time the LDAP server reported the password will expire, and
+ * authentications using grace logins of an already expired password are not
+ * cached, so that each one is accounted for by the LDAP server.
+ */
+@Slf4j(topic = "org.georchestra.gateway.security.ldap")
+public class CachingReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final @NonNull ReactiveAuthenticationManager delegate;
+
+    private final Ticker ticker;
+
+    private final long ttlNanos;
+
+    private final byte[] salt = new byte[32];
+
+    private final Cache<HashCode, CachedAuthentication> successes;
+
+    private final Cache<HashCode, AuthenticationException> failures;
+
+    /**
+     * @param delegate    the authentication manager to cache the outcomes of
+     * @param ttl         how long successful authentications are cached
+     * @param failureTtl  how long failed authentications are cached
+     * @param maximumSize maximum number of cached successful, and failed,
+     *                    authentications
+     */
+    public CachingReactiveAuthenticationManager(@NonNull ReactiveAuthenticationManager delegate, @NonNull Duration ttl,
+            @NonNull Duration failureTtl, long maximumSize) {
+        this(delegate, ttl, failureTtl, maximumSize, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    CachingReactiveAuthenticationManager(@NonNull ReactiveAuthenticationManager delegate, @NonNull Duration ttl,
+            @NonNull Duration failureTtl, long maximumSize, @NonNull Ticker ticker) {
+        this.delegate = delegate;
+        this.ticker = ticker;
+        this.ttlNanos = ttl.toNanos();
+        new SecureRandom().nextBytes(salt);
+        this.successes = CacheBuilder.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).ticker(ticker)
+                .recordStats().build();
+        this.failures = CacheBuilder.newBuilder().expireAfterWrite(failureTtl).maximumSize(maximumSize).ticker(ticker)
+                .recordStats().build();
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        final HashCode key = key(authentication);
+        if (key == null) {
+            return delegate.authenticate(authentication);
+        }
+        CachedAuthentication cached = successes.getIfPresent(key);
+        if (cached != null) {
+            if (ticker.read() < cached.expiresAt()) {
+                log.trace("Authentication of {} served from cache", authentication.getName());
+                return Mono.just(cached.authentication());
+            }
+            successes.invalidate(key);
+        }
+        AuthenticationException failure = failures.getIfPresent(key);
+        if (failure != null) {
+            log.trace("Failed authentication of {} served from cache", authentication.getName());
+            return Mono.error(failure);
+        }
+        return delegate.authenticate(authentication).doOnNext(auth -> cacheSuccess(key, auth))
+                .doOnError(AuthenticationException.class, e -> cacheFailure(key, e));
+    }
+
+    private void cacheSuccess(HashCode key, Authentication auth) {
+        long ttl = ttlNanos;
+        if (auth.getPrincipal() instanceof PasswordPolicyData ppolicy) {
+            if (ppolicy.getGraceLoginsRemaining() < Integer.MAX_VALUE) {
+                return;
+            }
+            if (ppolicy.getTimeBeforeExpiration() < Integer.MAX_VALUE) {
+                ttl = Math.min(ttl, Duration.ofSeconds(ppolicy.getTimeBeforeExpiration()).toNanos());
+            }
+        }
+        successes.put(key, new CachedAuthentication(auth, ticker.read() + ttl));
+        failures.invalidate(key);
+    }
+
+    private void cacheFailure(HashCode key, AuthenticationException e) {
+        if (e instanceof BadCredentialsException || e instanceof AccountStatusException) {
+            failures.put(key, e);
+        }
+    }
+
+    /**
+     * @return the cache key for the authentication request, or {@code null} if it
+     *         shall not be cached
+     */
+    private HashCode key(Authentication authentication) {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken)
+                || !(authentication.getCredentials() instanceof String password) || !StringUtils.hasLength(password)
+                || !StringUtils.hasLength(authentication.getName())) {
+            return null;
+        }
+        return Hashing.sha256().newHasher().putBytes(salt).putString(authentication.getName(), StandardCharsets.UTF_8)
+                .putByte((byte) 0).putString(password, StandardCharsets.UTF_8).hash();
+    }
+
+    Cache<HashCode, CachedAuthentication> successes() {
+        return successes;
+    }
+
+    Cache<HashCode, AuthenticationException> failures() {
+        return failures;
+    }
+
+    /**
+     * A successful authentication and the {@link Ticker#read() ticker time} it
+     * expires at.
+     */
+    record CachedAuthentication(Authentication authentication, long expiresAt) {
+    }
+}
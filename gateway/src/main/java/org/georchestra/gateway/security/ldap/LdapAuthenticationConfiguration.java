@@ -24,11 +24,15 @@ import java.util.List;
 import java.util.stream.Stream;
 
 import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties;
+import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties.AuthenticationCache;
+import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties.ParallelAuthentication;
+import org.georchestra.gateway.security.ldap.ParallelLdapAuthenticationManager.Provider;
 import org.georchestra.gateway.security.ServerHttpSecurityCustomizer;
 import org.georchestra.gateway.security.ldap.basic.BasicLdapAuthenticationConfiguration;
 import org.georchestra.gateway.security.ldap.basic.BasicLdapAuthenticationProvider;
 import org.georchestra.gateway.security.ldap.extended.ExtendedLdapAuthenticationConfiguration;
 import org.georchestra.gateway.security.ldap.extended.GeorchestraLdapAuthenticationProvider;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -42,7 +46,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
 import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * {@link ServerHttpSecurityCustomizer} to enable LDAP-based authentication and
@@ -137,16 +144,32 @@ public class LdapAuthenticationConfiguration {
      * This manager supports both basic and extended LDAP authentication providers.
      * If no providers are available, {@code null} is returned.
      * </p>
+     * <p>
+     * If {@code georchestra.gateway.security.ldap-authentication-cache.enabled} is
+     * {@code true}, the authentication outcomes are cached by a
+     * {@link CachingReactiveAuthenticationManager}.
+     * </p>
+     * <p>
+     * If {@code georchestra.gateway.security.ldap-parallel-authentication.enabled}
+     * is {@code true} and there are several providers, they're queried concurrently
+     * by a {@link ParallelLdapAuthenticationManager} instead of one after the
+     * other.
+     * </p>
      *
-     * @param basic    a list of {@link BasicLdapAuthenticationProvider} instances
-     * @param extended a list of {@link GeorchestraLdapAuthenticationProvider}
-     *                 instances
+     * @param basic         a list of {@link BasicLdapAuthenticationProvider}
+     *                      instances
+     * @param extended      a list of {@link GeorchestraLdapAuthenticationProvider}
+     *                      instances
+     * @param config        the security configuration properties
+     * @param meterRegistry the registry to publish the authentication cache metrics
+     *                      to, if available
      * @return a {@link ReactiveAuthenticationManager} if providers are available,
      *         otherwise {@code null}
      */
     @Bean
     ReactiveAuthenticationManager ldapAuthenticationManager(List<BasicLdapAuthenticationProvider> basic,
-            List<GeorchestraLdapAuthenticationProvider> extended) {
+            List<GeorchestraLdapAuthenticationProvider> extended, GeorchestraGatewaySecurityConfigProperties config,
+            ObjectProvider<MeterRegistry> meterRegistry) {
 
         List<AuthenticationProvider> flattened = Stream.concat(basic.stream(), extended.stream())
                 .map(AuthenticationProvider.class::cast).toList();
@@ -156,7 +179,39 @@ public class LdapAuthenticationConfiguration {
             return null;
         }
 
-        ProviderManager providerManager = new ProviderManager(flattened);
-        return new ReactiveAuthenticationManagerAdapter(providerManager);
+        ReactiveAuthenticationManager manager;
+        ParallelAuthentication parallelConfig = config.getLdapParallelAuthentication();
+        if (parallelConfig.isEnabled() && flattened.size() > 1) {
+            List<Provider> providers = Stream.concat(//
+                    basic.stream()
+                            .map(p -> new Provider(p.getConfigName(), p, parallelConfig.timeout(p.getConfigName()))),
+                    extended.stream()
+                            .map(p -> new Provider(p.getConfigName(), p, parallelConfig.timeout(p.getConfigName()))))
+                    .toList();
+            log.info("Authenticating against LDAP databases {} concurrently",
+                    providers.stream().map(Provider::name).toList());
+            ParallelLdapAuthenticationManager parallel = new ParallelLdapAuthenticationManager(providers,
+                    Schedulers.boundedElastic(), parallelConfig.getDirectoryTtl(), parallelConfig.getMaximumSize());
+            meterRegistry.ifAvailable(registry -> GuavaCacheMetrics.monitor(registry, parallel.directories(),
+                    "georchestra.ldap.authentication.directories"));
+            manager = parallel;
+        } else {
+            ProviderManager providerManager = new ProviderManager(flattened);
+            manager = new ReactiveAuthenticationManagerAdapter(providerManager);
+        }
+
+        AuthenticationCache cacheConfig = config.getLdapAuthenticationCache();
+        if (cacheConfig.isEnabled()) {
+            log.info("Caching LDAP authentications for {} (failures for {}), up to {} entries", cacheConfig.getTtl(),
+                    cacheConfig.getFailureTtl(), cacheConfig.getMaximumSize());
+            CachingReactiveAuthenticationManager caching = new CachingReactiveAuthenticationManager(manager,
+                    cacheConfig.getTtl(), cacheConfig.getFailureTtl(), cacheConfig.getMaximumSize());
+            meterRegistry.ifAvailable(registry -> {
+                GuavaCacheMetrics.monitor(registry, caching.successes(), "georchestra.ldap.authentication");
+                GuavaCacheMetrics.monitor(registry, caching.failures(), "georchestra.ldap.authentication.failures");
+            });
+            manager = caching;
+        }
+        return manager;
     }
 }
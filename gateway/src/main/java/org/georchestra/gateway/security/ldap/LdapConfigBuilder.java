@@ -55,7 +55,8 @@ public class LdapConfigBuilder {
                 .usersRdn(config.getUsers().getRdn()).usersSearchFilter(searchFilter)
                 .returningAttributes(config.getUsers().getReturningAttributes()).rolesRdn(config.getRoles().getRdn())
                 .rolesSearchFilter(config.getRoles().getSearchFilter()).adminDn(toOptional(config.getAdminDn()))
-                .adminPassword(toOptional(config.getAdminPassword())).build();
+                .adminPassword(toOptional(config.getAdminPassword())).connectTimeout(config.getConnectTimeout())
+                .readTimeout(config.getReadTimeout()).build();
     }
 
     /**
@@ -72,7 +73,8 @@ public class LdapConfigBuilder {
                 .returningAttributes(config.getUsers().getReturningAttributes()).rolesRdn(config.getRoles().getRdn())
                 .rolesSearchFilter(config.getRoles().getSearchFilter()).orgsRdn(config.getOrgs().getRdn())
                 .pendingOrgsRdn(config.getOrgs().getPendingRdn()).adminDn(toOptional(config.getAdminDn()))
-                .adminPassword(toOptional(config.getAdminPassword())).build();
+                .adminPassword(toOptional(config.getAdminPassword())).connectTimeout(config.getConnectTimeout())
+                .readTimeout(config.getReadTimeout()).build();
     }
 
     /**
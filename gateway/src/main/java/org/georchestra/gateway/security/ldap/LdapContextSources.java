@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.ldap;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties;
+import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties.ConnectionPool;
+import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties.Server;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.ldap.core.ContextSource;
+import org.springframework.ldap.core.support.BaseLdapPathContextSource;
+import org.springframework.ldap.core.support.LdapContextSource;
+import org.springframework.ldap.pool.factory.PoolingContextSource;
+import org.springframework.ldap.pool.validation.DefaultDirContextValidator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the {@link ContextSource} used to query each configured LDAP server.
+ * <p>
+ * A single context source is created per {@link Server} configuration name,
+ * authenticated as the server's {@code adminDn} if set, and shared by the LDAP
+ * authentication providers (user and role searches) and the geOrchestra users,
+ * organizations, and roles DAOs. Unless disabled through
+ * {@code georchestra.gateway.security.ldap.<name>.pool.enabled}, connections
+ * are pooled as configured by the server's {@link ConnectionPool}, and the pool
+ * usage is published as {@code georchestra.ldap.pool.active} and
+ * {@code georchestra.ldap.pool.idle} gauges tagged by {@code server} name.
+ * <p>
+ * User password binds are never served by these context sources, since a pooled
+ * connection can't change the identity it is bound as.
+ */
+@Slf4j(topic = "org.georchestra.gateway.security.ldap")
+public class LdapContextSources implements DisposableBean {
+
+    static final String CONNECT_TIMEOUT_ENV = "com.sun.jndi.ldap.connect.timeout";
+    static final String READ_TIMEOUT_ENV = "com.sun.jndi.ldap.read.timeout";
+
+    private final GeorchestraGatewaySecurityConfigProperties config;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, BaseLdapPathContextSource> sources = new ConcurrentHashMap<>();
+
+    /**
+     * @param config        the security configuration properties holding the
+     *                      {@link Server} configurations
+     * @param meterRegistry the registry to publish the pool metrics to, or
+     *                      {@code null}
+     */
+    public LdapContextSources(@NonNull GeorchestraGatewaySecurityConfigProperties config,
+            @Nullable MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns the shared context source for the LDAP server configuration named
+     * {@code name}, creating it on first use.
+     *
+     * @param name the LDAP configuration name, as in
+     *             {@code georchestra.gateway.security.ldap.<name>}
+     * @return the shared context source
+     * @throws IllegalArgumentException if there's no such LDAP configuration
+     */
+    public BaseLdapPathContextSource get(@NonNull String name) {
+        return sources.computeIfAbsent(name, this::create);
+    }
+
+    /**
+     * Builds the JNDI environment properties enforcing the given connect and read
+     * timeouts, ignoring {@code null}, zero, or negative values.
+     *
+     * @param connectTimeout maximum time to wait while opening a connection
+     * @param readTimeout    maximum time to wait for the server to answer a request
+     * @return the environment properties to set on a context source
+     */
+    public static Map<String, Object> timeoutEnvironment(@Nullable Duration connectTimeout,
+            @Nullable Duration readTimeout) {
+        Map<String, Object> env = new HashMap<>();
+        if (connectTimeout != null && connectTimeout.isPositive()) {
+            env.put(CONNECT_TIMEOUT_ENV, String.valueOf(connectTimeout.toMillis()));
+        }
+        if (readTimeout != null && readTimeout.isPositive()) {
+            env.put(READ_TIMEOUT_ENV, String.valueOf(readTimeout.toMillis()));
+        }
+        return env;
+    }
+
+    /**
+     * Closes all pooled connections.
+     */
+    @Override
+    public void destroy() throws Exception {
+        for (BaseLdapPathContextSource source : sources.values()) {
+            if (source instanceof DisposableBean disposable) {
+                disposable.destroy();
+            }
+        }
+        sources.clear();
+    }
+
+    private BaseLdapPathContextSource create(String name) {
+        Server server = config.getLdap() == null ? null : config.getLdap().get(name);
+        if (server == null) {
+            throw new IllegalArgumentException("LDAP configuration '%s' does not exist".formatted(name));
+        }
+        LdapContextSource target = new LdapContextSource();
+        target.setUrl(server.getUrl());
+        target.setBase(server.getBaseDn());
+        if (StringUtils.hasText(server.getAdminDn())) {
+            target.setUserDn(server.getAdminDn());
+            target.setPassword(server.getAdminPassword());
+        }
+        target.setBaseEnvironmentProperties(timeoutEnvironment(server.getConnectTimeout(), server.getReadTimeout()));
+        target.afterPropertiesSet();
+
+        ConnectionPool pool = server.getPool();
+        if (pool == null || !pool.isEnabled()) {
+            log.info("Using non pooled LDAP connections for {} at {}", name, server.getUrl());
+            return target;
+        }
+        log.info("Pooling LDAP connections for {} at {} (max active: {}, max idle: {}, min idle: {})", name,
+                server.getUrl(), pool.getMaxActive(), pool.getMaxIdle(), pool.getMinIdle());
+        PooledContextSource pooled = new PooledContextSource();
+        pooled.setContextSource(target);
+        pooled.setDirContextValidator(new DefaultDirContextValidator());
+        pooled.setMinIdle(pool.getMinIdle());
+        pooled.setMaxIdle(pool.getMaxIdle());
+        pooled.setMaxActive(pool.getMaxActive());
+        pooled.setMaxTotal(pool.getMaxTotal());
+        pooled.setMaxWait(toMillis(pool.getMaxWait()));
+        pooled.setTestOnBorrow(pool.isTestOnBorrow());
+        pooled.setTestWhileIdle(pool.isTestWhileIdle());
+        pooled.setTimeBetweenEvictionRunsMillis(toMillis(pool.getTimeBetweenEvictionRuns()));
+        pooled.setMinEvictableIdleTimeMillis(toMillis(pool.getMinEvictableIdleTime()));
+        if (meterRegistry != null) {
+            bindMetrics(name, pooled, meterRegistry);
+        }
+        return pooled;
+    }
+
+    private static void bindMetrics(String name, PoolingContextSource pool, MeterRegistry registry) {
+        Gauge.builder("georchestra.ldap.pool.active", pool, PoolingContextSource::getNumActive)
+                .description("Number of LDAP connections currently borrowed from the pool").tag("server", name)
+                .register(registry);
+        Gauge.builder("georchestra.ldap.pool.idle", pool, PoolingContextSource::getNumIdle)
+                .description("Number of idle LDAP connections in the pool").tag("server", name).register(registry);
+    }
+
+    private static long toMillis(@Nullable Duration duration) {
+        return duration == null ? -1 : duration.toMillis();
+    }
+
+    /**
+     * {@link PoolingContextSource} exposing the base LDAP path of its target
+     * context source, as required by Spring Security's LDAP user and authorities
+     * searches.
+     */
+    static class PooledContextSource extends PoolingContextSource implements BaseLdapPathContextSource {
+    }
+}
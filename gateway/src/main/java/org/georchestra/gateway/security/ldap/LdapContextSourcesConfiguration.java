@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.ldap;
+
+import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Contributes the {@link LdapContextSources} shared by the basic and extended
+ * LDAP authentication configurations and the LDAP account management
+ * configuration, so that a single pool of connections is used per LDAP server.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(GeorchestraGatewaySecurityConfigProperties.class)
+public class LdapContextSourcesConfiguration {
+
+    /**
+     * @param config        the security configuration properties
+     * @param meterRegistry the registry to publish the connection pool metrics to,
+     *                      if available
+     * @return the per LDAP server context sources
+     */
+    @Bean
+    LdapContextSources ldapContextSources(GeorchestraGatewaySecurityConfigProperties config,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new LdapContextSources(config, meterRegistry.getIfAvailable());
+    }
+}
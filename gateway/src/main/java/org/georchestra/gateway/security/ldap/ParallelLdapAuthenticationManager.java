@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.ldap;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ProviderNotFoundException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.CredentialsContainer;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * {@link ReactiveAuthenticationManager} that authenticates against several LDAP
+ * {@link AuthenticationProvider}s concurrently, instead of one after the other
+ * as a {@link ProviderManager} does.
+ * <p>
+ * All the providers supporting the authentication are called at once on the
+ * given {@link Scheduler}, each one bound by its own timeout. Outcomes are
+ * evaluated in the providers priority order, so the result is the same a
+ * {@link ProviderManager} would produce: the first success in priority order
+ * wins, as soon as all the higher priority providers failed; an
+ * {@link AccountStatusException} (e.g. a locked account or an expired password)
+ * from a higher priority provider is final; and if all providers fail, the
+ * failure of the lowest priority one is returned. Unlike a
+ * {@link ProviderManager} though, a directory that's down or times out is
+ * skipped rather than failing the whole authentication, and its failure is only
+ * returned if no other provider rejected the credentials, so a wrong password
+ * isn't reported as an outage.
+ * <p>
+ * The directory each username was last authenticated against is remembered, and
+ * tried alone first on subsequent authentications. If that fails for any reason
+ * but the account status, it's forgotten and all providers are queried again.
+ * <p>
+ * Like a {@link ProviderManager}, credentials are erased from the successful
+ * {@link Authentication} before it's returned, so the password doesn't end up
+ * in the security context.
+ */
+@Slf4j(topic = "org.georchestra.gateway.security.ldap")
+public class ParallelLdapAuthenticationManager implements ReactiveAuthenticationManager {
+
+    /**
+     * A named LDAP authentication provider and the maximum time to wait for it.
+     */
+    public static record Provider(@NonNull String name, @NonNull AuthenticationProvider provider,
+            @NonNull Duration timeout) {
+    }
+
+    private final @NonNull List<Provider> providers;
+
+    private final @NonNull Scheduler scheduler;
+
+    private final Cache<String, Provider> directories;
+
+    /**
+     * @param providers    the LDAP authentication providers, in priority order
+     * @param scheduler    the scheduler to run the blocking provider calls on
+     * @param directoryTtl how long the directory a username belongs to is
+     *                     remembered
+     * @param maximumSize  maximum number of remembered usernames
+     */
+    public ParallelLdapAuthenticationManager(@NonNull List<Provider> providers, @NonNull Scheduler scheduler,
+            @NonNull Duration directoryTtl, long maximumSize) {
+        this(providers, scheduler, directoryTtl, maximumSize, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    ParallelLdapAuthenticationManager(@NonNull List<Provider> providers, @NonNull Scheduler scheduler,
+            @NonNull Duration directoryTtl, long maximumSize, @NonNull Ticker ticker) {
+        this.providers = List.copyOf(providers);
+        this.scheduler = scheduler;
+        this.directories = CacheBuilder.newBuilder().expireAfterWrite(directoryTtl).maximumSize(maximumSize)
+                .ticker(ticker).recordStats().build();
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        final String username = authentication.getName();
+        final Provider known = username == null ? null : directories.getIfPresent(username);
+        if (known == null) {
+            return authenticateAll(authentication);
+        }
+        return attempt(known, authentication).flatMap(outcome -> {
+            if (outcome.isFinal()) {
+                return remember(username, outcome);
+            }
+            log.debug("Authentication of {} against its known directory {} failed, trying all", username, known.name());
+            directories.invalidate(username);
+            return authenticateAll(authentication);
+        });
+    }
+
+    @VisibleForTesting
+    Cache<String, Provider> directories() {
+        return directories;
+    }
+
+    private Mono<Authentication> authenticateAll(Authentication authentication) {
+        List<Mono<Outcome>> attempts = providers.stream().filter(p -> p.provider().supports(authentication.getClass()))
+                .map(p -> attempt(p, authentication)).toList();
+
+        // mergeSequential subscribes to all attempts at once, but emits their outcomes
+        // in priority order, cancelling the remaining ones once the final one is found
+        return Flux.mergeSequential(attempts).filter(Outcome::isAttempted).takeUntil(Outcome::isFinal)
+                .reduce(ParallelLdapAuthenticationManager::mostRelevant)
+                .switchIfEmpty(Mono.error(() -> new ProviderNotFoundException(
+                        "No LDAP AuthenticationProvider found for " + authentication.getClass().getName())))
+                .flatMap(outcome -> remember(authentication.getName(), outcome));
+    }
+
+    /**
+     * Picks the outcome to return among two in priority order: the lower priority
+     * one, unless the higher priority one rejected the credentials and the lower
+     * priority one is a service error, such as a timeout
+     */
+    private static Outcome mostRelevant(Outcome higher, Outcome lower) {
+        if (!lower.isFinal() && lower.isServiceError() && !higher.isServiceError()) {
+            return higher;
+        }
+        return lower;
+    }
+
+    private Mono<Authentication> remember(@Nullable String username, Outcome outcome) {
+        if (username != null && outcome.authentication() != null) {
+            directories.put(username, outcome.provider());
+        }
+        return outcome.result().doOnNext(auth -> {
+            if (auth instanceof CredentialsContainer container) {
+                container.eraseCredentials();
+            }
+        });
+    }
+
+    private Mono<Outcome> attempt(Provider provider, Authentication authentication) {
+        return Mono.fromCallable(() -> provider.provider().authenticate(authentication))//
+                .subscribeOn(scheduler)//
+                .timeout(provider.timeout())//
+                .map(auth -> new Outcome(provider, auth, null))//
+                .defaultIfEmpty(new Outcome(provider, null, null))//
+                .onErrorResume(e -> Mono.just(new Outcome(provider, null, toAuthenticationException(provider, e))));
+    }
+
+    private AuthenticationException toAuthenticationException(Provider provider, Throwable error) {
+        if (error instanceof AuthenticationException authError) {
+            return authError;
+        }
+        if (error instanceof TimeoutException) {
+            log.warn("Authentication against {} timed out after {}", provider.name(), provider.timeout());
+            return new AuthenticationServiceException(
+                    "LDAP authentication against %s timed out".formatted(provider.name()), error);
+        }
+        return new InternalAuthenticationServiceException(error.getMessage(), error);
+    }
+
+    /**
+     * The outcome of an authentication attempt against a single provider: either
+     * an authentication, an error, or neither if the provider could not process
+     * the authentication request.
+     */
+    private static record Outcome(Provider provider, @Nullable Authentication authentication,
+            @Nullable AuthenticationException error) {
+
+        boolean isAttempted() {
+            return authentication != null || error != null;
+        }
+
+        boolean isFinal() {
+            return authentication != null || error instanceof AccountStatusException;
+        }
+
+        boolean isServiceError() {
+            return error instanceof AuthenticationServiceException;
+        }
+
+        Mono<Authentication> result() {
+            if (authentication != null) {
+                return Mono.just(authentication);
+            }
+            return Mono.error(error != null ? error
+                    : new ProviderNotFoundException(provider.name() + " can't process the authentication"));
+        }
+    }
+}
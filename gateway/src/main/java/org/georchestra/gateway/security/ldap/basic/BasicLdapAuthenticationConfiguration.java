@@ -21,11 +21,14 @@ package org.georchestra.gateway.security.ldap.basic;
 import java.util.List;
 
 import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties;
+import org.georchestra.gateway.security.ldap.LdapContextSources;
+import org.georchestra.gateway.security.ldap.LdapContextSourcesConfiguration;
 import org.georchestra.gateway.security.ldap.extended.ExtendedLdapAuthenticationConfiguration;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.ldap.authentication.LdapAuthenticationProvider;
 import org.springframework.security.ldap.userdetails.LdapUserDetails;
@@ -66,6 +69,7 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Configuration(proxyBeanMethods = false)
 @EnableConfigurationProperties(GeorchestraGatewaySecurityConfigProperties.class)
+@Import(LdapContextSourcesConfiguration.class)
 @Slf4j(topic = "org.georchestra.gateway.security.ldap.basic")
 public class BasicLdapAuthenticationConfiguration {
 
@@ -96,23 +100,28 @@ public class BasicLdapAuthenticationConfiguration {
      * Creates a list of LDAP authentication providers based on the enabled LDAP
      * configurations.
      *
-     * @param configs the list of enabled LDAP configurations
+     * @param configs        the list of enabled LDAP configurations
+     * @param contextSources the shared, per LDAP server, context sources used for
+     *                       user and role searches
      * @return a list of {@link BasicLdapAuthenticationProvider} instances
      */
     @Bean
-    List<BasicLdapAuthenticationProvider> ldapAuthenticationProviders(List<LdapServerConfig> configs) {
-        return configs.stream().map(this::createLdapProvider).toList();
+    List<BasicLdapAuthenticationProvider> ldapAuthenticationProviders(List<LdapServerConfig> configs,
+            LdapContextSources contextSources) {
+        return configs.stream().map(config -> createLdapProvider(config, contextSources)).toList();
     }
 
     /**
      * Creates an {@link BasicLdapAuthenticationProvider} for a given LDAP
      * configuration.
      *
-     * @param config the LDAP server configuration
+     * @param config         the LDAP server configuration
+     * @param contextSources the shared context sources
      * @return an initialized {@link BasicLdapAuthenticationProvider} instance
      * @throws BeanCreationException if an error occurs during provider creation
      */
-    private BasicLdapAuthenticationProvider createLdapProvider(LdapServerConfig config) {
+    private BasicLdapAuthenticationProvider createLdapProvider(LdapServerConfig config,
+            LdapContextSources contextSources) {
         log.info("Creating LDAP AuthenticationProvider '{}' with URL {}", config.getName(), config.getUrl());
 
         try {
@@ -121,7 +130,9 @@ public class BasicLdapAuthenticationConfiguration {
                     .userSearchFilter(config.getUsersSearchFilter()).rolesSearchBase(config.getRolesRdn())
                     .rolesSearchFilter(config.getRolesSearchFilter()).adminDn(config.getAdminDn().orElse(null))
                     .adminPassword(config.getAdminPassword().orElse(null))
-                    .returningAttributes(config.getReturningAttributes()).build();
+                    .returningAttributes(config.getReturningAttributes()).connectTimeout(config.getConnectTimeout())
+                    .readTimeout(config.getReadTimeout()).searchContextSource(contextSources.get(config.getName()))
+                    .build();
             return new BasicLdapAuthenticationProvider(config.getName(), provider);
         } catch (RuntimeException e) {
             throw new BeanCreationException("Error creating LDAP Authentication Provider for config " + config.getName()
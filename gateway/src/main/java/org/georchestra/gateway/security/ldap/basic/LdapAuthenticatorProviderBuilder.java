@@ -20,7 +20,10 @@ package org.georchestra.gateway.security.ldap.basic;
 
 import static java.util.Objects.requireNonNull;
 
+import java.time.Duration;
+
 import org.georchestra.ds.users.AccountDao;
+import org.georchestra.gateway.security.ldap.LdapContextSources;
 import org.georchestra.gateway.security.ldap.NoPasswordLdapUserDetailsMapper;
 import org.georchestra.gateway.security.ldap.extended.ExtendedLdapAuthenticationProvider;
 import org.georchestra.gateway.security.ldap.extended.ExtendedPasswordPolicyAwareContextSource;
@@ -46,6 +49,8 @@ import lombok.experimental.Accessors;
  * <li>Role resolution configuration (group search base and filter)</li>
  * <li>Integration with an optional {@link AccountDao} for user account
  * management</li>
+ * <li>An optional, usually pooled, context source for the user and role
+ * searches, while user binds always use a dedicated connection</li>
  * </ul>
  * </p>
  *
@@ -79,6 +84,16 @@ public class LdapAuthenticatorProviderBuilder {
 
     private @Setter AccountDao accountDao;
 
+    private @Setter Duration connectTimeout;
+    private @Setter Duration readTimeout;
+
+    /**
+     * Context source for the user and role searches, usually the pooled one from
+     * {@link LdapContextSources}. If not set, searches use the same non pooled
+     * context source as the user binds.
+     */
+    private @Setter BaseLdapPathContextSource searchContextSource;
+
     /**
      * Attributes to be retrieved when querying LDAP for user details.
      * <p>
@@ -104,8 +119,10 @@ public class LdapAuthenticatorProviderBuilder {
         requireNonNull(rolesSearchFilter, "Roles search filter is not set");
 
         final ExtendedPasswordPolicyAwareContextSource contextSource = createContextSource();
-        final BindAuthenticator authenticator = createLdapAuthenticator(contextSource);
-        final DefaultLdapAuthoritiesPopulator rolesPopulator = createLdapAuthoritiesPopulator(contextSource);
+        final BaseLdapPathContextSource searchSource = searchContextSource == null ? contextSource
+                : searchContextSource;
+        final BindAuthenticator authenticator = createLdapAuthenticator(contextSource, searchSource);
+        final DefaultLdapAuthoritiesPopulator rolesPopulator = createLdapAuthoritiesPopulator(searchSource);
 
         ExtendedLdapAuthenticationProvider provider = new ExtendedLdapAuthenticationProvider(authenticator,
                 rolesPopulator);
@@ -117,14 +134,16 @@ public class LdapAuthenticatorProviderBuilder {
     }
 
     /**
-     * Creates and configures the LDAP authenticator.
+     * Creates and configures the LDAP authenticator, binding users through
+     * {@code bindSource} after looking them up through {@code searchSource}.
      */
-    private BindAuthenticator createLdapAuthenticator(BaseLdapPathContextSource contextSource) {
+    private BindAuthenticator createLdapAuthenticator(BaseLdapPathContextSource bindSource,
+            BaseLdapPathContextSource searchSource) {
         FilterBasedLdapUserSearch search = new FilterBasedLdapUserSearch(userSearchBase, userSearchFilter,
-                contextSource);
+                searchSource);
         search.setReturningAttributes(returningAttributes);
 
-        BindAuthenticator authenticator = new BindAuthenticator(contextSource);
+        BindAuthenticator authenticator = new BindAuthenticator(bindSource);
         authenticator.setUserSearch(search);
         authenticator.afterPropertiesSet();
         return authenticator;
@@ -140,6 +159,7 @@ public class LdapAuthenticatorProviderBuilder {
             context.setUserDn(adminDn);
             context.setPassword(adminPassword);
         }
+        context.setBaseEnvironmentProperties(LdapContextSources.timeoutEnvironment(connectTimeout, readTimeout));
         context.afterPropertiesSet();
         return context;
     }
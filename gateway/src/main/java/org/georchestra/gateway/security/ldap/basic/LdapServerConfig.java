@@ -18,6 +18,7 @@
  */
 package org.georchestra.gateway.security.ldap.basic;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import lombok.Builder;
@@ -151,4 +152,15 @@ public class LdapServerConfig {
      * Optional password for the administrator account used for privileged queries.
      */
     private @NonNull Optional<String> adminPassword;
+
+    /**
+     * Maximum time to wait while opening a connection, {@code null} for no timeout.
+     */
+    private Duration connectTimeout;
+
+    /**
+     * Maximum time to wait for the server to answer a request, {@code null} for no
+     * timeout.
+     */
+    private Duration readTimeout;
 }
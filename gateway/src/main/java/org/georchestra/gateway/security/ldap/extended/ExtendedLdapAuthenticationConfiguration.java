@@ -41,6 +41,8 @@ import org.georchestra.ds.users.AccountDaoImpl;
 import org.georchestra.ds.users.UserRule;
 import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties;
 import org.georchestra.gateway.security.GeorchestraUserMapperExtension;
+import org.georchestra.gateway.security.ldap.LdapContextSources;
+import org.georchestra.gateway.security.ldap.LdapContextSourcesConfiguration;
 import org.georchestra.gateway.security.ldap.basic.LdapAuthenticatorProviderBuilder;
 import org.georchestra.security.api.OrganizationsApi;
 import org.georchestra.security.api.UsersApi;
@@ -49,8 +51,10 @@ import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.ldap.core.ContextSource;
 import org.springframework.ldap.core.LdapTemplate;
-import org.springframework.ldap.core.support.LdapContextSource;
+import org.springframework.ldap.core.support.BaseLdapPathContextSource;
 import org.springframework.security.ldap.userdetails.LdapUserDetails;
 
 import lombok.extern.slf4j.Slf4j;
@@ -66,6 +70,7 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Configuration(proxyBeanMethods = false)
 @EnableConfigurationProperties(GeorchestraGatewaySecurityConfigProperties.class)
+@Import(LdapContextSourcesConfiguration.class)
 @Slf4j(topic = "org.georchestra.gateway.security.ldap.extended")
 public class ExtendedLdapAuthenticationConfiguration {
 
@@ -98,13 +103,15 @@ public class ExtendedLdapAuthenticationConfiguration {
      * Creates authentication providers for each enabled extended LDAP
      * configuration.
      *
-     * @param configs A list of enabled extended LDAP configurations.
+     * @param configs        A list of enabled extended LDAP configurations.
+     * @param contextSources The shared, per LDAP server, context sources.
      * @return A list of configured {@link GeorchestraLdapAuthenticationProvider}
      *         instances.
      */
     @Bean
-    List<GeorchestraLdapAuthenticationProvider> extendedLdapAuthenticationProviders(List<ExtendedLdapConfig> configs) {
-        return configs.stream().map(this::createLdapProvider).toList();
+    List<GeorchestraLdapAuthenticationProvider> extendedLdapAuthenticationProviders(List<ExtendedLdapConfig> configs,
+            LdapContextSources contextSources) {
+        return configs.stream().map(config -> createLdapProvider(config, contextSources)).toList();
     }
 
     /**
@@ -113,26 +120,30 @@ public class ExtendedLdapAuthenticationConfiguration {
      * and authorization mechanisms.
      * <p>
      * This method initializes an {@link LdapTemplate} and an {@link AccountDao}
-     * based on the given LDAP configuration. It then builds an
+     * over the server's shared context source from {@link LdapContextSources}, also
+     * used for the user and role searches. It then builds an
      * {@link ExtendedLdapAuthenticationProvider} using an
      * {@link LdapAuthenticatorProviderBuilder}, setting up the authentication
      * provider with user and role search filters, as well as optional admin
      * credentials if provided.
      * </p>
      *
-     * @param config The {@link ExtendedLdapConfig} defining the LDAP connection
-     *               details and search configurations.
+     * @param config         The {@link ExtendedLdapConfig} defining the LDAP
+     *                       connection details and search configurations.
+     * @param contextSources The shared context sources.
      * @return A configured {@link GeorchestraLdapAuthenticationProvider} for
      *         handling authentication against the specified LDAP server.
      * @throws IllegalStateException if an error occurs while creating the LDAP
      *                               authentication provider.
      */
-    private GeorchestraLdapAuthenticationProvider createLdapProvider(ExtendedLdapConfig config) {
+    private GeorchestraLdapAuthenticationProvider createLdapProvider(ExtendedLdapConfig config,
+            LdapContextSources contextSources) {
         log.info("Creating extended LDAP AuthenticationProvider {} at {}", config.getName(), config.getUrl());
 
         final LdapTemplate ldapTemplate;
         try {
-            ldapTemplate = ldapTemplate(config);
+            final BaseLdapPathContextSource contextSource = contextSources.get(config.getName());
+            ldapTemplate = ldapTemplate(contextSource);
             LdapDaoProperties ldapDaoProperties = new LdapDaoProperties() //
                     .setBasePath(config.getBaseDn()).setOrgSearchBaseDN(config.getOrgsRdn())
                     .setPendingOrgSearchBaseDN(config.getPendingOrgsRdn()).setRoleSearchBaseDN(config.getRolesRdn())
@@ -147,7 +158,10 @@ public class ExtendedLdapAuthenticationConfiguration {
                     .rolesSearchFilter(config.getRolesSearchFilter())//
                     .adminDn(config.getAdminDn().orElse(null))//
                     .adminPassword(config.getAdminPassword().orElse(null))//
-                    .returningAttributes(config.getReturningAttributes()).accountDao(accountsDao).build();
+                    .returningAttributes(config.getReturningAttributes()).accountDao(accountsDao)//
+                    .connectTimeout(config.getConnectTimeout())//
+                    .readTimeout(config.getReadTimeout())//
+                    .searchContextSource(contextSource).build();
             return new GeorchestraLdapAuthenticationProvider(config.getName(), delegate);
         } catch (Exception e) {
             throw new IllegalStateException(e);
@@ -158,11 +172,12 @@ public class ExtendedLdapAuthenticationConfiguration {
      * Registers a {@link DemultiplexingUsersApi} that routes user API calls to the
      * appropriate LDAP instance based on configuration.
      *
-     * @param configs The list of extended LDAP configurations.
+     * @param configs        The list of extended LDAP configurations.
+     * @param contextSources The shared, per LDAP server, context sources.
      * @return A {@link DemultiplexingUsersApi} instance.
      */
     @Bean
-    DemultiplexingUsersApi demultiplexingUsersApi(List<ExtendedLdapConfig> configs) {
+    DemultiplexingUsersApi demultiplexingUsersApi(List<ExtendedLdapConfig> configs, LdapContextSources contextSources) {
         Map<String, UsersApi> usersByConfigName = new HashMap<>();
         Map<String, OrganizationsApi> orgsByConfigName = new HashMap<>();
         for (ExtendedLdapConfig config : configs) {
@@ -171,7 +186,7 @@ public class ExtendedLdapAuthenticationConfiguration {
                         .setBasePath(config.getBaseDn()).setOrgSearchBaseDN(config.getOrgsRdn())
                         .setPendingOrgSearchBaseDN(config.getPendingOrgsRdn()).setRoleSearchBaseDN(config.getRolesRdn())
                         .setUserSearchBaseDN(config.getUsersRdn()).setPendingUserSearchBaseDN("ou=pendingusers");
-                LdapTemplate ldapTemplate = ldapTemplate(config);
+                LdapTemplate ldapTemplate = ldapTemplate(contextSources.get(config.getName()));
                 AccountDaoImpl accountsDao = accountsDao(ldapTemplate, ldapDaoProperties);
                 OrgsDaoImpl orgsDao = orgsDao(ldapTemplate, ldapDaoProperties, accountsDao);
                 RoleDaoImpl roleDao = roleDao(ldapTemplate, ldapDaoProperties, accountsDao, orgsDao);
@@ -213,12 +228,7 @@ public class ExtendedLdapAuthenticationConfiguration {
         return impl;
     }
 
-    private LdapTemplate ldapTemplate(ExtendedLdapConfig server) throws Exception {
-        LdapContextSource contextSource = new LdapContextSource();
-        contextSource.setUrl(server.getUrl());
-        contextSource.setBase(server.getBaseDn());
-        contextSource.afterPropertiesSet();
-
+    private LdapTemplate ldapTemplate(ContextSource contextSource) throws Exception {
         LdapTemplate ldapTemplate = new LdapTemplate(contextSource);
         ldapTemplate.afterPropertiesSet();
         return ldapTemplate;
@@ -18,6 +18,7 @@
  */
 package org.georchestra.gateway.security.ldap.extended;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import lombok.Builder;
@@ -115,4 +116,15 @@ public class ExtendedLdapConfig {
      * The relative distinguished name (RDN) of the pending organization entries.
      */
     private @NonNull String pendingOrgsRdn;
+
+    /**
+     * Maximum time to wait while opening a connection, {@code null} for no timeout.
+     */
+    private Duration connectTimeout;
+
+    /**
+     * Maximum time to wait for the server to answer a request, {@code null} for no
+     * timeout.
+     */
+    private Duration readTimeout;
 }
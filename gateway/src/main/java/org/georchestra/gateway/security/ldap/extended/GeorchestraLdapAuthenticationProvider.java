@@ -19,10 +19,12 @@
 package org.georchestra.gateway.security.ldap.extended;
 
 import org.georchestra.gateway.security.ldap.AuthenticationProviderDecorator;
+import org.georchestra.gateway.security.ldap.CachingReactiveAuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
@@ -42,15 +44,16 @@ import lombok.extern.slf4j.Slf4j;
  * </p>
  * <p>
  * Under heavy load, the LDAP server may be overwhelmed and start failing
- * authentication requests. To mitigate this, a Caffeine cache with a short TTL
- * could be introduced to handle concurrency and avoid redundant authentication
- * attempts when multiple requests arrive simultaneously.
+ * authentication requests. To mitigate this, the authentication outcomes can be
+ * cached for a short time by enabling
+ * {@code georchestra.gateway.security.ldap-authentication-cache}, see
+ * {@link CachingReactiveAuthenticationManager}.
  * </p>
  */
 @Slf4j(topic = "org.georchestra.gateway.security.ldap.extended")
 public class GeorchestraLdapAuthenticationProvider extends AuthenticationProviderDecorator {
 
-    private final @NonNull String configName;
+    private final @NonNull @Getter String configName;
 
     /**
      * Constructs a new {@code GeorchestraLdapAuthenticationProvider} that wraps a
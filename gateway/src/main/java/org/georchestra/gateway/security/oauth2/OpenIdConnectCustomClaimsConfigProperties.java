@@ -26,18 +26,26 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
 import org.georchestra.security.model.GeorchestraUser;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.util.StringUtils;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 
@@ -158,6 +166,18 @@ public @Data class OpenIdConnectCustomClaimsConfigProperties {
     @Accessors(chain = true)
     public static @Data class RolesMapping {
 
+        private static final Pattern COMBINING_DIACRITICAL_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+        private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+        private static final Pattern SPECIAL_CHARACTERS = Pattern.compile("[^a-zA-Z0-9_]");
+
+        /**
+         * Memoized normalized form of non-ASCII role names
+         */
+        private static final Cache<String, String> NORMALIZED_ROLES = CacheBuilder.newBuilder().maximumSize(10_000)
+                .build();
+
         private JsonPathExtractor json = new JsonPathExtractor();
 
         /**
@@ -195,6 +215,18 @@ public @Data class OpenIdConnectCustomClaimsConfigProperties {
          *               applied.
          */
         public void apply(Map<String, Object> claims, GeorchestraUser target) {
+            apply(JsonPathExtractor.parse(claims), target);
+        }
+
+        /**
+         * Extracts and applies roles from the provided parsed claims to the given user.
+         *
+         * @param claims The OIDC claims from which roles should be extracted, as
+         *               returned by {@link JsonPathExtractor#parse(Map)}.
+         * @param target The {@link GeorchestraUser} to which the roles should be
+         *               applied.
+         */
+        public void apply(@NonNull DocumentContext claims, GeorchestraUser target) {
             json().ifPresent(oidcClaimsConfig -> {
                 List<String> rawValues = oidcClaimsConfig.extract(claims);
                 List<String> oidcRoles = rawValues.stream().map(this::applyTransforms).toList(); // Ensure the resulting
@@ -232,27 +264,87 @@ public @Data class OpenIdConnectCustomClaimsConfigProperties {
          * <li>Replacing whitespace with underscores.</li>
          * <li>Removing special characters.</li>
          * </ul>
+         * <p>
+         * ASCII-only values, by far the most common, are normalized in a single pass
+         * without Unicode normalization nor regular expressions. The normalized form of
+         * other values is memoized in a bounded cache.
+         * </p>
          *
          * @param value The original role string.
          * @return The normalized role string.
          */
         public String normalize(@NonNull String value) {
+            if (isAscii(value)) {
+                return normalizeAscii(value);
+            }
+            String normalized = NORMALIZED_ROLES.getIfPresent(value);
+            if (normalized == null) {
+                normalized = normalizeUnicode(value);
+                NORMALIZED_ROLES.put(value, normalized);
+            }
+            return normalized;
+        }
+
+        private static boolean isAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) > 0x7F) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Equivalent to {@link #normalizeUnicode(String)} for ASCII-only values, which
+         * NFC normalization leaves unchanged and have no diacritical marks.
+         */
+        private static String normalizeAscii(String value) {
+            StringBuilder normalized = null;
+            boolean whitespace = false;
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                final boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                        || c == '_';
+                if (valid && normalized == null) {
+                    continue;
+                }
+                if (normalized == null) {
+                    // first change, copy the unchanged prefix
+                    normalized = new StringBuilder(value.length()).append(value, 0, i);
+                }
+                final boolean space = c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+                if (valid) {
+                    normalized.append(c);
+                } else if (space && !whitespace) {
+                    normalized.append('_');
+                }
+                whitespace = space;
+            }
+            return normalized == null ? value : normalized.toString();
+        }
+
+        private static String normalizeUnicode(String value) {
             // Apply Unicode Normalization (NFC: a + ◌̂ = â)
             String normalized = Normalizer.normalize(value, Form.NFC);
 
             // Remove diacritical marks
-            normalized = normalized.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+            normalized = COMBINING_DIACRITICAL_MARKS.matcher(normalized).replaceAll("");
 
             // Replace all whitespace with underscores
-            normalized = normalized.replaceAll("\\s+", "_");
+            normalized = WHITESPACE.matcher(normalized).replaceAll("_");
 
             // Remove remaining special characters
-            return normalized.replaceAll("[^a-zA-Z0-9_]", "");
+            return SPECIAL_CHARACTERS.matcher(normalized).replaceAll("");
         }
     }
 
     /**
      * Extracts values from OIDC claims using JSONPath expressions.
+     * <p>
+     * The expressions are compiled once, when {@link #setPath(List) set}, or on
+     * first use if the {@link #getPath() path} list is modified in place, and
+     * evaluated against claims {@link #parse(Map) parsed} once per token.
+     * </p>
      */
     @Accessors(chain = true)
     public static @Data class JsonPathExtractor {
@@ -284,6 +376,25 @@ public @Data class OpenIdConnectCustomClaimsConfigProperties {
 
         private List<String> value = new ArrayList<>();
 
+        /**
+         * The compiled {@link #path} expressions
+         */
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private transient volatile CompiledPaths compiled;
+
+        /**
+         * Compiled JSONPath expressions, and the {@code path} list they were compiled
+         * from
+         */
+        private static record CompiledPaths(List<String> source, List<CompiledPath> paths) {
+        }
+
+        private static record CompiledPath(String expression, JsonPath path) {
+        }
+
         public JsonPathExtractor() {
         }
 
@@ -293,7 +404,36 @@ public @Data class OpenIdConnectCustomClaimsConfigProperties {
          * @param path
          */
         public JsonPathExtractor(List<String> path) {
+            setPath(path);
+        }
+
+        /**
+         * Sets the JSONPath expressions, compiling them.
+         *
+         * @param path the JSONPath expressions
+         * @throws com.jayway.jsonpath.InvalidPathException if an expression is not a
+         *                                                  valid JSONPath
+         */
+        public JsonPathExtractor setPath(List<String> path) {
             this.path = path;
+            compiledPaths();
+            return this;
+        }
+
+        /**
+         * Parses the OIDC claims once, to evaluate all the extractors against.
+         *
+         * @param claims The OIDC claims map.
+         * @return the parsed claims
+         */
+        public static @NonNull DocumentContext parse(@NonNull Map<String, Object> claims) {
+            // if we call claims.get(key) and the result is a JSON object,
+            // the json api used is a shaded version of org.json at package
+            // com.nimbusds.jose.shaded.json, we don't want to use that
+            // since it's obviously internal to com.nimbusds.jose
+            // JsonPath works fine with it though, as it's designed
+            // to work on POJOS, JSONObject is a Map and JSONArray is a List so it's ok
+            return JsonPath.parse(claims);
         }
 
         /**
@@ -304,8 +444,21 @@ public @Data class OpenIdConnectCustomClaimsConfigProperties {
          * @return A list of extracted values.
          */
         public @NonNull List<String> extract(@NonNull Map<String, Object> claims) {
-            List<String> result = this.path.stream().map(jsonPathExpression -> this.extract(jsonPathExpression, claims))
-                    .flatMap(List::stream).toList();
+            return extract(parse(claims));
+        }
+
+        /**
+         * Extracts values from the provided parsed OIDC claims using the configured
+         * JSONPath expressions.
+         *
+         * @param claims The OIDC claims, as returned by {@link #parse(Map)}.
+         * @return A list of extracted values.
+         */
+        public @NonNull List<String> extract(@NonNull DocumentContext claims) {
+            List<String> result = new ArrayList<>();
+            for (CompiledPath compiledPath : compiledPaths()) {
+                result.addAll(this.extract(compiledPath, claims));
+            }
             if (!result.isEmpty()) {
                 return result;
             } else {
@@ -313,29 +466,35 @@ public @Data class OpenIdConnectCustomClaimsConfigProperties {
             }
         }
 
+        /**
+         * @return the compiled {@link #path} expressions, compiling them if the path
+         *         list changed since they were last compiled
+         */
+        private List<CompiledPath> compiledPaths() {
+            final List<String> source = this.path == null ? List.of() : this.path;
+            CompiledPaths current = this.compiled;
+            if (current == null || !current.source().equals(source)) {
+                List<CompiledPath> paths = source.stream().filter(StringUtils::hasText)
+                        .map(expression -> new CompiledPath(expression, JsonPath.compile(expression))).toList();
+                current = new CompiledPaths(List.copyOf(source), paths);
+                this.compiled = current;
+            }
+            return current.paths();
+        }
+
         /**
          * Extracts values from the given claims using a single JSONPath expression.
          *
-         * @param jsonPathExpression The JSONPath expression.
-         * @param claims             The claims map.
+         * @param compiledPath The compiled JSONPath expression.
+         * @param context      The parsed claims.
          * @return A list of extracted values.
          */
-        private List<String> extract(final String jsonPathExpression, Map<String, Object> claims) {
-            if (!StringUtils.hasText(jsonPathExpression)) {
-                return List.of();
-            }
-
-            // if we call claims.get(key) and the result is a JSON object,
-            // the json api used is a shaded version of org.json at package
-            // com.nimbusds.jose.shaded.json, we don't want to use that
-            // since it's obviously internal to com.nimbusds.jose
-            // JsonPath works fine with it though, as it's designed
-            // to work on POJOS, JSONObject is a Map and JSONArray is a List so it's ok
-            DocumentContext context = JsonPath.parse(claims);
+        private List<String> extract(final CompiledPath compiledPath, DocumentContext context) {
+            final String jsonPathExpression = compiledPath.expression();
             Object matched;
 
             try {
-                matched = context.read(jsonPathExpression);
+                matched = context.read(compiledPath.path());
             } catch (PathNotFoundException e) {
                 log.warn("JSONPath expression {} not found in claims", jsonPathExpression, e);
                 return List.of();
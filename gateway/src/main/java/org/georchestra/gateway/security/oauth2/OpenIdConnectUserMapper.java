@@ -27,6 +27,7 @@ import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties;
+import org.georchestra.gateway.security.oauth2.OpenIdConnectCustomClaimsConfigProperties.JsonPathExtractor;
 import org.georchestra.security.model.GeorchestraUser;
 import org.slf4j.Logger;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -39,6 +40,7 @@ import org.springframework.security.oauth2.core.oidc.StandardClaimAccessor;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.jayway.jsonpath.DocumentContext;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -173,12 +175,14 @@ public class OpenIdConnectUserMapper extends OAuth2UserMapper {
             // First, apply standard claims mapping between OpenID spec fields and token's
             // claims
             applyStandardClaims(oidcUser, user);
+            // parse the claims once for all the JSONPath extractors
+            DocumentContext claims = JsonPathExtractor.parse(oidcUser.getClaims());
             // Next, map general georchestra claims settings and token's claims
-            applyGeorchestraNonStandardClaims(oidcUser.getClaims(), user);
+            applyGeorchestraNonStandardClaims(claims, user);
             // Finally, use mapping between current provider claims settings and token's
             // claims
             if (customProviderClaims.isPresent()) {
-                applyProviderNonStandardClaims(customProviderClaims.get(), oidcUser.getClaims(), user);
+                applyProviderNonStandardClaims(customProviderClaims.get(), claims, user);
             }
             user.setUsername((token.getAuthorizedClientRegistrationId() + "_" + user.getUsername())
                     .replaceAll("[^a-zA-Z0-9-_]", "_").toLowerCase());
@@ -199,6 +203,10 @@ public class OpenIdConnectUserMapper extends OAuth2UserMapper {
      */
     @VisibleForTesting
     void applyGeorchestraNonStandardClaims(Map<String, Object> claims, GeorchestraUser target) {
+        applyGeorchestraNonStandardClaims(JsonPathExtractor.parse(claims), target);
+    }
+
+    private void applyGeorchestraNonStandardClaims(DocumentContext claims, GeorchestraUser target) {
 
         nonStandardClaimsConfig.id().map(jsonEvaluator -> jsonEvaluator.extract(claims)).map(List::stream)
                 .flatMap(Stream::findFirst).ifPresent(target::setId);
@@ -246,6 +254,11 @@ public class OpenIdConnectUserMapper extends OAuth2UserMapper {
     @VisibleForTesting
     void applyProviderNonStandardClaims(OpenIdConnectCustomClaimsConfigProperties customProviderClaims,
             Map<String, Object> claims, GeorchestraUser target) {
+        applyProviderNonStandardClaims(customProviderClaims, JsonPathExtractor.parse(claims), target);
+    }
+
+    private void applyProviderNonStandardClaims(OpenIdConnectCustomClaimsConfigProperties customProviderClaims,
+            DocumentContext claims, GeorchestraUser target) {
 
         customProviderClaims.id().map(jsonEvaluator -> jsonEvaluator.extract(claims))//
                 .map(List::stream)//
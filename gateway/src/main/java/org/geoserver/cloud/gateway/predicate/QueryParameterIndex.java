@@ -0,0 +1,115 @@
+/*
+ * (c) 2020 Open Source Geospatial Foundation - all rights reserved This code is licensed under the
+ * GPL 2.0 license, available at the root application directory.
+ */
+package org.geoserver.cloud.gateway.predicate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+
+import lombok.NonNull;
+
+/**
+ * Index of the HTTP request query parameter names by their lower case form,
+ * computed once per exchange and shared by all the query predicates evaluated
+ * against it.
+ * <p>
+ * Lower casing only applies to ASCII letters, matching the default behavior of
+ * the {@code (?i)} regular expression flag.
+ */
+public final class QueryParameterIndex {
+
+    static final String ATTRIBUTE = QueryParameterIndex.class.getName();
+
+    private final MultiValueMap<String, String> parameters;
+
+    private final Map<String, List<String>> namesByLowerCase;
+
+    private QueryParameterIndex(MultiValueMap<String, String> parameters) {
+        this.parameters = parameters;
+        this.namesByLowerCase = new HashMap<>(parameters.size());
+        for (String name : parameters.keySet()) {
+            namesByLowerCase.computeIfAbsent(toLowerCase(name), k -> new ArrayList<>(1)).add(name);
+        }
+    }
+
+    /**
+     * Returns the query parameter index of the exchange, creating it on first
+     * access.
+     */
+    public static QueryParameterIndex of(@NonNull ServerWebExchange exchange) {
+        return (QueryParameterIndex) exchange.getAttributes().computeIfAbsent(ATTRIBUTE,
+                k -> new QueryParameterIndex(exchange.getRequest().getQueryParams()));
+    }
+
+    /**
+     * @return the query parameter names, in request order
+     */
+    public Set<String> names() {
+        return parameters.keySet();
+    }
+
+    /**
+     * @return the first query parameter name, in request order, whose lower case
+     *         form is {@code lowerCaseName}
+     */
+    public Optional<String> findIgnoreCase(@NonNull String lowerCaseName) {
+        List<String> names = namesByLowerCase.get(lowerCaseName);
+        return names == null ? Optional.empty() : Optional.of(names.get(0));
+    }
+
+    /**
+     * @return the values of the {@code name} query parameter, or {@code null} if
+     *         not present
+     */
+    public List<String> values(@NonNull String name) {
+        return parameters.get(name);
+    }
+
+    /**
+     * Lower cases the ASCII letters of {@code value}, leaving any other character
+     * as is.
+     */
+    public static String toLowerCase(@NonNull String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                char[] chars = value.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    if (chars[j] >= 'A' && chars[j] <= 'Z') {
+                        chars[j] = (char) (chars[j] + ('a' - 'A'));
+                    }
+                }
+                return new String(chars);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Compares {@code value} to a lower case string ignoring the case of ASCII
+     * letters, without allocating.
+     */
+    public static boolean equalsIgnoreCase(@NonNull String value, @NonNull String lowerCase) {
+        if (value.length() != lowerCase.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != lowerCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
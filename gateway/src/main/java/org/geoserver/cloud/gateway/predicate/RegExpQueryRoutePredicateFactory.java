@@ -7,9 +7,9 @@ package org.geoserver.cloud.gateway.predicate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.springframework.cloud.gateway.handler.predicate.AbstractRoutePredicateFactory;
 import org.springframework.cloud.gateway.handler.predicate.GatewayPredicate;
@@ -19,9 +19,14 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.server.ServerWebExchange;
 
 import jakarta.validation.constraints.NotEmpty;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.experimental.Accessors;
 
 /**
@@ -42,6 +47,13 @@ import lombok.experimental.Accessors;
  * that matches the name regex.
  *
  * <p>
+ * The regular expressions are compiled once, and literal ones, optionally case
+ * insensitive like {@code (?i)service}, are matched without the regular
+ * expression engine. Query parameter names are looked up through the
+ * {@link QueryParameterIndex} shared by all the predicates evaluated against
+ * the same exchange.
+ *
+ * <p>
  * Sample usage: the following route configuration example uses a
  * {@code RegExpQuery} predicate to match the {@code service} query parameter
  * name and {@code wfs} value in a case insensitive fashion.
@@ -113,16 +125,17 @@ public class RegExpQueryRoutePredicateFactory
          */
         @Override
         public boolean test(ServerWebExchange exchange) {
-            final String paramRegexp = config.getParamRegexp();
-            final String valueRegexp = config.getValueRegexp();
+            final TextMatcher paramMatcher = config.paramMatcher();
+            final TextMatcher valueMatcher = config.valueMatcher();
 
-            boolean matchNameOnly = !StringUtils.hasText(config.getValueRegexp());
-            Optional<String> paramName = findParameterName(paramRegexp, exchange);
+            boolean matchNameOnly = valueMatcher == null;
+            QueryParameterIndex parameters = QueryParameterIndex.of(exchange);
+            Optional<String> paramName = findParameterName(paramMatcher, parameters);
             boolean paramNameMatches = paramName.isPresent();
             if (matchNameOnly) {
                 return paramNameMatches;
             }
-            return paramNameMatches && paramValueMatches(paramName.get(), valueRegexp, exchange);
+            return paramNameMatches && paramValueMatches(paramName.get(), valueMatcher, parameters);
         }
 
         /**
@@ -138,35 +151,120 @@ public class RegExpQueryRoutePredicateFactory
     }
 
     /**
-     * Finds the first query parameter that matches the provided regular expression.
+     * Finds the first query parameter that matches the provided matcher.
      *
-     * @param regex    the regular expression to match the parameter name.
-     * @param exchange the exchange containing the request.
+     * @param matcher    the matcher for the parameter name.
+     * @param parameters the query parameters of the request.
      * @return an optional containing the parameter name if a match is found, or
      *         empty otherwise.
      */
-    static Optional<String> findParameterName(@NonNull String regex, ServerWebExchange exchange) {
-        Set<String> parameterNames = exchange.getRequest().getQueryParams().keySet();
-        return parameterNames.stream().filter(name -> name.matches(regex)).findFirst();
+    static Optional<String> findParameterName(@NonNull TextMatcher matcher, QueryParameterIndex parameters) {
+        return matcher.findName(parameters);
     }
 
     /**
-     * Checks if the value of the query parameter matches the provided regular
-     * expression.
+     * Checks if the value of the query parameter matches the provided matcher.
      *
-     * @param paramName  the name of the parameter.
-     * @param valueRegEx the regular expression to match the parameter value.
-     * @param exchange   the exchange containing the request.
+     * @param paramName    the name of the parameter.
+     * @param valueMatcher the matcher for the parameter value.
+     * @param parameters   the query parameters of the request.
      * @return true if a matching value is found, false otherwise.
      */
-    static boolean paramValueMatches(@NonNull String paramName, @NonNull String valueRegEx,
-            ServerWebExchange exchange) {
-        List<String> values = exchange.getRequest().getQueryParams().get(paramName);
-        return values != null && values.stream().anyMatch(v -> v != null && v.matches(valueRegEx));
+    static boolean paramValueMatches(@NonNull String paramName, @NonNull TextMatcher valueMatcher,
+            QueryParameterIndex parameters) {
+        List<String> values = parameters.values(paramName);
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            if (value != null && valueMatcher.matches(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Matches a query parameter name or value against a configured regular
+     * expression, avoiding the regular expression engine for the common literal
+     * cases, like {@code (?i)service} or {@code (?i:wms)}.
+     */
+    abstract static sealed class TextMatcher {
+
+        private static final Pattern LITERAL = Pattern.compile("[A-Za-z0-9_\\-]+");
+
+        private static final Pattern CASE_INSENSITIVE_LITERAL = Pattern
+                .compile("\\(\\?i\\)([A-Za-z0-9_\\-]+)|\\(\\?i:([A-Za-z0-9_\\-]+)\\)");
+
+        /**
+         * Compiles {@code regex} into the fastest equivalent matcher
+         *
+         * @throws PatternSyntaxException if {@code regex} is not a valid regular
+         *                                expression
+         */
+        static TextMatcher compile(@NonNull String regex) {
+            if (LITERAL.matcher(regex).matches()) {
+                return new Literal(regex);
+            }
+            java.util.regex.Matcher literal = CASE_INSENSITIVE_LITERAL.matcher(regex);
+            if (literal.matches()) {
+                String value = literal.group(1) == null ? literal.group(2) : literal.group(1);
+                return new CaseInsensitiveLiteral(QueryParameterIndex.toLowerCase(value));
+            }
+            return new Regex(Pattern.compile(regex));
+        }
+
+        abstract boolean matches(String value);
+
+        Optional<String> findName(QueryParameterIndex parameters) {
+            return parameters.names().stream().filter(this::matches).findFirst();
+        }
+    }
+
+    @RequiredArgsConstructor
+    static final class Literal extends TextMatcher {
+        private final @NonNull String literal;
+
+        @Override
+        boolean matches(String value) {
+            return literal.equals(value);
+        }
+
+        @Override
+        Optional<String> findName(QueryParameterIndex parameters) {
+            return parameters.values(literal) == null ? Optional.empty() : Optional.of(literal);
+        }
+    }
+
+    @RequiredArgsConstructor
+    static final class CaseInsensitiveLiteral extends TextMatcher {
+        private final @NonNull String lowerCase;
+
+        @Override
+        boolean matches(String value) {
+            return QueryParameterIndex.equalsIgnoreCase(value, lowerCase);
+        }
+
+        @Override
+        Optional<String> findName(QueryParameterIndex parameters) {
+            return parameters.findIgnoreCase(lowerCase);
+        }
+    }
+
+    @RequiredArgsConstructor
+    static final class Regex extends TextMatcher {
+        private final @NonNull Pattern pattern;
+
+        @Override
+        boolean matches(String value) {
+            return pattern.matcher(value).matches();
+        }
     }
 
     /**
      * Configuration class for the {@link RegExpQueryRoutePredicateFactory}.
+     * <p>
+     * The regular expressions are compiled once, when set.
      */
     @Data
     @Accessors(chain = true)
@@ -179,5 +277,44 @@ public class RegExpQueryRoutePredicateFactory
 
         /** The regular expression for the query parameter value (optional). */
         private String valueRegexp;
+
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private TextMatcher paramMatcher;
+
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private TextMatcher valueMatcher;
+
+        public Config setParamRegexp(String paramRegexp) {
+            this.paramRegexp = paramRegexp;
+            this.paramMatcher = paramRegexp == null ? null : TextMatcher.compile(paramRegexp);
+            return this;
+        }
+
+        public Config setValueRegexp(String valueRegexp) {
+            this.valueRegexp = valueRegexp;
+            this.valueMatcher = StringUtils.hasText(valueRegexp) ? TextMatcher.compile(valueRegexp) : null;
+            return this;
+        }
+
+        TextMatcher paramMatcher() {
+            if (paramMatcher == null) {
+                throw new IllegalStateException("paramRegexp not set");
+            }
+            return paramMatcher;
+        }
+
+        /**
+         * @return the value matcher, or {@code null} if only the parameter name is
+         *         to be matched
+         */
+        TextMatcher valueMatcher() {
+            return valueMatcher;
+        }
     }
 }
@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.accounts.admin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.georchestra.ds.orgs.Org;
+import org.georchestra.gateway.security.exceptions.DuplicatedEmailFoundException;
+import org.georchestra.gateway.security.oauth2.OpenIdConnectCustomConfig;
+import org.georchestra.security.model.GeorchestraUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Test suite for {@link AbstractAccountsManager} per identity locking and
+ * coalescing of concurrent logins
+ */
+class AbstractAccountsManagerTest {
+
+    /**
+     * Simulated latency of creating an account in the storage
+     */
+    private static final Duration CREATE_LATENCY = Duration.ofMillis(20);
+
+    private ApplicationEventPublisher eventPublisher;
+    private OpenIdConnectCustomConfig providersConfig;
+    private InMemoryAccountsManager manager;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        providersConfig = new OpenIdConnectCustomConfig();
+        manager = new InMemoryAccountsManager(eventPublisher, providersConfig);
+    }
+
+    @Test
+    void testIdentity() {
+        assertThat(manager.identity(user("JDoe"))).isEqualTo("username:jdoe");
+        assertThat(manager.identity(new GeorchestraUser())).isEqualTo("username:");
+
+        GeorchestraUser oauth2User = oauth2User("github", "1234", "JDoe@Example.com");
+        assertThat(manager.identity(oauth2User)).isEqualTo("oauth2:github:1234");
+
+        providersConfig.setSearchEmail(true);
+        assertThat(manager.identity(oauth2User)).isEqualTo("email:jdoe@example.com");
+        oauth2User.setEmail(null);
+        assertThat(manager.identity(oauth2User)).isEqualTo("oauth2:github:1234");
+    }
+
+    @Test
+    void testConcurrentFirstLoginsOfSameUserCreateItOnce() throws Exception {
+        List<GeorchestraUser> created = burst(16, List.of(user("jdoe")), 16);
+
+        assertThat(manager.creations).hasValue(1);
+        assertThat(created).hasSize(16).allMatch(u -> "jdoe".equals(u.getUsername()));
+        verify(eventPublisher, times(1)).publishEvent(any(AccountCreated.class));
+    }
+
+    /**
+     * Concurrent first logins of the same user shall share a single lookup and
+     * creation sequence instead of queuing on the user's lock and each querying the
+     * storage
+     */
+    @Test
+    void testConcurrentFirstLoginsOfSameUserAreCoalesced() throws Exception {
+        final int logins = 16;
+        // hold the creation until all the logins asked for the user identity
+        manager.createGate = () -> manager.identityCalls.get() >= logins;
+
+        List<GeorchestraUser> created = burst(logins, List.of(user("jdoe")), logins);
+
+        assertThat(created).hasSize(logins).allMatch(u -> "jdoe".equals(u.getUsername()));
+        assertThat(manager.creations).hasValue(1);
+        assertThat(manager.lookups.get()).as("storage lookups").isLessThan(logins);
+        verify(eventPublisher, times(1)).publishEvent(any(AccountCreated.class));
+    }
+
+    @Test
+    void testCoalescedLoginsShareFailure() throws Exception {
+        final int logins = 8;
+        manager.createGate = () -> manager.identityCalls.get() >= logins;
+        manager.createFailure = new DuplicatedEmailFoundException("duplicate");
+
+        ExecutorService executor = Executors.newFixedThreadPool(logins);
+        try {
+            GeorchestraUser user = user("jdoe");
+            List<Future<GeorchestraUser>> results = new ArrayList<>();
+            for (int i = 0; i < logins; i++) {
+                results.add(executor.submit(() -> manager.getOrCreate(user)));
+            }
+            for (Future<GeorchestraUser> result : results) {
+                assertThatThrownBy(result::get).hasCauseInstanceOf(DuplicatedEmailFoundException.class);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(manager.creationAttempts.get()).isLessThan(logins);
+    }
+
+    /**
+     * Creations of distinct users shall run concurrently, since account creations
+     * only lock on the users' identity
+     */
+    @Test
+    void testCreationsOfDistinctUsersOverlap() throws Exception {
+        // hold each creation until both are in progress
+        manager.createGate = () -> manager.creationAttempts.get() >= 2;
+
+        burst(2, List.of(user("jdoe"), user("jsmith")), 2);
+
+        assertThat(manager.creations).hasValue(2);
+        assertThat(manager.maxConcurrentCreations).hasValue(2);
+    }
+
+    /**
+     * Creations of the same user identity shall never run concurrently. Calls
+     * {@link AbstractAccountsManager#createIfMissing} directly, as
+     * {@link AbstractAccountsManager#getOrCreate} would coalesce them before they
+     * reach the identity lock.
+     */
+    @Test
+    void testCreationsOfSameIdentityDontOverlap() throws Exception {
+        // hold the first creation until the second call asked for the identity lock
+        manager.createGate = () -> manager.identityCalls.get() >= 2;
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Callable<GeorchestraUser>> tasks = List.of(() -> manager.createIfMissing(user("jdoe")),
+                    () -> manager.createIfMissing(user("jdoe")));
+            for (Future<GeorchestraUser> result : executor.invokeAll(tasks)) {
+                assertThat(result.get().getUsername()).isEqualTo("jdoe");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(manager.maxConcurrentCreations).hasValue(1);
+        assertThat(manager.creations).hasValue(1);
+    }
+
+    /**
+     * Runs {@link AbstractAccountsManager#getOrCreate} {@code logins} times with
+     * the given number of threads, cycling through {@code users}
+     */
+    private List<GeorchestraUser> burst(int threads, List<GeorchestraUser> users, int logins) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<GeorchestraUser>> tasks = new ArrayList<>();
+            for (int i = 0; i < logins; i++) {
+                GeorchestraUser user = users.get(i % users.size());
+                tasks.add(() -> manager.getOrCreate(user));
+            }
+            List<GeorchestraUser> created = new ArrayList<>();
+            for (Future<GeorchestraUser> result : executor.invokeAll(tasks)) {
+                created.add(result.get());
+            }
+            return created;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private GeorchestraUser user(String username) {
+        GeorchestraUser user = new GeorchestraUser();
+        user.setUsername(username);
+        user.setRoles(new ArrayList<>(List.of("ROLE_USER")));
+        return user;
+    }
+
+    private GeorchestraUser oauth2User(String provider, String uid, String email) {
+        GeorchestraUser user = user(uid);
+        user.setOAuth2Provider(provider);
+        user.setOAuth2Uid(uid);
+        user.setEmail(email);
+        return user;
+    }
+
+    /**
+     * Stores users in memory, failing if the same user is created twice
+     */
+    private static class InMemoryAccountsManager extends AbstractAccountsManager {
+
+        final Map<String, GeorchestraUser> users = new ConcurrentHashMap<>();
+        final AtomicInteger creations = new AtomicInteger();
+        final AtomicInteger creationAttempts = new AtomicInteger();
+        final AtomicInteger lookups = new AtomicInteger();
+        final AtomicInteger identityCalls = new AtomicInteger();
+        final AtomicInteger concurrentCreations = new AtomicInteger();
+        final AtomicInteger maxConcurrentCreations = new AtomicInteger();
+
+        /**
+         * Condition creations wait for, up to one second
+         */
+        volatile BooleanSupplier createGate = () -> true;
+        volatile RuntimeException createFailure;
+
+        InMemoryAccountsManager(ApplicationEventPublisher eventPublisher, OpenIdConnectCustomConfig providersConfig) {
+            super(eventPublisher, providersConfig);
+        }
+
+        @Override
+        String identity(GeorchestraUser mappedUser) {
+            identityCalls.incrementAndGet();
+            return super.identity(mappedUser);
+        }
+
+        @Override
+        protected Optional<GeorchestraUser> findInternal(GeorchestraUser mappedUser) {
+            lookups.incrementAndGet();
+            return super.findInternal(mappedUser);
+        }
+
+        @Override
+        protected void createInternal(GeorchestraUser mapped) {
+            creationAttempts.incrementAndGet();
+            maxConcurrentCreations.accumulateAndGet(concurrentCreations.incrementAndGet(), Math::max);
+            try {
+                long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+                while (!createGate.getAsBoolean() && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+                Thread.sleep(CREATE_LATENCY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                concurrentCreations.decrementAndGet();
+            }
+            if (createFailure != null) {
+                throw createFailure;
+            }
+            if (users.putIfAbsent(mapped.getUsername(), mapped) != null) {
+                throw new IllegalStateException("Duplicate user " + mapped.getUsername());
+            }
+            creations.incrementAndGet();
+        }
+
+        @Override
+        protected Optional<GeorchestraUser> findByUsername(String username) {
+            return Optional.ofNullable(users.get(username));
+        }
+
+        @Override
+        protected Optional<GeorchestraUser> findByOAuth2Uid(String oauth2Provider, String oauth2Uid) {
+            return users.values().stream().filter(u -> oauth2Provider.equals(u.getOAuth2Provider()))
+                    .filter(u -> oauth2Uid.equals(u.getOAuth2Uid())).findFirst();
+        }
+
+        @Override
+        protected Optional<GeorchestraUser> findByEmail(String email) {
+            return findByEmail(email, false);
+        }
+
+        @Override
+        protected Optional<GeorchestraUser> findByEmail(String email, boolean filterPending) {
+            return users.values().stream().filter(u -> email.equalsIgnoreCase(u.getEmail())).findFirst();
+        }
+
+        @Override
+        protected void ensureOrgExists(GeorchestraUser mapped) {
+            // no-op
+        }
+
+        @Override
+        protected Optional<Org> findOrg(String orgId) {
+            return Optional.empty();
+        }
+
+        @Override
+        protected void unlinkUserOrg(GeorchestraUser existingUser) {
+            // no-op
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.accounts.admin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.georchestra.ds.users.Account;
+import org.georchestra.ds.users.AccountDao;
+import org.georchestra.gateway.security.exceptions.DuplicatedEmailFoundException;
+import org.georchestra.gateway.security.exceptions.PendingUserException;
+import org.georchestra.security.model.GeorchestraUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Test suite for {@link CreateAccountUserCustomizer}'s cache of logged in users
+ */
+class CreateAccountUserCustomizerTest {
+
+    private AccountManager accounts;
+    private AccountDao accountDao;
+    private Account account;
+    private FakeTicker ticker;
+    private CreateAccountUserCustomizer customizer;
+
+    private final Authentication auth = new PreAuthenticatedAuthenticationToken("jdoe",
+            Map.of("preauth-username", "jdoe"));
+    private GeorchestraUser mappedUser;
+    private GeorchestraUser storedUser;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        accounts = mock(AccountManager.class);
+        accountDao = mock(AccountDao.class);
+        account = mock(Account.class);
+        when(accountDao.findByUID(anyString())).thenReturn(account);
+
+        mappedUser = new GeorchestraUser();
+        mappedUser.setUsername("jdoe");
+        storedUser = new GeorchestraUser();
+        storedUser.setUsername("jdoe");
+        storedUser.setId("1234");
+        when(accounts.getOrCreate(any())).thenReturn(storedUser);
+
+        ticker = new FakeTicker();
+        customizer = new CreateAccountUserCustomizer(accounts, accountDao, Duration.ofMinutes(1), 100, ticker);
+    }
+
+    @Test
+    void testCachedUntilExpired() throws Exception {
+        assertThat(customizer.apply(auth, mappedUser)).isSameAs(storedUser);
+        assertThat(storedUser.getIsExternalAuth()).isTrue();
+        assertThat(customizer.apply(auth, mappedUser)).isSameAs(storedUser);
+        verify(accounts, times(1)).getOrCreate(mappedUser);
+        verify(accounts, times(1)).createUserOrgUniqueIdIfMissing(mappedUser);
+        verify(accountDao, times(1)).findByUID("jdoe");
+
+        ticker.advance(Duration.ofSeconds(61));
+        assertThat(customizer.apply(auth, mappedUser)).isSameAs(storedUser);
+        verify(accounts, times(2)).getOrCreate(mappedUser);
+        verify(accountDao, times(2)).findByUID("jdoe");
+        // the organization membership was already checked
+        verify(accounts, times(1)).createUserOrgUniqueIdIfMissing(mappedUser);
+
+        assertThat(customizer.getLoggedInUsers().stats().hitCount()).isEqualTo(1);
+        assertThat(customizer.getLoggedInUsers().stats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testOrgMembershipCheckedAgainWhenOrgChanges() {
+        mappedUser.setOAuth2OrgId("org1");
+        customizer.apply(auth, mappedUser);
+        ticker.advance(Duration.ofSeconds(61));
+        customizer.apply(auth, mappedUser);
+        verify(accounts, times(1)).createUserOrgUniqueIdIfMissing(mappedUser);
+
+        mappedUser.setOAuth2OrgId("org2");
+        ticker.advance(Duration.ofSeconds(61));
+        customizer.apply(auth, mappedUser);
+        verify(accounts, times(2)).createUserOrgUniqueIdIfMissing(mappedUser);
+
+        customizer.invalidateAll();
+        customizer.apply(auth, mappedUser);
+        verify(accounts, times(3)).createUserOrgUniqueIdIfMissing(mappedUser);
+    }
+
+    @Test
+    void testOrgMembershipCheckedOnEveryLogin() {
+        customizer.apply(auth, mappedUser);
+        customizer.apply(new PreAuthenticatedAuthenticationToken("jdoe", Map.of("preauth-username", "jdoe2")),
+                mappedUser);
+        verify(accounts, times(2)).createUserOrgUniqueIdIfMissing(mappedUser);
+
+        // logging out and back in
+        new LoggedInUsersLogoutHandler(customizer).logout(null, auth).block();
+        customizer.apply(auth, mappedUser);
+        verify(accounts, times(3)).getOrCreate(mappedUser);
+        verify(accounts, times(3)).createUserOrgUniqueIdIfMissing(mappedUser);
+    }
+
+    @Test
+    void testInvalidate() {
+        customizer.apply(auth, mappedUser);
+        customizer.invalidate(auth);
+        customizer.apply(auth, mappedUser);
+        customizer.invalidateAll();
+        customizer.apply(auth, mappedUser);
+        verify(accounts, times(3)).getOrCreate(mappedUser);
+    }
+
+    @Test
+    void testPendingStatusCached() throws Exception {
+        when(account.isPending()).thenReturn(true);
+
+        assertThatThrownBy(() -> customizer.apply(auth, mappedUser)).isInstanceOf(PendingUserException.class);
+        assertThatThrownBy(() -> customizer.apply(auth, mappedUser)).isInstanceOf(PendingUserException.class);
+        verify(accounts, times(1)).getOrCreate(mappedUser);
+        verify(accountDao, times(1)).findByUID("jdoe");
+        verify(accounts, never()).createUserOrgUniqueIdIfMissing(any());
+
+        // approved
+        when(account.isPending()).thenReturn(false);
+        ticker.advance(Duration.ofSeconds(61));
+        assertThat(customizer.apply(auth, mappedUser)).isSameAs(storedUser);
+    }
+
+    @Test
+    void testZeroTtlLooksUpEveryRequest() {
+        customizer = new CreateAccountUserCustomizer(accounts, accountDao, Duration.ZERO, 100);
+        customizer.apply(auth, mappedUser);
+        customizer.apply(auth, mappedUser);
+        verify(accounts, times(2)).getOrCreate(mappedUser);
+    }
+
+    @Test
+    void testOtherAuthenticationsNotLookedUp() {
+        TestingAuthenticationToken other = new TestingAuthenticationToken("jdoe", null);
+        assertThat(customizer.apply(other, mappedUser)).isSameAs(mappedUser);
+        verify(accounts, never()).getOrCreate(any());
+    }
+
+    @Test
+    void testConcurrentLoginsCoalesced() throws Exception {
+        final int logins = 8;
+        when(accounts.getOrCreate(any())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return storedUser;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(logins);
+        try {
+            List<Future<GeorchestraUser>> results = new ArrayList<>();
+            for (int i = 0; i < logins; i++) {
+                results.add(executor.submit(() -> customizer.apply(auth, mappedUser)));
+            }
+            for (Future<GeorchestraUser> result : results) {
+                assertThat(result.get()).isSameAs(storedUser);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(accounts, times(1)).getOrCreate(mappedUser);
+        verify(accountDao, times(1)).findByUID("jdoe");
+    }
+
+    @Test
+    void testLoginFailureNotWrapped() {
+        when(accounts.getOrCreate(any())).thenThrow(new DuplicatedEmailFoundException("duplicate"));
+        assertThatThrownBy(() -> customizer.apply(auth, mappedUser)).isInstanceOf(DuplicatedEmailFoundException.class);
+        assertThat(customizer.getLoggedInUsers().size()).isZero();
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(Duration duration) {
+            nanos += duration.toNanos();
+        }
+    }
+}
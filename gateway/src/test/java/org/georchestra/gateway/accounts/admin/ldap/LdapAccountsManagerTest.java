@@ -1,21 +1,43 @@
 package org.georchestra.gateway.accounts.admin.ldap;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.georchestra.ds.DataServiceException;
 import org.georchestra.ds.orgs.Org;
 import org.georchestra.ds.orgs.OrgsDao;
+import org.georchestra.ds.roles.Role;
 import org.georchestra.ds.roles.RoleDao;
+import org.georchestra.ds.roles.RoleFactory;
 import org.georchestra.ds.users.Account;
 import org.georchestra.ds.users.AccountDao;
+import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties;
+import org.georchestra.gateway.security.oauth2.OpenIdConnectCustomConfig;
+import org.georchestra.security.model.GeorchestraUser;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.stubbing.Answer;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.ldap.NameNotFoundException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class LdapAccountsManagerTest {
@@ -82,4 +104,257 @@ public class LdapAccountsManagerTest {
 
         assertThrows(IllegalStateException.class, () -> toTest.verifySingleOrgMembership(account, "ORG_A"));
     }
+
+    @Test
+    void createInternal_addsRoleMembershipsInOneBatch() throws Exception {
+        Provisioning provisioning = new Provisioning();
+        Role orgRole = RoleFactory.create("ORG_ROLE", null, false);
+        when(provisioning.roleNames.findExisting(Set.of("EXISTING", "NEW"))).thenReturn(Set.of("EXISTING"));
+        when(provisioning.roleDao.findByCommonName("NEW")).thenThrow(new NameNotFoundException("NEW"));
+        when(provisioning.roleDao.findAllForOrg(provisioning.org)).thenReturn(List.of(orgRole));
+
+        provisioning.manager.createInternal(provisioning.user("jdoe", "ROLE_EXISTING", "ROLE_NEW"));
+
+        verify(provisioning.roleDao).addUsersInRoles(eq(List.of("USER", "ORG_ROLE", "EXISTING", "NEW")), any());
+        verify(provisioning.roleDao, times(1)).insert(any(Role.class));
+        verify(provisioning.roleDao, never()).addUser(anyString(), any());
+        verify(provisioning.orgsDao, times(1)).findByCommonName("ORG");
+
+        // known roles are not looked up again
+        provisioning.manager.createInternal(provisioning.user("jdoe2", "ROLE_EXISTING", "ROLE_NEW"));
+        verify(provisioning.roleNames, times(1)).findExisting(any());
+        verify(provisioning.roleDao, never()).findAll();
+        verify(provisioning.roleDao, times(1)).insert(any(Role.class));
+    }
+
+    @Test
+    void createInternal_compensatesFailedRoleMemberships() throws Exception {
+        Provisioning provisioning = new Provisioning();
+        doThrow(new DataServiceException("LDAP error")).when(provisioning.roleDao).addUsersInRoles(any(), any());
+
+        GeorchestraUser user = provisioning.user("jdoe");
+        assertThrows(IllegalStateException.class, () -> provisioning.manager.createInternal(user));
+
+        InOrder inOrder = inOrder(provisioning.accountDao, provisioning.orgsDao, provisioning.roleDao);
+        inOrder.verify(provisioning.accountDao).insert(any());
+        inOrder.verify(provisioning.orgsDao).update(provisioning.org);
+        inOrder.verify(provisioning.roleDao).addUsersInRoles(any(), any());
+        inOrder.verify(provisioning.roleDao).deleteUser(any());
+        inOrder.verify(provisioning.orgsDao).unlinkUser(any());
+        inOrder.verify(provisioning.accountDao).delete(any());
+    }
+
+    @Test
+    void createInternal_compensatesFailedOrgUpdate() throws Exception {
+        Provisioning provisioning = new Provisioning();
+        doThrow(new IllegalArgumentException("LDAP error")).when(provisioning.orgsDao).update(any());
+
+        GeorchestraUser user = provisioning.user("jdoe");
+        assertThrows(IllegalStateException.class, () -> provisioning.manager.createInternal(user));
+
+        verify(provisioning.accountDao).delete(any());
+        verify(provisioning.orgsDao, never()).unlinkUser(any());
+        verify(provisioning.roleDao, never()).addUsersInRoles(any(), any());
+    }
+
+    @Test
+    void createInternal_compensatesFailedOrgMembershipVerification() throws Exception {
+        Provisioning provisioning = new Provisioning();
+        Org other = new Org();
+        other.setId("OTHER");
+        when(provisioning.orgsDao.findByUser(any(Account.class))).thenReturn(other);
+
+        GeorchestraUser user = provisioning.user("jdoe");
+        assertThrows(IllegalStateException.class, () -> provisioning.manager.createInternal(user));
+
+        InOrder inOrder = inOrder(provisioning.accountDao, provisioning.orgsDao);
+        inOrder.verify(provisioning.accountDao).insert(any());
+        inOrder.verify(provisioning.orgsDao).update(provisioning.org);
+        inOrder.verify(provisioning.orgsDao).unlinkUser(any());
+        inOrder.verify(provisioning.accountDao).delete(any());
+        verify(provisioning.roleDao, never()).addUsersInRoles(any(), any());
+    }
+
+    @Test
+    void createInternal_compensationDeletesCreatedOrg() throws Exception {
+        Provisioning provisioning = new Provisioning();
+        Org created = new Org();
+        created.setId("NEW_ORG");
+        created.setMembers(new ArrayList<>());
+        when(provisioning.orgsDao.findByCommonName("NEW_ORG")).thenThrow(new NameNotFoundException("NEW_ORG"))
+                .thenReturn(created);
+
+        // the org is created, and the membership verification fails
+        GeorchestraUser user = provisioning.user("jdoe");
+        user.setOrganization("NEW_ORG");
+        assertThrows(IllegalStateException.class, () -> provisioning.manager.createInternal(user));
+
+        InOrder inOrder = inOrder(provisioning.accountDao, provisioning.orgsDao);
+        inOrder.verify(provisioning.orgsDao).insert(any());
+        inOrder.verify(provisioning.orgsDao).unlinkUser(any());
+        inOrder.verify(provisioning.orgsDao).delete(created);
+        inOrder.verify(provisioning.accountDao).delete(any());
+    }
+
+    @Test
+    void createInternal_compensationKeepsCreatedOrgJoinedByOthers() throws Exception {
+        Provisioning provisioning = new Provisioning();
+        Org created = new Org();
+        created.setId("NEW_ORG");
+        created.setMembers(new ArrayList<>(List.of("jsmith")));
+        when(provisioning.orgsDao.findByCommonName("NEW_ORG")).thenThrow(new NameNotFoundException("NEW_ORG"))
+                .thenReturn(created);
+
+        GeorchestraUser user = provisioning.user("jdoe");
+        user.setOrganization("NEW_ORG");
+        assertThrows(IllegalStateException.class, () -> provisioning.manager.createInternal(user));
+
+        verify(provisioning.orgsDao).unlinkUser(any());
+        verify(provisioning.orgsDao, never()).delete(any());
+        verify(provisioning.accountDao).delete(any());
+    }
+
+    @Test
+    void createInternal_locksOrgByCommonName() throws Exception {
+        Provisioning provisioning = new Provisioning();
+        when(provisioning.orgsDao.findByOrgUniqueId("123")).thenReturn(provisioning.org);
+        Overlap overlap = new Overlap();
+        doAnswer(overlap.answer()).when(provisioning.orgsDao).update(any());
+
+        // the same org, found by unique id and by common name
+        GeorchestraUser byUniqueId = provisioning.user("jdoe");
+        byUniqueId.setOrganization("Org Inc.");
+        byUniqueId.setOAuth2OrgId("123");
+        GeorchestraUser byCommonName = provisioning.user("jsmith");
+        createConcurrently(provisioning, byUniqueId, byCommonName);
+
+        assertEquals(1, overlap.max.get());
+        verify(provisioning.orgsDao, times(2)).update(provisioning.org);
+    }
+
+    @Test
+    void createInternal_compensationUnlinksFromOrgFoundByUniqueId() throws Exception {
+        Provisioning provisioning = new Provisioning();
+        when(provisioning.orgsDao.findByOrgUniqueId("123")).thenReturn(provisioning.org);
+        doThrow(new DataServiceException("LDAP error")).when(provisioning.roleDao).addUsersInRoles(any(), any());
+
+        GeorchestraUser user = provisioning.user("jdoe");
+        user.setOrganization("Org Inc.");
+        user.setOAuth2OrgId("123");
+        assertThrows(IllegalStateException.class, () -> provisioning.manager.createInternal(user));
+
+        ArgumentCaptor<Account> unlinked = ArgumentCaptor.forClass(Account.class);
+        verify(provisioning.orgsDao).unlinkUser(unlinked.capture());
+        assertEquals("ORG", unlinked.getValue().getOrg());
+    }
+
+    @Test
+    void unlinkUserOrg_locksOrgFoundByUniqueIdByCommonName() throws Exception {
+        Provisioning provisioning = new Provisioning();
+        when(provisioning.orgsDao.findByOrgUniqueId("123")).thenReturn(provisioning.org);
+        Overlap overlap = new Overlap();
+        doAnswer(overlap.answer()).when(provisioning.orgsDao).update(any());
+        doAnswer(overlap.answer()).when(provisioning.orgsDao).unlinkUser(any());
+
+        GeorchestraUser unlinked = provisioning.user("jdoe");
+        unlinked.setOrganization("Org Inc.");
+        unlinked.setOAuth2OrgId("123");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> unlink = executor.submit(() -> provisioning.manager.unlinkUserOrg(unlinked));
+            provisioning.manager.createInternal(provisioning.user("jsmith"));
+            unlink.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ArgumentCaptor<Account> account = ArgumentCaptor.forClass(Account.class);
+        verify(provisioning.orgsDao).unlinkUser(account.capture());
+        assertEquals("ORG", account.getValue().getOrg());
+        assertEquals(1, overlap.max.get());
+    }
+
+    @Test
+    void createInternal_locksEmail() throws Exception {
+        Provisioning provisioning = new Provisioning();
+        Overlap overlap = new Overlap();
+        doAnswer(overlap.answer()).when(provisioning.accountDao).insert(any());
+
+        GeorchestraUser first = provisioning.user("jdoe");
+        first.setEmail("jdoe@example.com");
+        GeorchestraUser second = provisioning.user("jdoe2");
+        second.setEmail("JDoe@example.com");
+        createConcurrently(provisioning, first, second);
+
+        assertEquals(1, overlap.max.get());
+    }
+
+    private void createConcurrently(Provisioning provisioning, GeorchestraUser... users) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(users.length);
+        try {
+            List<Future<?>> creations = new ArrayList<>();
+            for (GeorchestraUser user : users) {
+                creations.add(executor.submit(() -> {
+                    provisioning.manager.createInternal(user);
+                    return null;
+                }));
+            }
+            for (Future<?> creation : creations) {
+                creation.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Records the maximum number of concurrent calls to a mocked method
+     */
+    private static class Overlap {
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+
+        Answer<Void> answer() {
+            return invocation -> {
+                max.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(200);
+                } finally {
+                    concurrent.decrementAndGet();
+                }
+                return null;
+            };
+        }
+    }
+
+    /**
+     * {@link LdapAccountsManager} with mocked DAOs, and an existing {@code ORG}
+     * organization
+     */
+    private static class Provisioning {
+        final AccountDao accountDao = mock(AccountDao.class);
+        final RoleDao roleDao = mock(RoleDao.class);
+        final OrgsDao orgsDao = mock(OrgsDao.class);
+        final LdapRoleNames roleNames = mock(LdapRoleNames.class);
+        final Org org = new Org();
+        final LdapAccountsManager manager;
+
+        Provisioning() {
+            org.setId("ORG");
+            org.setMembers(new ArrayList<>());
+            when(orgsDao.findByCommonName("ORG")).thenReturn(org);
+            when(orgsDao.findAll()).thenReturn(List.of(org));
+            when(orgsDao.findByUser(any(Account.class))).thenReturn(org);
+            manager = new LdapAccountsManager(mock(ApplicationEventPublisher.class), accountDao, roleDao, orgsDao, null,
+                    new GeorchestraGatewaySecurityConfigProperties(), new OpenIdConnectCustomConfig(), roleNames);
+        }
+
+        GeorchestraUser user(String username, String... roles) {
+            GeorchestraUser user = new GeorchestraUser();
+            user.setUsername(username);
+            user.setOrganization("ORG");
+            user.setRoles(new ArrayList<>(List.of(roles)));
+            return user;
+        }
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.accounts.admin.ldap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import org.georchestra.ds.roles.RoleDao;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ldap.NameNotFoundException;
+import org.springframework.ldap.core.AttributesMapper;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.query.LdapQuery;
+
+class LdapRoleNamesTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchesRoleNamesWithSingleFilter() throws Exception {
+        LdapTemplate ldapTemplate = mock(LdapTemplate.class);
+        ArgumentCaptor<LdapQuery> query = ArgumentCaptor.forClass(LdapQuery.class);
+        when(ldapTemplate.search(query.capture(), any(AttributesMapper.class))).thenReturn(List.of("user"));
+
+        Set<String> existing = LdapRoleNames.search(ldapTemplate, "ou=roles").findExisting(List.of("USER", "NEW"));
+
+        assertThat(existing).containsExactly("USER");
+        assertThat(query.getValue().base().toString()).isEqualTo("ou=roles");
+        assertThat(query.getValue().attributes()).containsExactly("cn");
+        assertThat(query.getValue().filter().encode()).isEqualTo("(|(cn=USER)(cn=NEW))");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchesNothingForNoRoleNames() throws Exception {
+        LdapTemplate ldapTemplate = mock(LdapTemplate.class);
+
+        assertThat(LdapRoleNames.search(ldapTemplate, "ou=roles").findExisting(List.of())).isEmpty();
+        verify(ldapTemplate, never()).search(any(LdapQuery.class), any(AttributesMapper.class));
+    }
+
+    @Test
+    void looksUpRoleNamesOneAtATime() throws Exception {
+        RoleDao roleDao = mock(RoleDao.class);
+        when(roleDao.findByCommonName("NEW")).thenThrow(new NameNotFoundException("NEW"));
+
+        assertThat(LdapRoleNames.lookup(roleDao).findExisting(List.of("USER", "NEW"))).containsExactly("USER");
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.accounts.events.rabbitmq;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import com.google.common.base.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test suite for {@link RabbitmqEventsListener}'s duplicate detection
+ */
+class RabbitmqEventsListenerTest {
+
+    private MeterRegistry registry;
+    private FakeTicker ticker;
+    private RabbitmqEventsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        ticker = new FakeTicker();
+        listener = new RabbitmqEventsListener(Duration.ofMinutes(10), 100, registry, ticker);
+    }
+
+    @Test
+    void testDuplicatesIgnored() {
+        listener.onMessage(message("uid-1"));
+        listener.onMessage(message("uid-1"));
+        listener.onMessage(message("uid-2"));
+
+        assertThat(listener.getReceivedMessageUids()).containsExactlyInAnyOrder("uid-1", "uid-2");
+        assertThat(count("processed")).isEqualTo(2);
+        assertThat(count("duplicates")).isEqualTo(1);
+    }
+
+    @Test
+    void testUidsExpire() {
+        listener.onMessage(message("uid-1"));
+        ticker.advance(Duration.ofMinutes(11));
+        listener.onMessage(message("uid-1"));
+
+        assertThat(count("processed")).isEqualTo(2);
+        assertThat(count("duplicates")).isZero();
+    }
+
+    @Test
+    void testUidsBounded() {
+        for (int i = 0; i < 1000; i++) {
+            listener.onMessage(message("uid-" + i));
+        }
+        assertThat(listener.getReceivedMessageUids()).hasSizeLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void testOtherSubjectsIgnored() {
+        JSONObject json = new JSONObject().put("uid", "uid-1").put("subject", "OTHER");
+        listener.onMessage(new Message(json.toString().getBytes(StandardCharsets.UTF_8), new MessageProperties()));
+        assertThat(listener.getReceivedMessageUids()).isEmpty();
+        assertThat(count("processed")).isZero();
+    }
+
+    @Test
+    void testFailuresCounted() {
+        listener.onMessage(new Message("not json".getBytes(StandardCharsets.UTF_8), new MessageProperties()));
+        assertThat(count("failures")).isEqualTo(1);
+    }
+
+    @Test
+    void testConcurrentDeliveriesProcessedOnce() throws Exception {
+        final int threads = 8;
+        registry = new SimpleMeterRegistry();
+        listener = new RabbitmqEventsListener(Duration.ofMinutes(10), 10_000, registry, ticker);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads * 100; i++) {
+                Message message = message("uid-" + (i % 100));
+                tasks.add(() -> {
+                    listener.onMessage(message);
+                    return null;
+                });
+            }
+            executor.invokeAll(tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(count("processed")).isEqualTo(100);
+        assertThat(count("duplicates")).isEqualTo(700);
+    }
+
+    private double count(String name) {
+        return registry.get("georchestra.events.rabbitmq.listener." + name).counter().count();
+    }
+
+    private Message message(String uid) {
+        JSONObject json = new JSONObject().put("uid", uid)
+                .put("subject", RabbitmqEventsListener.OAUTH2_ACCOUNT_CREATION_RECEIVED).put("msg", "received " + uid);
+        return new Message(json.toString().getBytes(StandardCharsets.UTF_8), new MessageProperties());
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(Duration duration) {
+            nanos += duration.toNanos();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.accounts.events.rabbitmq;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.georchestra.gateway.accounts.events.rabbitmq.RabbitmqEventsConfigurationProperties.Outbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitOperations.OperationsCallback;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test suite for {@link RabbitmqEventsOutbox}, publishing to an in-process
+ * stand-in of the broker
+ */
+@ExtendWith(OutputCaptureExtension.class)
+class RabbitmqEventsOutboxTest {
+
+    private Broker broker;
+    private MeterRegistry registry;
+    private Outbox config;
+    private RabbitmqEventsOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        broker = new Broker();
+        registry = new SimpleMeterRegistry();
+        config = new Outbox().setBatchSize(10).setInitialBackoff(Duration.ofMillis(10))
+                .setMaxBackoff(Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (outbox != null) {
+            outbox.stop();
+        }
+    }
+
+    @Test
+    void testPublishesInConfirmedBatches() throws Exception {
+        outbox = newOutbox();
+        for (int i = 0; i < 25; i++) {
+            assertThat(outbox.offer("message-" + i)).isTrue();
+        }
+        outbox.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.received.size() == 25);
+        assertThat(broker.received).startsWith("message-0", "message-1").endsWith("message-24");
+        assertThat(broker.batches).hasValue(3);
+        assertThat(broker.confirms).hasValue(3);
+        assertThat(registry.get("georchestra.events.rabbitmq.outbox.published").counter().count()).isEqualTo(25);
+        assertThat(registry.get("georchestra.events.rabbitmq.outbox.queued").gauge().value()).isZero();
+        assertThat(registry.get("georchestra.events.rabbitmq.outbox.publish").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testRetriesFailedBatches() throws Exception {
+        broker.failures.set(3);
+        outbox = newOutbox();
+        outbox.start();
+        outbox.offer("message");
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.received.size() == 1);
+        assertThat(broker.received).containsExactly("message");
+        assertThat(registry.get("georchestra.events.rabbitmq.outbox.failures").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testDropsMessagesWhenFull() {
+        config.setCapacity(2);
+        outbox = newOutbox();
+        assertThat(outbox.offer("message-1")).isTrue();
+        assertThat(outbox.offer("message-2")).isTrue();
+        assertThat(outbox.offer("message-3")).isFalse();
+        assertThat(outbox.size()).isEqualTo(2);
+        assertThat(registry.get("georchestra.events.rabbitmq.outbox.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDroppedMessagesLoggedWithoutContents(CapturedOutput output) {
+        config.setCapacity(1);
+        outbox = newOutbox();
+        outbox.offer("{\"uid\":\"uid-1\",\"email\":\"jdoe@example.com\"}");
+        outbox.offer("{\"uid\":\"uid-2\",\"email\":\"jdoe@example.com\"}");
+        outbox.offer("{\"uid\":\"uid-3\",\"email\":\"jsmith@example.com\"}");
+
+        assertThat(registry.get("georchestra.events.rabbitmq.outbox.dropped").counter().count()).isEqualTo(2);
+        assertThat(output).contains("dropped 1 messages, last one with uid uid-2").doesNotContain("uid-3")
+                .doesNotContain("@example.com");
+    }
+
+    @Test
+    void testPendingMessagesRecoveredFromJournal(@TempDir Path tmp) throws Exception {
+        Path journal = tmp.resolve("outbox.journal");
+        config.setJournal(journal);
+
+        // broker down, messages are pending when stopping
+        broker.failures.set(Integer.MAX_VALUE);
+        outbox = newOutbox();
+        outbox.start();
+        outbox.offer("message-1");
+        outbox.offer("message-2");
+        outbox.stop();
+        assertThat(broker.received).isEmpty();
+
+        broker.failures.set(0);
+        outbox = newOutbox();
+        outbox.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.received.size() == 2);
+        assertThat(broker.received).containsExactly("message-1", "message-2");
+
+        outbox.offer("message-3");
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.received.size() == 3);
+        // truncated once all messages are published
+        await().atMost(Duration.ofSeconds(5)).until(() -> Files.size(journal) == 0);
+    }
+
+    @Test
+    void testPublishedMessagesNotRecovered(@TempDir Path tmp) throws Exception {
+        Path journal = tmp.resolve("outbox.journal");
+        Files.write(journal, List.of("P 1 message-1", "P 2 message-2", "A 1", "P 3 message-3"));
+        config.setJournal(journal);
+
+        outbox = newOutbox();
+        outbox.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.received.size() == 2);
+        assertThat(broker.received).containsExactly("message-2", "message-3");
+    }
+
+    @Test
+    void testSequenceContinuesAfterRecoveredMessages(@TempDir Path tmp) throws Exception {
+        Path journal = tmp.resolve("outbox.journal");
+        Files.write(journal, List.of("P 1 message-1", "P 2 message-2", "A 1"));
+        config.setJournal(journal);
+
+        broker.failures.set(Integer.MAX_VALUE);
+        outbox = newOutbox();
+        outbox.start();
+        outbox.offer("message-3");
+        assertThat(Files.readAllLines(journal)).containsExactly("P 2 message-2", "P 3 message-3");
+    }
+
+    @Test
+    void testRecoversFromPartiallyWrittenJournal(@TempDir Path tmp) throws Exception {
+        Path journal = tmp.resolve("outbox.journal");
+        config.setJournal(journal);
+
+        broker.failures.set(Integer.MAX_VALUE);
+        for (String partial : List.of("P 12", "P 1", "A ", "A 1", "P 3 mess")) {
+            Files.writeString(journal, "P 1 message-1\nP 2 message-2\n" + partial);
+            outbox = newOutbox();
+            outbox.start();
+            outbox.stop();
+            assertThat(Files.readAllLines(journal)).as(partial).containsExactly("P 1 message-1", "P 2 message-2");
+        }
+    }
+
+    @Test
+    void testSkipsMalformedJournalEntries(@TempDir Path tmp) throws Exception {
+        Path journal = tmp.resolve("outbox.journal");
+        Files.write(journal, List.of("P 1 message-1", "P 2", "P x message-x", "A ", "X 3", "P 3 message-3"));
+        config.setJournal(journal);
+
+        outbox = newOutbox();
+        outbox.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.received.size() == 2);
+        assertThat(broker.received).containsExactly("message-1", "message-3");
+    }
+
+    private RabbitmqEventsOutbox newOutbox() {
+        return new RabbitmqEventsOutbox(broker.template, "routing-key", config, registry);
+    }
+
+    /**
+     * Stand-in of a broker, receiving the messages published through its
+     * {@link #template}, and failing the requested number of batches
+     */
+    private static class Broker {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final AtomicInteger batches = new AtomicInteger();
+        final AtomicInteger confirms = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+
+        final RabbitOperations template = mock(RabbitOperations.class);
+
+        Broker() {
+            RabbitOperations channel = mock(RabbitOperations.class);
+            List<String> unconfirmed = new CopyOnWriteArrayList<>();
+            doAnswer(invocation -> unconfirmed.add(invocation.getArgument(1))).when(channel).convertAndSend(anyString(),
+                    any(Object.class));
+            doAnswer(invocation -> {
+                if (failures.getAndUpdate(f -> Math.max(0, f - 1)) > 0) {
+                    throw new AmqpIOException(new IOException("nack"));
+                }
+                confirms.incrementAndGet();
+                received.addAll(unconfirmed);
+                return null;
+            }).when(channel).waitForConfirmsOrDie(anyLong());
+            when(template.invoke(any())).thenAnswer(invocation -> {
+                unconfirmed.clear();
+                batches.incrementAndGet();
+                return invocation.<OperationsCallback<?>>getArgument(0).doInRabbit(channel);
+            });
+        }
+    }
+}
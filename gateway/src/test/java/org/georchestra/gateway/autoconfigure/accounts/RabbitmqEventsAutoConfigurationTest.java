@@ -4,6 +4,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import org.georchestra.gateway.accounts.events.rabbitmq.RabbitmqAccountCreatedEventSender;
 import org.georchestra.gateway.accounts.events.rabbitmq.RabbitmqEventsConfiguration;
+import org.georchestra.gateway.accounts.events.rabbitmq.RabbitmqEventsListener;
+import org.georchestra.gateway.accounts.events.rabbitmq.RabbitmqEventsOutbox;
 import org.junit.jupiter.api.Test;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.boot.actuate.amqp.RabbitHealthIndicator;
@@ -51,6 +53,8 @@ class RabbitmqEventsAutoConfigurationTest {
         ).run(context -> {
 
             assertThat(context).hasNotFailed().hasSingleBean(RabbitmqAccountCreatedEventSender.class);
+            assertThat(context).hasSingleBean(RabbitmqEventsOutbox.class);
+            assertThat(context).hasSingleBean(RabbitmqEventsListener.class);
 
             assertThat(context).hasBean("connectionFactory");
             CachingConnectionFactory rabbitMQConnectionFactory = (CachingConnectionFactory) context
@@ -22,6 +22,8 @@ package org.georchestra.gateway.filter.global;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +38,7 @@ import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.georchestra.gateway.model.GatewayConfigProperties;
 import org.georchestra.gateway.model.GeorchestraTargetConfig;
@@ -81,6 +84,7 @@ class ResolveTargetGlobalFilterTest {
         filter = new ResolveTargetGlobalFilter(config);
 
         matchingRoute = mock(Route.class);
+        when(matchingRoute.getId()).thenReturn("matching-route");
         when(matchingRoute.getUri()).thenReturn(matchingURI);
 
         mockChain = mock(GatewayFilterChain.class);
@@ -99,6 +103,52 @@ class ResolveTargetGlobalFilterTest {
         verify(mockChain, times(1)).filter(same(exchange));
     }
 
+    @Test
+    void filter_reusesResolvedTargetConfigPerRoute() {
+        filter.filter(exchange, mockChain);
+        GeorchestraTargetConfig first = GeorchestraTargetConfig.getTarget(exchange).orElseThrow();
+
+        MockServerWebExchange exchange2 = MockServerWebExchange.from(MockServerHttpRequest.get("/test2").build());
+        exchange2.getAttributes().put(GATEWAY_ROUTE_ATTR, matchingRoute);
+        filter.filter(exchange2, mockChain);
+
+        assertSame(first, GeorchestraTargetConfig.getTarget(exchange2).orElseThrow());
+    }
+
+    @Test
+    void getTarget_resolvedAgainAfterRefresh() {
+        GeorchestraTargetConfig first = filter.getTarget(matchingRoute);
+        assertSame(first, filter.getTarget(matchingRoute));
+        assertNull(first.service());
+
+        Service service = service(matchingURI, new HeaderMappings().jsonUser(true));
+        config.setServices(Map.of("service", service));
+        assertSame(first, filter.getTarget(matchingRoute), "config changes are applied on refresh only");
+
+        filter.clearCache();
+        GeorchestraTargetConfig refreshed = filter.getTarget(matchingRoute);
+        assertNotSame(first, refreshed);
+        assertSame(service, refreshed.service());
+        assertThat(refreshed.headers().getJsonUser()).isEqualTo(Optional.of(true));
+    }
+
+    @Test
+    void getTarget_resolvedAgainIfRouteURIChanged() {
+        GeorchestraTargetConfig first = filter.getTarget(matchingRoute);
+
+        URI otherURI = URI.create("https://backend.service.2");
+        Service service = service(otherURI);
+        config.setServices(Map.of("service", service));
+
+        Route updated = mock(Route.class);
+        when(updated.getId()).thenReturn("matching-route");
+        when(updated.getUri()).thenReturn(otherURI);
+
+        GeorchestraTargetConfig second = filter.getTarget(updated);
+        assertNotSame(first, second);
+        assertSame(service, second.service());
+    }
+
     @Test
     void resolveTarget_defaultsToGlobal() {
         GeorchestraTargetConfig target = filter.resolveTarget(matchingRoute);
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.filter.headers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.georchestra.gateway.filter.headers.providers.GeorchestraOrganizationHeadersContributor;
+import org.georchestra.gateway.filter.headers.providers.GeorchestraUserHeadersContributor;
+import org.georchestra.gateway.filter.headers.providers.JsonPayloadHeadersContributor;
+import org.georchestra.gateway.filter.headers.providers.SecProxyHeaderContributor;
+import org.georchestra.gateway.model.GeorchestraOrganizations;
+import org.georchestra.gateway.model.GeorchestraTargetConfig;
+import org.georchestra.gateway.model.GeorchestraUsers;
+import org.georchestra.gateway.model.HeaderMappings;
+import org.georchestra.security.model.GeorchestraUser;
+import org.georchestra.security.model.Organization;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+/**
+ * Compares appending the {@code sec-*} headers through
+ * {@link HeaderContributor#prepare} for each request with applying the
+ * {@link HeaderPlan} compiled out of the same contributors, with all the
+ * non-JSON headers enabled.
+ * <p>
+ * The {@code stored} benchmark only stores the same, precomputed, header values
+ * and renders the roles, as a baseline of the allocations applying the plan
+ * can't avoid.
+ * <p>
+ * Run with {@link #main(String[])} after {@code mvn test-compile}, the
+ * {@code gc} profiler reports the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddSecHeadersBenchmark {
+
+    private List<HeaderContributor> contributors;
+    private HeaderPlan plan;
+    private MockServerWebExchange exchange;
+    private GeorchestraUser user;
+    private Organization org;
+    private String[] names;
+    private String[] values;
+    private int rolesIndex;
+
+    @Setup
+    public void setup() {
+        contributors = List.of(new SecProxyHeaderContributor(() -> true), new GeorchestraUserHeadersContributor(),
+                new GeorchestraOrganizationHeadersContributor(), new JsonPayloadHeadersContributor());
+        HeaderMappings mappings = new HeaderMappings().enableAll().jsonUser(false).jsonOrganization(false);
+
+        user = new GeorchestraUser();
+        user.setId("0a6e1f8c-6d4c-4a53-9f0b-4a6f0d5a7b21");
+        user.setUsername("testuser");
+        user.setOrganization("PSC");
+        user.setEmail("testuser@example.com");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setTelephoneNumber("34144444");
+        user.setLastUpdated("2024-01-01");
+        user.setRoles(List.of("ROLE_USER", "ROLE_GN_EDITOR", "ROLE_MAPSTORE_ADMIN"));
+        org = new Organization();
+        org.setId("PSC");
+        org.setName("Project Steering Committee");
+
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/").build());
+        GeorchestraTargetConfig.setTarget(exchange, new GeorchestraTargetConfig().headers(mappings));
+        GeorchestraUsers.store(exchange, user);
+        GeorchestraOrganizations.store(exchange, org);
+
+        HeaderPlan.Builder builder = HeaderPlan.builder();
+        contributors.forEach(c -> c.compile(mappings, builder));
+        plan = builder.build();
+
+        HttpHeaders expected = new HttpHeaders();
+        plan.apply(user, org, expected);
+        Map<String, String> headers = expected.toSingleValueMap();
+        names = headers.keySet().toArray(String[]::new);
+        values = headers.values().toArray(String[]::new);
+        rolesIndex = List.of(names).indexOf("sec-roles");
+    }
+
+    @Benchmark
+    public HttpHeaders stored() {
+        HttpHeaders headers = new HttpHeaders();
+        for (int i = 0; i < names.length; i++) {
+            String value = i == rolesIndex ? String.join(";", user.getRoles()) : values[i];
+            headers.add(names[i], value);
+        }
+        return headers;
+    }
+
+    @Benchmark
+    public HttpHeaders prepared() {
+        HttpHeaders headers = new HttpHeaders();
+        for (HeaderContributor contributor : contributors) {
+            contributor.prepare(exchange).accept(headers);
+        }
+        return headers;
+    }
+
+    @Benchmark
+    public HttpHeaders compiled() {
+        HttpHeaders headers = new HttpHeaders();
+        plan.apply(user, org, headers);
+        return headers;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AddSecHeadersBenchmark.class.getSimpleName()).addProfiler("gc").build())
+                .run();
+    }
+}
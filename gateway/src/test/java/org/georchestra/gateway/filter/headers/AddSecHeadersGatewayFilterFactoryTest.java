@@ -21,10 +21,14 @@ package org.georchestra.gateway.filter.headers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +36,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
+import org.georchestra.gateway.model.GeorchestraTargetConfig;
+import org.georchestra.gateway.model.GeorchestraUsers;
+import org.georchestra.gateway.model.HeaderMappings;
+import org.georchestra.security.model.GeorchestraUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -92,4 +100,54 @@ class AddSecHeadersGatewayFilterFactoryTest {
         assertEquals("true", finalHeaders.toSingleValueMap().get("header-from-extension2"));
     }
 
+    @Test
+    void testCompiledContributors() {
+        HeaderMappings mappings = new HeaderMappings();
+        GeorchestraTargetConfig target = new GeorchestraTargetConfig().headers(mappings);
+
+        HeaderContributor compiled = mock(HeaderContributor.class);
+        doAnswer(invocation -> {
+            HeaderPlan.Builder plan = invocation.getArgument(1);
+            plan.user("sec-compiled", GeorchestraUser::getId);
+            return true;
+        }).when(compiled).compile(same(mappings), any());
+        HeaderContributor dynamic = mock(HeaderContributor.class);
+        when(dynamic.prepare(any())).thenReturn(headers -> headers.add("sec-dynamic", "true"));
+
+        providers.add(compiled);
+        providers.add(dynamic);
+        GatewayFilter filter = factory.apply((NameConfig) null);
+
+        GeorchestraUser user = new GeorchestraUser();
+        user.setId("abc");
+        HttpHeaders headers = filter(filter, target, user);
+        assertEquals("abc", headers.getFirst("sec-compiled"));
+        assertEquals("true", headers.getFirst("sec-dynamic"));
+
+        headers = filter(filter, target, null);
+        assertNull(headers.getFirst("sec-compiled"));
+        assertEquals("true", headers.getFirst("sec-dynamic"));
+
+        verify(compiled, times(1)).compile(same(mappings), any());
+        verify(compiled, never()).prepare(any());
+        verify(dynamic, times(2)).prepare(any());
+
+        // a new target config, as resolved after a configuration refresh, is compiled
+        // again
+        GeorchestraTargetConfig refreshed = new GeorchestraTargetConfig().headers(mappings);
+        filter(filter, refreshed, user);
+        verify(compiled, times(2)).compile(eq(mappings), any());
+    }
+
+    private HttpHeaders filter(GatewayFilter filter, GeorchestraTargetConfig target, GeorchestraUser user) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/test").build());
+        GeorchestraTargetConfig.setTarget(exchange, target);
+        GeorchestraUsers.store(exchange, user);
+
+        GatewayFilterChain chain = mock(GatewayFilterChain.class);
+        filter.filter(exchange, chain);
+        ArgumentCaptor<ServerWebExchange> captor = ArgumentCaptor.forClass(ServerWebExchange.class);
+        verify(chain).filter(captor.capture());
+        return captor.getValue().getRequest().getHeaders();
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.filter.headers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import org.georchestra.gateway.filter.headers.providers.GeorchestraOrganizationHeadersContributor;
+import org.georchestra.gateway.filter.headers.providers.GeorchestraUserHeadersContributor;
+import org.georchestra.gateway.filter.headers.providers.JsonPayloadHeadersContributor;
+import org.georchestra.gateway.filter.headers.providers.SecProxyHeaderContributor;
+import org.georchestra.gateway.model.GeorchestraOrganizations;
+import org.georchestra.gateway.model.GeorchestraTargetConfig;
+import org.georchestra.gateway.model.GeorchestraUsers;
+import org.georchestra.gateway.model.HeaderMappings;
+import org.georchestra.security.model.GeorchestraUser;
+import org.georchestra.security.model.Organization;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+/**
+ * Test suite for {@link HeaderPlan}, checking compiled plans add the same
+ * headers as the {@link HeaderContributor#prepare prepared} contributors
+ */
+class HeaderPlanTest {
+
+    private final BooleanSupplier secProxy = () -> true;
+
+    private final List<HeaderContributor> contributors = List.of(new SecProxyHeaderContributor(secProxy),
+            new GeorchestraUserHeadersContributor(), new GeorchestraOrganizationHeadersContributor(),
+            new JsonPayloadHeadersContributor());
+
+    @Test
+    void testEmptyPlan() {
+        HeaderPlan plan = HeaderPlan.builder().build();
+        HttpHeaders headers = new HttpHeaders();
+        plan.apply(user(), org(), headers);
+        assertThat(plan.size()).isZero();
+        assertThat(headers).isEmpty();
+    }
+
+    @Test
+    void testSkipsNullValues() {
+        HeaderPlan plan = HeaderPlan.builder().constant("constant", "value").user("user", GeorchestraUser::getId)
+                .organization("org", Organization::getId).add("null", (user, org) -> null).build();
+        assertThat(plan.size()).isEqualTo(4);
+
+        HttpHeaders headers = new HttpHeaders();
+        plan.apply(null, null, headers);
+        assertThat(headers.toSingleValueMap()).isEqualTo(Map.of("constant", "value"));
+
+        headers = new HttpHeaders();
+        plan.apply(user(), org(), headers);
+        assertThat(headers.toSingleValueMap()).isEqualTo(Map.of("constant", "value", "user", "abc", "org", "PSC"));
+    }
+
+    @Test
+    void testCompiledAllEnabled() {
+        testCompiledMatchesPrepared(new HeaderMappings().enableAll(), user(), org());
+    }
+
+    @Test
+    void testCompiledAllDisabled() {
+        testCompiledMatchesPrepared(new HeaderMappings().disableAll(), user(), org());
+    }
+
+    @Test
+    void testCompiledSomeEnabled() {
+        HeaderMappings mappings = new HeaderMappings().disableAll().userid(true).jsonOrganization(true);
+        mappings.setRoles(Optional.of(true));
+        mappings.setOrgid(Optional.of(true));
+        testCompiledMatchesPrepared(mappings, user(), org());
+    }
+
+    @Test
+    void testCompiledNoUser() {
+        testCompiledMatchesPrepared(new HeaderMappings().enableAll(), null, null);
+    }
+
+    @Test
+    void testCompiledLdapWarningAndNoRoles() {
+        GeorchestraUser user = user();
+        user.setLdapWarn(true);
+        user.setLdapRemainingDays("3");
+        user.setIsExternalAuth(true);
+        user.setRoles(List.of());
+        testCompiledMatchesPrepared(new HeaderMappings().enableAll(), user, null);
+    }
+
+    private void testCompiledMatchesPrepared(HeaderMappings mappings, GeorchestraUser user, Organization org) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/").build());
+        GeorchestraTargetConfig.setTarget(exchange, new GeorchestraTargetConfig().headers(mappings));
+        GeorchestraUsers.store(exchange, user);
+        if (org != null) {
+            GeorchestraOrganizations.store(exchange, org);
+        }
+
+        HttpHeaders prepared = new HttpHeaders();
+        contributors.forEach(c -> c.prepare(exchange).accept(prepared));
+
+        HeaderPlan.Builder builder = HeaderPlan.builder();
+        contributors.forEach(c -> assertThat(c.compile(mappings, builder)).isTrue());
+        HttpHeaders compiled = new HttpHeaders();
+        builder.build().apply(user, org, compiled);
+
+        assertThat(asMap(compiled)).isEqualTo(asMap(prepared));
+    }
+
+    private Map<String, List<String>> asMap(HttpHeaders headers) {
+        return new HashMap<>(headers);
+    }
+
+    private GeorchestraUser user() {
+        GeorchestraUser user = new GeorchestraUser();
+        user.setId("abc");
+        user.setUsername("testuser");
+        user.setOrganization("PSC");
+        user.setEmail("testuser@example.com");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setTelephoneNumber("34144444");
+        user.setTitle("Advisor");
+        user.setPostalAddress("123 happy street");
+        user.setNotes(":)");
+        user.setLastUpdated("2024-01-01");
+        user.setRoles(List.of("ROLE_ADMIN", "ROLE_USER"));
+        return user;
+    }
+
+    private Organization org() {
+        Organization org = new Organization();
+        org.setId("PSC");
+        org.setName("Project Steering Committee");
+        org.setLastUpdated("2024-01-02");
+        return org;
+    }
+}
@@ -20,10 +20,13 @@
 package org.georchestra.gateway.filter.headers.providers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +46,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -114,6 +118,78 @@ class JsonPayloadHeadersContributorTest {
         testContributesJsonHeader(org, "sec-organization");
     }
 
+    @Test
+    void testPayloadEncodedAsUtf8() throws Exception {
+        GeorchestraUser user = new GeorchestraUser();
+        user.setId("abc");
+        user.setUsername("testuser");
+        user.setFirstName("Jérôme");
+        user.setLastName("Ångström");
+
+        ObjectMapper mapper = new ObjectMapper().setSerializationInclusion(Include.NON_NULL);
+        String expected = SecurityHeaders.encodeBase64(mapper.writeValueAsString(user));
+        assertEquals(expected, headerContributor.userPayload(user));
+    }
+
+    @Test
+    void testUserPayloadCachedPerVersion() {
+        GeorchestraUser user = new GeorchestraUser();
+        user.setId("abc");
+        user.setUsername("testuser");
+        user.setLastUpdated("1");
+        user.setRoles(new ArrayList<>(List.of("ROLE_USER")));
+
+        String encoded = headerContributor.userPayload(user);
+        assertSame(encoded, headerContributor.userPayload(user));
+
+        user.getRoles().add("ROLE_ADMIN");
+        String withRoles = headerContributor.userPayload(user);
+        assertNotEquals(encoded, withRoles);
+        assertSame(withRoles, headerContributor.userPayload(user));
+
+        user.setEmail("testuser@example.com");
+        user.setLastUpdated("2");
+        String updated = headerContributor.userPayload(user);
+        assertNotEquals(withRoles, updated);
+        assertSame(updated, headerContributor.userPayload(user));
+
+        // properties not reflected by the last update timestamp
+        user.setLdapWarn(true);
+        user.setLdapRemainingDays("3");
+        String warned = headerContributor.userPayload(user);
+        assertNotEquals(updated, warned);
+        assertSame(warned, headerContributor.userPayload(user));
+
+        user.setNotes("notes");
+        assertNotEquals(warned, headerContributor.userPayload(user));
+
+        user.setLastUpdated(null);
+        String noVersion = headerContributor.userPayload(user);
+        assertSame(noVersion, headerContributor.userPayload(user));
+    }
+
+    @Test
+    void testOrganizationPayloadCachedPerVersion() {
+        Organization org = new Organization();
+        org.setId("abc");
+        org.setName("PSC");
+        org.setLastUpdated("1");
+
+        String encoded = headerContributor.organizationPayload(org);
+        assertSame(encoded, headerContributor.organizationPayload(org));
+
+        org.setName("Project Steering Committee");
+        org.setLastUpdated("2");
+        String updated = headerContributor.organizationPayload(org);
+        assertNotEquals(encoded, updated);
+        assertSame(updated, headerContributor.organizationPayload(org));
+
+        org.setNotes("notes");
+        String withNotes = headerContributor.organizationPayload(org);
+        assertNotEquals(updated, withNotes);
+        assertSame(withNotes, headerContributor.organizationPayload(org));
+    }
+
     private void testContributesJsonHeader(Object object, String headerName)
             throws JsonProcessingException, JsonMappingException {
         Consumer<HttpHeaders> contributor = headerContributor.prepare(exchange);
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.filter.headers.providers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.georchestra.gateway.logging.requestid.RequestIdConfigProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+/**
+ * Test suite for {@link RequestIdHeaderContributor}
+ */
+class RequestIdHeaderContributorTest {
+
+    private RequestIdConfigProperties config;
+    private RequestIdHeaderContributor contributor;
+
+    @BeforeEach
+    void setUp() {
+        config = new RequestIdConfigProperties();
+        contributor = new RequestIdHeaderContributor(config);
+    }
+
+    @Test
+    void propagatesGeneratedRequestId() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+        HttpHeaders headers = new HttpHeaders();
+        contributor.prepare(exchange).accept(headers);
+
+        String requestId = config.requestId(exchange);
+        assertThat(headers.get("X-Request-ID")).isEqualTo(List.of(requestId));
+    }
+
+    @Test
+    void propagatesIncomingRequestIdWithConfiguredHeader() {
+        config.setHeader("X-Correlation-ID");
+        MockServerWebExchange exchange = MockServerWebExchange
+                .from(MockServerHttpRequest.get("/").header("trace-id", "abc").header("X-Correlation-ID", "def"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Correlation-ID", "def");
+        contributor.prepare(exchange).accept(headers);
+
+        // trace-id takes precedence over the configured header
+        assertThat(headers.get("X-Correlation-ID")).isEqualTo(List.of("abc"));
+        assertThat(headers.get("X-Request-ID")).isNull();
+    }
+
+    @Test
+    void replacesInvalidIncomingRequestId() {
+        MockServerWebExchange exchange = MockServerWebExchange
+                .from(MockServerHttpRequest.get("/").header("X-Request-ID", "not a valid id"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Request-ID", "not a valid id");
+        contributor.prepare(exchange).accept(headers);
+
+        assertThat(headers.get("X-Request-ID")).isEqualTo(List.of(config.requestId(exchange)))
+                .doesNotContain("not a valid id");
+    }
+
+    @Test
+    void disabled() {
+        config.setPropagate(false);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+        HttpHeaders headers = new HttpHeaders();
+        contributor.prepare(exchange).accept(headers);
+
+        assertThat(headers.isEmpty()).isTrue();
+        assertThat(exchange.getAttributes()).doesNotContainKey(RequestIdConfigProperties.REQUEST_ID_ATTRIBUTE);
+    }
+}
@@ -47,6 +47,7 @@ public class SendMessageRabbitmqIT {
 
     private @Autowired ApplicationEventPublisher eventPublisher;
     private @Autowired RabbitmqAccountCreatedEventSender sender;
+    private @Autowired RabbitmqEventsListener listener;
 
     private static final int SMTPPORT = 25;
 
@@ -114,7 +115,7 @@ public class SendMessageRabbitmqIT {
         user.setOAuth2Uid("123");
         eventPublisher.publishEvent(new AccountCreated(user));
         await().atMost(30, TimeUnit.SECONDS).until(() -> {
-            return (RabbitmqEventsListener.getSynReceivedMessageUid().size() > 0);
+            return (listener.getReceivedMessageUids().size() > 0);
         });
     }
 
@@ -19,6 +19,7 @@
 
 package org.georchestra.gateway.security;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -27,15 +28,27 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.georchestra.gateway.security.exceptions.DuplicatedEmailFoundException;
 import org.georchestra.security.model.GeorchestraUser;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.security.core.Authentication;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Test suite for {@link GeorchestraUserMapper}
  */
@@ -120,4 +133,159 @@ class GeorchestraUserMapperTest {
         assertEquals("customizer1", resolved.get().getUsername());
         assertEquals(List.of("ROLE_1", "ROLE_2"), resolved.get().getRoles());
     }
+
+    @Test
+    void testResolve_memoized_per_exchange() {
+        Authentication auth = mock(Authentication.class);
+        GeorchestraUser user = new GeorchestraUser();
+        GeorchestraUserMapperExtension ext = mock(GeorchestraUserMapperExtension.class);
+        when(ext.resolve(same(auth))).thenReturn(Optional.of(user));
+
+        GeorchestraUserMapper mapper = new GeorchestraUserMapper(List.of(ext));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/test"));
+
+        assertSame(user, mapper.resolve(auth, exchange).orElseThrow());
+        assertSame(user, mapper.resolve(auth, exchange).orElseThrow());
+        verify(ext, times(1)).resolve(same(auth));
+
+        MockServerWebExchange another = MockServerWebExchange.from(MockServerHttpRequest.get("/test"));
+        assertSame(user, mapper.resolve(auth, another).orElseThrow());
+        verify(ext, times(2)).resolve(same(auth));
+    }
+
+    @Test
+    void testResolve_memoizes_empty_result() {
+        Authentication auth = mock(Authentication.class);
+        GeorchestraUserMapperExtension ext = mock(GeorchestraUserMapperExtension.class);
+        when(ext.resolve(same(auth))).thenReturn(Optional.empty());
+
+        GeorchestraUserMapper mapper = new GeorchestraUserMapper(List.of(ext));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/test"));
+
+        assertTrue(mapper.resolve(auth, exchange).isEmpty());
+        assertTrue(mapper.resolve(auth, exchange).isEmpty());
+        verify(ext, times(1)).resolve(same(auth));
+    }
+
+    @Test
+    void testResolve_exchange_memo_discarded_for_different_authentication() {
+        Authentication auth1 = mock(Authentication.class);
+        Authentication auth2 = mock(Authentication.class);
+        GeorchestraUser user1 = new GeorchestraUser();
+        GeorchestraUser user2 = new GeorchestraUser();
+        GeorchestraUserMapperExtension ext = mock(GeorchestraUserMapperExtension.class);
+        when(ext.resolve(same(auth1))).thenReturn(Optional.of(user1));
+        when(ext.resolve(same(auth2))).thenReturn(Optional.of(user2));
+
+        GeorchestraUserMapper mapper = new GeorchestraUserMapper(List.of(ext));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/test"));
+
+        assertSame(user1, mapper.resolve(auth1, exchange).orElseThrow());
+        assertSame(user2, mapper.resolve(auth2, exchange).orElseThrow());
+    }
+
+    @Test
+    void testResolveAsync_offloads_blocking_extensions_from_non_blocking_threads() {
+        Authentication auth = mock(Authentication.class);
+        GeorchestraUser user = new GeorchestraUser();
+        AtomicReference<Thread> resolverThread = new AtomicReference<>();
+        AtomicReference<Thread> customizerThread = new AtomicReference<>();
+
+        GeorchestraUserMapperExtension resolver = token -> {
+            resolverThread.set(Thread.currentThread());
+            return Optional.of(user);
+        };
+        GeorchestraUserCustomizerExtension customizer = (token, u) -> {
+            customizerThread.set(Thread.currentThread());
+            return u;
+        };
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Scheduler workers = Schedulers.newBoundedElastic(1, 10, "test-user-resolution");
+        try {
+            UserResolutionScheduler scheduler = new UserResolutionScheduler(workers, registry);
+            GeorchestraUserMapper mapper = new GeorchestraUserMapper(List.of(resolver), List.of(), List.of(customizer),
+                    List.of(), null, scheduler);
+
+            GeorchestraUser resolved = Mono.defer(() -> mapper.resolveAsync(auth)).subscribeOn(Schedulers.parallel())
+                    .block();
+            assertSame(user, resolved);
+            assertThat(resolverThread.get().getName()).startsWith("test-user-resolution");
+            assertSame(resolverThread.get(), customizerThread.get());
+            // a single thread hop for the whole resolution
+            assertEquals(1L, registry.get("georchestra.users.resolution.wait").timer().count());
+            assertEquals(2L, registry.get("georchestra.users.resolution.execution").timer().count());
+            assertEquals(0d, registry.get("georchestra.users.resolution.queued").gauge().value());
+        } finally {
+            workers.dispose();
+        }
+    }
+
+    @Test
+    void testSharedSchedulerRegistersMetersOnce() {
+        UserResolutionScheduler shared = UserResolutionScheduler.shared();
+        assertSame(shared, UserResolutionScheduler.shared());
+        new GeorchestraUserMapper(List.of(), List.of(), null);
+        new GeorchestraUserMapper(List.of(), List.of(), null);
+        assertEquals(1, Metrics.globalRegistry.find("georchestra.users.resolution.queued").gauges().size());
+    }
+
+    @Test
+    void testResolveAsync_blocking_and_reactive_extensions_in_order() {
+        Authentication auth = mock(Authentication.class);
+        GeorchestraUser blockingUser = new GeorchestraUser();
+        GeorchestraUser reactiveUser = new GeorchestraUser();
+
+        GeorchestraUserMapperExtension blocking = new GeorchestraUserMapperExtension() {
+            public Optional<GeorchestraUser> resolve(Authentication token) {
+                return Optional.of(blockingUser);
+            }
+
+            public int getOrder() {
+                return 10;
+            }
+        };
+        ReactiveGeorchestraUserMapperExtension reactive = new ReactiveGeorchestraUserMapperExtension() {
+            public Mono<GeorchestraUser> resolve(Authentication token) {
+                return Mono.just(reactiveUser);
+            }
+
+            public int getOrder() {
+                return 1;
+            }
+        };
+        ReactiveGeorchestraUserCustomizerExtension reactiveCustomizer = new ReactiveGeorchestraUserCustomizerExtension() {
+            public Mono<GeorchestraUser> apply(Authentication token, GeorchestraUser u) {
+                u.setUsername("reactive");
+                return Mono.just(u);
+            }
+
+            public int getOrder() {
+                return -1;
+            }
+        };
+        GeorchestraUserCustomizerExtension blockingCustomizer = (token, u) -> {
+            u.setUsername(u.getUsername() + "-blocking");
+            return u;
+        };
+
+        GeorchestraUserMapper mapper = new GeorchestraUserMapper(List.of(blocking), List.of(reactive),
+                List.of(blockingCustomizer), List.of(reactiveCustomizer), null, UserResolutionScheduler.shared());
+
+        GeorchestraUser resolved = mapper.resolveAsync(auth).block();
+        assertSame(reactiveUser, resolved);
+        assertEquals("reactive-blocking", resolved.getUsername());
+    }
+
+    @Test
+    void testResolveAsync_propagates_errors() {
+        Authentication auth = mock(Authentication.class);
+        GeorchestraUserMapperExtension ext = token -> {
+            throw new DuplicatedEmailFoundException("duplicate");
+        };
+        GeorchestraUserMapper mapper = new GeorchestraUserMapper(List.of(ext));
+
+        Mono<GeorchestraUser> resolved = Mono.defer(() -> mapper.resolveAsync(auth)).subscribeOn(Schedulers.parallel());
+        assertThrows(DuplicatedEmailFoundException.class, resolved::block);
+    }
 }
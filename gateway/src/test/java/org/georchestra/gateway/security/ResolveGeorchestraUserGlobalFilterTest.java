@@ -67,6 +67,7 @@ class ResolveGeorchestraUserGlobalFilterTest {
     @BeforeEach
     void setUp() throws Exception {
         mockMapper = mock(GeorchestraUserMapper.class);
+        when(mockMapper.resolveAsync(any(), any())).thenReturn(Mono.empty());
         mockFailureHandler = mock(ServerAuthenticationFailureHandler.class);
         filter = new ResolveGeorchestraUserGlobalFilter(mockMapper, mockFailureHandler);
         mockChain = mock(GatewayFilterChain.class);
@@ -82,7 +83,7 @@ class ResolveGeorchestraUserGlobalFilterTest {
         assertNotNull(ret);
         ret.block();
         verify(mockChain, times(1)).filter(same(exchange));
-        verify(mockMapper, never()).resolve(any());
+        verify(mockMapper, never()).resolveAsync(any(), any());
     }
 
     @Test
@@ -93,7 +94,7 @@ class ResolveGeorchestraUserGlobalFilterTest {
         filter.filter(exchange, mockChain).block();
 
         verify(mockChain, times(1)).filter(same(exchange));
-        verify(mockMapper, never()).resolve(any());
+        verify(mockMapper, never()).resolveAsync(any(), any());
     }
 
     @Test
@@ -104,7 +105,7 @@ class ResolveGeorchestraUserGlobalFilterTest {
         filter.filter(exchange, mockChain).block();
 
         verify(mockChain, times(1)).filter(same(exchange));
-        verify(mockMapper, times(1)).resolve(any());
+        verify(mockMapper, times(1)).resolveAsync(any(), any());
 
         assertTrue(GeorchestraUsers.resolve(exchange).isEmpty());
     }
@@ -113,14 +114,14 @@ class ResolveGeorchestraUserGlobalFilterTest {
     void testFilter_UseResolved() {
         Authentication auth1 = mock(Authentication.class);
         GeorchestraUser user1 = mock(GeorchestraUser.class);
-        when(mockMapper.resolve(same(auth1))).thenReturn(Optional.of(user1));
+        when(mockMapper.resolveAsync(same(auth1), any())).thenReturn(Mono.just(user1));
 
         ServerWebExchange exchange = this.exchange.mutate().principal(Mono.just(auth1)).build();
 
         filter.filter(exchange, mockChain).block();
 
         verify(mockChain, times(1)).filter(same(exchange));
-        verify(mockMapper, times(1)).resolve(any());
+        verify(mockMapper, times(1)).resolveAsync(any(), any());
 
         Optional<GeorchestraUser> resolved = GeorchestraUsers.resolve(exchange);
         assertSame(user1, resolved.orElseThrow());
@@ -130,7 +131,7 @@ class ResolveGeorchestraUserGlobalFilterTest {
     void testFilter_UseResolvedWithoutOrganization() {
         Authentication auth1 = mock(Authentication.class);
         ExtendedGeorchestraUser user1 = mock(ExtendedGeorchestraUser.class);
-        when(mockMapper.resolve(same(auth1))).thenReturn(Optional.of(user1));
+        when(mockMapper.resolveAsync(same(auth1), any())).thenReturn(Mono.just(user1));
         when(user1.getOrg()).thenReturn(null);
 
         ServerWebExchange exchange = this.exchange.mutate().principal(Mono.just(auth1)).build();
@@ -138,7 +139,7 @@ class ResolveGeorchestraUserGlobalFilterTest {
         filter.filter(exchange, mockChain).block();
 
         verify(mockChain, times(1)).filter(same(exchange));
-        verify(mockMapper, times(1)).resolve(any());
+        verify(mockMapper, times(1)).resolveAsync(any(), any());
 
         Optional<GeorchestraUser> resolved = GeorchestraUsers.resolve(exchange);
         assertSame(user1, resolved.orElseThrow());
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test suite for {@link RoleMappingsMatcher}
+ */
+class RoleMappingsMatcherTest {
+
+    private static List<String> extraRoles(RoleMappingsMatcher matcher, String role) {
+        List<String> roles = new ArrayList<>();
+        matcher.addExtraRoles(role, roles);
+        return roles;
+    }
+
+    @Test
+    void testLiteralAndWildcardKeys() {
+        Map<String, List<String>> mappings = new LinkedHashMap<>();
+        mappings.put("ROLE_USER", List.of("ROLE_GUEST"));
+        mappings.put("ROLE.*.ADMIN", List.of("ROLE_ADMINISTRATOR"));
+        mappings.put("ROLE.GDI*", List.of("ROLE_GDI"));
+        mappings.put("*_EDITOR", List.of("ROLE_EDITOR"));
+        mappings.put("*", List.of("ROLE_ANY"));
+        RoleMappingsMatcher matcher = new RoleMappingsMatcher(mappings);
+
+        assertThat(matcher.size()).isEqualTo(5);
+        assertThat(extraRoles(matcher, "ROLE_USER")).containsExactlyInAnyOrder("ROLE_GUEST", "ROLE_ANY");
+        assertThat(extraRoles(matcher, "ROLE.GDI.ADMIN")).containsExactlyInAnyOrder("ROLE_ADMINISTRATOR", "ROLE_GDI",
+                "ROLE_ANY");
+        assertThat(extraRoles(matcher, "ROLE..ADMIN")).containsExactlyInAnyOrder("ROLE_ADMINISTRATOR", "ROLE_ANY");
+        assertThat(extraRoles(matcher, "ROLE.ADMIN")).containsExactly("ROLE_ANY");
+        assertThat(extraRoles(matcher, "GN_EDITOR")).containsExactlyInAnyOrder("ROLE_EDITOR", "ROLE_ANY");
+        assertThat(extraRoles(matcher, "")).containsExactly("ROLE_ANY");
+    }
+
+    @Test
+    void testRegularExpressionKeys() {
+        RoleMappingsMatcher matcher = new RoleMappingsMatcher(Map.of("ROLE_(GN|GS)_ADMIN", List.of("ROLE_ADMIN")));
+
+        assertThat(extraRoles(matcher, "ROLE_GN_ADMIN")).containsExactly("ROLE_ADMIN");
+        assertThat(extraRoles(matcher, "ROLE_GS_ADMIN")).containsExactly("ROLE_ADMIN");
+        assertThat(extraRoles(matcher, "ROLE_(GN|GS)_ADMIN")).isEmpty();
+    }
+
+    @Test
+    void testMatchesLikeCompiledPatterns() {
+        List<String> keys = List.of("A", "A*", "*A", "*A*", "A*B", "A*B*C", "A**B", "AB*AB", "*.*", "A*A*A", "*B*B",
+                "B.*");
+        List<String> roles = List.of("", "A", "B", "AA", "AB", "BA", "ABC", "AXBYC", "ACB", "ABAB", "ABXAB", "ABB",
+                "AAA", "AAAA", "A.B", "B.", "B.X", "BXB", "XBB");
+        for (String key : keys) {
+            RoleMappingsMatcher matcher = new RoleMappingsMatcher(Map.of(key, List.of("MATCH")));
+            for (String role : roles) {
+                boolean expected = RolesMappingsUserCustomizer.compilePattern(key).matcher(role).matches();
+                assertThat(extraRoles(matcher, role)).as("%s matches %s", key, role)
+                        .isEqualTo(expected ? List.of("MATCH") : List.of());
+            }
+        }
+    }
+
+    @Test
+    void testManyMappings() {
+        Map<String, List<String>> mappings = new LinkedHashMap<>();
+        for (int i = 0; i < 3_000; i++) {
+            mappings.put(i % 2 == 0 ? "ORG_%d_MEMBER".formatted(i) : "ORG_%d_*".formatted(i), List.of("ROLE_" + i));
+        }
+        RoleMappingsMatcher matcher = new RoleMappingsMatcher(mappings);
+
+        assertThat(extraRoles(matcher, "ORG_10_MEMBER")).containsExactly("ROLE_10");
+        assertThat(extraRoles(matcher, "ORG_11_MEMBER")).containsExactly("ROLE_11");
+        assertThat(Set.copyOf(extraRoles(matcher, "ORG_1_"))).containsExactly("ROLE_1");
+        assertThat(extraRoles(matcher, "ORG_10_ADMIN")).isEmpty();
+    }
+}
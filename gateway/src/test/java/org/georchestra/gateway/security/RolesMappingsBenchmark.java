@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import org.georchestra.security.model.GeorchestraUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares expanding the roles of a user by testing each role against every
+ * role mapping key compiled to a regular expression, as it used to be on a
+ * cache miss, with the {@link RoleMappingsMatcher}, and with the memoized
+ * {@link RolesMappingsUserCustomizer}.
+ * <p>
+ * The mappings mimic rules generated from an org chart, half of them literal
+ * and half of them wildcard keys, and the user has 20 roles.
+ * <p>
+ * Run with {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RolesMappingsBenchmark {
+
+    @Param({ "100", "3000" })
+    public int mappings;
+
+    private List<String> roles;
+    private List<Map.Entry<Pattern, List<String>>> patterns;
+    private RoleMappingsMatcher matcher;
+    private RolesMappingsUserCustomizer customizer;
+
+    @Setup
+    public void setup() {
+        Map<String, List<String>> config = new LinkedHashMap<>();
+        for (int i = 0; i < mappings; i++) {
+            String key = i % 2 == 0 ? "ORG.%d.MEMBER".formatted(i) : "ORG.%d.*.ADMIN".formatted(i);
+            config.put(key, List.of("ROLE_ORG_" + i, "ROLE_USER"));
+        }
+        roles = IntStream.range(0, 20).mapToObj(i -> switch (i % 3) {
+        case 0 -> "ORG.%d.MEMBER".formatted(i * 7);
+        case 1 -> "ORG.%d.GDI.ADMIN".formatted(i * 7);
+        default -> "ROLE_" + i;
+        }).toList();
+        patterns = config.entrySet().stream()
+                .map(e -> Map.entry(RolesMappingsUserCustomizer.compilePattern(e.getKey()), e.getValue())).toList();
+        matcher = new RoleMappingsMatcher(config);
+        customizer = new RolesMappingsUserCustomizer(config);
+    }
+
+    @Benchmark
+    public Set<String> legacy() {
+        Set<String> additional = new LinkedHashSet<>();
+        for (String role : roles) {
+            patterns.stream().filter(p -> p.getKey().matcher(role).matches()).map(Map.Entry::getValue)
+                    .forEach(additional::addAll);
+        }
+        return additional;
+    }
+
+    @Benchmark
+    public Set<String> matcher() {
+        Set<String> additional = new LinkedHashSet<>();
+        roles.forEach(role -> matcher.addExtraRoles(role, additional));
+        return additional;
+    }
+
+    @Benchmark
+    public GeorchestraUser memoized() {
+        GeorchestraUser user = new GeorchestraUser();
+        user.setRoles(new ArrayList<>(roles));
+        return customizer.apply(null, user);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RolesMappingsBenchmark.class.getSimpleName()).addProfiler("gc").build())
+                .run();
+    }
+}
@@ -21,9 +21,11 @@ package org.georchestra.gateway.security;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -127,4 +129,35 @@ class RolesMappingsUserCustomizerTest {
         assertEquals(Set.of("ROLE.TEST.ADMIN", "ROLE.GDI.USER", "ROLE_GN_ADMIN", "ROLE_ADMINISTRATOR", "ROLE_USER",
                 "ROLE_GUEST"), Set.copyOf(customized.getRoles()));
     }
+
+    @Test
+    void noMatchingMappingKeepsRoles() {
+        addConfig("ROLE_ADMIN", "ROLE_GN_ADMIN");
+
+        RolesMappingsUserCustomizer customizer = new RolesMappingsUserCustomizer(config);
+        List<String> roles = List.of("ROLE_USER");
+        user.setRoles(roles);
+        assertSame(roles, customizer.apply(auth, user).getRoles());
+    }
+
+    @Test
+    void memoizesExpandedRoles() {
+        addConfig("ROLE.*.ADMIN", "ROLE_GN_ADMIN", "ROLE_ADMINISTRATOR");
+        RolesMappingsUserCustomizer customizer = new RolesMappingsUserCustomizer(config);
+
+        user.setRoles(new ArrayList<>(List.of("ROLE.GDI.ADMIN", "ROLE_USER")));
+        List<String> first = customizer.apply(auth, user).getRoles();
+        assertEquals(List.of("ROLE.GDI.ADMIN", "ROLE_USER", "ROLE_GN_ADMIN", "ROLE_ADMINISTRATOR"), first);
+
+        GeorchestraUser other = new GeorchestraUser();
+        other.setRoles(new ArrayList<>(List.of("ROLE.GDI.ADMIN", "ROLE_USER")));
+        List<String> second = customizer.apply(auth, other).getRoles();
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        second.add("ROLE_MUTABLE");
+
+        assertEquals(1, customizer.getExpandedRoles().size());
+        assertEquals(1, customizer.getExpandedRoles().stats().hitCount());
+        assertEquals(1, customizer.getExpandedRoles().stats().missCount());
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.accessrules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.georchestra.gateway.model.GatewayConfigProperties;
+import org.georchestra.gateway.model.RoleBasedAccessRule;
+import org.georchestra.gateway.model.Service;
+import org.georchestra.gateway.security.GeorchestraUserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.authorization.DelegatingReactiveAuthorizationManager;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcherEntry;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Compares the chain of one {@code pathMatchers(...).access(...)} entry per
+ * access rule, as registered by {@link AccessRulesCustomizer} by default, with
+ * the single {@link CompiledAccessRules} entry, for about 200 intercept URLs
+ * across 20 services.
+ * <p>
+ * Run with {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessRulesBenchmark {
+
+    private static final int SERVICES = 20;
+    private static final int RULES_PER_SERVICE = 4;
+
+    /**
+     * Paths matching a rule of the first service, of the last service, and only the
+     * global catch-all rule.
+     */
+    @Param({ "/service0/admin/0/settings", "/service19/private/layers/topp/ows", "/datahub/search" })
+    public String path;
+
+    private ReactiveAuthorizationManager<ServerWebExchange> chain;
+    private ReactiveAuthorizationManager<ServerWebExchange> compiled;
+    private ServerWebExchange exchange;
+    private final Mono<Authentication> authentication = Mono
+            .just(new TestingAuthenticationToken("user", null, "ROLE_USER"));
+
+    @Setup
+    public void setUp() {
+        GatewayConfigProperties config = config();
+        ReactiveAuthorizationManager<AuthorizationContext> permit = (auth, context) -> Mono
+                .just(new AuthorizationDecision(true));
+
+        DelegatingReactiveAuthorizationManager.Builder chainBuilder = DelegatingReactiveAuthorizationManager.builder();
+        List<RoleBasedAccessRule> rules = new ArrayList<>();
+        config.getServices().values().forEach(service -> rules.addAll(service.getAccessRules()));
+        rules.addAll(config.getGlobalAccessRules());
+        for (RoleBasedAccessRule rule : rules) {
+            chainBuilder.add(new ServerWebExchangeMatcherEntry<>(
+                    ServerWebExchangeMatchers.pathMatchers(rule.getInterceptUrl().toArray(String[]::new)), permit));
+        }
+        chain = chainBuilder.build();
+
+        CompiledAccessRules compiledRules = new AccessRulesCustomizer(config,
+                new GeorchestraUserMapper(List.of(), List.of())).compile();
+        compiled = DelegatingReactiveAuthorizationManager.builder()
+                .add(new ServerWebExchangeMatcherEntry<>(compiledRules, compiledRules)).build();
+
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path).build());
+    }
+
+    @SuppressWarnings("deprecation")
+    @Benchmark
+    public AuthorizationDecision chain() {
+        return chain.check(authentication, exchange).block();
+    }
+
+    @SuppressWarnings("deprecation")
+    @Benchmark
+    public AuthorizationDecision compiled() {
+        return compiled.check(authentication, exchange).block();
+    }
+
+    /**
+     * All rules are anonymous so that only the matching cost is measured.
+     */
+    private static GatewayConfigProperties config() {
+        Map<String, Service> services = new LinkedHashMap<>();
+        for (int s = 0; s < SERVICES; s++) {
+            String base = "/service" + s;
+            List<RoleBasedAccessRule> rules = new ArrayList<>();
+            for (int r = 0; r < RULES_PER_SERVICE; r++) {
+                rules.add(rule(base + "/admin/" + r + "/**", base + "/private/" + r + "/**"));
+            }
+            rules.add(rule(base + "/private/layers/{workspace}/ows", base + "/private/layers/*/wms"));
+            rules.add(rule(base + "/**"));
+            Service service = new Service();
+            service.setAccessRules(rules);
+            services.put("service" + s, service);
+        }
+        GatewayConfigProperties config = new GatewayConfigProperties();
+        config.setServices(services);
+        config.setGlobalAccessRules(List.of(rule("/", "/header/**", "/login", "/logout"), rule("/**")));
+        return config;
+    }
+
+    private static RoleBasedAccessRule rule(String... interceptUrls) {
+        return new RoleBasedAccessRule().setInterceptUrl(List.of(interceptUrls)).setAnonymous(true);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AccessRulesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.accessrules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.georchestra.gateway.model.GatewayConfigProperties;
+import org.georchestra.gateway.model.RoleBasedAccessRule;
+import org.georchestra.gateway.model.Service;
+import org.georchestra.gateway.security.GeorchestraUserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher.MatchResult;
+
+import reactor.core.publisher.Mono;
+
+class CompiledAccessRulesTest {
+
+    private GatewayConfigProperties config;
+    private AccessRulesCustomizer customizer;
+
+    @BeforeEach
+    void setUp() {
+        GeorchestraUserMapper userMapper = mock(GeorchestraUserMapper.class);
+        when(userMapper.resolveAsync(any(), any())).thenReturn(Mono.empty());
+        config = new GatewayConfigProperties();
+        config.setCompiledAccessRules(true);
+        customizer = new AccessRulesCustomizer(config, userMapper);
+
+        Service geoserver = new Service();
+        geoserver.setAccessRules(List.of(//
+                rule("/geoserver/admin/**").setAllowedRoles(List.of("ADMINISTRATOR")),
+                rule("/geoserver/private/**").setForbidden(true), //
+                rule("/geoserver/**").setAnonymous(true)));
+        Service console = new Service();
+        console.setAccessRules(List.of(rule("/console/account/new").setAnonymous(true), rule("/console/**")));
+        Map<String, Service> services = new LinkedHashMap<>();
+        services.put("geoserver", geoserver);
+        services.put("console", console);
+        config.setServices(services);
+        config.setGlobalAccessRules(
+                List.of(rule("/", "/header/**").setAnonymous(true), rule("/**").setAllowedRoles(List.of("ROLE_USER"))));
+    }
+
+    @Test
+    void testCompile() {
+        assertThat(customizer.compile().size()).isEqualTo(8);
+    }
+
+    @Test
+    void testMatches() {
+        CompiledAccessRules rules = customizer.compile();
+        assertThat(matches(rules, "/geoserver/wms")).isTrue();
+        assertThat(matches(rules, "/anything")).isTrue();
+
+        config.setGlobalAccessRules(List.of());
+        rules = customizer.compile();
+        assertThat(matches(rules, "/geoserver/wms")).isTrue();
+        assertThat(matches(rules, "/anything")).isFalse();
+    }
+
+    @Test
+    void testDecisions() {
+        CompiledAccessRules rules = customizer.compile();
+        Authentication admin = new TestingAuthenticationToken("admin", null, "ROLE_ADMINISTRATOR", "ROLE_USER");
+        Authentication user = new TestingAuthenticationToken("user", null, "ROLE_USER");
+
+        assertThat(granted(rules, "/geoserver/admin/settings", admin)).isTrue();
+        assertThat(granted(rules, "/geoserver/admin/settings", user)).isFalse();
+        assertThat(granted(rules, "/geoserver/admin/settings", null)).isFalse();
+
+        assertThat(granted(rules, "/geoserver/private/data", admin)).isFalse();
+        assertThat(granted(rules, "/geoserver/wms", null)).isTrue();
+
+        assertThat(granted(rules, "/console/account/new", null)).isTrue();
+        assertThat(granted(rules, "/console/account/edit", null)).isFalse();
+        assertThat(granted(rules, "/console/account/edit", user)).isTrue();
+
+        assertThat(granted(rules, "/", null)).isTrue();
+        assertThat(granted(rules, "/header/img/logo.png", null)).isTrue();
+        assertThat(granted(rules, "/datahub", null)).isFalse();
+        assertThat(granted(rules, "/datahub", user)).isTrue();
+    }
+
+    private boolean matches(CompiledAccessRules rules, String path) {
+        return rules.matches(exchange(path)).map(MatchResult::isMatch).block();
+    }
+
+    @SuppressWarnings("deprecation")
+    private boolean granted(CompiledAccessRules rules, String path, Authentication authentication) {
+        MockServerWebExchange exchange = exchange(path);
+        MatchResult match = rules.matches(exchange).block();
+        AuthorizationContext context = new AuthorizationContext(exchange, match.getVariables());
+        Mono<Authentication> auth = authentication == null ? Mono.empty() : Mono.just(authentication);
+        return rules.check(auth, context).map(AuthorizationDecision::isGranted).defaultIfEmpty(false).block();
+    }
+
+    private MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path).build());
+    }
+
+    private RoleBasedAccessRule rule(String... interceptUrls) {
+        return new RoleBasedAccessRule().setInterceptUrl(List.of(interceptUrls));
+    }
+}
@@ -24,7 +24,6 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
-import java.util.Optional;
 
 import org.georchestra.gateway.security.GeorchestraUserMapper;
 import org.georchestra.security.model.GeorchestraUser;
@@ -32,6 +31,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 
+import reactor.core.publisher.Mono;
+
 class GeorchestraUserRolesAuthorizationManagerTest {
 
     GeorchestraUserMapper userMapper;
@@ -42,7 +43,7 @@ class GeorchestraUserRolesAuthorizationManagerTest {
     void setup() {
         userMapper = mock(GeorchestraUserMapper.class);
         user = new GeorchestraUser();
-        when(userMapper.resolve(any())).thenReturn(Optional.of(user));
+        when(userMapper.resolveAsync(any())).thenReturn(Mono.just(user));
 
         authManager = GeorchestraUserRolesAuthorizationManager.hasAnyAuthority(userMapper, "GDI_ADMIN", "SUPERUSER",
                 "ROLE_ADMIN");
@@ -85,7 +86,7 @@ class GeorchestraUserRolesAuthorizationManagerTest {
     @Test
     void hasAnyAuthority_noResolvedUser_nor_grantedAuthorities() {
         TestingAuthenticationToken authentication = authentication();
-        when(userMapper.resolve(any())).thenReturn(Optional.empty());
+        when(userMapper.resolveAsync(any())).thenReturn(Mono.empty());
 
         assertThat(authManager.authorize(authentication)).isFalse();
     }
@@ -93,7 +94,7 @@ class GeorchestraUserRolesAuthorizationManagerTest {
     @Test
     void hasAnyAuthority_noResolvedUser_resolved_grantedAuthorities() {
         TestingAuthenticationToken authentication = authentication("GDI_ADMIN");
-        when(userMapper.resolve(any())).thenReturn(Optional.empty());
+        when(userMapper.resolveAsync(any())).thenReturn(Mono.empty());
 
         assertThat(authManager.authorize(authentication)).isTrue();
     }
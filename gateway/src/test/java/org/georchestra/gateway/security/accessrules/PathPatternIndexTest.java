@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.accessrules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+class PathPatternIndexTest {
+
+    private static final List<String> PATTERNS = List.of(//
+            "/geoserver/admin/**", //
+            "/geoserver/web/wicket/bookmarkable/org.geoserver.web.demo.MapPreviewPage", //
+            "/geoserver/web/**", //
+            "/geoserver/*/ows", //
+            "/geoserver/{workspace}/wms", //
+            "/geoserver/**", //
+            "/console/private/**", //
+            "/console/account/new", //
+            "/console/**", //
+            "/header/img/*.png", //
+            "/geonetwork/srv/*/admin.console", //
+            "/geonetwork/**", //
+            "/mapstore/", //
+            "/mapstore/rest/geostore/**", //
+            "/import/**", //
+            "test/**", //
+            "/", //
+            "/**");
+
+    private static final List<String> PATHS = List.of("/", "/geoserver", "/geoserver/", "/geoserver/admin",
+            "/geoserver/admin/settings", "/geoserver/web/", "/geoserver/web/wicket/bookmarkable/x",
+            "/geoserver/web/wicket/bookmarkable/org.geoserver.web.demo.MapPreviewPage", "/geoserver/topp/ows",
+            "/geoserver/topp/wms", "/geoserver/topp/wfs", "/console/private/users", "/console/account/new",
+            "/console/account/new/", "/console/account", "/header/img/logo.png", "/header/img/logo.svg",
+            "/geonetwork/srv/eng/admin.console", "/geonetwork/srv/eng/catalog.search", "/mapstore/", "/mapstore",
+            "/mapstore/rest/geostore/resources", "/import", "/test/x", "/styles/main.css", "/GEOSERVER/admin",
+            "/geoserver//admin", "/geoserver/admin;jsessionid=1", "/geoserver/topp%20x/ows", "/other");
+
+    @Test
+    void testSameResultAsLinearEvaluation() {
+        PathPatternIndex.Builder<Integer> builder = PathPatternIndex.builder();
+        IntStream.range(0, PATTERNS.size()).forEach(i -> builder.add(PATTERNS.get(i), i));
+        PathPatternIndex<Integer> index = builder.build();
+        assertThat(index.size()).isEqualTo(PATTERNS.size());
+
+        for (String path : PATHS) {
+            PathContainer container = PathContainer.parsePath(path);
+            assertThat(index.match(container)).as(path).isEqualTo(linearMatch(container));
+        }
+    }
+
+    @Test
+    void testFirstMatchWins() {
+        PathPatternIndex<String> index = PathPatternIndex.<String>builder()//
+                .add("/**", "catch-all")//
+                .add("/geoserver/admin/**", "admin")//
+                .build();
+        assertThat(index.match(PathContainer.parsePath("/geoserver/admin/settings"))).isEqualTo("catch-all");
+
+        index = PathPatternIndex.<String>builder()//
+                .add("/geoserver/admin/**", "admin")//
+                .add("/**", "catch-all")//
+                .build();
+        assertThat(index.match(PathContainer.parsePath("/geoserver/admin/settings"))).isEqualTo("admin");
+        assertThat(index.match(PathContainer.parsePath("/geoserver/web"))).isEqualTo("catch-all");
+    }
+
+    @Test
+    void testNoMatch() {
+        PathPatternIndex<String> index = PathPatternIndex.<String>builder().add("/geoserver/**", "geoserver").build();
+        assertThat(index.match(PathContainer.parsePath("/console/"))).isNull();
+        assertThat(index.match(PathContainer.parsePath("/"))).isNull();
+        assertThat(PathPatternIndex.<String>builder().build().match(PathContainer.parsePath("/"))).isNull();
+    }
+
+    private Integer linearMatch(PathContainer path) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        for (int i = 0; i < PATTERNS.size(); i++) {
+            PathPattern pattern = parser.parse(parser.initFullPathPattern(PATTERNS.get(i)));
+            if (pattern.matches(path)) {
+                return i;
+            }
+        }
+        return null;
+    }
+}
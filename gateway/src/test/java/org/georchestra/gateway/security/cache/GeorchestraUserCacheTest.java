@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.georchestra.gateway.accounts.admin.AccountCreated;
+import org.georchestra.gateway.security.GeorchestraUserMapper;
+import org.georchestra.gateway.security.GeorchestraUserMapperExtension;
+import org.georchestra.gateway.security.exceptions.DuplicatedEmailFoundException;
+import org.georchestra.security.model.GeorchestraUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import com.google.common.base.Ticker;
+
+import reactor.core.publisher.Mono;
+
+class GeorchestraUserCacheTest {
+
+    private GeorchestraUserCache cache;
+
+    private GeorchestraUserMapperExtension resolver;
+
+    private GeorchestraUserMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        cache = new GeorchestraUserCache(Duration.ofMinutes(1), 100);
+        resolver = mock(GeorchestraUserMapperExtension.class);
+        when(resolver.resolve(any())).thenAnswer(invocation -> {
+            Authentication auth = invocation.getArgument(0);
+            return Optional.of(user(auth.getName()));
+        });
+        mapper = new GeorchestraUserMapper(List.of(resolver), List.of(), cache);
+    }
+
+    @Test
+    void testResolve_cached_per_principal() {
+        Optional<GeorchestraUser> first = mapper.resolve(auth("jdoe"));
+        Optional<GeorchestraUser> second = mapper.resolve(auth("jdoe"));
+
+        assertThat(first).isPresent();
+        assertThat(second.orElseThrow()).isSameAs(first.orElseThrow());
+        verify(resolver, times(1)).resolve(any());
+        assertThat(cache.stats().hitCount()).isOne();
+
+        mapper.resolve(auth("other"));
+        verify(resolver, times(2)).resolve(any());
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testResolve_keyed_by_authentication_type() {
+        mapper.resolve(auth("jdoe"));
+        mapper.resolve(new PreAuthenticatedAuthenticationToken("jdoe", Map.of("preauth-username", "jdoe")));
+        mapper.resolve(new PreAuthenticatedAuthenticationToken("jdoe", Map.of("preauth-username", "jdoe")));
+        mapper.resolve(new PreAuthenticatedAuthenticationToken("jdoe",
+                Map.of("preauth-username", "jdoe", "preauth-roles", "ADMIN")));
+
+        verify(resolver, times(3)).resolve(any());
+    }
+
+    @Test
+    void testResolve_empty_and_errors_not_cached() {
+        Function<Authentication, Mono<GeorchestraUser>> empty = auth -> Mono.empty();
+        assertThat(cache.get(auth("jdoe"), empty).blockOptional()).isEmpty();
+        assertThat(cache.size()).isZero();
+
+        Function<Authentication, Mono<GeorchestraUser>> failing = auth -> Mono
+                .error(new DuplicatedEmailFoundException("duplicate"));
+        assertThatThrownBy(() -> cache.get(auth("jdoe"), failing).block())
+                .isInstanceOf(DuplicatedEmailFoundException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testExpiresAfterTtl() {
+        FakeTicker ticker = new FakeTicker();
+        cache = new GeorchestraUserCache(Duration.ofSeconds(30), 100, ticker);
+        mapper = new GeorchestraUserMapper(List.of(resolver), List.of(), cache);
+
+        mapper.resolve(auth("jdoe"));
+        ticker.advance(Duration.ofSeconds(29));
+        mapper.resolve(auth("jdoe"));
+        verify(resolver, times(1)).resolve(any());
+
+        ticker.advance(Duration.ofSeconds(2));
+        mapper.resolve(auth("jdoe"));
+        verify(resolver, times(2)).resolve(any());
+    }
+
+    @Test
+    void testMaximumSize() {
+        cache = new GeorchestraUserCache(Duration.ofMinutes(1), 2);
+        mapper = new GeorchestraUserMapper(List.of(resolver), List.of(), cache);
+        mapper.resolve(auth("user1"));
+        mapper.resolve(auth("user2"));
+        mapper.resolve(auth("user3"));
+        cache.getCache().cleanUp();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testInvalidateOnLogout() {
+        mapper.resolve(auth("jdoe"));
+        mapper.resolve(auth("other"));
+
+        new GeorchestraUserCacheLogoutHandler(cache).logout(null, auth("jdoe")).block();
+        assertThat(cache.size()).isOne();
+
+        mapper.resolve(auth("jdoe"));
+        verify(resolver, times(3)).resolve(any());
+    }
+
+    @Test
+    void testInvalidateOnAccountCreated() {
+        mapper.resolve(auth("jdoe"));
+        mapper.resolve(new PreAuthenticatedAuthenticationToken("jdoe", Map.of()));
+        mapper.resolve(auth("other"));
+
+        cache.on(new AccountCreated(user("jdoe")));
+        assertThat(cache.size()).isOne();
+    }
+
+    @Test
+    void testEndpoint() {
+        GeorchestraUserCacheEndpoint endpoint = new GeorchestraUserCacheEndpoint(cache);
+        mapper.resolve(auth("jdoe"));
+        mapper.resolve(auth("jdoe"));
+        mapper.resolve(auth("other"));
+
+        Map<String, Object> stats = endpoint.stats();
+        assertThat(stats).containsEntry("size", 2L).containsEntry("hitCount", 1L).containsEntry("missCount", 2L);
+
+        assertThat(endpoint.invalidate("jdoe")).containsEntry("evicted", 1);
+        assertThat(endpoint.invalidateAll()).containsEntry("evicted", 1L);
+        assertThat(cache.size()).isZero();
+    }
+
+    private static Authentication auth(String name) {
+        return new TestingAuthenticationToken(name, null, "ROLE_USER");
+    }
+
+    private static GeorchestraUser user(String username) {
+        GeorchestraUser user = new GeorchestraUser();
+        user.setUsername(username);
+        return user;
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(Duration duration) {
+            nanos += duration.toNanos();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.ldap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.ldap.userdetails.LdapUserDetailsImpl;
+
+import com.google.common.base.Ticker;
+
+import reactor.core.publisher.Mono;
+
+class CachingReactiveAuthenticationManagerTest {
+
+    private final FakeTicker ticker = new FakeTicker();
+
+    private ReactiveAuthenticationManager delegate;
+
+    private CachingReactiveAuthenticationManager manager;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ReactiveAuthenticationManager.class);
+        manager = new CachingReactiveAuthenticationManager(delegate, Duration.ofSeconds(60), Duration.ofSeconds(10),
+                100, ticker);
+    }
+
+    @Test
+    void testSuccessCached() {
+        Authentication authenticated = authenticated("jdoe", Integer.MAX_VALUE, Integer.MAX_VALUE);
+        when(delegate.authenticate(any())).thenReturn(Mono.just(authenticated));
+
+        assertThat(manager.authenticate(credentials("jdoe", "secret")).block()).isSameAs(authenticated);
+        assertThat(manager.authenticate(credentials("jdoe", "secret")).block()).isSameAs(authenticated);
+        verify(delegate, times(1)).authenticate(any());
+
+        ticker.advance(Duration.ofSeconds(61));
+        manager.authenticate(credentials("jdoe", "secret")).block();
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void testKeyedByUsernameAndPassword() {
+        when(delegate.authenticate(any()))
+                .thenAnswer(i -> Mono.just(authenticated("jdoe", Integer.MAX_VALUE, Integer.MAX_VALUE)));
+
+        manager.authenticate(credentials("jdoe", "secret")).block();
+        manager.authenticate(credentials("jdoe", "other")).block();
+        manager.authenticate(credentials("jdoe2", "secret")).block();
+        verify(delegate, times(3)).authenticate(any());
+    }
+
+    @Test
+    void testBadCredentialsCached() {
+        when(delegate.authenticate(any())).thenReturn(Mono.error(new BadCredentialsException("bad")));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> manager.authenticate(credentials("jdoe", "wrong")).block())
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+        verify(delegate, times(1)).authenticate(any());
+
+        ticker.advance(Duration.ofSeconds(11));
+        assertThatThrownBy(() -> manager.authenticate(credentials("jdoe", "wrong")).block())
+                .isInstanceOf(BadCredentialsException.class);
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void testExpiredPasswordFailureReplayedWithSameMessage() {
+        when(delegate.authenticate(any())).thenReturn(Mono.error(new LockedException("Your password has expired")));
+
+        assertThatThrownBy(() -> manager.authenticate(credentials("jdoe", "secret")).block())
+                .isInstanceOf(LockedException.class).hasMessage("Your password has expired");
+        assertThatThrownBy(() -> manager.authenticate(credentials("jdoe", "secret")).block())
+                .isInstanceOf(LockedException.class).hasMessage("Your password has expired");
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    void testTransientFailuresNotCached() {
+        when(delegate.authenticate(any())).thenReturn(Mono.error(new AuthenticationServiceException("down")));
+
+        assertThatThrownBy(() -> manager.authenticate(credentials("jdoe", "secret")).block())
+                .isInstanceOf(AuthenticationServiceException.class);
+        assertThatThrownBy(() -> manager.authenticate(credentials("jdoe", "secret")).block())
+                .isInstanceOf(AuthenticationServiceException.class);
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void testNotCachedPastPasswordExpiration() {
+        when(delegate.authenticate(any())).thenReturn(Mono.just(authenticated("jdoe", 5, Integer.MAX_VALUE)));
+
+        manager.authenticate(credentials("jdoe", "secret")).block();
+        ticker.advance(Duration.ofSeconds(4));
+        manager.authenticate(credentials("jdoe", "secret")).block();
+        verify(delegate, times(1)).authenticate(any());
+
+        ticker.advance(Duration.ofSeconds(2));
+        manager.authenticate(credentials("jdoe", "secret")).block();
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void testGraceLoginsNotCached() {
+        when(delegate.authenticate(any())).thenReturn(Mono.just(authenticated("jdoe", Integer.MAX_VALUE, 2)));
+
+        manager.authenticate(credentials("jdoe", "secret")).block();
+        manager.authenticate(credentials("jdoe", "secret")).block();
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void testOtherAuthenticationsDelegated() {
+        Authentication other = new TestingAuthenticationToken("jdoe", "secret");
+        when(delegate.authenticate(any())).thenReturn(Mono.just(other));
+
+        manager.authenticate(other).block();
+        manager.authenticate(other).block();
+        manager.authenticate(credentials("jdoe", "")).block();
+        manager.authenticate(credentials("jdoe", "")).block();
+        verify(delegate, times(4)).authenticate(any());
+        assertThat(manager.successes().size()).isZero();
+    }
+
+    private static Authentication credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+    private static Authentication authenticated(String username, int timeBeforeExpiration, int graceLogins) {
+        LdapUserDetailsImpl.Essence essence = new LdapUserDetailsImpl.Essence();
+        essence.setUsername(username);
+        essence.setDn("uid=" + username + ",ou=users,dc=georchestra,dc=org");
+        essence.setTimeBeforeExpiration(timeBeforeExpiration);
+        essence.setGraceLoginsRemaining(graceLogins);
+        LdapUserDetailsImpl principal = (LdapUserDetailsImpl) essence.createUserDetails();
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, List.of());
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(Duration duration) {
+            nanos += duration.toNanos();
+        }
+    }
+}
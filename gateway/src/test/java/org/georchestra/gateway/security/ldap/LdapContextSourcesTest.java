@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.ldap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties;
+import org.georchestra.gateway.security.GeorchestraGatewaySecurityConfigProperties.Server;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ldap.core.support.BaseLdapPathContextSource;
+import org.springframework.ldap.core.support.LdapContextSource;
+import org.springframework.ldap.pool.factory.PoolingContextSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LdapContextSourcesTest {
+
+    private GeorchestraGatewaySecurityConfigProperties config;
+    private SimpleMeterRegistry registry;
+    private LdapContextSources sources;
+
+    @BeforeEach
+    void setUp() {
+        Server server = new Server();
+        server.setUrl("ldap://ldap.test.com:389");
+        server.setBaseDn("dc=georchestra,dc=org");
+        server.setAdminDn("cn=admin,dc=georchestra,dc=org");
+        server.setAdminPassword("secret");
+        config = new GeorchestraGatewaySecurityConfigProperties().setLdap(Map.of("default", server));
+        registry = new SimpleMeterRegistry();
+        sources = new LdapContextSources(config, registry);
+    }
+
+    @Test
+    void testPooledAndSharedByDefault() {
+        config.getLdap().get("default").getPool().setMinIdle(2).setMaxIdle(4).setMaxActive(16)
+                .setMaxWait(Duration.ofSeconds(3));
+
+        BaseLdapPathContextSource source = sources.get("default");
+        assertThat(source).isSameAs(sources.get("default")).isInstanceOf(PoolingContextSource.class);
+        assertThat(source.getBaseLdapPathAsString()).isEqualTo("dc=georchestra,dc=org");
+
+        PoolingContextSource pool = (PoolingContextSource) source;
+        assertThat(pool.getMinIdle()).isEqualTo(2);
+        assertThat(pool.getMaxIdle()).isEqualTo(4);
+        assertThat(pool.getMaxActive()).isEqualTo(16);
+        assertThat(pool.getMaxWait()).isEqualTo(3000);
+        assertThat(pool.getTestOnBorrow()).isTrue();
+        assertThat(pool.getContextSource()).isInstanceOf(LdapContextSource.class);
+    }
+
+    @Test
+    void testPoolDisabled() {
+        config.getLdap().get("default").getPool().setEnabled(false);
+
+        BaseLdapPathContextSource source = sources.get("default");
+        assertThat(source).isInstanceOf(LdapContextSource.class);
+        assertThat(((LdapContextSource) source).getUserDn()).isEqualTo("cn=admin,dc=georchestra,dc=org");
+        assertThat(registry.find("georchestra.ldap.pool.active").gauge()).isNull();
+    }
+
+    @Test
+    void testPoolMetrics() {
+        sources.get("default");
+        assertThat(registry.get("georchestra.ldap.pool.active").tag("server", "default").gauge().value()).isZero();
+        assertThat(registry.get("georchestra.ldap.pool.idle").tag("server", "default").gauge().value()).isZero();
+    }
+
+    @Test
+    void testUnknownServer() {
+        assertThatThrownBy(() -> sources.get("other")).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("other");
+    }
+
+    @Test
+    void testTimeoutEnvironment() {
+        assertThat(LdapContextSources.timeoutEnvironment(Duration.ofSeconds(5), Duration.ofMillis(1500)))
+                .containsEntry(LdapContextSources.CONNECT_TIMEOUT_ENV, "5000")
+                .containsEntry(LdapContextSources.READ_TIMEOUT_ENV, "1500");
+        assertThat(LdapContextSources.timeoutEnvironment(null, Duration.ZERO)).isEmpty();
+    }
+
+    @Test
+    void testDestroy() throws Exception {
+        BaseLdapPathContextSource source = sources.get("default");
+        sources.destroy();
+        assertThat(sources.get("default")).isNotSameAs(source);
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.ldap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.georchestra.gateway.security.ldap.ParallelLdapAuthenticationManager.Provider;
+import org.georchestra.gateway.security.ldap.basic.BasicLdapAuthenticationProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.ProviderNotFoundException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import reactor.core.scheduler.Schedulers;
+
+class ParallelLdapAuthenticationManagerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final Authentication request = UsernamePasswordAuthenticationToken.unauthenticated("jdoe", "secret");
+
+    @Test
+    void testFirstSuccessInPriorityOrder() {
+        Authentication second = authenticated("ldap2");
+        AuthenticationProvider p1 = failing(200, new BadCredentialsException("bad credentials"));
+        AuthenticationProvider p2 = succeeding(0, second);
+        AuthenticationProvider p3 = succeeding(0, authenticated("ldap3"));
+
+        ParallelLdapAuthenticationManager manager = manager(provider("ldap1", p1), provider("ldap2", p2),
+                provider("ldap3", p3));
+        assertThat(manager.authenticate(request).block()).isSameAs(second);
+    }
+
+    @Test
+    void testHigherPrioritySuccessWins() {
+        Authentication first = authenticated("ldap1");
+        ParallelLdapAuthenticationManager manager = manager(provider("ldap1", succeeding(200, first)),
+                provider("ldap2", succeeding(0, authenticated("ldap2"))));
+
+        assertThat(manager.authenticate(request).block()).isSameAs(first);
+    }
+
+    @Test
+    void testProvidersQueriedConcurrently() {
+        Authentication third = authenticated("ldap3");
+        ParallelLdapAuthenticationManager manager = manager(
+                provider("ldap1", failing(500, new BadCredentialsException("bad credentials"))),
+                provider("ldap2", failing(500, new BadCredentialsException("bad credentials"))),
+                provider("ldap3", succeeding(500, third)));
+
+        long start = System.nanoTime();
+        assertThat(manager.authenticate(request).block()).isSameAs(third);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1400));
+    }
+
+    @Test
+    void testTimedOutProviderIsSkipped() {
+        Authentication second = authenticated("ldap2");
+        ParallelLdapAuthenticationManager manager = manager(
+                new Provider("ldap1", succeeding(3_000, authenticated("ldap1")), Duration.ofMillis(100)),
+                provider("ldap2", succeeding(0, second)));
+
+        long start = System.nanoTime();
+        assertThat(manager.authenticate(request).block()).isSameAs(second);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void testAccountStatusFailureIsFinal() {
+        LockedException locked = new LockedException("locked");
+        ParallelLdapAuthenticationManager manager = manager(provider("ldap1", failing(0, locked)),
+                provider("ldap2", succeeding(0, authenticated("ldap2"))));
+
+        assertThatThrownBy(() -> manager.authenticate(request).block()).isSameAs(locked);
+    }
+
+    @Test
+    void testAllFailedReturnsLastFailure() {
+        BadCredentialsException last = new BadCredentialsException("last");
+        ParallelLdapAuthenticationManager manager = manager(
+                provider("ldap1", failing(0, new BadCredentialsException("first"))),
+                provider("ldap2", failing(0, new AuthenticationServiceException("down"))),
+                provider("ldap3", failing(0, last)));
+
+        assertThatThrownBy(() -> manager.authenticate(request).block()).isSameAs(last);
+    }
+
+    @Test
+    void testCredentialsRejectionPreferredOverServiceErrors() {
+        BadCredentialsException rejected = new BadCredentialsException("rejected");
+        ParallelLdapAuthenticationManager manager = manager(provider("ldap1", failing(0, rejected)),
+                provider("ldap2", failing(0, new AuthenticationServiceException("down"))),
+                new Provider("ldap3", succeeding(3_000, authenticated("ldap3")), Duration.ofMillis(100)));
+
+        assertThatThrownBy(() -> manager.authenticate(request).block()).isSameAs(rejected);
+    }
+
+    @Test
+    void testAllServiceErrorsReturnsLastFailure() {
+        ParallelLdapAuthenticationManager manager = manager(
+                provider("ldap1", failing(0, new AuthenticationServiceException("down"))),
+                new Provider("ldap2", succeeding(3_000, authenticated("ldap2")), Duration.ofMillis(100)));
+
+        assertThatThrownBy(() -> manager.authenticate(request).block())
+                .isInstanceOf(AuthenticationServiceException.class).hasMessageContaining("timed out");
+    }
+
+    @Test
+    void testRemembersDirectory() {
+        AuthenticationProvider p1 = failing(0, new BadCredentialsException("bad credentials"));
+        AuthenticationProvider p2 = succeeding(0, authenticated("ldap2"));
+        ParallelLdapAuthenticationManager manager = manager(provider("ldap1", p1), provider("ldap2", p2));
+
+        manager.authenticate(request).block();
+        assertThat(manager.directories().getIfPresent("jdoe")).extracting(Provider::name).isEqualTo("ldap2");
+
+        manager.authenticate(request).block();
+        manager.authenticate(request).block();
+        verify(p1, times(1)).authenticate(any());
+        verify(p2, times(3)).authenticate(any());
+    }
+
+    @Test
+    void testForgetsDirectoryOnFailure() {
+        AuthenticationProvider p1 = mock(AuthenticationProvider.class);
+        when(p1.supports(any())).thenReturn(true);
+        when(p1.authenticate(any())).thenThrow(new BadCredentialsException("bad credentials"))
+                .thenReturn(authenticated("ldap1"));
+        AuthenticationProvider p2 = mock(AuthenticationProvider.class);
+        when(p2.supports(any())).thenReturn(true);
+        when(p2.authenticate(any())).thenReturn(authenticated("ldap2"))
+                .thenThrow(new BadCredentialsException("bad credentials"));
+        ParallelLdapAuthenticationManager manager = manager(provider("ldap1", p1), provider("ldap2", p2));
+
+        manager.authenticate(request).block();
+        assertThat(manager.directories().getIfPresent("jdoe")).extracting(Provider::name).isEqualTo("ldap2");
+
+        // ldap2 fails now, all directories are queried again and ldap1 succeeds
+        Authentication auth = manager.authenticate(request).block();
+        assertThat(auth.getName()).isEqualTo("ldap1");
+        assertThat(manager.directories().getIfPresent("jdoe")).extracting(Provider::name).isEqualTo("ldap1");
+    }
+
+    @Test
+    void testCredentialsErasedOnSuccess() {
+        AuthenticationProvider delegate = mock(AuthenticationProvider.class);
+        when(delegate.supports(any())).thenReturn(true);
+        when(delegate.authenticate(any()))
+                .thenAnswer(i -> UsernamePasswordAuthenticationToken.authenticated("jdoe", "secret", List.of()));
+        ParallelLdapAuthenticationManager manager = manager(
+                provider("ldap1", new BasicLdapAuthenticationProvider("ldap1", delegate)));
+
+        Authentication auth = manager.authenticate(request).block();
+        assertThat(auth.getName()).isEqualTo("jdoe");
+        assertThat(auth.getCredentials()).isNull();
+
+        // also when authenticating against the remembered directory
+        auth = manager.authenticate(request).block();
+        assertThat(auth.getCredentials()).isNull();
+    }
+
+    @Test
+    void testUnsupportedAuthentication() {
+        AuthenticationProvider p1 = mock(AuthenticationProvider.class);
+        ParallelLdapAuthenticationManager manager = manager(provider("ldap1", p1));
+
+        assertThatThrownBy(() -> manager.authenticate(request).block()).isInstanceOf(ProviderNotFoundException.class);
+        verify(p1, never()).authenticate(any());
+    }
+
+    private ParallelLdapAuthenticationManager manager(Provider... providers) {
+        return new ParallelLdapAuthenticationManager(List.of(providers), Schedulers.boundedElastic(),
+                Duration.ofHours(1), 100);
+    }
+
+    private Provider provider(String name, AuthenticationProvider provider) {
+        return new Provider(name, provider, TIMEOUT);
+    }
+
+    private AuthenticationProvider succeeding(long delayMillis, Authentication result) {
+        AuthenticationProvider provider = mock(AuthenticationProvider.class);
+        when(provider.supports(any())).thenReturn(true);
+        when(provider.authenticate(any())).thenAnswer(i -> {
+            Thread.sleep(delayMillis);
+            return result;
+        });
+        return provider;
+    }
+
+    private AuthenticationProvider failing(long delayMillis, AuthenticationException error) {
+        AuthenticationProvider provider = mock(AuthenticationProvider.class);
+        when(provider.supports(any())).thenReturn(true);
+        when(provider.authenticate(any())).thenAnswer(i -> {
+            Thread.sleep(delayMillis);
+            throw error;
+        });
+        return provider;
+    }
+
+    private Authentication authenticated(String name) {
+        return new TestingAuthenticationToken(name, null, "ROLE_USER");
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.georchestra.gateway.security.oauth2.OpenIdConnectCustomClaimsConfigProperties.JsonPathExtractor;
+import org.junit.jupiter.api.Test;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.InvalidPathException;
+
+/**
+ * Test suite for {@link JsonPathExtractor}'s compiled expressions
+ */
+class JsonPathExtractorTest {
+
+    private final Map<String, Object> claims = Map.of("org", "PSC", //
+            "groups", List.of(Map.of("name", "Editor"), Map.of("name", "Reviewer")), //
+            "realm_access", Map.of("roles", List.of("admin", "user")));
+
+    @Test
+    void testExtractFromParsedClaims() {
+        JsonPathExtractor groups = new JsonPathExtractor(List.of("$.groups..['name']", "$.realm_access.roles"));
+        JsonPathExtractor org = new JsonPathExtractor(List.of("$.missing", "$.org"));
+
+        DocumentContext parsed = JsonPathExtractor.parse(claims);
+        assertThat(groups.extract(parsed)).containsExactly("Editor", "Reviewer", "admin", "user");
+        assertThat(org.extract(parsed)).containsExactly("PSC");
+        assertThat(groups.extract(claims)).isEqualTo(groups.extract(parsed));
+    }
+
+    @Test
+    void testPathModifiedInPlaceIsRecompiled() {
+        JsonPathExtractor extractor = new JsonPathExtractor();
+        extractor.setPath(new ArrayList<>(List.of("$.org")));
+        assertThat(extractor.extract(claims)).containsExactly("PSC");
+
+        extractor.getPath().set(0, "$.realm_access.roles");
+        assertThat(extractor.extract(claims)).containsExactly("admin", "user");
+    }
+
+    @Test
+    void testDefaultValueWhenNothingMatches() {
+        JsonPathExtractor extractor = new JsonPathExtractor(List.of("", "$.missing"));
+        extractor.getValue().add("default");
+        assertThat(extractor.extract(claims)).containsExactly("default");
+    }
+
+    @Test
+    void testInvalidPathFailsWhenSet() {
+        JsonPathExtractor extractor = new JsonPathExtractor();
+        List<String> invalid = List.of("$['groups");
+        assertThatThrownBy(() -> extractor.setPath(invalid)).isInstanceOf(InvalidPathException.class);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.oauth2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.georchestra.gateway.security.oauth2.OpenIdConnectCustomClaimsConfigProperties.JsonPathExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+
+/**
+ * Compares evaluating the custom claims JSONPath extractors of an OIDC token by
+ * parsing the claims and the expression for each expression, as it used to be,
+ * with evaluating the precompiled {@link JsonPathExtractor}s against claims
+ * parsed once per token.
+ * <p>
+ * The claim sets mimic Keycloak and Azure AD ID tokens, with the id, roles,
+ * organization, organization uid, email, and names extractors configured.
+ * <p>
+ * Run with {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenIdConnectClaimsBenchmark {
+
+    @Param({ "keycloak", "azure" })
+    public String idp;
+
+    private Map<String, Object> claims;
+    private List<JsonPathExtractor> extractors;
+    private List<List<String>> expressions;
+
+    @Setup
+    public void setup() {
+        List<List<String>> paths;
+        if ("keycloak".equals(idp)) {
+            claims = keycloakClaims();
+            paths = List.of(List.of("$.sub"), //
+                    List.of("$.realm_access.roles", "$.resource_access.*.roles[*]"), //
+                    List.of("$.organization.name"), //
+                    List.of("$.organization.id"), //
+                    List.of("$.email"), //
+                    List.of("$.family_name"), //
+                    List.of("$.given_name"));
+        } else {
+            claims = azureClaims();
+            paths = List.of(List.of("$.oid"), //
+                    List.of("$.roles", "$.groups"), //
+                    List.of("$.companyName", "$.tid"), //
+                    List.of("$.tid"), //
+                    List.of("$.preferred_username"), //
+                    List.of("$.family_name"), //
+                    List.of("$.given_name"));
+        }
+        extractors = paths.stream().map(JsonPathExtractor::new).toList();
+        expressions = paths;
+    }
+
+    @Benchmark
+    public void parsePerExpression(Blackhole bh) {
+        for (List<String> paths : expressions) {
+            List<String> result = paths.stream().map(this::parseAndExtract).flatMap(List::stream).toList();
+            bh.consume(result);
+        }
+    }
+
+    /**
+     * The former {@code JsonPathExtractor.extract(String, Map)}, parsing the claims
+     * and looking up the expression for each expression
+     */
+    private List<String> parseAndExtract(String expression) {
+        DocumentContext context = JsonPath.parse(claims);
+        Object matched;
+        try {
+            matched = context.read(expression);
+        } catch (PathNotFoundException e) {
+            return List.of();
+        }
+        if (matched == null) {
+            return List.of();
+        }
+        final List<?> list = (matched instanceof List<?> l) ? l : List.of(matched);
+        return IntStream.range(0, list.size()).mapToObj(list::get).filter(Objects::nonNull).map(String.class::cast)
+                .toList();
+    }
+
+    @Benchmark
+    public void precompiled(Blackhole bh) {
+        DocumentContext parsed = JsonPathExtractor.parse(claims);
+        for (JsonPathExtractor extractor : extractors) {
+            bh.consume(extractor.extract(parsed));
+        }
+    }
+
+    private static Map<String, Object> keycloakClaims() {
+        return Map.ofEntries(Map.entry("exp", 1735689600), Map.entry("iat", 1735689300),
+                Map.entry("auth_time", 1735689290), Map.entry("jti", "8c3b1f0e-6a5d-4b7e-9c2a-1d4e5f6a7b8c"),
+                Map.entry("iss", "https://sso.example.org/realms/georchestra"), Map.entry("aud", "gateway"),
+                Map.entry("sub", "f4d1c3b2-a190-4e8f-b7d6-c5e4f3a2b1c0"), Map.entry("typ", "ID"),
+                Map.entry("azp", "gateway"), Map.entry("session_state", "a1b2c3d4-e5f6-7a8b-9c0d-e1f2a3b4c5d6"),
+                Map.entry("acr", "1"), Map.entry("sid", "a1b2c3d4-e5f6-7a8b-9c0d-e1f2a3b4c5d6"),
+                Map.entry("email_verified", true), Map.entry("name", "Jane Doe"),
+                Map.entry("preferred_username", "jdoe"), Map.entry("given_name", "Jane"),
+                Map.entry("family_name", "Doe"), Map.entry("email", "jane.doe@example.org"),
+                Map.entry("realm_access",
+                        Map.of("roles",
+                                roles("offline_access", "uma_authorization", "default-roles-georchestra", "GN_EDITOR",
+                                        "MAPSTORE_ADMIN"))),
+                Map.entry("resource_access",
+                        Map.of("gateway", Map.of("roles", roles("USER", "EXTRACTORAPP")), "account",
+                                Map.of("roles", roles("manage-account", "view-profile")))),
+                Map.entry("organization", Map.of("id", "4f2d1c0b", "name", "Example Corp")));
+    }
+
+    private static Map<String, Object> azureClaims() {
+        List<String> groups = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            groups.add("%08x-1111-2222-3333-444455556666".formatted(i));
+        }
+        return Map.ofEntries(Map.entry("aud", "6731de76-14a6-49ae-97bc-6eba6914391e"),
+                Map.entry("iss", "https://login.microsoftonline.com/72f988bf-86f1-41af-91ab-2d7cd011db47/v2.0"),
+                Map.entry("iat", 1735689300), Map.entry("nbf", 1735689300), Map.entry("exp", 1735693200),
+                Map.entry("aio",
+                        "AXQAi/8UAAAAqxsuB+R4D2rFQqOETO4YdXbLD9kZ8xfXadeAM0Q2NkNT5izfg3uwbWSXhuSSj6UT5hy2D6WqAp"),
+                Map.entry("name", "Jane Doe"), Map.entry("given_name", "Jane"), Map.entry("family_name", "Doe"),
+                Map.entry("oid", "00000000-0000-0000-66f3-3332eca7ea81"),
+                Map.entry("preferred_username", "jane.doe@example.org"),
+                Map.entry("rh", "I3mRCgLYcgGEsyZ3IFBMMpUUtsGpAAA."),
+                Map.entry("sub", "MF4f-ggWMEji12KynJUNQZphaUTvLcQug5jMF4f-ggW"),
+                Map.entry("tid", "72f988bf-86f1-41af-91ab-2d7cd011db47"), Map.entry("uti", "fqiBqXLPj0eQa82S-IYFAA"),
+                Map.entry("ver", "2.0"), Map.entry("roles", roles("Georchestra.User", "Georchestra.Editor")),
+                Map.entry("groups", groups), Map.entry("companyName", "Example Corp"));
+    }
+
+    private static List<String> roles(String... roles) {
+        return List.of(roles);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OpenIdConnectClaimsBenchmark.class.getSimpleName()).addProfiler("gc")
+                .build()).run();
+    }
+}
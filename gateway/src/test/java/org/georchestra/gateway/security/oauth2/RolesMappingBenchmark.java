@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.oauth2;
+
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.georchestra.gateway.security.oauth2.OpenIdConnectCustomClaimsConfigProperties.RolesMapping;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares normalizing the role names of a user with many group claims using
+ * Unicode normalization and {@link String#replaceAll(String, String)}, as it
+ * used to be, with {@link RolesMapping#normalize(String)}.
+ * <p>
+ * Each iteration normalizes the upper-cased group claims of one user, a tenth
+ * of them containing accented characters. New {@link String} instances are used
+ * on every call, as they would be when parsing a new token.
+ * <p>
+ * Run with {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RolesMappingBenchmark {
+
+    @Param({ "50", "200" })
+    public int groups;
+
+    private List<String> claims;
+
+    private final RolesMapping mapping = new RolesMapping();
+
+    @Setup
+    public void setup() {
+        claims = IntStream.range(0, groups).mapToObj(i -> switch (i % 10) {
+        case 0 -> "Équipe Géomatique " + i;
+        case 1 -> "GDI Planer Extern " + i;
+        case 2 -> "/gdi/editors/" + i;
+        default -> "GDI_ROLE_" + i;
+        }).map(String::toUpperCase).toList();
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        claims.stream().map(RolesMappingBenchmark::copy).map(RolesMappingBenchmark::legacyNormalize)
+                .forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void normalize(Blackhole bh) {
+        claims.stream().map(RolesMappingBenchmark::copy).map(mapping::normalize).forEach(bh::consume);
+    }
+
+    private static String copy(String value) {
+        return new String(value.toCharArray());
+    }
+
+    private static String legacyNormalize(String value) {
+        String normalized = Normalizer.normalize(value, Form.NFC);
+        normalized = normalized.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+        normalized = normalized.replaceAll("\\s+", "_");
+        return normalized.replaceAll("[^a-zA-Z0-9_]", "");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RolesMappingBenchmark.class.getSimpleName()).addProfiler("gc").build())
+                .run();
+    }
+}
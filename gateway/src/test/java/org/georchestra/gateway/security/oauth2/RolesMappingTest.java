@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.List;
+
+import org.georchestra.gateway.security.oauth2.OpenIdConnectCustomClaimsConfigProperties.RolesMapping;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test suite for {@link RolesMapping#normalize(String)}
+ */
+class RolesMappingTest {
+
+    private final RolesMapping mapping = new RolesMapping();
+
+    @Test
+    void testNormalizeAscii() {
+        assertThat(mapping.normalize("GDI_ADMIN")).isEqualTo("GDI_ADMIN");
+        assertThat(mapping.normalize("GDI Planer  Extern")).isEqualTo("GDI_Planer_Extern");
+        assertThat(mapping.normalize("/GDI/Editor (ext.)")).isEqualTo("GDIEditor_ext");
+        assertThat(mapping.normalize(" a - b\t\r\n")).isEqualTo("_a__b_");
+        assertThat(mapping.normalize("")).isEmpty();
+    }
+
+    @Test
+    void testNormalizeUnicode() {
+        assertThat(mapping.normalize("Équipe Géomatique")).isEqualTo("quipe_Gomatique");
+        assertThat(mapping.normalize("e\u0301tude")).isEqualTo("tude");
+        assertThat(mapping.normalize("Straße Nord")).isEqualTo("StraeNord");
+        // memoized value
+        assertThat(mapping.normalize("Équipe Géomatique")).isEqualTo("quipe_Gomatique");
+    }
+
+    @Test
+    void testFastPathMatchesRegularExpressions() {
+        List<String> values = List.of("GDI_ADMIN", "gdi.admin", "GDI  Planer\u000BExtern", "__a__", "a\fb", "ROLE_1-2",
+                "~!@#$%^&*()+=[]{}|;:'\",<>?`", "\u007F\u0000 x", "Équipe Géomatique", "e\u0301tude");
+        values.forEach(value -> assertThat(mapping.normalize(value)).as(value).isEqualTo(legacyNormalize(value)));
+    }
+
+    private static String legacyNormalize(String value) {
+        String normalized = Normalizer.normalize(value, Form.NFC);
+        normalized = normalized.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+        normalized = normalized.replaceAll("\\s+", "_");
+        return normalized.replaceAll("[^a-zA-Z0-9_]", "");
+    }
+}
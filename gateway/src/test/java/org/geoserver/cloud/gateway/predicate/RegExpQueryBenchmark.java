@@ -0,0 +1,109 @@
+/*
+ * (c) 2020 Open Source Geospatial Foundation - all rights reserved This code is licensed under the
+ * GPL 2.0 license, available at the root application directory.
+ */
+package org.geoserver.cloud.gateway.predicate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.geoserver.cloud.gateway.predicate.RegExpQueryRoutePredicateFactory.Config;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Compares evaluating GeoServer OWS {@code RegExpQuery} routes against a WMS
+ * GetMap request with {@link String#matches(String)} on each parameter, as it
+ * used to be, with the compiled predicates.
+ * <p>
+ * All the routes are evaluated, as they would be for a request routed to the
+ * last one, on a new exchange per invocation. Subtract the {@link #baseline()}
+ * cost of creating the exchange and parsing its query string.
+ * <p>
+ * Run with {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegExpQueryBenchmark {
+
+    private static final String REQUEST = "/geoserver/ows?SERVICE=WMS&VERSION=1.3.0&REQUEST=GetMap&FORMAT=image/png"
+            + "&TRANSPARENT=true&LAYERS=topp:states&CRS=EPSG:3857&STYLES=&WIDTH=256&HEIGHT=256"
+            + "&BBOX=-13692297,6183449,-13614026,6261720";
+
+    private List<Config> configs;
+    private List<Predicate<ServerWebExchange>> predicates;
+
+    @Setup
+    public void setup() {
+        List<String> services = List.of("wfs", "wcs", "wps", "csw", "gwc", "wmts", "tms", "wmsc", "kml", "rest", "ows",
+                "opensearch", "ogcapi", "sld", "wms");
+        configs = services.stream()
+                .map(s -> new Config().setParamRegexp("(?i:service)").setValueRegexp("(?i:%s)".formatted(s))).toList();
+        RegExpQueryRoutePredicateFactory factory = new RegExpQueryRoutePredicateFactory();
+        predicates = configs.stream().map(factory::apply).toList();
+    }
+
+    private static ServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(REQUEST));
+    }
+
+    /**
+     * Baseline cost of creating the exchange and parsing its query string
+     */
+    @Benchmark
+    public int baseline() {
+        return exchange().getRequest().getQueryParams().size();
+    }
+
+    @Benchmark
+    public int legacy() {
+        ServerWebExchange exchange = exchange();
+        int matches = 0;
+        for (Config config : configs) {
+            Optional<String> name = exchange.getRequest().getQueryParams().keySet().stream()
+                    .filter(n -> n.matches(config.getParamRegexp())).findFirst();
+            if (name.isPresent() && exchange.getRequest().getQueryParams().get(name.get()).stream()
+                    .anyMatch(v -> v != null && v.matches(config.getValueRegexp()))) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int compiled() {
+        ServerWebExchange exchange = exchange();
+        int matches = 0;
+        for (Predicate<ServerWebExchange> predicate : predicates) {
+            if (predicate.test(exchange)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RegExpQueryBenchmark.class.getSimpleName()).addProfiler("gc").build())
+                .run();
+    }
+}
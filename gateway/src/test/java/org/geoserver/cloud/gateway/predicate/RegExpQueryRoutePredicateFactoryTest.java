@@ -0,0 +1,97 @@
+/*
+ * (c) 2020 Open Source Geospatial Foundation - all rights reserved This code is licensed under the
+ * GPL 2.0 license, available at the root application directory.
+ */
+package org.geoserver.cloud.gateway.predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.PatternSyntaxException;
+
+import org.geoserver.cloud.gateway.predicate.RegExpQueryRoutePredicateFactory.CaseInsensitiveLiteral;
+import org.geoserver.cloud.gateway.predicate.RegExpQueryRoutePredicateFactory.Config;
+import org.geoserver.cloud.gateway.predicate.RegExpQueryRoutePredicateFactory.Literal;
+import org.geoserver.cloud.gateway.predicate.RegExpQueryRoutePredicateFactory.Regex;
+import org.geoserver.cloud.gateway.predicate.RegExpQueryRoutePredicateFactory.TextMatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Test suite for {@link RegExpQueryRoutePredicateFactory}
+ */
+class RegExpQueryRoutePredicateFactoryTest {
+
+    private final RegExpQueryRoutePredicateFactory factory = new RegExpQueryRoutePredicateFactory();
+
+    private Predicate<ServerWebExchange> predicate(String paramRegexp, String valueRegexp) {
+        return factory.apply(new Config().setParamRegexp(paramRegexp).setValueRegexp(valueRegexp));
+    }
+
+    private static ServerWebExchange exchange(String uri) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+    }
+
+    @Test
+    void testCompileLiteralFastPaths() {
+        assertThat(TextMatcher.compile("service")).isInstanceOf(Literal.class);
+        assertThat(TextMatcher.compile("(?i)service")).isInstanceOf(CaseInsensitiveLiteral.class);
+        assertThat(TextMatcher.compile("(?i:WMS)")).isInstanceOf(CaseInsensitiveLiteral.class);
+        assertThat(TextMatcher.compile("(?i:wms|wfs)")).isInstanceOf(Regex.class);
+        assertThat(TextMatcher.compile("(?i)w.s")).isInstanceOf(Regex.class);
+        assertThatThrownBy(() -> TextMatcher.compile("(?i:wms")).isInstanceOf(PatternSyntaxException.class);
+    }
+
+    @Test
+    void testCaseInsensitiveLiterals() {
+        Predicate<ServerWebExchange> wms = predicate("(?i)service", "(?i:wms)");
+
+        assertThat(wms.test(exchange("/ows?SERVICE=WMS&request=GetMap"))).isTrue();
+        assertThat(wms.test(exchange("/ows?service=wms"))).isTrue();
+        assertThat(wms.test(exchange("/ows?service=wfs"))).isFalse();
+        assertThat(wms.test(exchange("/ows?services=wms"))).isFalse();
+        assertThat(wms.test(exchange("/ows?request=GetMap"))).isFalse();
+        // the first matching parameter name is used, as the regular expression did
+        assertThat(wms.test(exchange("/ows?Service=wfs&service=wms"))).isFalse();
+    }
+
+    @Test
+    void testLiteralsAndRegularExpressions() {
+        assertThat(predicate("service", null).test(exchange("/ows?service=wms"))).isTrue();
+        assertThat(predicate("service", null).test(exchange("/ows?SERVICE=wms"))).isFalse();
+        assertThat(predicate("service", "WMS").test(exchange("/ows?service=wms"))).isFalse();
+        assertThat(predicate("(?i)service", "(?i:wms|wfs)").test(exchange("/ows?Service=WFS"))).isTrue();
+        assertThat(predicate("(?i)type.*", "").test(exchange("/ows?typeNames=a"))).isTrue();
+        assertThat(predicate("(?i)type.*", "").test(exchange("/ows?layers=a"))).isFalse();
+    }
+
+    @Test
+    void testParameterIndexSharedByPredicates() {
+        ServerWebExchange exchange = exchange("/ows?SERVICE=WMS&Request=GetMap");
+
+        assertThat(predicate("(?i)service", "(?i)wfs").test(exchange)).isFalse();
+        QueryParameterIndex index = QueryParameterIndex.of(exchange);
+        assertThat(predicate("(?i)request", "(?i)getmap").test(exchange)).isTrue();
+        assertThat(QueryParameterIndex.of(exchange)).isSameAs(index);
+
+        assertThat(index.findIgnoreCase("service")).contains("SERVICE");
+        assertThat(index.values("SERVICE")).isEqualTo(List.of("WMS"));
+        assertThat(index.findIgnoreCase("layers")).isEmpty();
+    }
+
+    @Test
+    void testAsciiCaseFolding() {
+        assertThat(QueryParameterIndex.toLowerCase("GetMap")).isEqualTo("getmap");
+        assertThat(QueryParameterIndex.toLowerCase("getmap")).isEqualTo("getmap");
+        // the Kelvin sign is not an ASCII letter, (?i) does not fold it either
+        assertThat(QueryParameterIndex.toLowerCase("\u212A")).isEqualTo("\u212A");
+        assertThat(QueryParameterIndex.equalsIgnoreCase("WmS", "wms")).isTrue();
+        assertThat(QueryParameterIndex.equalsIgnoreCase("wm", "wms")).isFalse();
+        assertThat("\u212A".matches("(?i)k")).isFalse();
+        assertThat(QueryParameterIndex.equalsIgnoreCase("\u212A", "k")).isFalse();
+    }
+}
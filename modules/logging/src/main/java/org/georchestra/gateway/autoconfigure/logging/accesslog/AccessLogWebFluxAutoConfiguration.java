@@ -20,6 +20,9 @@ package org.georchestra.gateway.autoconfigure.logging.accesslog;
 
 import org.georchestra.gateway.logging.accesslog.AccessLogFilterConfig;
 import org.georchestra.gateway.logging.accesslog.AccessLogWebfluxFilter;
+import org.georchestra.gateway.logging.accesslog.AsyncAccessLogWriter;
+import org.georchestra.gateway.logging.requestid.RequestIdConfigProperties;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -27,6 +30,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplicat
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 
 /**
  * Auto-configuration for access logging in WebFlux applications.
@@ -54,13 +58,14 @@ import org.springframework.context.annotation.Bean;
  * property {@code logging.accesslog.webflux.enabled}.
  */
 @AutoConfiguration
-@EnableConfigurationProperties(AccessLogFilterConfig.class)
+@EnableConfigurationProperties({ AccessLogFilterConfig.class, RequestIdConfigProperties.class })
 @ConditionalOnWebApplication(type = Type.REACTIVE)
 // Don't activate in Gateway applications by default to avoid double logging
 // The Gateway-specific filter will be created by GatewayMdcAutoConfiguration instead
 @ConditionalOnMissingClass("org.springframework.cloud.gateway.filter.GlobalFilter")
 // Unless explicitly enabled with this property
 @ConditionalOnProperty(name = "logging.accesslog.webflux.enabled", havingValue = "true", matchIfMissing = true)
+@Import(AsyncAccessLogConfiguration.class)
 public class AccessLogWebFluxAutoConfiguration {
 
     /**
@@ -83,11 +88,14 @@ public class AccessLogWebFluxAutoConfiguration {
      * configuration creates its own dedicated instance of AccessLogWebfluxFilter
      * wrapped in a GlobalFilter adapter.
      *
-     * @param conf the access log filter configuration properties
+     * @param conf            the access log filter configuration properties
+     * @param asyncWriter     the asynchronous access log writer, if enabled
+     * @param requestIdConfig the request id configuration properties
      * @return the configured AccessLogWebfluxFilter bean
      */
     @Bean
-    AccessLogWebfluxFilter accessLogFilter(AccessLogFilterConfig conf) {
-        return new AccessLogWebfluxFilter(conf);
+    AccessLogWebfluxFilter accessLogFilter(AccessLogFilterConfig conf, ObjectProvider<AsyncAccessLogWriter> asyncWriter,
+            RequestIdConfigProperties requestIdConfig) {
+        return new AccessLogWebfluxFilter(conf, asyncWriter.getIfAvailable(), requestIdConfig);
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.autoconfigure.logging.accesslog;
+
+import org.georchestra.gateway.logging.accesslog.AccessLogFilterConfig;
+import org.georchestra.gateway.logging.accesslog.AsyncAccessLogWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the {@link AsyncAccessLogWriter} used by the access log filters when
+ * {@code logging.accesslog.async.enabled=true}.
+ * <p>
+ * Imported by both the WebFlux and the Gateway access log auto-configurations.
+ *
+ * @see AccessLogFilterConfig.Async
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = AccessLogFilterConfig.Async.ENABLED_KEY, havingValue = "true")
+public class AsyncAccessLogConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    AsyncAccessLogWriter asyncAccessLogWriter(AccessLogFilterConfig conf) {
+        return new AsyncAccessLogWriter(conf.getAsync());
+    }
+}
@@ -20,12 +20,17 @@ package org.georchestra.gateway.autoconfigure.logging.gateway;
 
 import java.util.Optional;
 
+import org.georchestra.gateway.autoconfigure.logging.accesslog.AsyncAccessLogConfiguration;
 import org.georchestra.gateway.logging.accesslog.AccessLogFilterConfig;
 import org.georchestra.gateway.logging.accesslog.AccessLogWebfluxFilter;
+import org.georchestra.gateway.logging.accesslog.AsyncAccessLogWriter;
 import org.georchestra.gateway.logging.mdc.config.AuthenticationMdcConfigProperties;
 import org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties;
 import org.georchestra.gateway.logging.mdc.config.SpringEnvironmentMdcConfigProperties;
 import org.georchestra.gateway.logging.mdc.webflux.MDCWebFilter;
+import org.georchestra.gateway.logging.mdc.webflux.MdcSnapshotTurboFilter;
+import org.georchestra.gateway.logging.requestid.RequestIdConfigProperties;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -35,12 +40,14 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilterChain;
 
 import lombok.NonNull;
+import reactor.core.publisher.Hooks;
 import reactor.core.publisher.Mono;
 
 /**
@@ -65,9 +72,10 @@ import reactor.core.publisher.Mono;
  */
 @AutoConfiguration
 @EnableConfigurationProperties({ HttpRequestMdcConfigProperties.class, AuthenticationMdcConfigProperties.class,
-        SpringEnvironmentMdcConfigProperties.class, AccessLogFilterConfig.class })
+        SpringEnvironmentMdcConfigProperties.class, AccessLogFilterConfig.class, RequestIdConfigProperties.class })
 @ConditionalOnWebApplication(type = Type.REACTIVE)
 @ConditionalOnClass(GlobalFilter.class)
+@Import(AsyncAccessLogConfiguration.class)
 public class GatewayMdcAutoConfiguration {
 
     /**
@@ -85,8 +93,13 @@ public class GatewayMdcAutoConfiguration {
     @ConditionalOnProperty(name = "logging.mdc.enabled", havingValue = "true", matchIfMissing = true)
     GlobalFilter mdcGlobalFilter(HttpRequestMdcConfigProperties httpConfig,
             AuthenticationMdcConfigProperties authConfig, SpringEnvironmentMdcConfigProperties appConfig,
-            Environment env, Optional<BuildProperties> buildProperties) {
-        MDCWebFilter filter = new MDCWebFilter(httpConfig, authConfig, appConfig, env, buildProperties);
+            Environment env, Optional<BuildProperties> buildProperties, RequestIdConfigProperties requestIdConfig) {
+        // set the thread-local MDC from the Reactor Context when a log event is
+        // emitted, see MdcThreadLocalAccessor and MdcSnapshotTurboFilter
+        Hooks.enableAutomaticContextPropagation();
+        MdcSnapshotTurboFilter.install();
+        MDCWebFilter filter = new MDCWebFilter(httpConfig, authConfig, appConfig, env, buildProperties,
+                requestIdConfig);
         return new MdcGlobalFilterAdapter(filter);
     }
 
@@ -103,11 +116,15 @@ public class GatewayMdcAutoConfiguration {
      * property is distinct from the one that controls the standard WebFlux access
      * logging filter ({@code logging.accesslog.webflux.enabled}), allowing Gateway
      * access logging to be configured independently.
+     * <p>
+     * If {@code logging.accesslog.async.enabled} is true, the access log is written
+     * by the {@link AsyncAccessLogWriter} instead.
      */
     @Bean
     @ConditionalOnProperty(name = AccessLogFilterConfig.ENABLED_KEY, havingValue = "true", matchIfMissing = true)
-    GlobalFilter accessLogGlobalFilter(AccessLogFilterConfig conf) {
-        AccessLogWebfluxFilter filter = new AccessLogWebfluxFilter(conf);
+    GlobalFilter accessLogGlobalFilter(AccessLogFilterConfig conf, ObjectProvider<AsyncAccessLogWriter> asyncWriter,
+            RequestIdConfigProperties requestIdConfig) {
+        AccessLogWebfluxFilter filter = new AccessLogWebfluxFilter(conf, asyncWriter.getIfAvailable(), requestIdConfig);
         return new AccessLogGlobalFilterAdapter(filter);
     }
 
@@ -24,6 +24,9 @@ import org.georchestra.gateway.logging.mdc.config.AuthenticationMdcConfigPropert
 import org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties;
 import org.georchestra.gateway.logging.mdc.config.SpringEnvironmentMdcConfigProperties;
 import org.georchestra.gateway.logging.mdc.webflux.MDCWebFilter;
+import org.georchestra.gateway.logging.mdc.webflux.MdcSnapshotTurboFilter;
+import org.georchestra.gateway.logging.mdc.webflux.MdcThreadLocalAccessor;
+import org.georchestra.gateway.logging.requestid.RequestIdConfigProperties;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -34,6 +37,8 @@ import org.springframework.boot.info.BuildProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.env.Environment;
 
+import reactor.core.publisher.Hooks;
+
 /**
  * Auto-configuration for MDC (Mapped Diagnostic Context) in WebFlux
  * applications.
@@ -60,7 +65,7 @@ import org.springframework.core.env.Environment;
  */
 @AutoConfiguration
 @EnableConfigurationProperties({ HttpRequestMdcConfigProperties.class, AuthenticationMdcConfigProperties.class,
-        SpringEnvironmentMdcConfigProperties.class })
+        SpringEnvironmentMdcConfigProperties.class, RequestIdConfigProperties.class })
 @ConditionalOnWebApplication(type = Type.REACTIVE)
 public class LoggingMDCWebFluxAutoConfiguration {
 
@@ -74,6 +79,12 @@ public class LoggingMDCWebFluxAutoConfiguration {
      * <li>Propagating the MDC through the Reactor Context</li>
      * </ol>
      * <p>
+     * Reactor's {@link Hooks#enableAutomaticContextPropagation() automatic context
+     * propagation} is enabled, so that {@link MdcThreadLocalAccessor} sets the
+     * thread-local MDC from the Reactor Context for all the log statements in the
+     * request chain, and the {@link MdcSnapshotTurboFilter} is installed, so that
+     * it's only done when a log event is emitted.
+     * <p>
      * The filter uses various configuration properties to determine which
      * attributes to include in the MDC:
      * <ul>
@@ -90,6 +101,7 @@ public class LoggingMDCWebFluxAutoConfiguration {
      *                        properties
      * @param env             the Spring environment
      * @param buildProperties optional build properties for application info
+     * @param requestIdConfig the request id configuration properties
      * @return the configured MDCWebFilter bean
      */
     @Bean
@@ -97,7 +109,9 @@ public class LoggingMDCWebFluxAutoConfiguration {
     @ConditionalOnProperty(name = "logging.mdc.enabled", havingValue = "true", matchIfMissing = true)
     MDCWebFilter mdcWebFluxFilter(HttpRequestMdcConfigProperties httpConfig,
             AuthenticationMdcConfigProperties authConfig, SpringEnvironmentMdcConfigProperties appConfig,
-            Environment env, Optional<BuildProperties> buildProperties) {
-        return new MDCWebFilter(httpConfig, authConfig, appConfig, env, buildProperties);
+            Environment env, Optional<BuildProperties> buildProperties, RequestIdConfigProperties requestIdConfig) {
+        Hooks.enableAutomaticContextPropagation();
+        MdcSnapshotTurboFilter.install();
+        return new MDCWebFilter(httpConfig, authConfig, appConfig, env, buildProperties, requestIdConfig);
     }
 }
\ No newline at end of file
@@ -18,14 +18,21 @@
  */
 package org.georchestra.gateway.logging.accesslog;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 
 import org.slf4j.MDC;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.web.server.ServerWebExchange;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -39,6 +46,12 @@ public class AccessLogFilterConfig {
 
     public static final String ENABLED_KEY = "logging.accesslog.enabled";
 
+    /**
+     * Exchange attribute holding the highest {@link Level} whose patterns match the
+     * request URI
+     */
+    static final String LEVEL_ATTRIBUTE = AccessLogFilterConfig.class.getName() + ".level";
+
     /**
      * A list of java regular expressions applied to the request URL for logging at
      * trace level.
@@ -98,7 +111,74 @@ public class AccessLogFilterConfig {
      */
     List<Pattern> info = new ArrayList<>();
 
-    private enum Level {
+    /**
+     * Maximum number of request URLs whose matching log level is cached, so that
+     * repeated URLs, like map tiles, are not matched against the patterns again.
+     * Set to zero to disable the cache.
+     */
+    int cacheSize = 10_000;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile AccessLogLevelClassifier classifier;
+
+    /**
+     * Asynchronous access log settings.
+     * <p>
+     * When enabled, access log entries are not emitted through the
+     * {@code org.georchestra.gateway.accesslog} logger, but written by the
+     * {@link AsyncAccessLogWriter} to a file or the standard output. The
+     * info/debug/trace patterns and the logger level still decide which requests
+     * are logged.
+     * <p>
+     * Example configuration in YAML:
+     *
+     * <pre>
+     * logging:
+     *   accesslog:
+     *     async:
+     *       enabled: true
+     *       format: CLF
+     *       file: /var/log/gateway/access.log
+     * </pre>
+     */
+    Async async = new Async();
+
+    @Data
+    public static class Async {
+
+        public static final String ENABLED_KEY = "logging.accesslog.async.enabled";
+
+        /**
+         * Whether to write the access log asynchronously
+         */
+        private boolean enabled = false;
+
+        /**
+         * Output format, JSON (default) or CLF (NCSA Common Log Format)
+         */
+        private AccessLogFormat format = AccessLogFormat.JSON;
+
+        /**
+         * File to append the access log to. Defaults to the standard output.
+         */
+        private Path file;
+
+        /**
+         * Maximum number of records waiting to be written, rounded up to a power of
+         * two. Records are dropped while the buffer is full.
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * Maximum number of records written at once
+         */
+        private int batchSize = 256;
+    }
+
+    enum Level {
         OFF {
             @Override
             void log(String message, Object... args) {
@@ -144,8 +224,17 @@ public class AccessLogFilterConfig {
      * @param uri        the request URI
      */
     public void log(String method, int statusCode, String uri) {
-        Level level = getLogLevel(uri);
+        log(getLogLevel(uri), method, statusCode, uri);
+    }
 
+    /**
+     * Logs a request at the given level, as determined by
+     * {@link #getLogLevel(ServerWebExchange)}.
+     */
+    void log(Level level, String method, int statusCode, String uri) {
+        if (level == Level.OFF) {
+            return;
+        }
         // Add request information to MDC for structured logging
         try {
             MDC.put("http.request.method", method);
@@ -177,19 +266,26 @@ public class AccessLogFilterConfig {
      * <li>OFF - if no patterns match or logging at the matched level is
      * disabled</li>
      * </ol>
+     * Since a logger with a level disabled also has the lower levels disabled, only
+     * the highest matching level needs to be checked.
      *
      * @param uri the request URI to check
      * @return the appropriate log level for the URI
      */
     Level getLogLevel(String uri) {
-        if (log.isInfoEnabled() && matches(uri, info))
-            return Level.INFO;
-        if (log.isDebugEnabled() && matches(uri, debug))
-            return Level.DEBUG;
-        if (log.isTraceEnabled() && matches(uri, trace))
-            return Level.TRACE;
-
-        return Level.OFF;
+        return enabled(classifier().classify(uri));
+    }
+
+    /**
+     * Determines the log level for the exchange's request URI, like
+     * {@link #getLogLevel(String)}, matching the URI against the patterns only once
+     * per exchange.
+     *
+     * @param exchange the current server exchange
+     * @return the appropriate log level for the request
+     */
+    Level getLogLevel(ServerWebExchange exchange) {
+        return enabled(classify(exchange));
     }
 
     /**
@@ -211,27 +307,69 @@ public class AccessLogFilterConfig {
         if (uri == null)
             return false;
 
-        String uriString = uri.toString();
-        return matches(uriString, info) || matches(uriString, debug) || matches(uriString, trace);
+        return classifier().classify(uri.toString()) != Level.OFF;
     }
 
     /**
-     * Checks if a URL matches any of the given patterns.
-     * <p>
-     * This method tests the provided URL against each pattern in the list. If any
-     * pattern matches, the method returns true. If the pattern list is null or
-     * empty, it returns false.
+     * Determines if the exchange's request should be logged, like
+     * {@link #shouldLog(java.net.URI)}.
      * <p>
-     * The comparison is done using
-     * {@link java.util.regex.Pattern#matcher(CharSequence).matches()}, which checks
-     * if the entire URL matches the pattern.
+     * The matching pattern level is stored as an exchange attribute, so the URI is
+     * matched against the patterns only once per request.
      *
-     * @param url      the URL to check
-     * @param patterns the list of regex patterns to match against
-     * @return true if the URL matches any pattern, false otherwise
+     * @param exchange the current server exchange
+     * @return true if the request URI matches any pattern
      */
-    private boolean matches(String url, List<Pattern> patterns) {
-        return patterns != null && !patterns.isEmpty()
-                && patterns.stream().anyMatch(pattern -> pattern.matcher(url).matches());
+    public boolean isLoggable(ServerWebExchange exchange) {
+        return classify(exchange) != Level.OFF;
+    }
+
+    private Level classify(ServerWebExchange exchange) {
+        return (Level) exchange.getAttributes().computeIfAbsent(LEVEL_ATTRIBUTE,
+                k -> classifier().classify(exchange.getRequest().getURI().toString()));
+    }
+
+    private Level enabled(Level level) {
+        boolean enabled = switch (level) {
+        case INFO -> log.isInfoEnabled();
+        case DEBUG -> log.isDebugEnabled();
+        case TRACE -> log.isTraceEnabled();
+        case OFF -> false;
+        };
+        return enabled ? level : Level.OFF;
+    }
+
+    public void setTrace(List<Pattern> trace) {
+        this.trace = trace;
+        this.classifier = null;
+    }
+
+    public void setDebug(List<Pattern> debug) {
+        this.debug = debug;
+        this.classifier = null;
+    }
+
+    public void setInfo(List<Pattern> info) {
+        this.info = info;
+        this.classifier = null;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+        this.classifier = null;
+    }
+
+    /**
+     * Returns the classifier for the current patterns, building it on first use
+     * after the properties are bound or rebound through the setters. Changes to the
+     * pattern lists made in place are not picked up.
+     */
+    AccessLogLevelClassifier classifier() {
+        AccessLogLevelClassifier current = this.classifier;
+        if (current == null) {
+            current = new AccessLogLevelClassifier(info, debug, trace, cacheSize);
+            this.classifier = current;
+        }
+        return current;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.accesslog;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Output formats of the {@link AsyncAccessLogWriter}, one line per
+ * {@link AccessLogRecord}.
+ */
+public enum AccessLogFormat {
+
+    /**
+     * One JSON object per line, using the same field names as the access log MDC
+     * properties, e.g.
+     * {@code {"@timestamp":"2025-03-24T10:15:30.123Z","level":"INFO","http.request.method":"GET","http.request.url":"/geoserver/ows?service=WMS","http.status_code":200,"http.request.duration":12,"http.request.remote-addr":"10.0.0.1","http.request.id":"01jq4v7c9x3h2k8m5n6p7q8r9s"}}
+     */
+    JSON {
+        @Override
+        void format(AccessLogRecord rec, StringBuilder target) {
+            target.append("{\"@timestamp\":\"");
+            DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(rec.timestamp()), target);
+            target.append("\",\"level\":\"").append(rec.level());
+            target.append("\",\"http.request.method\":");
+            appendJsonString(rec.method(), target);
+            target.append(",\"http.request.url\":");
+            appendJsonString(rec.uri(), target);
+            target.append(",\"http.status_code\":").append(rec.statusCode());
+            target.append(",\"http.request.duration\":").append(rec.duration());
+            String remoteHost = rec.remoteHost();
+            if (remoteHost != null) {
+                target.append(",\"http.request.remote-addr\":");
+                appendJsonString(remoteHost, target);
+            }
+            if (rec.requestId() != null) {
+                target.append(",\"http.request.id\":");
+                appendJsonString(rec.requestId(), target);
+            }
+            target.append('}');
+        }
+    },
+
+    /**
+     * NCSA Common Log Format, e.g.
+     * {@code 10.0.0.1 - - [24/Mar/2025:10:15:30 +0000] "GET /geoserver/ows?service=WMS" 200 -}.
+     * <p>
+     * The protocol version and response size are not available to the access log
+     * filter, the request line has no protocol and the size is always {@code -}.
+     */
+    CLF {
+        private static final DateTimeFormatter DATE = DateTimeFormatter
+                .ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH).withZone(ZoneOffset.UTC);
+
+        @Override
+        void format(AccessLogRecord rec, StringBuilder target) {
+            String remoteHost = rec.remoteHost();
+            target.append(remoteHost == null ? "-" : remoteHost);
+            target.append(" - - [");
+            DATE.formatTo(Instant.ofEpochMilli(rec.timestamp()), target);
+            target.append("] \"").append(rec.method()).append(' ').append(rec.uri()).append("\" ");
+            target.append(rec.statusCode()).append(" -");
+        }
+    };
+
+    /**
+     * Appends the formatted record to {@code target}, without line separator
+     */
+    abstract void format(AccessLogRecord rec, StringBuilder target);
+
+    static void appendJsonString(String value, StringBuilder target) {
+        target.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"' -> target.append("\\\"");
+            case '\\' -> target.append("\\\\");
+            case '\n' -> target.append("\\n");
+            case '\r' -> target.append("\\r");
+            case '\t' -> target.append("\\t");
+            default -> {
+                if (c < 0x20) {
+                    target.append("\\u%04x".formatted((int) c));
+                } else {
+                    target.append(c);
+                }
+            }
+            }
+        }
+        target.append('"');
+    }
+}
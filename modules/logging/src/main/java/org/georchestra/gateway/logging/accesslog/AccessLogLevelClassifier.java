@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.accesslog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.georchestra.gateway.logging.accesslog.AccessLogFilterConfig.Level;
+import org.springframework.util.ConcurrentLruCache;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Classifies request URLs by the {@link AccessLogFilterConfig} pattern list
+ * they match, in a single regular expression evaluation.
+ * <p>
+ * The info, debug, and trace patterns are combined, in that order, into one
+ * alternation, each level's branch ending in an empty marker group:
+ * {@code (?:(?:info1)|(?:info2))()|(?:(?:debug1))()|(?:(?:trace1))()}. Since
+ * branches are tried in order, the marker group that participated in the match
+ * tells the highest level matching the URL, as evaluating each list in turn
+ * would.
+ * <p>
+ * If a pattern can't be safely embedded in the alternation, because it has
+ * compile flags, back references, named groups, or quoted sections, the lists
+ * are evaluated one pattern at a time instead.
+ * <p>
+ * Results are cached in a bounded LRU cache keyed by URL, serving repeated
+ * requests like map tiles without evaluating the patterns.
+ */
+@Slf4j(topic = "org.georchestra.gateway.logging.accesslog")
+class AccessLogLevelClassifier {
+
+    private static final Pattern NOT_EMBEDDABLE = Pattern
+            .compile("\\\\[1-9]|\\\\k<|\\(\\?<[a-zA-Z]|\\\\Q|\\(\\?[a-z-]*x");
+
+    private static final Level[] LEVELS = { Level.INFO, Level.DEBUG, Level.TRACE };
+
+    private final List<List<Pattern>> patterns;
+
+    private final Pattern combined;
+
+    private final int[] markerGroups;
+
+    private final Level[] markerLevels;
+
+    private final ConcurrentLruCache<String, Level> cache;
+
+    AccessLogLevelClassifier(List<Pattern> info, List<Pattern> debug, List<Pattern> trace, int cacheSize) {
+        this.patterns = List.of(copy(info), copy(debug), copy(trace));
+
+        List<Integer> groups = new ArrayList<>();
+        List<Level> levels = new ArrayList<>();
+        this.combined = combine(groups, levels);
+        this.markerGroups = groups.stream().mapToInt(Integer::intValue).toArray();
+        this.markerLevels = levels.toArray(Level[]::new);
+        this.cache = cacheSize > 0 ? new ConcurrentLruCache<>(cacheSize, this::evaluate) : null;
+    }
+
+    private static List<Pattern> copy(List<Pattern> patterns) {
+        return patterns == null ? List.of() : List.copyOf(patterns);
+    }
+
+    /**
+     * @return the highest level whose patterns match {@code url} (INFO, then DEBUG,
+     *         then TRACE), or {@link Level#OFF} if none does
+     */
+    Level classify(String url) {
+        return cache == null ? evaluate(url) : cache.get(url);
+    }
+
+    Level evaluate(String url) {
+        if (combined != null) {
+            Matcher matcher = combined.matcher(url);
+            if (!matcher.matches()) {
+                return Level.OFF;
+            }
+            for (int i = 0; i < markerGroups.length; i++) {
+                if (matcher.start(markerGroups[i]) >= 0) {
+                    return markerLevels[i];
+                }
+            }
+            return Level.OFF;
+        }
+        for (int i = 0; i < LEVELS.length; i++) {
+            for (Pattern pattern : patterns.get(i)) {
+                if (pattern.matcher(url).matches()) {
+                    return LEVELS[i];
+                }
+            }
+        }
+        return Level.OFF;
+    }
+
+    /**
+     * Builds the combined alternation, collecting the marker group number and level
+     * of each branch
+     *
+     * @return the combined pattern, or {@code null} if the patterns are to be
+     *         evaluated one at a time
+     */
+    private Pattern combine(List<Integer> markerGroups, List<Level> markerLevels) {
+        if (patterns.stream().flatMap(List::stream).anyMatch(p -> !isEmbeddable(p))) {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder();
+        int groupCount = 0;
+        for (int i = 0; i < LEVELS.length; i++) {
+            List<Pattern> levelPatterns = patterns.get(i);
+            if (levelPatterns.isEmpty()) {
+                continue;
+            }
+            if (!regex.isEmpty()) {
+                regex.append('|');
+            }
+            regex.append("(?:");
+            for (int p = 0; p < levelPatterns.size(); p++) {
+                Pattern pattern = levelPatterns.get(p);
+                if (p > 0) {
+                    regex.append('|');
+                }
+                regex.append("(?:").append(pattern.pattern()).append(')');
+                groupCount += pattern.matcher("").groupCount();
+            }
+            regex.append(")()");
+            markerGroups.add(++groupCount);
+            markerLevels.add(LEVELS[i]);
+        }
+        if (regex.isEmpty()) {
+            return null;
+        }
+        try {
+            return Pattern.compile(regex.toString());
+        } catch (PatternSyntaxException e) {
+            log.debug("Unable to combine access log patterns, evaluating them one at a time: {}", e.getMessage());
+            markerGroups.clear();
+            markerLevels.clear();
+            return null;
+        }
+    }
+
+    private static boolean isEmbeddable(Pattern pattern) {
+        return pattern.flags() == 0 && !NOT_EMBEDDABLE.matcher(pattern.pattern()).find();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.accesslog;
+
+import java.net.InetSocketAddress;
+
+import lombok.NonNull;
+
+/**
+ * Immutable access log entry captured on the request thread and formatted by
+ * the {@link AsyncAccessLogWriter}.
+ *
+ * @param timestamp     request start time, in milliseconds since the epoch
+ * @param level         the access log level the request URL matched
+ * @param method        the HTTP method
+ * @param uri           the request URI
+ * @param statusCode    the response status code, or {@code 0} if not set
+ * @param duration      request processing duration in milliseconds
+ * @param remoteAddress the client address, or {@code null} if unknown
+ * @param requestId     the request id, or {@code null} if unknown
+ */
+public record AccessLogRecord(long timestamp, @NonNull String level, @NonNull String method, @NonNull String uri,
+        int statusCode, long duration, InetSocketAddress remoteAddress, String requestId) {
+
+    public AccessLogRecord(long timestamp, @NonNull String level, @NonNull String method, @NonNull String uri,
+            int statusCode, long duration, InetSocketAddress remoteAddress) {
+        this(timestamp, level, method, uri, statusCode, duration, remoteAddress, null);
+    }
+
+    /**
+     * @return the client IP address, or host name if unresolved, {@code null} if
+     *         unknown
+     */
+    public String remoteHost() {
+        if (remoteAddress == null) {
+            return null;
+        }
+        return remoteAddress.getAddress() == null ? remoteAddress.getHostString()
+                : remoteAddress.getAddress().getHostAddress();
+    }
+}
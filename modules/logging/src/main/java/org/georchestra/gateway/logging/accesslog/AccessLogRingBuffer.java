@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free, multiple producers single consumer ring buffer of
+ * {@link AccessLogRecord}s.
+ * <p>
+ * Each slot carries a sequence number telling whether it's free for the
+ * producer claiming position {@code n} (sequence {@code n}) or holds the
+ * element published at position {@code n} (sequence {@code n + 1}). Producers
+ * claim positions with a compare-and-set on the tail, and never block nor wait:
+ * {@link #offer(AccessLogRecord)} returns {@code false} when the buffer is
+ * full.
+ * <p>
+ * Only one thread at a time may call {@link #drain(Consumer, int)}.
+ */
+class AccessLogRingBuffer {
+
+    private final int mask;
+
+    private final AccessLogRecord[] elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Only accessed by the consumer thread
+     */
+    private long head;
+
+    /**
+     * @param capacity the buffer capacity, rounded up to the next power of two
+     */
+    AccessLogRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = size - 1;
+        this.elements = new AccessLogRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Adds a record to the buffer, unless it's full
+     *
+     * @return {@code true} if the record was added, {@code false} if the buffer is
+     *         full
+     */
+    boolean offer(AccessLogRecord rec) {
+        while (true) {
+            final long position = tail.get();
+            final int index = (int) (position & mask);
+            final long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = rec;
+                    // publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;
+            }
+            // else another producer claimed the position, retry
+        }
+    }
+
+    /**
+     * Removes up to {@code max} records from the buffer, in insertion order,
+     * passing them to {@code consumer}
+     *
+     * @return the number of records drained
+     */
+    int drain(Consumer<AccessLogRecord> consumer, int max) {
+        int drained = 0;
+        while (drained < max) {
+            final int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            AccessLogRecord rec = elements[index];
+            elements[index] = null;
+            // frees the slot for the producers of the next lap
+            sequences.set(index, head + elements.length);
+            head++;
+            drained++;
+            consumer.accept(rec);
+        }
+        return drained;
+    }
+
+    /**
+     * @return an estimate of the number of records in the buffer
+     */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, elements.length));
+    }
+}
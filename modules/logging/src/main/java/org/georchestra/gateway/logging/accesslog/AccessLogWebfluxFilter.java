@@ -19,12 +19,14 @@
 package org.georchestra.gateway.logging.accesslog;
 
 import java.net.URI;
-import java.util.Map;
+import java.util.Optional;
 
+import org.georchestra.gateway.logging.mdc.webflux.MdcSnapshot;
 import org.georchestra.gateway.logging.mdc.webflux.ReactorContextHolder;
-import org.slf4j.MDC;
+import org.georchestra.gateway.logging.requestid.RequestIdConfigProperties;
 import org.springframework.boot.web.reactive.filter.OrderedWebFilter;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilterChain;
@@ -47,10 +49,16 @@ import reactor.core.publisher.Mono;
  * </ul>
  * <p>
  * The filter leverages MDC (Mapped Diagnostic Context) for enriched logging,
- * retrieving the MDC map from the Reactor Context using
- * {@link ReactorContextHolder}. This allows the access logs to include all the
- * MDC attributes set by the
- * {@link org.georchestra.gateway.logging.mdc.webflux.MDCWebFilter}.
+ * retrieving the {@link MdcSnapshot} from the Reactor Context (see
+ * {@link ReactorContextHolder#MDC_CONTEXT_KEY}). This allows the access logs to
+ * include all the MDC attributes set by the
+ * {@link org.georchestra.gateway.logging.mdc.webflux.MDCWebFilter}. The
+ * snapshot is only set as the thread-local MDC while the access log line is
+ * emitted.
+ * <p>
+ * When an {@link AsyncAccessLogWriter} is provided, the request is instead
+ * captured as an immutable {@link AccessLogRecord} handed over to the writer,
+ * without copying the MDC nor performing any I/O on the request thread.
  * <p>
  * This filter is configured with {@link Ordered#LOWEST_PRECEDENCE} to ensure it
  * executes after all other filters, capturing the complete request processing
@@ -61,13 +69,48 @@ public class AccessLogWebfluxFilter implements OrderedWebFilter {
 
     private final @NonNull AccessLogFilterConfig config;
 
+    private final AsyncAccessLogWriter asyncWriter;
+
+    private final RequestIdConfigProperties requestIdConfig;
+
     /**
      * Constructs an AccessLogWebfluxFilter with the given configuration.
      *
      * @param config the configuration for access logging
      */
     public AccessLogWebfluxFilter(@NonNull AccessLogFilterConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * Constructs an AccessLogWebfluxFilter with the given configuration, writing
+     * the access log asynchronously if {@code asyncWriter} is not {@code null}.
+     *
+     * @param config      the configuration for access logging
+     * @param asyncWriter the asynchronous access log writer, or {@code null} to log
+     *                    through the access log logger
+     */
+    public AccessLogWebfluxFilter(@NonNull AccessLogFilterConfig config, AsyncAccessLogWriter asyncWriter) {
+        this(config, asyncWriter, null);
+    }
+
+    /**
+     * Constructs an AccessLogWebfluxFilter like
+     * {@link #AccessLogWebfluxFilter(AccessLogFilterConfig, AsyncAccessLogWriter)},
+     * adding the request id to the asynchronous access log records if
+     * {@code requestIdConfig} is not {@code null}.
+     *
+     * @param config          the configuration for access logging
+     * @param asyncWriter     the asynchronous access log writer, or {@code null} to
+     *                        log through the access log logger
+     * @param requestIdConfig resolves the request id shared with the MDC and
+     *                        proxied requests, or {@code null}
+     */
+    public AccessLogWebfluxFilter(@NonNull AccessLogFilterConfig config, AsyncAccessLogWriter asyncWriter,
+            RequestIdConfigProperties requestIdConfig) {
         this.config = config;
+        this.asyncWriter = asyncWriter;
+        this.requestIdConfig = requestIdConfig;
     }
 
     /**
@@ -93,13 +136,12 @@ public class AccessLogWebfluxFilter implements OrderedWebFilter {
      * <li>Checks if the request URI should be logged based on the
      * configuration</li>
      * <li>Captures the request start time, method, and URI</li>
-     * <li>Saves the initial MDC state</li>
+     * <li>Retrieves the MDC snapshot from the Reactor Context</li>
      * <li>Continues the filter chain</li>
      * <li>After the response is complete, retrieves the status code and calculates
      * duration</li>
-     * <li>Retrieves MDC from the Reactor Context</li>
-     * <li>Logs the request with appropriate MDC context</li>
-     * <li>Restores the original MDC state</li>
+     * <li>Logs the request with the MDC snapshot as the thread-local MDC, restoring
+     * the original MDC afterwards</li>
      * </ol>
      * <p>
      * If the request URI doesn't match any of the configured patterns, the request
@@ -112,35 +154,52 @@ public class AccessLogWebfluxFilter implements OrderedWebFilter {
      */
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-        URI uri = exchange.getRequest().getURI();
-        if (!config.shouldLog(uri)) {
+        if (!config.isLoggable(exchange)) {
             return chain.filter(exchange);
         }
+        URI uri = exchange.getRequest().getURI();
 
         // Capture request start time
         long startTime = System.currentTimeMillis();
+        if (asyncWriter != null) {
+            return chain.filter(exchange).doFinally(signalType -> offerRecord(exchange, startTime, uri));
+        }
         ServerHttpRequest request = exchange.getRequest();
         String method = request.getMethod().name();
         String uriPath = uri.toString();
 
-        // Store initial MDC state
-        Map<String, String> initialMdc = MDC.getCopyOfContextMap();
-
-        // Use deferContextual and doOnEach to ensure we have appropriate MDC context
-        // during logging
-        // This avoids blocking calls in the reactive chain
+        // Use deferContextual to obtain the MDC snapshot from the Reactor Context
+        // without blocking
         return Mono.deferContextual(context -> {
-            // Capture the Reactor Context containing MDC data
-            Map<String, String> mdcMap = ReactorContextHolder.extractMdcMapFromContext(context);
+            MdcSnapshot mdc = MdcSnapshot.from(context);
 
             // Continue the filter chain with the context
             return chain.filter(exchange).doFinally(signalType -> {
                 // Log with the captured MDC context when the chain completes
-                logRequestCompletion(exchange, startTime, method, uriPath, initialMdc, mdcMap);
+                logRequestCompletion(exchange, startTime, method, uriPath, mdc);
             });
         });
     }
 
+    /**
+     * Hands over the completed request to the {@link AsyncAccessLogWriter}, if its
+     * URI is to be logged at an enabled level.
+     */
+    private void offerRecord(ServerWebExchange exchange, long startTime, URI uri) {
+        String uriPath = uri.toString();
+        AccessLogFilterConfig.Level level = config.getLogLevel(exchange);
+        if (level == AccessLogFilterConfig.Level.OFF) {
+            return;
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        int statusCode = Optional.ofNullable(exchange.getResponse().getStatusCode()).map(HttpStatusCode::value)
+                .orElse(0);
+        long duration = System.currentTimeMillis() - startTime;
+        String requestId = requestIdConfig == null ? null : requestIdConfig.requestId(exchange);
+        asyncWriter.offer(new AccessLogRecord(startTime, level.name(), request.getMethod().name(), uriPath, statusCode,
+                duration, request.getRemoteAddress(), requestId));
+    }
+
     /**
      * Logs the completion of an HTTP request with appropriate MDC context.
      * <p>
@@ -149,96 +208,38 @@ public class AccessLogWebfluxFilter implements OrderedWebFilter {
      * <ul>
      * <li>Calculating the request duration</li>
      * <li>Retrieving the final status code</li>
-     * <li>Managing MDC context for structured logging</li>
-     * <li>Ensuring proper MDC cleanup</li>
+     * <li>Setting the MDC snapshot as the thread-local MDC while logging, only if
+     * the request is to be logged at an enabled level</li>
      * </ul>
      *
      * @param exchange   the server exchange containing the response
      * @param startTime  the time when the request processing started
      * @param method     the HTTP method of the request
      * @param uriPath    the URI path of the request
-     * @param initialMdc the initial MDC state to restore after logging
-     * @param contextMdc the MDC context from the reactor context
+     * @param contextMdc the MDC snapshot from the reactor context
      */
     private void logRequestCompletion(ServerWebExchange exchange, long startTime, String method, String uriPath,
-            Map<String, String> initialMdc, Map<String, String> contextMdc) {
-
-        try {
-            // Calculate request duration
-            long duration = System.currentTimeMillis() - startTime;
-
-            // Get status code if available, or use 0 if not set
-            Integer statusCode = exchange.getResponse().getRawStatusCode();
-            if (statusCode == null)
-                statusCode = 0;
-
-            logWithAppropriateContext(method, statusCode, uriPath, duration, contextMdc);
-        } finally {
-            // Restore initial MDC state
-            if (initialMdc != null)
-                MDC.setContextMap(initialMdc);
-            else
-                MDC.clear();
-        }
-    }
+            MdcSnapshot contextMdc) {
 
-    /**
-     * Logs the request with the appropriate MDC context if available.
-     *
-     * @param method     the HTTP method
-     * @param statusCode the response status code
-     * @param uriPath    the request URI path
-     * @param duration   the request processing duration in milliseconds
-     * @param contextMdc the MDC context from the reactor context, may be null or
-     *                   empty
-     */
-    private void logWithAppropriateContext(String method, Integer statusCode, String uriPath, long duration,
-            Map<String, String> contextMdc) {
-
-        if (contextMdc != null && !contextMdc.isEmpty()) {
-            logWithMdcContext(method, statusCode, uriPath, duration, contextMdc);
-        } else {
-            logWithoutMdcContext(method, statusCode, uriPath, duration);
+        AccessLogFilterConfig.Level level = config.getLogLevel(exchange);
+        if (level == AccessLogFilterConfig.Level.OFF) {
+            return;
         }
-    }
+        // Calculate request duration
+        long duration = System.currentTimeMillis() - startTime;
 
-    /**
-     * Logs the request with MDC context from the reactor context.
-     */
-    private void logWithMdcContext(String method, Integer statusCode, String uriPath, long duration,
-            Map<String, String> contextMdc) {
+        // Get status code if available, or use 0 if not set
+        Integer statusCode = exchange.getResponse().getRawStatusCode();
+        if (statusCode == null)
+            statusCode = 0;
 
-        // Save original MDC
-        Map<String, String> oldMdc = MDC.getCopyOfContextMap();
-
-        try {
-            // Set MDC from reactor context for logging
-            MDC.setContextMap(contextMdc);
-
-            // Log the request with MDC context
-            config.log(method, statusCode, uriPath);
+        final int status = statusCode;
+        contextMdc.run(() -> {
+            config.log(level, method, status, uriPath);
 
             if (log.isTraceEnabled()) {
-                log.trace("Request {} {} {} completed in {}ms", method, statusCode, uriPath, duration);
+                log.trace("Request {} {} {} completed in {}ms", method, status, uriPath, duration);
             }
-        } finally {
-            // Restore original MDC
-            if (oldMdc != null)
-                MDC.setContextMap(oldMdc);
-            else
-                MDC.clear();
-        }
-    }
-
-    /**
-     * Logs the request without MDC context when none is available.
-     */
-    private void logWithoutMdcContext(String method, Integer statusCode, String uriPath, long duration) {
-        // Log without MDC context if not available
-        config.log(method, statusCode, uriPath);
-
-        if (log.isTraceEnabled()) {
-            log.trace("Request {} {} {} completed in {}ms (no MDC context)", method, statusCode, uriPath, duration);
-        }
+        });
     }
-}
\ No newline at end of file
+}
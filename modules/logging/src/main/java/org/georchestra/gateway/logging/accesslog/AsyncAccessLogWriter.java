@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.accesslog;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.georchestra.gateway.logging.accesslog.AccessLogFilterConfig.Async;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes {@link AccessLogRecord}s to a file or the standard output from a
+ * background thread.
+ * <p>
+ * Request threads only {@link #offer(AccessLogRecord) add} the immutable
+ * records to a lock-free {@link AccessLogRingBuffer}, and never perform I/O nor
+ * touch the MDC. If the buffer is full, the record is dropped and counted, and
+ * the number of dropped records is logged at most once per minute.
+ * <p>
+ * The "access-log-writer" daemon thread drains the buffer in batches of up to
+ * {@link Async#getBatchSize() batch-size} records, formats them with the
+ * configured {@link AccessLogFormat}, and writes and flushes each batch at
+ * once. When the buffer is empty, it parks until the next record is offered.
+ *
+ * @see AccessLogFilterConfig.Async
+ */
+@Slf4j(topic = "org.georchestra.gateway.logging.accesslog")
+public class AsyncAccessLogWriter {
+
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * Minimum time between two warnings about dropped records
+     */
+    private static final long DROP_REPORT_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final @NonNull Async config;
+
+    private final AccessLogRingBuffer buffer;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final StringBuilder batch = new StringBuilder(16 * 1024);
+
+    private long reportedDropped;
+
+    private long lastDropReport = System.nanoTime() - DROP_REPORT_INTERVAL_NANOS;
+
+    private Writer out;
+
+    private volatile Thread writer;
+
+    private volatile boolean running;
+
+    /**
+     * Whether the writer thread found the buffer empty and is about to park, or
+     * parked, and needs to be unparked when a record is offered
+     */
+    private volatile boolean idle;
+
+    public AsyncAccessLogWriter(@NonNull Async config) {
+        if (config.getBatchSize() < 1) {
+            throw new IllegalArgumentException("batch-size must be positive: " + config.getBatchSize());
+        }
+        this.config = config;
+        this.buffer = new AccessLogRingBuffer(config.getBufferSize());
+    }
+
+    /**
+     * Queues a record for writing, without blocking
+     *
+     * @return {@code false} if the record was dropped because the buffer is full
+     */
+    public boolean offer(@NonNull AccessLogRecord rec) {
+        if (buffer.offer(rec)) {
+            if (idle) {
+                LockSupport.unpark(writer);
+            }
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * @return the number of records dropped because the buffer was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Opens the output and starts the writer thread
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        this.out = openOutput();
+        running = true;
+        writer = new Thread(this::run, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Writing access logs as {} to {}, buffer size {}", config.getFormat(),
+                config.getFile() == null ? "stdout" : config.getFile(), buffer.capacity());
+    }
+
+    /**
+     * Stops the writer thread after writing the buffered records, and closes the
+     * output
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(STOP_TIMEOUT.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Access log writer did not stop in {}", STOP_TIMEOUT);
+            return;
+        }
+        try {
+            if (config.getFile() == null) {
+                out.flush();
+            } else {
+                out.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing the access log output", e);
+        }
+    }
+
+    private Writer openOutput() {
+        if (config.getFile() == null) {
+            return new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        }
+        try {
+            return Files.newBufferedWriter(config.getFile(), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open access log file " + config.getFile(), e);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (writeBatch() == 0) {
+                // flag before checking the buffer again, so either this thread sees the
+                // record just offered, or the producer sees the flag and unparks it
+                idle = true;
+                if (buffer.size() == 0 && running) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+            }
+        }
+        while (writeBatch() > 0) {
+            // write what's left
+        }
+        reportDropped(true);
+    }
+
+    /**
+     * Drains and writes up to {@link Async#getBatchSize()} records
+     *
+     * @return the number of records drained
+     */
+    private int writeBatch() {
+        reportDropped(false);
+        batch.setLength(0);
+        final AccessLogFormat format = config.getFormat();
+        int count = buffer.drain(rec -> {
+            format.format(rec, batch);
+            batch.append(System.lineSeparator());
+        }, config.getBatchSize());
+        if (count > 0) {
+            try {
+                out.append(batch);
+                out.flush();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Error writing {} access log records: {}", count, e.getMessage());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Logs the number of records dropped since the last report, if it was long
+     * enough ago or {@code force} is set
+     */
+    private void reportDropped(boolean force) {
+        long total = dropped.sum();
+        if (total > reportedDropped) {
+            long now = System.nanoTime();
+            if (force || now - lastDropReport >= DROP_REPORT_INTERVAL_NANOS) {
+                log.warn("Dropped {} access log records, the buffer of {} is full", total - reportedDropped,
+                        buffer.capacity());
+                reportedDropped = total;
+                lastDropReport = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.mdc.config;
+
+import static org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties.COOKIE_KEY_PREFIX;
+import static org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties.HEADER_KEY_PREFIX;
+import static org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties.METHOD_KEY;
+import static org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties.PARAMETER_KEY_PREFIX;
+import static org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties.PATH_KEY;
+import static org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties.QUERY_STRING_KEY;
+import static org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties.REMOTE_ADDR_KEY;
+import static org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties.REQUEST_ID_HEADER;
+
+import java.net.InetSocketAddress;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpCookie;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * Read-only, lazily computed view of the HTTP request MDC attributes enabled in
+ * {@link HttpRequestMdcConfigProperties}.
+ * <p>
+ * Creating the view only binds it to the request. Attribute values are resolved
+ * from the request when they're read, usually because a log event copies the
+ * MDC, so requests that log nothing don't compute them at all. The request id
+ * is computed at most once, so it's stable for the lifetime of the request.
+ *
+ * @see HttpRequestMdcConfigProperties#requestAttributes(ServerHttpRequest)
+ */
+final class HttpRequestMdcAttributes extends AbstractMap<String, String> {
+
+    private final HttpRequestMdcConfigProperties config;
+
+    private final ServerHttpRequest request;
+
+    private final Supplier<String> requestIdSupplier;
+
+    private volatile String requestId;
+
+    private volatile Map<String, String> entries;
+
+    HttpRequestMdcAttributes(HttpRequestMdcConfigProperties config, ServerHttpRequest request,
+            Supplier<String> requestId) {
+        this.config = config;
+        this.request = request;
+        this.requestIdSupplier = requestId;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        return switch (name) {
+        case REQUEST_ID_HEADER -> config.isId() ? requestId() : null;
+        case REMOTE_ADDR_KEY -> config.isRemoteAddr() ? remoteAddr() : null;
+        case METHOD_KEY -> config.isMethod() ? request.getMethod().name() : null;
+        case PATH_KEY -> config.isPath() ? request.getURI().getRawPath() : null;
+        case QUERY_STRING_KEY -> config.isQueryString() ? request.getURI().getRawQuery() : null;
+        default -> getPrefixed(name);
+        };
+    }
+
+    private String getPrefixed(String key) {
+        if (config.isHeaders() && key.startsWith(HEADER_KEY_PREFIX)) {
+            String header = key.substring(HEADER_KEY_PREFIX.length());
+            List<String> values = request.getHeaders().get(header);
+            return values == null || config.headerKey(header) == null ? null : String.join(",", values);
+        }
+        if (config.isParameters() && key.startsWith(PARAMETER_KEY_PREFIX)) {
+            String parameter = key.substring(PARAMETER_KEY_PREFIX.length());
+            List<String> values = request.getQueryParams().get(parameter);
+            return values == null ? null : parameterValue(values);
+        }
+        if (config.isCookies() && key.startsWith(COOKIE_KEY_PREFIX)) {
+            List<HttpCookie> cookies = request.getCookies().get(key.substring(COOKIE_KEY_PREFIX.length()));
+            return cookies == null || cookies.isEmpty() ? null : cookieValue(cookies);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        Map<String, String> map = this.entries;
+        if (map == null) {
+            map = Collections.unmodifiableMap(computeEntries());
+            this.entries = map;
+        }
+        return map.entrySet();
+    }
+
+    private Map<String, String> computeEntries() {
+        Map<String, String> map = new LinkedHashMap<>();
+        put(map, REQUEST_ID_HEADER, config.isId() ? requestId() : null);
+        put(map, REMOTE_ADDR_KEY, config.isRemoteAddr() ? remoteAddr() : null);
+        put(map, METHOD_KEY, config.isMethod() ? request.getMethod().name() : null);
+        put(map, PATH_KEY, config.isPath() ? request.getURI().getRawPath() : null);
+        put(map, QUERY_STRING_KEY, config.isQueryString() ? request.getURI().getRawQuery() : null);
+        if (config.isParameters()) {
+            request.getQueryParams().forEach((k, v) -> put(map, PARAMETER_KEY_PREFIX + k, parameterValue(v)));
+        }
+        if (config.isHeaders()) {
+            request.getHeaders().forEach((name, values) -> put(map, config.headerKey(name), String.join(",", values)));
+        }
+        if (config.isCookies()) {
+            request.getCookies().forEach((name, cookies) -> {
+                if (!cookies.isEmpty()) {
+                    put(map, COOKIE_KEY_PREFIX + name, cookieValue(cookies));
+                }
+            });
+        }
+        return map;
+    }
+
+    private static void put(Map<String, String> map, String key, String value) {
+        if (key != null && value != null) {
+            map.put(key, value);
+        }
+    }
+
+    private String requestId() {
+        String id = this.requestId;
+        if (id == null) {
+            synchronized (this) {
+                id = this.requestId;
+                if (id == null) {
+                    id = requestIdSupplier.get();
+                    this.requestId = id;
+                }
+            }
+        }
+        return id;
+    }
+
+    private String remoteAddr() {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress == null ? null : remoteAddress.toString();
+    }
+
+    private static String parameterValue(List<String> values) {
+        return values == null ? "" : String.join(",", values);
+    }
+
+    private static String cookieValue(List<HttpCookie> cookies) {
+        if (cookies.size() == 1) {
+            return cookies.get(0).getValue();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (HttpCookie cookie : cookies) {
+            if (!sb.isEmpty()) {
+                sb.append(';');
+            }
+            sb.append(cookie.getValue());
+        }
+        return sb.toString();
+    }
+}
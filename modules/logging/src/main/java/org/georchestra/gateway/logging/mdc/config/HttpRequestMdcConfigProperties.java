@@ -27,16 +27,23 @@ import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.georchestra.gateway.logging.requestid.RequestIdConfigProperties;
+import org.georchestra.gateway.logging.requestid.RequestIdGenerator;
 import org.slf4j.MDC;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.http.HttpCookie;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.MultiValueMap;
 
-import com.github.f4b6a3.ulid.UlidCreator;
-
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * Configuration properties for controlling which HTTP request information is
@@ -75,6 +82,24 @@ public class HttpRequestMdcConfigProperties {
 
     public static final String REQUEST_ID_HEADER = "http.request.id";
 
+    static final String REMOTE_ADDR_KEY = "http.request.remote-addr";
+    static final String REMOTE_HOST_KEY = "http.request.remote-host";
+    static final String METHOD_KEY = "http.request.method";
+    static final String PATH_KEY = "http.request.path";
+    static final String QUERY_STRING_KEY = "http.request.query-string";
+    static final String SESSION_ID_KEY = "http.request.session.id";
+    static final String PARAMETER_KEY_PREFIX = "http.request.parameter.";
+    static final String HEADER_KEY_PREFIX = "http.request.header.";
+    static final String COOKIE_KEY_PREFIX = "http.request.cookie.";
+
+    /**
+     * Marks header names excluded by the {@link #headersPattern} in
+     * {@link #headerKeys}
+     */
+    private static final String EXCLUDED_HEADER = "";
+
+    private static final int HEADER_KEYS_CACHE_SIZE = 1024;
+
     /**
      * Whether to append the http.request.id MDC property. The value is the id
      * provided by the http.request.id header, or a new monotonically increating UID
@@ -147,6 +172,50 @@ public class HttpRequestMdcConfigProperties {
      */
     private Pattern headersPattern = Pattern.compile(".*");
 
+    /**
+     * Memoized MDC keys of the header names that match {@link #headersPattern},
+     * rebuilt if the pattern changes
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile HeaderKeys headerKeys;
+
+    private record HeaderKeys(Pattern pattern, ConcurrentLruCache<String, String> keys) {
+    }
+
+    /**
+     * Returns the enabled request attributes as a read-only map bound to
+     * {@code request}, without writing to the thread-local MDC.
+     * <p>
+     * The returned map is lazy: attribute values, and the header, parameter, and
+     * cookie names, are only resolved from the request when the map is read, for
+     * example when a log event copies the MDC.
+     *
+     * @param request the HTTP request
+     * @return a lazily computed view of the request MDC attributes
+     */
+    public Map<String, String> requestAttributes(@NonNull ServerHttpRequest request) {
+        return requestAttributes(request, () -> findOrCreateRequestId(request::getHeaders));
+    }
+
+    /**
+     * Returns the enabled request attributes as a read-only map bound to
+     * {@code request}, like {@link #requestAttributes(ServerHttpRequest)}, getting
+     * the request id from {@code requestId}, so it's shared with other components
+     * (see {@link RequestIdConfigProperties#requestId}).
+     *
+     * @param request   the HTTP request
+     * @param requestId provides the request id, called at most once and only if the
+     *                  {@code http.request.id} attribute is read
+     * @return a lazily computed view of the request MDC attributes
+     */
+    public Map<String, String> requestAttributes(@NonNull ServerHttpRequest request,
+            @NonNull Supplier<String> requestId) {
+        return new HttpRequestMdcAttributes(this, request, requestId);
+    }
+
     /**
      * Adds HTTP headers to the MDC if enabled by configuration.
      * <p>
@@ -193,7 +262,7 @@ public class HttpRequestMdcConfigProperties {
      */
     private void putCookie(List<HttpCookie> cookies) {
         cookies.forEach(c -> {
-            String key = "http.request.cookie.%s".formatted(c.getName());
+            String key = COOKIE_KEY_PREFIX + c.getName();
             String value = MDC.get(key);
             if (value == null) {
                 value = c.getValue();
@@ -205,20 +274,33 @@ public class HttpRequestMdcConfigProperties {
     }
 
     /**
-     * Determines if a header should be included in the MDC based on the header
-     * pattern.
+     * Returns the MDC key for a header name, if it's to be included in the MDC
+     * based on the header pattern.
      * <p>
      * This method checks if the header name matches the pattern defined in
      * {@link #getHeadersPattern()}. The "cookie" header is always excluded because
      * cookies are handled separately by the {@link #cookies(Supplier)} method.
+     * <p>
+     * Results are memoized, so the pattern is matched and the key built only once
+     * per header name.
      *
      * @param headerName the name of the header to check
-     * @return true if the header should be included, false otherwise
+     * @return the {@code http.request.header.[name]} MDC key, or {@code null} if
+     *         the header is excluded
      */
-    private boolean includeHeader(String headerName) {
-        if ("cookie".equalsIgnoreCase(headerName))
-            return false;
-        return getHeadersPattern().matcher(headerName).matches();
+    String headerKey(String headerName) {
+        Pattern pattern = getHeadersPattern();
+        HeaderKeys keys = this.headerKeys;
+        if (keys == null || keys.pattern() != pattern) {
+            keys = new HeaderKeys(pattern, new ConcurrentLruCache<>(HEADER_KEYS_CACHE_SIZE, name -> {
+                if ("cookie".equalsIgnoreCase(name) || !pattern.matcher(name).matches())
+                    return EXCLUDED_HEADER;
+                return HEADER_KEY_PREFIX + name;
+            }));
+            this.headerKeys = keys;
+        }
+        String key = keys.keys().get(headerName);
+        return key == EXCLUDED_HEADER ? null : key;
     }
 
     /**
@@ -232,8 +314,9 @@ public class HttpRequestMdcConfigProperties {
      * @param values the list of header values
      */
     private void putHeader(String name, List<String> values) {
-        if (includeHeader(name)) {
-            put("http.request.header.%s".formatted(name), () -> values.stream().collect(Collectors.joining(",")));
+        String key = headerKey(name);
+        if (key != null) {
+            put(key, () -> String.join(",", values));
         }
     }
 
@@ -243,24 +326,24 @@ public class HttpRequestMdcConfigProperties {
     }
 
     public HttpRequestMdcConfigProperties method(Supplier<String> method) {
-        put("http.request.method", this::isMethod, method);
+        put(METHOD_KEY, this::isMethod, method);
         return this;
     }
 
     public HttpRequestMdcConfigProperties path(Supplier<String> path) {
-        put("http.request.path", this::isPath, path);
+        put(PATH_KEY, this::isPath, path);
         return this;
     }
 
     public HttpRequestMdcConfigProperties queryString(Supplier<String> getQueryString) {
-        put("http.request.query-string", this::isQueryString, getQueryString);
+        put(QUERY_STRING_KEY, this::isQueryString, getQueryString);
         return this;
     }
 
     public HttpRequestMdcConfigProperties parameters(Supplier<MultiValueMap<String, String>> parameters) {
         if (isParameters()) {
             Map<String, List<String>> params = parameters.get();
-            params.forEach((k, v) -> put("http.request.parameter.%s".formatted(k), values(v)));
+            params.forEach((k, v) -> put(PARAMETER_KEY_PREFIX + k, values(v)));
         }
         return this;
     }
@@ -270,7 +353,7 @@ public class HttpRequestMdcConfigProperties {
     }
 
     public HttpRequestMdcConfigProperties sessionId(Supplier<String> sessionId) {
-        put("http.request.session.id", this::isSessionId, sessionId);
+        put(SESSION_ID_KEY, this::isSessionId, sessionId);
         return this;
     }
 
@@ -281,7 +364,7 @@ public class HttpRequestMdcConfigProperties {
     }
 
     public HttpRequestMdcConfigProperties remoteAddr(Supplier<String> remoteAddr) {
-        put("http.request.remote-addr", this::isRemoteAddr, remoteAddr);
+        put(REMOTE_ADDR_KEY, this::isRemoteAddr, remoteAddr);
         return this;
     }
 
@@ -292,7 +375,7 @@ public class HttpRequestMdcConfigProperties {
     }
 
     public HttpRequestMdcConfigProperties remoteHost(Supplier<String> remoteHost) {
-        put("http.request.remote-host", this::isRemoteHost, remoteHost);
+        put(REMOTE_HOST_KEY, this::isRemoteHost, remoteHost);
         return this;
     }
 
@@ -313,19 +396,22 @@ public class HttpRequestMdcConfigProperties {
     }
 
     /**
-     * @return the id provided by the {@code traceId} header,
-     *         {@code http.request.id} header, or a new monotonically increating UID
-     *         if no such header is present
+     * @return the id provided by the {@code trace-id}, {@code http.request.id}, or
+     *         {@code X-Request-ID} header, or a new monotonically increating UID if
+     *         no such header is present with a
+     *         {@link RequestIdConfigProperties#isValid(String) valid} id
      */
     public static String findOrCreateRequestId(Supplier<HttpHeaders> headers) {
-        return findRequestId(headers).orElseGet(() -> newRequestId());
+        String id = RequestIdConfigProperties.findDefaultRequestId(headers.get());
+        return id == null ? newRequestId() : id;
     }
 
     /**
      * @return a new monotonically increating UID
+     * @see RequestIdGenerator
      */
     public static String newRequestId() {
-        return UlidCreator.getMonotonicUlid().toLowerCase();
+        return RequestIdGenerator.next();
     }
 
     /**
@@ -333,12 +419,6 @@ public class HttpRequestMdcConfigProperties {
      * {@code http.request.id}, or {@code x-request-id} request headers.
      */
     public static Optional<String> findRequestId(Supplier<HttpHeaders> headers) {
-        HttpHeaders httpHeaders = headers.get();
-        return header("trace-id", httpHeaders).or(() -> header(REQUEST_ID_HEADER, httpHeaders))
-                .or(() -> header("X-Request-ID", httpHeaders));
-    }
-
-    private static Optional<String> header(String name, HttpHeaders headers) {
-        return Optional.ofNullable(headers.get(name)).filter(l -> !l.isEmpty()).map(l -> l.get(0));
+        return Optional.ofNullable(RequestIdConfigProperties.findDefaultRequestId(headers.get()));
     }
 }
\ No newline at end of file
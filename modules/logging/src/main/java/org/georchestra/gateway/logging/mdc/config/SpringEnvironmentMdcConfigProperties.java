@@ -19,6 +19,7 @@
 package org.georchestra.gateway.logging.mdc.config;
 
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import org.slf4j.MDC;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -90,21 +91,35 @@ public class SpringEnvironmentMdcConfigProperties {
      *                        info
      */
     public void addEnvironmentProperties(Environment env, Optional<BuildProperties> buildProperties) {
+        addEnvironmentProperties(env, buildProperties, MDC::put);
+    }
+
+    /**
+     * Adds application environment properties to {@code target}, like
+     * {@link #addEnvironmentProperties(Environment, Optional)} does to the MDC.
+     *
+     * @param env             the Spring Environment
+     * @param buildProperties optional BuildProperties that may contain application
+     *                        info
+     * @param target          receives the MDC attribute names and values
+     */
+    public void addEnvironmentProperties(Environment env, Optional<BuildProperties> buildProperties,
+            BiConsumer<String, String> target) {
         if (env != null) {
             if (isName()) {
                 String appName = env.getProperty("spring.application.name", "unknown-application-name");
-                MDC.put("application.name", appName);
+                target.accept("application.name", appName);
             }
             if (isProfile()) {
                 String profiles = String.join(",", env.getActiveProfiles());
                 if (profiles.isEmpty()) {
                     profiles = String.join(",", env.getDefaultProfiles());
                 }
-                MDC.put("application.profile", profiles);
+                target.accept("application.profile", profiles);
             }
 
             if (isInstanceId()) {
-                MDC.put("application.instance-id", env.getProperty("spring.application.instance-id", "null"));
+                target.accept("application.instance-id", env.getProperty("spring.application.instance-id", "null"));
             }
         }
 
@@ -112,7 +127,7 @@ public class SpringEnvironmentMdcConfigProperties {
             BuildProperties props = buildProperties.orElseThrow();
             String ver = props.getVersion();
             if (isVersion() && ver != null) {
-                MDC.put("application.version", ver);
+                target.accept("application.version", ver);
             }
         }
     }
@@ -22,21 +22,17 @@ import static org.georchestra.gateway.logging.mdc.webflux.ReactorContextHolder.M
 
 import java.security.Principal;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.georchestra.gateway.logging.mdc.config.AuthenticationMdcConfigProperties;
 import org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties;
 import org.georchestra.gateway.logging.mdc.config.SpringEnvironmentMdcConfigProperties;
-import org.slf4j.MDC;
+import org.georchestra.gateway.logging.requestid.RequestIdConfigProperties;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.web.reactive.filter.OrderedWebFilter;
 import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
-import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.server.ServerWebExchange;
@@ -53,7 +49,7 @@ import reactor.core.publisher.Mono;
  * information in WebFlux reactive applications. Since WebFlux can execute
  * requests across different threads, the standard thread-local based MDC
  * approach doesn't work. Instead, this filter uses Reactor Context to propagate
- * MDC values through the reactive chain.
+ * MDC values through the reactive chain, as an immutable {@link MdcSnapshot}.
  * <p>
  * The filter captures information based on the configuration properties:
  * <ul>
@@ -77,8 +73,20 @@ public class MDCWebFilter implements OrderedWebFilter {
     private final @NonNull SpringEnvironmentMdcConfigProperties appConfig;
     private final @NonNull Environment env;
     private final @NonNull Optional<BuildProperties> buildProperties;
+    private final @NonNull RequestIdConfigProperties requestIdConfig;
 
-    private static final Principal ANNON = () -> "anonymous";
+    private volatile MdcSnapshot applicationMdc;
+
+    /**
+     * Creates the filter with the default {@link RequestIdConfigProperties request
+     * id} configuration.
+     */
+    public MDCWebFilter(@NonNull HttpRequestMdcConfigProperties httpConfig,
+            @NonNull AuthenticationMdcConfigProperties authConfig,
+            @NonNull SpringEnvironmentMdcConfigProperties appConfig, @NonNull Environment env,
+            @NonNull Optional<BuildProperties> buildProperties) {
+        this(httpConfig, authConfig, appConfig, env, buildProperties, new RequestIdConfigProperties());
+    }
 
     /**
      * Returns the order of this filter in the filter chain.
@@ -100,14 +108,17 @@ public class MDCWebFilter implements OrderedWebFilter {
      * <p>
      * This method performs the following steps:
      * <ol>
-     * <li>Saves the initial MDC state (to preserve it after request
-     * processing)</li>
-     * <li>Clears the current MDC</li>
-     * <li>Sets MDC attributes based on the current request</li>
-     * <li>Propagates the MDC map through the Reactor Context</li>
-     * <li>Restores the original MDC after request processing</li>
+     * <li>Builds an immutable {@link MdcSnapshot} with the application, request,
+     * and authentication attributes</li>
+     * <li>Propagates the snapshot through the Reactor Context</li>
      * </ol>
      * <p>
+     * The snapshot values are computed lazily. With Reactor's automatic context
+     * propagation enabled, {@link MdcThreadLocalAccessor} makes it current while
+     * the request chain runs, and restores the thread's previous MDC afterwards.
+     * The {@link MdcSnapshotTurboFilter} copies it to the thread-local MDC only
+     * when a log event is emitted.
+     * <p>
      * By using {@link Mono#contextWrite(reactor.util.context.ContextView)
      * contextWrite}, this filter ensures that MDC data is available throughout the
      * entire reactive chain, even across thread boundaries.
@@ -118,38 +129,14 @@ public class MDCWebFilter implements OrderedWebFilter {
      */
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-        // Store initial MDC state
-        Map<String, String> initialMdc = MDC.getCopyOfContextMap();
-
-        // Clear MDC for this request
-        MDC.clear();
-
-        return setMdcAttributes(exchange).flatMap(requestMdc -> {
-            // Restore original MDC (for servlet thread reuse)
-            if (initialMdc != null)
-                MDC.setContextMap(initialMdc);
-            else
-                MDC.clear();
-
-            // Use Reactor context to propagate MDC through the reactive chain
-            return chain.filter(exchange).contextWrite(context -> context.put(MDC_CONTEXT_KEY, requestMdc))
-                    // Use a hook to restore MDC during subscription
-                    .doOnSubscribe(s -> {
-                        // Set the MDC values for this thread when the chain is subscribed
-                        MDC.setContextMap(requestMdc);
-                    }).doFinally(signalType -> {
-                        // Clean up
-                        MDC.clear();
-                        if (initialMdc != null)
-                            MDC.setContextMap(initialMdc);
-                    });
-        });
+        return mdcSnapshot(exchange).flatMap(
+                requestMdc -> chain.filter(exchange).contextWrite(context -> context.put(MDC_CONTEXT_KEY, requestMdc)));
     }
 
     /**
-     * Sets MDC attributes based on the current request and returns the MDC map.
+     * Builds the MDC snapshot for the current request.
      * <p>
-     * This method populates the MDC with information from:
+     * The snapshot contains information from:
      * <ul>
      * <li>Application environment (e.g., application name, instance ID)</li>
      * <li>HTTP request details (e.g., method, URI, remote address)</li>
@@ -157,131 +144,74 @@ public class MDCWebFilter implements OrderedWebFilter {
      * </ul>
      * <p>
      * The attributes included are controlled by the respective configuration
-     * properties. After setting all the attributes, the method captures the
-     * complete MDC state and returns it as a map wrapped in a Mono.
+     * properties.
      *
      * @param exchange the current server exchange containing request information
-     * @return a Mono with the Map of MDC attributes
+     * @return a Mono with the MDC snapshot
      */
-    private Mono<Map<String, String>> setMdcAttributes(ServerWebExchange exchange) {
-        // Add application environment properties
-        appConfig.addEnvironmentProperties(env, buildProperties);
+    private Mono<MdcSnapshot> mdcSnapshot(ServerWebExchange exchange) {
+        MdcSnapshot requestMdc = applicationMdc().withAll(
+                httpConfig.requestAttributes(exchange.getRequest(), () -> requestIdConfig.requestId(exchange)));
 
-        // Add HTTP properties
-        setHttpMdcAttributes(exchange);
-
-        // Get principal if available
-        return exchange.getPrincipal().defaultIfEmpty(ANNON).map(principal -> {
-            if (principal != null && principal != ANNON) {
-                setAuthenticationMdcAttributes(principal);
-            }
+        return exchange.getPrincipal().map(principal -> addAuthenticationMdcAttributes(requestMdc, principal))
+                .defaultIfEmpty(requestMdc);
+    }
 
-            // Capture MDC state after setting all properties
-            Map<String, String> mdcMap = MDC.getCopyOfContextMap();
-            return mdcMap != null ? mdcMap : new HashMap<>();
-        });
+    /**
+     * Returns the application environment attributes, computed on first use and
+     * shared by all request snapshots, since they don't change during the
+     * application lifetime.
+     */
+    private MdcSnapshot applicationMdc() {
+        MdcSnapshot mdc = this.applicationMdc;
+        if (mdc == null) {
+            MdcSnapshot.Builder builder = MdcSnapshot.empty().toBuilder();
+            appConfig.addEnvironmentProperties(env, buildProperties, builder::put);
+            mdc = builder.build();
+            this.applicationMdc = mdc;
+        }
+        return mdc;
     }
 
     /**
-     * Sets authentication-specific MDC attributes from the Principal.
+     * Adds authentication-specific MDC attributes from the Principal.
      * <p>
      * This method extracts information from the authenticated Principal and adds it
-     * to the MDC based on the {@link AuthenticationMdcConfigProperties}
+     * to the MDC snapshot based on the {@link AuthenticationMdcConfigProperties}
      * configuration. Information that can be added includes:
      * <ul>
      * <li>User ID</li>
      * <li>User roles</li>
-     * <li>User organization</li>
      * <li>Authentication method</li>
      * </ul>
      *
+     * @param mdc       the request MDC snapshot
      * @param principal the authenticated principal
+     * @return the snapshot with the authentication attributes
      */
-    private void setAuthenticationMdcAttributes(Principal principal) {
-        if (principal == null) {
-            return;
-        }
-
+    private MdcSnapshot addAuthenticationMdcAttributes(MdcSnapshot mdc, Principal principal) {
         // Add user ID
         if (authConfig.isId()) {
-            MDC.put("enduser.id", principal.getName());
+            mdc = mdc.with("enduser.id", principal.getName());
         }
 
         // Add roles if configured and principal is an Authentication
         if (authConfig.isRoles() && principal instanceof Authentication auth) {
             Collection<? extends GrantedAuthority> authorities = auth.getAuthorities();
             if (authorities != null && !authorities.isEmpty()) {
-                String roles = authorities.stream().map(GrantedAuthority::getAuthority)
-                        .collect(Collectors.joining(","));
-                MDC.put("enduser.roles", roles);
+                mdc = mdc.with("enduser.roles",
+                        () -> authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(",")));
             }
         }
 
         // Add authentication method if configured and principal is an Authentication
         if (authConfig.isAuthMethod() && principal instanceof Authentication auth) {
-            MDC.put("enduser.auth-method", auth.getClass().getSimpleName());
+            mdc = mdc.with("enduser.auth-method", auth.getClass().getSimpleName());
         }
 
         // Note: Organization is not added here as it's specific to geOrchestra user
         // objects. It is handled in
-        // gateway/src/main/java/org/georchestra/gateway/filter/global/GeorchestraUserMdcGlobalFilter.java
-    }
-
-    /**
-     * Sets HTTP-specific MDC attributes from the ServerWebExchange.
-     * <p>
-     * This method extracts information from the HTTP request and adds it to the MDC
-     * based on the {@link HttpRequestMdcConfigProperties} configuration.
-     * Information that can be added includes:
-     * <ul>
-     * <li>Request ID</li>
-     * <li>Remote address</li>
-     * <li>HTTP method</li>
-     * <li>Request URL</li>
-     * <li>Query string</li>
-     * <li>Request parameters</li>
-     * <li>HTTP headers</li>
-     * <li>Cookies</li>
-     * </ul>
-     * <p>
-     * Note: Some attributes available in Servlet applications are not available in
-     * WebFlux, such as remoteHost and sessionId (commented out in the
-     * implementation).
-     *
-     * @param exchange the current server exchange containing HTTP request
-     *                 information
-     */
-    public void setHttpMdcAttributes(ServerWebExchange exchange) {
-        ServerHttpRequest req = exchange.getRequest();
-        httpConfig.id(req::getHeaders).remoteAddr(req.getRemoteAddress()).method(() -> req.getMethod().name())
-                .path(path(req)).queryString(queryString(req)).parameters(req::getQueryParams).headers(req::getHeaders)
-                .cookies(req::getCookies);
-    }
-
-    /**
-     * Creates a supplier for the request URI path.
-     * <p>
-     * This method returns a Supplier that, when invoked, will provide the raw path
-     * of the request URI. Using a Supplier allows lazy evaluation of the URI path.
-     *
-     * @param req the HTTP request
-     * @return a Supplier that provides the request URI path
-     */
-    private Supplier<String> path(ServerHttpRequest req) {
-        return () -> req.getURI().getRawPath();
-    }
-
-    /**
-     * Creates a supplier for the request query string.
-     * <p>
-     * This method returns a Supplier that, when invoked, will provide the raw query
-     * string of the request URI. Using a Supplier allows lazy evaluation of the
-     * query string.
-     *
-     * @param req the HTTP request
-     * @return a Supplier that provides the request query string
-     */
-    private Supplier<String> queryString(ServerHttpRequest req) {
-        return () -> req.getURI().getRawQuery();
+        // gateway/src/main/java/org/georchestra/gateway/filter/global/MdcUserAndOrgGlobalFilter.java
+        return mdc;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.mdc.webflux;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.slf4j.MDC;
+
+import lombok.NonNull;
+import reactor.util.context.ContextView;
+
+/**
+ * Immutable snapshot of the MDC attributes of a request, propagated through the
+ * Reactor Context under {@link ReactorContextHolder#MDC_CONTEXT_KEY}.
+ * <p>
+ * A snapshot is a persistent linked list of entries:
+ * {@link #with(String, String) appending} an attribute returns a new snapshot
+ * that shares all the entries of its parent, so filters down the chain can add
+ * their own attributes (e.g. the user and organization ones) without copying
+ * the map. The application-wide attributes are built once and shared as the
+ * root of every request snapshot.
+ * <p>
+ * Values may be given as {@link Supplier suppliers}, evaluated at most once and
+ * only if the attribute is read, usually because a log event is being emitted,
+ * or as a {@link #withAll(Map) group} of attributes, such as a lazy view of the
+ * HTTP request attributes. The flattened map view is also only computed on
+ * demand.
+ * <p>
+ * The snapshot is made current by {@link MdcThreadLocalAccessor} while the
+ * request chain runs, and only copied to the thread-local {@link MDC} when a
+ * log event is emitted, by the {@link MdcSnapshotTurboFilter}, or explicitly
+ * with {@link #run(Runnable)}. Hence requests that log nothing do not copy the
+ * MDC at all.
+ * <p>
+ * As a {@link Map}, a snapshot is read-only, and can be used wherever the MDC
+ * map was expected in the Reactor Context. A {@code null} value removes the
+ * attribute from the snapshot.
+ */
+public final class MdcSnapshot extends AbstractMap<String, String> {
+
+    private static final MdcSnapshot EMPTY = new MdcSnapshot(null, null, null, null);
+
+    private static final Object NULL = new Object();
+
+    private final MdcSnapshot parent;
+
+    private final String key;
+
+    /**
+     * The attribute value, either a {@link String}, {@link #NULL}, or the
+     * {@link Supplier} to compute it with, replaced by its result on first access
+     */
+    private volatile Object value;
+
+    /**
+     * Group of attributes read through, for nodes added with {@link #withAll(Map)},
+     * {@code null} otherwise
+     */
+    private final Map<String, String> attributes;
+
+    /**
+     * Flattened view, computed on demand
+     */
+    private volatile Map<String, String> entries;
+
+    private MdcSnapshot(MdcSnapshot parent, String key, Object value, Map<String, String> attributes) {
+        this.parent = parent;
+        this.key = key;
+        this.value = value;
+        this.attributes = attributes;
+    }
+
+    /**
+     * @return the snapshot with no attributes
+     */
+    public static MdcSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return a snapshot with the entries of {@code map}, or {@code map} itself if
+     *         it already is a snapshot
+     */
+    public static MdcSnapshot of(@NonNull Map<String, String> map) {
+        if (map instanceof MdcSnapshot snapshot) {
+            return snapshot;
+        }
+        MdcSnapshot snapshot = EMPTY;
+        for (Map.Entry<String, String> e : map.entrySet()) {
+            snapshot = snapshot.with(e.getKey(), e.getValue());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Obtains the MDC snapshot from the Reactor Context.
+     * <p>
+     * A plain {@link Map} stored under {@link ReactorContextHolder#MDC_CONTEXT_KEY}
+     * is converted to a snapshot.
+     *
+     * @param context the reactor context view
+     * @return the context snapshot, or {@link #empty()} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public static MdcSnapshot from(ContextView context) {
+        if (context == null) {
+            return EMPTY;
+        }
+        Object mdc = context.getOrDefault(ReactorContextHolder.MDC_CONTEXT_KEY, null);
+        if (mdc instanceof Map<?, ?> map) {
+            return of((Map<String, String>) map);
+        }
+        return EMPTY;
+    }
+
+    /**
+     * @return a new snapshot with the attributes of this one plus {@code key},
+     *         overriding its current value, if any
+     */
+    public MdcSnapshot with(@NonNull String key, String value) {
+        return new MdcSnapshot(this, key, value == null ? NULL : value, null);
+    }
+
+    /**
+     * @return a new snapshot with the attributes of this one plus {@code key},
+     *         whose value is computed from {@code value} only if requested
+     */
+    public MdcSnapshot with(@NonNull String key, @NonNull Supplier<?> value) {
+        return new MdcSnapshot(this, key, value, null);
+    }
+
+    /**
+     * Returns a new snapshot with the attributes of this one plus the ones in
+     * {@code attributes}, overriding the current values of the keys it contains.
+     * <p>
+     * {@code attributes} is not copied, but read through when the snapshot is read,
+     * so it can be a lazily computed view. It shall not change afterwards.
+     *
+     * @param attributes the attributes to add
+     * @return the new snapshot
+     */
+    public MdcSnapshot withAll(@NonNull Map<String, String> attributes) {
+        return new MdcSnapshot(this, null, null, attributes);
+    }
+
+    /**
+     * @return a builder to append several attributes to this snapshot
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Runs {@code action} with this snapshot as the thread-local {@link MDC},
+     * restoring the previous MDC afterwards.
+     * <p>
+     * Wraps the emission of log events outside of the request chain, where the
+     * snapshot is not current.
+     *
+     * @param action the logging action to run
+     */
+    public void run(@NonNull Runnable action) {
+        if (isEmpty()) {
+            action.run();
+            return;
+        }
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        try {
+            MDC.setContextMap(this);
+            action.run();
+        } finally {
+            if (previous == null) {
+                MDC.clear();
+            } else {
+                MDC.setContextMap(previous);
+            }
+        }
+    }
+
+    @Override
+    public String get(Object key) {
+        for (MdcSnapshot node = this; node != EMPTY; node = node.parent) {
+            if (node.attributes != null) {
+                String value = node.attributes.get(key);
+                if (value != null) {
+                    return value;
+                }
+            } else if (node.key.equals(key)) {
+                return node.value();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this == EMPTY || entries().isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return entries().size();
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return entries().entrySet();
+    }
+
+    private Map<String, String> entries() {
+        Map<String, String> map = this.entries;
+        if (map == null) {
+            map = this == EMPTY ? Map.of() : Collections.unmodifiableMap(flatten());
+            this.entries = map;
+        }
+        return map;
+    }
+
+    private Map<String, String> flatten() {
+        int depth = 0;
+        for (MdcSnapshot node = this; node != EMPTY; node = node.parent) {
+            depth++;
+        }
+        MdcSnapshot[] nodes = new MdcSnapshot[depth];
+        MdcSnapshot node = this;
+        for (int i = depth - 1; i >= 0; i--, node = node.parent) {
+            nodes[i] = node;
+        }
+        Map<String, String> map = new LinkedHashMap<>();
+        for (MdcSnapshot n : nodes) {
+            if (n.attributes != null) {
+                map.putAll(n.attributes);
+                continue;
+            }
+            String v = n.value();
+            if (v == null) {
+                map.remove(n.key);
+            } else {
+                map.put(n.key, v);
+            }
+        }
+        return map;
+    }
+
+    private String value() {
+        Object v = this.value;
+        if (v instanceof Supplier<?>) {
+            synchronized (this) {
+                v = this.value;
+                if (v instanceof Supplier<?> supplier) {
+                    Object computed = supplier.get();
+                    v = computed == null ? NULL : String.valueOf(computed);
+                    this.value = v;
+                }
+            }
+        }
+        return v == NULL ? null : (String) v;
+    }
+
+    /**
+     * Appends attributes to a snapshot, for APIs contributing MDC attributes
+     * through a callback.
+     */
+    public static final class Builder {
+
+        private MdcSnapshot snapshot;
+
+        private Builder(MdcSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        public Builder put(String key, String value) {
+            snapshot = snapshot.with(key, value);
+            return this;
+        }
+
+        public Builder put(String key, Supplier<?> value) {
+            snapshot = snapshot.with(key, value);
+            return this;
+        }
+
+        public MdcSnapshot build() {
+            return snapshot;
+        }
+    }
+}
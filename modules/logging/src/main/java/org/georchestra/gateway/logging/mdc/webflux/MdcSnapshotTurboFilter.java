@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.mdc.webflux;
+
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Logback {@link TurboFilter} copying the request {@link MdcSnapshot} to the
+ * {@link MDC} right before a log event is emitted.
+ * <p>
+ * Turbo filters are called for every log statement before the logging event is
+ * created, so while this filter is started, {@link MdcThreadLocalAccessor} only
+ * records the snapshot current on each thread, and it's
+ * {@link MdcThreadLocalAccessor#materialize() materialized} here only if the
+ * statement's level is enabled. Requests that log nothing never resolve their
+ * lazy MDC attributes.
+ * <p>
+ * It's installed first in the filter chain, so other turbo filters see the
+ * request MDC. If the logging context is reset, the filter is stopped and the
+ * accessor falls back to copying the snapshot to the MDC as soon as it's set.
+ */
+public class MdcSnapshotTurboFilter extends TurboFilter {
+
+    /**
+     * Installs the filter in the logback {@link LoggerContext}, unless it's already
+     * installed or logback is not the logging backend.
+     */
+    public static void install() {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (loggerFactory instanceof LoggerContext context) {
+            synchronized (context) {
+                boolean installed = context.getTurboFilterList().stream()
+                        .anyMatch(MdcSnapshotTurboFilter.class::isInstance);
+                if (!installed) {
+                    MdcSnapshotTurboFilter filter = new MdcSnapshotTurboFilter();
+                    filter.setContext(context);
+                    filter.start();
+                    context.getTurboFilterList().add(0, filter);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the filter from the logback {@link LoggerContext}, if installed, so
+     * that snapshots are copied to the MDC as soon as they're set.
+     */
+    public static void uninstall() {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (loggerFactory instanceof LoggerContext context) {
+            synchronized (context) {
+                context.getTurboFilterList().removeIf(filter -> {
+                    if (filter instanceof MdcSnapshotTurboFilter) {
+                        filter.stop();
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level != null && level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            MdcThreadLocalAccessor.materialize();
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        MdcThreadLocalAccessor.setLazy(true);
+    }
+
+    @Override
+    public void stop() {
+        MdcThreadLocalAccessor.setLazy(false);
+        super.stop();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.mdc.webflux;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+
+import io.micrometer.context.ThreadLocalAccessor;
+import reactor.core.publisher.Hooks;
+
+/**
+ * {@link ThreadLocalAccessor} setting the thread-local {@link MDC} from the
+ * {@link MdcSnapshot} propagated through the Reactor Context under
+ * {@link ReactorContextHolder#MDC_CONTEXT_KEY}.
+ * <p>
+ * Registered through {@code META-INF/services}, it makes the request MDC
+ * available to all the log statements in the request chain once
+ * {@link Hooks#enableAutomaticContextPropagation() automatic context
+ * propagation} is enabled, as done by
+ * {@link org.georchestra.gateway.autoconfigure.logging.mdc.LoggingMDCWebFluxAutoConfiguration}.
+ * <p>
+ * Reactor sets and restores the thread-locals around every operator that may
+ * run on a different thread, so the accessor only records which snapshot is
+ * current on each thread. Copying it to the MDC resolves all its lazy
+ * attributes, so while the {@link MdcSnapshotTurboFilter} is installed, that
+ * only happens when a log event is emitted, through {@link #materialize()}.
+ * Otherwise the snapshot is copied to the MDC as soon as it's set. Either way,
+ * the same snapshot is not copied twice in a row on a thread.
+ * <p>
+ * When deferred, the MDC is cleared as the snapshot is set, and the snapshot
+ * entries are later merged into it, so the values put in the MDC in between,
+ * such as the access log attributes, take precedence and are not lost.
+ */
+public class MdcThreadLocalAccessor implements ThreadLocalAccessor<Map<String, String>> {
+
+    /**
+     * The snapshot current on each thread
+     */
+    private static final ThreadLocal<MdcSnapshot> INSTALLED = new ThreadLocal<>();
+
+    /**
+     * The snapshot last copied to the MDC on each thread
+     */
+    private static final ThreadLocal<MdcSnapshot> MATERIALIZED = new ThreadLocal<>();
+
+    /**
+     * Whether to defer copying snapshots to the MDC until {@link #materialize()} is
+     * called, set while {@link MdcSnapshotTurboFilter} is started
+     */
+    private static volatile boolean lazy;
+
+    @Override
+    public Object key() {
+        return ReactorContextHolder.MDC_CONTEXT_KEY;
+    }
+
+    /**
+     * @return the MDC snapshot set by this accessor, or a copy of the current MDC
+     *         if it was set by other means, so it's restored once the request chain
+     *         is done with the thread
+     */
+    @Override
+    public Map<String, String> getValue() {
+        MdcSnapshot installed = INSTALLED.get();
+        return installed != null ? installed : MDC.getCopyOfContextMap();
+    }
+
+    @Override
+    public void setValue(Map<String, String> value) {
+        if (value instanceof MdcSnapshot snapshot) {
+            if (INSTALLED.get() != snapshot) {
+                INSTALLED.set(snapshot);
+                if (lazy) {
+                    // don't let direct MDC reads see the previous values
+                    MATERIALIZED.remove();
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap(snapshot);
+                    MATERIALIZED.set(snapshot);
+                }
+            }
+        } else {
+            // plain maps are mutable, and so is the MDC they were copied from
+            INSTALLED.remove();
+            MATERIALIZED.remove();
+            MDC.setContextMap(value);
+        }
+    }
+
+    @Override
+    public void setValue() {
+        INSTALLED.remove();
+        MATERIALIZED.remove();
+        MDC.clear();
+    }
+
+    /**
+     * @return the snapshot current on the calling thread, or {@code null}
+     */
+    public static MdcSnapshot current() {
+        return INSTALLED.get();
+    }
+
+    /**
+     * Copies the snapshot current on the calling thread to the MDC, unless it's
+     * already there. Since the MDC was cleared when the snapshot was set, only the
+     * keys that were not put in the MDC since then are copied.
+     */
+    public static void materialize() {
+        MdcSnapshot installed = INSTALLED.get();
+        if (installed != null && MATERIALIZED.get() != installed) {
+            Map<String, String> local = MDC.getCopyOfContextMap();
+            if (local == null || local.isEmpty()) {
+                MDC.setContextMap(installed);
+            } else {
+                installed.forEach((key, value) -> {
+                    if (!local.containsKey(key)) {
+                        MDC.put(key, value);
+                    }
+                });
+            }
+            MATERIALIZED.set(installed);
+        }
+    }
+
+    static void setLazy(boolean lazy) {
+        MdcThreadLocalAccessor.lazy = lazy;
+    }
+}
@@ -57,8 +57,10 @@ import reactor.core.publisher.Mono;
  * </ul>
  * <p>
  * The MDC data is stored in the Reactor Context under the key
- * {@link #MDC_CONTEXT_KEY}.
- * 
+ * {@link #MDC_CONTEXT_KEY}, as an immutable {@link MdcSnapshot} that can be
+ * used as a read-only {@link Map}. Use {@link MdcSnapshot#from} to obtain it
+ * without copying.
+ *
  * @see org.slf4j.MDC
  * @see reactor.util.context.Context
  */
@@ -108,6 +110,11 @@ public class ReactorContextHolder {
      * @return the MDC map from context or an empty map if none exists
      */
     public static Map<String, String> getMdcMap() {
+        // the request snapshot, if not copied to the MDC yet
+        MdcSnapshot current = MdcThreadLocalAccessor.current();
+        if (current != null && !current.isEmpty()) {
+            return new HashMap<>(current);
+        }
         // Check thread-local MDC context, which might have been set by MDCWebFilter
         Map<String, String> mdcMap = MDC.getCopyOfContextMap();
         if (mdcMap != null && !mdcMap.isEmpty()) {
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.requestid;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import lombok.Data;
+import lombok.NonNull;
+
+/**
+ * Configuration properties for the request id, shared by the MDC and access log
+ * filters, and propagated to proxied services.
+ * <p>
+ * The request id is resolved once per request, from the first request id header
+ * present in the incoming request with a {@link #isValid(String) valid} value,
+ * or generated by the {@link RequestIdGenerator} otherwise, and kept as the
+ * {@link #REQUEST_ID_ATTRIBUTE} exchange attribute.
+ * <p>
+ * The properties are configured using the prefix {@code logging.request-id} in
+ * the application properties or YAML files.
+ * <p>
+ * Example configuration in YAML:
+ *
+ * <pre>
+ * logging:
+ *   request-id:
+ *     header: X-Request-ID
+ *     propagate: true
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "logging.request-id")
+public class RequestIdConfigProperties {
+
+    /**
+     * Exchange attribute holding the request id
+     */
+    public static final String REQUEST_ID_ATTRIBUTE = RequestIdConfigProperties.class.getName() + ".requestId";
+
+    /**
+     * Request headers the request id is looked up from, before the configured
+     * {@link #header}, in order of precedence
+     */
+    private static final String[] DEFAULT_HEADERS = { "trace-id", "http.request.id", "X-Request-ID" };
+
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    /**
+     * Name of the HTTP request header to send the request id to proxied services
+     * with. The request id is taken from the trace-id, http.request.id, and
+     * X-Request-ID request headers, in that order, or from this one if none of them
+     * is present.
+     */
+    private String header = "X-Request-ID";
+
+    /**
+     * Whether to send the request id to proxied services, with the configured
+     * header.
+     */
+    private boolean propagate = true;
+
+    /**
+     * Returns the request id of the exchange, resolving it on the first call.
+     * <p>
+     * The id is taken from the incoming request headers if present, as per
+     * {@link #findRequestId(HttpHeaders)}, or generated otherwise, and stored as
+     * the {@link #REQUEST_ID_ATTRIBUTE} attribute so that all filters use the same
+     * id.
+     *
+     * @param exchange the current server exchange
+     * @return the request id
+     */
+    public String requestId(@NonNull ServerWebExchange exchange) {
+        Map<String, Object> attributes = exchange.getAttributes();
+        Object id = attributes.get(REQUEST_ID_ATTRIBUTE);
+        if (id == null) {
+            String requestId = findRequestId(exchange.getRequest().getHeaders());
+            if (requestId == null) {
+                requestId = RequestIdGenerator.next();
+            }
+            id = attributes.putIfAbsent(REQUEST_ID_ATTRIBUTE, requestId);
+            if (id == null) {
+                id = requestId;
+            }
+        }
+        return (String) id;
+    }
+
+    /**
+     * @return the first valid request id from the default request id headers (see
+     *         {@link #findDefaultRequestId(HttpHeaders)}), or the configured
+     *         {@link #header}, {@code null} if there's none
+     */
+    public String findRequestId(@NonNull HttpHeaders headers) {
+        String id = findDefaultRequestId(headers);
+        if (id == null && StringUtils.hasText(header)) {
+            id = validRequestId(headers, header);
+        }
+        return id;
+    }
+
+    /**
+     * @return the first valid request id from the {@code trace-id},
+     *         {@code http.request.id}, or {@code X-Request-ID} request headers, in
+     *         that order, or {@code null} if there's none
+     * @see #isValid(String)
+     */
+    public static String findDefaultRequestId(@NonNull HttpHeaders headers) {
+        for (String name : DEFAULT_HEADERS) {
+            String id = validRequestId(headers, name);
+            if (id != null) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Incoming request ids are propagated to proxied services and written to the
+     * logs, hence only short ids made of letters, digits, dots, underscores and
+     * hyphens are accepted.
+     *
+     * @return whether {@code id} is acceptable as a request id
+     */
+    public static boolean isValid(String id) {
+        return id != null && VALID_REQUEST_ID.matcher(id).matches();
+    }
+
+    private static String validRequestId(HttpHeaders headers, String name) {
+        String id = headers.getFirst(name);
+        return isValid(id) ? id : null;
+    }
+
+    /**
+     * @return the header to propagate the request id to proxied services with, or
+     *         {@code null} if disabled
+     */
+    public String propagationHeader() {
+        return propagate && StringUtils.hasText(header) ? header : null;
+    }
+}
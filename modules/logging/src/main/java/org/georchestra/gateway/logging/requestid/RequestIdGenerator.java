@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.requestid;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Generates request ids as lowercase, monotonic
+ * <a href= "https://github.com/ulid/spec">ULIDs</a>, without contention between
+ * threads.
+ * <p>
+ * Ids are 26 characters long: a 48-bit millisecond timestamp followed by 80
+ * random bits, encoded with the lowercase Crockford Base32 alphabet directly
+ * into the id characters, so there's no intermediate upper case string.
+ * <p>
+ * Each thread keeps its own generator state. Within the same millisecond, the
+ * random part of the previous id generated by the thread is incremented, so ids
+ * generated by a given thread are strictly increasing. Ids generated by
+ * different threads in the same millisecond differ by their random bits, as for
+ * non-monotonic ULIDs. This avoids the global lock of a shared monotonic
+ * generator, at the cost of global ordering within a millisecond, which request
+ * ids don't need.
+ */
+@UtilityClass
+public class RequestIdGenerator {
+
+    /**
+     * Length of the generated ids
+     */
+    public static final int LENGTH = 26;
+
+    private static final byte[] ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+    private static final long MASK_40 = (1L << 40) - 1;
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    /**
+     * @return a new request id
+     */
+    public static String next() {
+        return STATE.get().next(System.currentTimeMillis());
+    }
+
+    /**
+     * Per-thread generator state: the timestamp and the 80 random bits of the last
+     * generated id
+     */
+    static final class State {
+        private long time = -1;
+        /** high 16 bits of the random part */
+        private long randomHi;
+        /** low 64 bits of the random part */
+        private long randomLo;
+
+        String next(long now) {
+            if (now > time) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                time = now;
+                randomHi = random.nextInt() & 0xFFFFL;
+                randomLo = random.nextLong();
+            } else if (++randomLo == 0) {
+                // same millisecond (or the clock went backwards), increment the random part,
+                // carrying over to the timestamp in the unlikely case of an overflow
+                randomHi = (randomHi + 1) & 0xFFFFL;
+                if (randomHi == 0) {
+                    time++;
+                }
+            }
+            return encode(time, randomHi, randomLo);
+        }
+    }
+
+    static String encode(long time, long randomHi, long randomLo) {
+        byte[] id = new byte[LENGTH];
+        // 48-bit timestamp in 10 characters, the first one only has 3 significant bits
+        for (int i = 9; i >= 0; i--) {
+            id[i] = ALPHABET[(int) (time & 31)];
+            time >>>= 5;
+        }
+        // 80-bit random part in 16 characters, as two 40-bit halves
+        encode40((randomHi << 24) | (randomLo >>> 40), id, 10);
+        encode40(randomLo & MASK_40, id, 18);
+        return new String(id, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void encode40(long bits, byte[] target, int offset) {
+        for (int i = offset + 7; i >= offset; i--) {
+            target[i] = ALPHABET[(int) (bits & 31)];
+            bits >>>= 5;
+        }
+    }
+}
@@ -21,7 +21,9 @@ package org.georchestra.gateway.autoconfigure.logging.accesslog;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.georchestra.gateway.logging.accesslog.AccessLogFilterConfig;
+import org.georchestra.gateway.logging.accesslog.AccessLogFormat;
 import org.georchestra.gateway.logging.accesslog.AccessLogWebfluxFilter;
+import org.georchestra.gateway.logging.accesslog.AsyncAccessLogWriter;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.FilteredClassLoader;
@@ -58,4 +60,16 @@ class AccessLogWebFluxAutoConfigurationTest {
             assertThat(context).doesNotHaveBean(AccessLogWebfluxFilter.class);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRegisterAsyncWriterWhenEnabled() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(AsyncAccessLogWriter.class));
+
+        contextRunner.withPropertyValues("logging.accesslog.async.enabled=true", "logging.accesslog.async.format=CLF")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(AsyncAccessLogWriter.class);
+                    assertThat(context.getBean(AccessLogFilterConfig.class).getAsync().getFormat())
+                            .isEqualTo(AccessLogFormat.CLF);
+                });
+    }
+}
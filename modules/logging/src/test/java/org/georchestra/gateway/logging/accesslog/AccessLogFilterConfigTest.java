@@ -28,6 +28,8 @@ import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 
 class AccessLogFilterConfigTest {
 
@@ -113,6 +115,36 @@ class AccessLogFilterConfigTest {
         assertThat(shouldLog).isFalse();
     }
 
+    @Test
+    void matchesExchangeOnceAndFollowsPatternChanges() {
+        config.setDebug(createPatterns(".*\\/admin\\/.*"));
+        MockServerWebExchange exchange = MockServerWebExchange
+                .from(MockServerHttpRequest.get("http://example.com/admin/users"));
+
+        assertThat(config.isLoggable(exchange)).isTrue();
+        assertThat(exchange.<Object>getAttribute(AccessLogFilterConfig.LEVEL_ATTRIBUTE))
+                .isEqualTo(AccessLogFilterConfig.Level.DEBUG);
+
+        // the level is kept for the exchange, new requests use the new patterns
+        config.setDebug(createPatterns(".*\\/other\\/.*"));
+        assertThat(config.isLoggable(exchange)).isTrue();
+        assertThat(config.shouldLog(URI.create("http://example.com/admin/users"))).isFalse();
+        assertThat(config.shouldLog(URI.create("http://example.com/other/users"))).isTrue();
+    }
+
+    @Test
+    void reusesClassifierUntilPropertiesRebound() {
+        config.setInfo(createPatterns(".*\\/api\\/.*"));
+        AccessLogLevelClassifier classifier = config.classifier();
+
+        config.shouldLog(URI.create("http://example.com/api/data"));
+        config.getLogLevel("http://example.com/other");
+        assertThat(config.classifier()).isSameAs(classifier);
+
+        config.setCacheSize(10);
+        assertThat(config.classifier()).isNotSameAs(classifier);
+    }
+
     private List<Pattern> createPatterns(String... patterns) {
         return Arrays.stream(patterns).map(Pattern::compile).collect(Collectors.toList());
     }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.accesslog;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.georchestra.gateway.logging.accesslog.AccessLogFilterConfig.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares classifying OGC request URLs by matching them against each access
+ * log pattern list twice, once in {@code shouldLog()} and again in
+ * {@code getLogLevel()}, as it used to be, with a single evaluation of the
+ * {@link AccessLogLevelClassifier} combined pattern, with and without its URL
+ * cache.
+ * <p>
+ * The patterns are the geOrchestra datadir defaults. The URLs mix WMS, WFS, and
+ * WMTS requests, map tiles, and static resources.
+ * <p>
+ * Run with {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessLogLevelBenchmark {
+
+    private static final List<Pattern> INFO = List.of(Pattern.compile(".*/(?:ows|ogc|wms|wfs|wcs|wps)(?:/.*|\\?.*)?$"));
+    private static final List<Pattern> DEBUG = List.of(Pattern.compile(".*/console/.*"));
+    private static final List<Pattern> TRACE = List
+            .of(Pattern.compile("^(?!.*/web/wicket/resource/)(?!.*\\.(png|jpg|jpeg|gif|svg|webp|ico)(\\?.*)?$).*$"));
+
+    private static final List<String> URLS = List.of(
+            "https://georchestra.example.org/geoserver/ows?SERVICE=WMS&VERSION=1.3.0&REQUEST=GetMap&FORMAT=image/png"
+                    + "&TRANSPARENT=true&LAYERS=topp:states&CRS=EPSG:3857&STYLES=&WIDTH=256&HEIGHT=256"
+                    + "&BBOX=-13692297.37,6183449.25,-13614026.03,6261720.59",
+            "https://georchestra.example.org/geoserver/wfs?service=WFS&version=2.0.0&request=GetFeature"
+                    + "&typeNames=topp:states&count=50&outputFormat=application/json",
+            "https://georchestra.example.org/geoserver/gwc/service/wmts?layer=ne:countries&style=&tilematrixset=EPSG:900913"
+                    + "&Service=WMTS&Request=GetTile&Version=1.0.0&Format=image/png&TileMatrix=EPSG:900913:6"
+                    + "&TileCol=31&TileRow=22",
+            "https://georchestra.example.org/geoserver/gwc/service/tms/1.0.0/ne:countries@EPSG:900913@png/6/31/41.png",
+            "https://georchestra.example.org/geoserver/web/wicket/resource/org.geoserver.web.GeoServerBasePage/img/logo.png",
+            "https://georchestra.example.org/mapstore/dist/ms2-geonetwork.js?v=2025.01",
+            "https://georchestra.example.org/console/private/users",
+            "https://georchestra.example.org/geonetwork/srv/api/records/7b3d0d4a-4c5e/formatters/xml");
+
+    private AccessLogLevelClassifier uncached;
+    private AccessLogLevelClassifier cached;
+
+    @Setup
+    public void setup() {
+        uncached = new AccessLogLevelClassifier(INFO, DEBUG, TRACE, 0);
+        cached = new AccessLogLevelClassifier(INFO, DEBUG, TRACE, 10_000);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        for (String url : URLS) {
+            boolean shouldLog = matches(url, INFO) || matches(url, DEBUG) || matches(url, TRACE);
+            Level level = Level.OFF;
+            if (shouldLog) {
+                if (matches(url, INFO))
+                    level = Level.INFO;
+                else if (matches(url, DEBUG))
+                    level = Level.DEBUG;
+                else if (matches(url, TRACE))
+                    level = Level.TRACE;
+            }
+            bh.consume(level);
+        }
+    }
+
+    private static boolean matches(String url, List<Pattern> patterns) {
+        return patterns.stream().anyMatch(pattern -> pattern.matcher(url).matches());
+    }
+
+    @Benchmark
+    public void combined(Blackhole bh) {
+        for (String url : URLS) {
+            bh.consume(uncached.classify(url));
+        }
+    }
+
+    @Benchmark
+    public void cached(Blackhole bh) {
+        for (String url : URLS) {
+            bh.consume(cached.classify(url));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                new OptionsBuilder().include(AccessLogLevelBenchmark.class.getSimpleName()).addProfiler("gc").build())
+                        .run();
+    }
+}
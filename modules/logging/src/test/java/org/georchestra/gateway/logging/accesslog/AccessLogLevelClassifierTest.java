@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.accesslog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.georchestra.gateway.logging.accesslog.AccessLogFilterConfig.Level;
+import org.junit.jupiter.api.Test;
+
+class AccessLogLevelClassifierTest {
+
+    static final List<Pattern> INFO = patterns(".*/(?:ows|ogc|wms|wfs|wcs|wps)(?:/.*|\\?.*)?$");
+    static final List<Pattern> DEBUG = patterns(".*/console/.*", ".*/(admin|manager)/.*");
+    static final List<Pattern> TRACE = patterns(
+            "^(?!.*/web/wicket/resource/)(?!.*\\.(png|jpg|jpeg|gif|svg|webp|ico)(\\?.*)?$).*$");
+
+    static final List<String> URLS = List.of(//
+            "http://localhost/geoserver/ows?SERVICE=WMS&REQUEST=GetMap&LAYERS=topp:states",
+            "http://localhost/geoserver/wms", //
+            "http://localhost/geoserver/gwc/service/wmts?layer=ne:countries&TileMatrix=EPSG:3857:5",
+            "http://localhost/geoserver/web/wicket/resource/org.geoserver.web.GeoServerBasePage/img/logo.png",
+            "http://localhost/console/manager/", //
+            "http://localhost/console/account/new", //
+            "http://localhost/mapstore/img/logo.svg?v=2", //
+            "http://localhost/datahub/admin/users", //
+            "http://localhost/");
+
+    private static List<Pattern> patterns(String... regexes) {
+        return List.of(regexes).stream().map(Pattern::compile).toList();
+    }
+
+    /**
+     * The sequential evaluation the classifier replaces
+     */
+    private static Level sequential(List<Pattern> info, List<Pattern> debug, List<Pattern> trace, String url) {
+        if (info.stream().anyMatch(p -> p.matcher(url).matches()))
+            return Level.INFO;
+        if (debug.stream().anyMatch(p -> p.matcher(url).matches()))
+            return Level.DEBUG;
+        if (trace.stream().anyMatch(p -> p.matcher(url).matches()))
+            return Level.TRACE;
+        return Level.OFF;
+    }
+
+    private static void assertClassifiesLikeSequential(List<Pattern> info, List<Pattern> debug, List<Pattern> trace) {
+        AccessLogLevelClassifier classifier = new AccessLogLevelClassifier(info, debug, trace, 0);
+        for (String url : URLS) {
+            assertThat(classifier.classify(url)).as(url).isEqualTo(sequential(info, debug, trace, url));
+        }
+    }
+
+    @Test
+    void classifiesLikeSequentialEvaluation() {
+        assertClassifiesLikeSequential(INFO, DEBUG, TRACE);
+        assertClassifiesLikeSequential(List.of(), DEBUG, TRACE);
+        assertClassifiesLikeSequential(INFO, List.of(), List.of());
+        assertClassifiesLikeSequential(List.of(), List.of(), List.of());
+        assertClassifiesLikeSequential(DEBUG, TRACE, INFO);
+
+        AccessLogLevelClassifier classifier = new AccessLogLevelClassifier(INFO, DEBUG, TRACE, 0);
+        assertThat(classifier.classify(URLS.get(0))).isEqualTo(Level.INFO);
+        assertThat(classifier.classify(URLS.get(3))).isEqualTo(Level.OFF);
+        assertThat(classifier.classify(URLS.get(4))).isEqualTo(Level.DEBUG);
+        assertThat(classifier.classify(URLS.get(5))).isEqualTo(Level.DEBUG);
+        assertThat(classifier.classify(URLS.get(8))).isEqualTo(Level.TRACE);
+    }
+
+    @Test
+    void patternsNotEmbeddableAreEvaluatedOneAtATime() {
+        // inline flags are scoped to the pattern
+        assertClassifiesLikeSequential(patterns("(?i).*/OWS.*"), patterns(".*/wms"), TRACE);
+        // compile flags
+        assertClassifiesLikeSequential(List.of(Pattern.compile(".*/OWS.*", Pattern.CASE_INSENSITIVE)), DEBUG, TRACE);
+        // back references
+        assertClassifiesLikeSequential(patterns(".*/(ows|wms)/\\1.*"), patterns(".*(o)\\1.*"), TRACE);
+        // named groups, comments, and quoting
+        assertClassifiesLikeSequential(patterns(".*/(?<service>ows).*"), patterns("(?x) .*/console/.* # console"),
+                patterns("\\Q/\\E.*"));
+    }
+
+    @Test
+    void cachesLevelsByUrl() {
+        AccessLogLevelClassifier classifier = new AccessLogLevelClassifier(INFO, DEBUG, TRACE, 2);
+        for (int i = 0; i < 3; i++) {
+            for (String url : URLS) {
+                assertThat(classifier.classify(url)).isEqualTo(classifier.evaluate(url));
+            }
+        }
+        assertThat(new AccessLogLevelClassifier(null, null, null, 2).classify(URLS.get(0))).isEqualTo(Level.OFF);
+    }
+}
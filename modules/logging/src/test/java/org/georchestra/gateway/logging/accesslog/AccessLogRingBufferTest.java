@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.accesslog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class AccessLogRingBufferTest {
+
+    private static AccessLogRecord rec(int i) {
+        return new AccessLogRecord(i, "INFO", "GET", "/" + i, 200, 1, null);
+    }
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertThat(new AccessLogRingBuffer(1).capacity()).isEqualTo(1);
+        assertThat(new AccessLogRingBuffer(1000).capacity()).isEqualTo(1024);
+        assertThat(new AccessLogRingBuffer(1024).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> new AccessLogRingBuffer(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void offerFailsWhenFullAndDrainsInOrder() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(buffer.offer(rec(lap * 4 + i))).isTrue();
+            }
+            assertThat(buffer.offer(rec(-1))).isFalse();
+            assertThat(buffer.size()).isEqualTo(4);
+
+            List<AccessLogRecord> drained = new ArrayList<>();
+            assertThat(buffer.drain(drained::add, 3)).isEqualTo(3);
+            assertThat(buffer.drain(drained::add, 3)).isEqualTo(1);
+            assertThat(buffer.drain(drained::add, 3)).isZero();
+            final int first = lap * 4;
+            assertThat(drained).extracting(AccessLogRecord::timestamp).containsExactly((long) first, first + 1L,
+                    first + 2L, first + 3L);
+        }
+    }
+
+    @Test
+    void concurrentProducers() throws Exception {
+        final int producers = 8;
+        final int perProducer = 10_000;
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(256);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = IntStream.range(0, producers).mapToObj(p -> executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    AccessLogRecord rec = rec(p * perProducer + i);
+                    while (!buffer.offer(rec)) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            })).toList();
+            start.countDown();
+
+            boolean[] received = new boolean[producers * perProducer];
+            int[] count = new int[1];
+            while (count[0] < received.length) {
+                count[0] += buffer.drain(rec -> {
+                    assertThat(received[(int) rec.timestamp()]).isFalse();
+                    received[(int) rec.timestamp()] = true;
+                }, 64);
+            }
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+            assertThat(buffer.drain(rec -> {
+            }, 64)).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
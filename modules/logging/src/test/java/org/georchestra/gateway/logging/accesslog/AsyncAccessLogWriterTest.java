@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.accesslog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.georchestra.gateway.logging.accesslog.AccessLogFilterConfig.Async;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+@ExtendWith(OutputCaptureExtension.class)
+class AsyncAccessLogWriterTest {
+
+    private @TempDir Path tmp;
+
+    private static final long TIMESTAMP = 1742811330123L; // 2025-03-24T10:15:30.123Z
+
+    private static final InetSocketAddress REMOTE = new InetSocketAddress("10.0.0.1", 40000);
+
+    private static Async async(AccessLogFormat format, Path file) {
+        Async async = new Async();
+        async.setFormat(format);
+        async.setFile(file);
+        return async;
+    }
+
+    @Test
+    void writesJson() throws Exception {
+        Path file = tmp.resolve("access.json");
+        AsyncAccessLogWriter writer = new AsyncAccessLogWriter(async(AccessLogFormat.JSON, file));
+        writer.start();
+        writer.offer(new AccessLogRecord(TIMESTAMP, "INFO", "GET", "/ows?q=\"a\\b\"", 200, 12, REMOTE));
+        writer.offer(new AccessLogRecord(TIMESTAMP, "DEBUG", "POST", "/api", 0, 3, null));
+        writer.offer(new AccessLogRecord(TIMESTAMP, "INFO", "GET", "/", 200, 1, null, "01jq4v7c9x3h2k8m5n6p7q8r9s"));
+        writer.stop();
+
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "{\"@timestamp\":\"2025-03-24T10:15:30.123Z\",\"level\":\"INFO\",\"http.request.method\":\"GET\","
+                        + "\"http.request.url\":\"/ows?q=\\\"a\\\\b\\\"\",\"http.status_code\":200,"
+                        + "\"http.request.duration\":12,\"http.request.remote-addr\":\"10.0.0.1\"}",
+                "{\"@timestamp\":\"2025-03-24T10:15:30.123Z\",\"level\":\"DEBUG\",\"http.request.method\":\"POST\","
+                        + "\"http.request.url\":\"/api\",\"http.status_code\":0,\"http.request.duration\":3}",
+                "{\"@timestamp\":\"2025-03-24T10:15:30.123Z\",\"level\":\"INFO\",\"http.request.method\":\"GET\","
+                        + "\"http.request.url\":\"/\",\"http.status_code\":200,\"http.request.duration\":1,"
+                        + "\"http.request.id\":\"01jq4v7c9x3h2k8m5n6p7q8r9s\"}");
+    }
+
+    @Test
+    void writesCommonLogFormat() throws Exception {
+        Path file = tmp.resolve("access.log");
+        AsyncAccessLogWriter writer = new AsyncAccessLogWriter(async(AccessLogFormat.CLF, file));
+        writer.start();
+        writer.offer(new AccessLogRecord(TIMESTAMP, "INFO", "GET", "/ows?service=WMS", 200, 12, REMOTE));
+        writer.offer(new AccessLogRecord(TIMESTAMP, "INFO", "GET", "/api", 404, 1, null));
+        writer.stop();
+
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "10.0.0.1 - - [24/Mar/2025:10:15:30 +0000] \"GET /ows?service=WMS\" 200 -",
+                "- - - [24/Mar/2025:10:15:30 +0000] \"GET /api\" 404 -");
+    }
+
+    @Test
+    void idleWriterParksUntilRecordOffered() throws Exception {
+        Path file = tmp.resolve("idle.log");
+        AsyncAccessLogWriter writer = new AsyncAccessLogWriter(async(AccessLogFormat.CLF, file));
+        writer.start();
+        try {
+            // parked without a timeout, instead of polling the buffer
+            await().atMost(Duration.ofSeconds(5)).until(() -> writerThreadState() == Thread.State.WAITING);
+
+            writer.offer(new AccessLogRecord(TIMESTAMP, "INFO", "GET", "/api", 200, 1, null));
+            await().atMost(Duration.ofSeconds(5)).until(() -> Files.readAllLines(file).size() == 1);
+            await().atMost(Duration.ofSeconds(5)).until(() -> writerThreadState() == Thread.State.WAITING);
+        } finally {
+            writer.stop();
+        }
+        assertThat(writerThreadState()).isNull();
+    }
+
+    private static Thread.State writerThreadState() {
+        return Thread.getAllStackTraces().keySet().stream().filter(t -> "access-log-writer".equals(t.getName()))
+                .map(Thread::getState).filter(state -> state != Thread.State.TERMINATED).findFirst().orElse(null);
+    }
+
+    @Test
+    void dropsRecordsWhenFull() {
+        Async config = new Async();
+        config.setBufferSize(2);
+        AsyncAccessLogWriter writer = new AsyncAccessLogWriter(config);
+        AccessLogRecord rec = new AccessLogRecord(TIMESTAMP, "INFO", "GET", "/", 200, 1, null);
+
+        assertThat(writer.offer(rec)).isTrue();
+        assertThat(writer.offer(rec)).isTrue();
+        assertThat(writer.offer(rec)).isFalse();
+        assertThat(writer.getDropped()).isEqualTo(1);
+
+        config.setBatchSize(0);
+        assertThatThrownBy(() -> new AsyncAccessLogWriter(config)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reportsDroppedRecordsAtMostOncePerInterval(CapturedOutput output) {
+        Path file = tmp.resolve("dropped.log");
+        Async config = async(AccessLogFormat.CLF, file);
+        config.setBufferSize(2);
+        config.setBatchSize(1);
+        AsyncAccessLogWriter writer = new AsyncAccessLogWriter(config);
+        AccessLogRecord rec = new AccessLogRecord(TIMESTAMP, "INFO", "GET", "/", 200, 1, null);
+        writer.offer(rec);
+        writer.offer(rec);
+        writer.offer(rec);
+        writer.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> Files.readAllLines(file).size() == 2);
+        for (int i = 0; i < 10_000; i++) {
+            writer.offer(rec);
+        }
+        writer.stop();
+
+        // the first report when starting, and at most a summary of the others when
+        // stopping
+        List<String> reports = output.getAll().lines().filter(line -> line.contains("access log records, the buffer"))
+                .toList();
+        assertThat(reports).hasSizeBetween(1, 2).first().asString().contains("Dropped 1 access log records");
+    }
+
+    @Test
+    void filterHandsOverRecords() throws Exception {
+        Path file = tmp.resolve("filter.log");
+        AccessLogFilterConfig config = new AccessLogFilterConfig();
+        config.setInfo(List.of(Pattern.compile(".*/ows.*")));
+        AsyncAccessLogWriter writer = new AsyncAccessLogWriter(async(AccessLogFormat.CLF, file));
+        AccessLogWebfluxFilter filter = new AccessLogWebfluxFilter(config, writer);
+
+        writer.start();
+        for (String uri : List.of("http://localhost/ows?service=WMS", "http://localhost/img.png")) {
+            MockServerWebExchange exchange = MockServerWebExchange
+                    .from(MockServerHttpRequest.get(uri).remoteAddress(REMOTE));
+            filter.filter(exchange, ex -> {
+                ex.getResponse().setStatusCode(HttpStatus.OK);
+                return Mono.empty();
+            }).block();
+        }
+        writer.stop();
+
+        assertThat(Files.readAllLines(file)).singleElement().asString().startsWith("10.0.0.1 - - [")
+                .endsWith("] \"GET http://localhost/ows?service=WMS\" 200 -");
+    }
+}
@@ -29,29 +29,43 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
 
 import org.georchestra.gateway.logging.mdc.config.AuthenticationMdcConfigProperties;
 import org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties;
 import org.georchestra.gateway.logging.mdc.config.SpringEnvironmentMdcConfigProperties;
 import org.georchestra.gateway.logging.mdc.webflux.MDCWebFilter;
+import org.georchestra.gateway.logging.mdc.webflux.MdcSnapshot;
+import org.georchestra.gateway.logging.mdc.webflux.MdcSnapshotTurboFilter;
+import org.georchestra.gateway.logging.mdc.webflux.MdcThreadLocalAccessor;
 import org.georchestra.gateway.logging.mdc.webflux.ReactorContextHolder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpCookie;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.web.server.WebFilterChain;
 
+import reactor.core.publisher.Hooks;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 class WebFluxMdcPropagationTest {
 
+    private static final Logger log = LoggerFactory.getLogger(WebFluxMdcPropagationTest.class);
+
     private HttpRequestMdcConfigProperties httpConfig;
     private AuthenticationMdcConfigProperties authConfig;
     private SpringEnvironmentMdcConfigProperties appConfig;
@@ -60,6 +74,18 @@ class WebFluxMdcPropagationTest {
     private MockServerWebExchange exchange;
     private TestWebFilterChain filterChain;
 
+    @BeforeAll
+    static void enableAutomaticContextPropagation() {
+        Hooks.enableAutomaticContextPropagation();
+        MdcSnapshotTurboFilter.install();
+    }
+
+    @AfterAll
+    static void disableAutomaticContextPropagation() {
+        Hooks.disableAutomaticContextPropagation();
+        MdcSnapshotTurboFilter.uninstall();
+    }
+
     @BeforeEach
     void setUp() {
         // Clear MDC before each test
@@ -170,12 +196,89 @@ class WebFluxMdcPropagationTest {
                 .containsEntry("enduser.auth-method", "TestingAuthenticationToken");
     }
 
+    @Test
+    void shouldSetThreadLocalMdcWhileChainRuns() {
+        MDC.put("initial-key", "initial-value");
+
+        StepVerifier.create(filter.filter(exchange, filterChain)).verifyComplete();
+
+        assertThat(filterChain.getThreadLocalMdc()).containsEntry("http.request.id", "test-request-id")
+                .containsEntry("http.request.method", "GET").doesNotContainKey("initial-key");
+        // the thread's MDC is restored once the chain is subscribed
+        assertThat(MDC.getCopyOfContextMap()).isEqualTo(Map.of("initial-key", "initial-value"));
+    }
+
+    @Test
+    void shouldSetThreadLocalMdcAcrossThreads() {
+        Map<String, String> mdc = new HashMap<>();
+        WebFilterChain chain = ex -> Mono.just("value").publishOn(Schedulers.boundedElastic()).handle((v, sink) -> {
+            log.info("Running on another thread");
+            mdc.putAll(MDC.getCopyOfContextMap());
+            mdc.put("thread", Thread.currentThread().getName());
+            sink.complete();
+        }).then();
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertThat(mdc).containsEntry("http.request.id", "test-request-id").containsEntry("http.request.path", "/test");
+        assertThat(mdc.get("thread")).startsWith("boundedElastic");
+    }
+
+    @Test
+    void shouldNotCopyMdcWhenNothingIsLogged() {
+        Map<String, String> mdc = new HashMap<>();
+        AtomicReference<MdcSnapshot> current = new AtomicReference<>();
+        WebFilterChain chain = ex -> Mono.fromRunnable(() -> {
+            current.set(MdcThreadLocalAccessor.current());
+            Optional.ofNullable(MDC.getCopyOfContextMap()).ifPresent(mdc::putAll);
+        });
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertThat(current.get()).containsEntry("http.request.id", "test-request-id");
+        assertThat(mdc).isEmpty();
+    }
+
+    @Test
+    void shouldPropagateImmutableSnapshotWithStableRequestId() {
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("http://example.com/test"));
+
+        StepVerifier.create(filter.filter(exchange, filterChain)).verifyComplete();
+
+        MdcSnapshot mdc = filterChain.getSnapshot();
+        String requestId = mdc.get("http.request.id");
+        assertThat(requestId).isNotBlank();
+        assertThat(mdc.get("http.request.id")).isEqualTo(requestId);
+        assertThat(mdc.with("enduser.uuid", "uuid")).containsEntry("http.request.id", requestId)
+                .containsEntry("enduser.uuid", "uuid");
+        assertThat(mdc).doesNotContainKey("enduser.uuid");
+    }
+
+    @Test
+    void shouldPropagateHeadersAndCookies() {
+        httpConfig.setHeaders(true);
+        httpConfig.setHeadersPattern(Pattern.compile("(?i)x-.*"));
+        httpConfig.setCookies(true);
+        request = MockServerHttpRequest.get("http://example.com/test").header("X-Request-ID", "test-request-id")
+                .header("X-Forwarded-For", "10.0.0.1", "10.0.0.2").header("Accept", "*/*")
+                .cookie(new HttpCookie("session", "s1"), new HttpCookie("session", "s2")).build();
+        exchange = MockServerWebExchange.from(request);
+
+        StepVerifier.create(filter.filter(exchange, filterChain)).verifyComplete();
+
+        assertThat(filterChain.getCapturedMdc())
+                .containsEntry("http.request.header.X-Forwarded-For", "10.0.0.1,10.0.0.2")
+                .containsEntry("http.request.cookie.session", "s1;s2").doesNotContainKey("http.request.header.Accept");
+    }
+
     /**
      * Test implementation of WebFilterChain that captures MDC context during
      * execution
      */
     static class TestWebFilterChain implements WebFilterChain {
         private Map<String, String> capturedMdc;
+        private Map<String, String> threadLocalMdc;
+        private MdcSnapshot snapshot;
 
         @Override
         public Mono<Void> filter(org.springframework.web.server.ServerWebExchange exchange) {
@@ -189,6 +292,9 @@ class WebFluxMdcPropagationTest {
             return Mono.deferContextual(ctx -> {
                 // Use the new helper method to extract MDC map
                 capturedMdc = ReactorContextHolder.extractMdcMapFromContext(ctx);
+                log.info("Running the filter chain");
+                threadLocalMdc = MDC.getCopyOfContextMap();
+                snapshot = MdcSnapshot.from(ctx);
                 return Mono.empty();
             });
         }
@@ -196,5 +302,13 @@ class WebFluxMdcPropagationTest {
         public Map<String, String> getCapturedMdc() {
             return capturedMdc;
         }
+
+        public Map<String, String> getThreadLocalMdc() {
+            return threadLocalMdc;
+        }
+
+        public MdcSnapshot getSnapshot() {
+            return snapshot;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.mdc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+class HttpRequestMdcAttributesTest {
+
+    private HttpRequestMdcConfigProperties config;
+
+    @BeforeEach
+    void setUp() {
+        config = new HttpRequestMdcConfigProperties();
+    }
+
+    @Test
+    void doesNotReadTheRequestUntilAccessed() {
+        ServerHttpRequest request = mock(ServerHttpRequest.class);
+        config.setHeaders(true);
+        config.setCookies(true);
+        config.setParameters(true);
+
+        Map<String, String> attributes = config.requestAttributes(request);
+        assertThat(attributes).isNotNull();
+        verifyNoInteractions(request);
+    }
+
+    @Test
+    void resolvesEnabledAttributes() {
+        config.setRemoteAddr(true);
+        config.setQueryString(true);
+        MockServerHttpRequest request = MockServerHttpRequest.get("http://example.com/test/path?a=1&b=2")
+                .header("X-Request-ID", "req-1").remoteAddress(new InetSocketAddress("127.0.0.1", 8080)).build();
+
+        Map<String, String> attributes = config.requestAttributes(request);
+
+        assertThat(attributes.get("http.request.id")).isEqualTo("req-1");
+        assertThat(attributes.get("http.request.method")).isEqualTo("GET");
+        assertThat(attributes.get("http.request.path")).isEqualTo("/test/path");
+        assertThat(attributes.get("http.request.query-string")).isEqualTo("a=1&b=2");
+        assertThat(attributes.get("http.request.remote-addr")).isEqualTo("/127.0.0.1:8080");
+        assertThat(attributes).containsExactly(Map.entry("http.request.id", "req-1"),
+                Map.entry("http.request.remote-addr", "/127.0.0.1:8080"), Map.entry("http.request.method", "GET"),
+                Map.entry("http.request.path", "/test/path"), Map.entry("http.request.query-string", "a=1&b=2"));
+    }
+
+    @Test
+    void disabledAttributesAreAbsent() {
+        config.setId(false);
+        config.setMethod(false);
+        config.setPath(false);
+        MockServerHttpRequest request = MockServerHttpRequest.get("http://example.com/test?a=1").header("X-Test", "x")
+                .build();
+
+        Map<String, String> attributes = config.requestAttributes(request);
+
+        assertThat(attributes).isEmpty();
+        assertThat(attributes.get("http.request.id")).isNull();
+        assertThat(attributes.get("http.request.method")).isNull();
+        assertThat(attributes.get("http.request.header.X-Test")).isNull();
+        assertThat(attributes.get("http.request.parameter.a")).isNull();
+    }
+
+    @Test
+    void generatedRequestIdIsStable() {
+        Map<String, String> attributes = config.requestAttributes(MockServerHttpRequest.get("/").build());
+        String id = attributes.get("http.request.id");
+        assertThat(id).isNotBlank();
+        assertThat(attributes.get("http.request.id")).isEqualTo(id);
+        assertThat(attributes).containsEntry("http.request.id", id);
+    }
+
+    @Test
+    void headersParametersAndCookies() {
+        config.setId(false);
+        config.setMethod(false);
+        config.setPath(false);
+        config.setHeaders(true);
+        config.setHeadersPattern(Pattern.compile("(?i)x-.*"));
+        config.setParameters(true);
+        config.setCookies(true);
+        MockServerHttpRequest request = MockServerHttpRequest.get("/?service=WMS&layers=a&layers=b")
+                .header("X-Forwarded-For", "10.0.0.1", "10.0.0.2").header("Accept", "*/*")
+                .cookie(new HttpCookie("session", "s1"), new HttpCookie("session", "s2"), new HttpCookie("lang", "fr"))
+                .build();
+
+        Map<String, String> attributes = config.requestAttributes(request);
+
+        assertThat(attributes.get("http.request.header.X-Forwarded-For")).isEqualTo("10.0.0.1,10.0.0.2");
+        assertThat(attributes.get("http.request.header.Accept")).isNull();
+        assertThat(attributes.get("http.request.header.Cookie")).isNull();
+        assertThat(attributes.get("http.request.parameter.layers")).isEqualTo("a,b");
+        assertThat(attributes.get("http.request.cookie.session")).isEqualTo("s1;s2");
+
+        assertThat(attributes).containsOnly(Map.entry("http.request.parameter.service", "WMS"),
+                Map.entry("http.request.parameter.layers", "a,b"),
+                Map.entry("http.request.header.X-Forwarded-For", "10.0.0.1,10.0.0.2"),
+                Map.entry("http.request.cookie.session", "s1;s2"), Map.entry("http.request.cookie.lang", "fr"));
+    }
+
+    @Test
+    void headerKeysAreMemoizedAndRebuiltOnPatternChange() {
+        config.setHeadersPattern(Pattern.compile("(?i)x-.*"));
+
+        String key = config.headerKey("X-Forwarded-For");
+        assertThat(key).isEqualTo("http.request.header.X-Forwarded-For");
+        assertThat(config.headerKey("X-Forwarded-For")).isSameAs(key);
+        assertThat(config.headerKey("Accept")).isNull();
+        assertThat(config.headerKey("cookie")).isNull();
+
+        config.setHeadersPattern(Pattern.compile("Accept"));
+        assertThat(config.headerKey("Accept")).isEqualTo("http.request.header.Accept");
+        assertThat(config.headerKey("X-Forwarded-For")).isNull();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.mdc.webflux;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.georchestra.gateway.logging.mdc.config.HttpRequestMdcConfigProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.MDC;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+/**
+ * Compares the per-request cost of the HTTP request MDC attributes for a WMTS
+ * tile request, filling the thread-local MDC and copying it as it used to be,
+ * with the lazy {@link MdcSnapshot} built by {@link MDCWebFilter}, when nothing
+ * is logged and when the snapshot is materialized for a log event.
+ * <p>
+ * The {@code accessor*} benchmarks also set and restore the snapshot through
+ * {@link MdcThreadLocalAccessor}, as Reactor does for the request chain, either
+ * copying it to the MDC right away, or only once a log event is emitted, as
+ * when the {@link MdcSnapshotTurboFilter} is installed.
+ * <p>
+ * Run with {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MdcSnapshotBenchmark {
+
+    private HttpRequestMdcConfigProperties config;
+    private ServerHttpRequest request;
+    private MdcSnapshot applicationMdc;
+
+    @Setup
+    public void setup() {
+        config = new HttpRequestMdcConfigProperties();
+        config.setRemoteAddr(true);
+        config.setHeaders(true);
+        config.setHeadersPattern(Pattern.compile("(?i)x-.*|user-agent"));
+        request = MockServerHttpRequest
+                .get("https://georchestra.example.org/geoserver/gwc/service/wmts?layer=ne:countries"
+                        + "&style=&tilematrixset=EPSG:900913&Service=WMTS&Request=GetTile&Version=1.0.0"
+                        + "&Format=image/png&TileMatrix=EPSG:900913:6&TileCol=31&TileRow=22")
+                .header("Host", "georchestra.example.org")
+                .header("User-Agent", "Mozilla/5.0 (X11; Linux x86_64; rv:128.0) Gecko/20100101 Firefox/128.0")
+                .header("Accept", "image/avif,image/webp,image/png,image/svg+xml,image/*;q=0.8,*/*;q=0.5")
+                .header("Accept-Language", "en-US,en;q=0.5").header("Accept-Encoding", "gzip, deflate, br")
+                .header("Referer", "https://georchestra.example.org/mapstore/").header("X-Forwarded-For", "10.0.0.1")
+                .header("X-Forwarded-Proto", "https").header("Sec-Fetch-Dest", "image")
+                .header("Sec-Fetch-Mode", "no-cors").build();
+        applicationMdc = MdcSnapshot.empty().with("application.name", "gateway").with("application.profile", "default")
+                .with("application.version", "25.0.0");
+    }
+
+    @Benchmark
+    public Map<String, String> threadLocalMdc() {
+        Map<String, String> initial = MDC.getCopyOfContextMap();
+        MDC.clear();
+        applicationMdc.forEach(MDC::put);
+        ServerHttpRequest req = request;
+        config.id(req::getHeaders).remoteAddr(req.getRemoteAddress()).method(() -> req.getMethod().name())
+                .path(() -> req.getURI().getRawPath()).queryString(() -> req.getURI().getRawQuery())
+                .parameters(req::getQueryParams).headers(req::getHeaders).cookies(req::getCookies);
+        Map<String, String> requestMdc = MDC.getCopyOfContextMap();
+        if (initial == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(initial);
+        }
+        return requestMdc;
+    }
+
+    @Benchmark
+    public Map<String, String> lazySnapshot() {
+        return applicationMdc.withAll(config.requestAttributes(request));
+    }
+
+    @Benchmark
+    public int lazySnapshotMaterialized() {
+        return applicationMdc.withAll(config.requestAttributes(request)).entrySet().size();
+    }
+
+    @Benchmark
+    public MdcSnapshot accessorEager(EagerAccessor state) {
+        return setAndRestore(state.accessor, false);
+    }
+
+    @Benchmark
+    public MdcSnapshot accessorLazy(LazyAccessor state) {
+        return setAndRestore(state.accessor, false);
+    }
+
+    @Benchmark
+    public MdcSnapshot accessorLazyLogged(LazyAccessor state) {
+        return setAndRestore(state.accessor, true);
+    }
+
+    private MdcSnapshot setAndRestore(MdcThreadLocalAccessor accessor, boolean logged) {
+        MdcSnapshot snapshot = applicationMdc.withAll(config.requestAttributes(request));
+        Map<String, String> previous = accessor.getValue();
+        accessor.setValue(snapshot);
+        if (logged) {
+            // as done by MdcSnapshotTurboFilter
+            MdcThreadLocalAccessor.materialize();
+        }
+        accessor.restore(previous);
+        return snapshot;
+    }
+
+    /**
+     * The accessor copying snapshots to the MDC as soon as they're set
+     */
+    @State(Scope.Benchmark)
+    public static class EagerAccessor {
+        final MdcThreadLocalAccessor accessor = new MdcThreadLocalAccessor();
+
+        @Setup
+        public void setup() {
+            MdcThreadLocalAccessor.setLazy(false);
+        }
+    }
+
+    /**
+     * The accessor copying snapshots to the MDC only for log events
+     */
+    @State(Scope.Benchmark)
+    public static class LazyAccessor {
+        final MdcThreadLocalAccessor accessor = new MdcThreadLocalAccessor();
+
+        @Setup
+        public void setup() {
+            MdcThreadLocalAccessor.setLazy(true);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MdcSnapshotBenchmark.class.getSimpleName()).addProfiler("gc").build())
+                .run();
+    }
+}
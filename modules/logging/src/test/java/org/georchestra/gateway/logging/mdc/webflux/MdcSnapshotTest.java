@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.mdc.webflux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import reactor.util.context.Context;
+
+class MdcSnapshotTest {
+
+    @BeforeEach
+    void setUp() {
+        MDC.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void empty() {
+        MdcSnapshot empty = MdcSnapshot.empty();
+        assertThat(empty).isEmpty();
+        assertThat(empty.get("key")).isNull();
+        assertThat(empty.toBuilder().build()).isSameAs(empty);
+    }
+
+    @Test
+    void withSharesParentAndDoesNotModifyIt() {
+        MdcSnapshot app = MdcSnapshot.empty().with("application.name", "gateway");
+        MdcSnapshot req1 = app.with("http.request.id", "1");
+        MdcSnapshot req2 = app.with("http.request.id", "2");
+
+        assertThat(app).containsExactly(Map.entry("application.name", "gateway"));
+        assertThat(req1).containsExactly(Map.entry("application.name", "gateway"), Map.entry("http.request.id", "1"));
+        assertThat(req2).containsExactly(Map.entry("application.name", "gateway"), Map.entry("http.request.id", "2"));
+    }
+
+    @Test
+    void withOverridesAndRemoves() {
+        MdcSnapshot mdc = MdcSnapshot.empty().with("a", "1").with("b", "2").with("a", "3");
+        assertThat(mdc.get("a")).isEqualTo("3");
+        assertThat(mdc).hasSize(2).containsEntry("a", "3").containsEntry("b", "2");
+
+        MdcSnapshot removed = mdc.with("a", (String) null);
+        assertThat(removed.containsKey("a")).isFalse();
+        assertThat(removed).hasSize(1).containsEntry("b", "2");
+        assertThat(mdc).hasSize(2);
+    }
+
+    @Test
+    void lazyValuesAreComputedOnceAndOnlyIfRead() {
+        AtomicInteger calls = new AtomicInteger();
+        MdcSnapshot mdc = MdcSnapshot.empty().with("lazy", () -> "value-" + calls.incrementAndGet()).with("other",
+                "value");
+
+        assertThat(mdc.get("other")).isEqualTo("value");
+        assertThat(calls).hasValue(0);
+
+        assertThat(mdc.get("lazy")).isEqualTo("value-1");
+        assertThat(mdc.get("lazy")).isEqualTo("value-1");
+        assertThat(mdc.with("x", "y")).containsEntry("lazy", "value-1");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void lazyNullValueIsAbsent() {
+        MdcSnapshot mdc = MdcSnapshot.empty().with("a", "1").with("a", () -> null);
+        assertThat(mdc.containsKey("a")).isFalse();
+        assertThat(mdc).isEmpty();
+    }
+
+    @Test
+    void withAllReadsThroughGroup() {
+        Map<String, String> group = new LinkedHashMap<>();
+        group.put("b", "2");
+        group.put("c", "3");
+        MdcSnapshot mdc = MdcSnapshot.empty().with("a", "1").with("b", "0").withAll(group).with("c", "4");
+
+        assertThat(mdc.get("a")).isEqualTo("1");
+        assertThat(mdc.get("b")).isEqualTo("2");
+        assertThat(mdc.get("c")).isEqualTo("4");
+        assertThat(mdc.get("d")).isNull();
+        assertThat(mdc).containsExactly(Map.entry("a", "1"), Map.entry("b", "2"), Map.entry("c", "4"));
+    }
+
+    @Test
+    void isReadOnly() {
+        MdcSnapshot mdc = MdcSnapshot.empty().with("a", "1");
+        assertThatThrownBy(() -> mdc.put("b", "2")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> mdc.remove("a")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(mdc::clear).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void equalsPlainMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("a", "1");
+        map.put("b", "2");
+        MdcSnapshot mdc = MdcSnapshot.of(map);
+        assertThat(mdc).isEqualTo(map);
+        assertThat(mdc.hashCode()).isEqualTo(map.hashCode());
+        assertThat(MdcSnapshot.of(mdc)).isSameAs(mdc);
+    }
+
+    @Test
+    void fromContext() {
+        MdcSnapshot mdc = MdcSnapshot.empty().with("a", "1");
+        assertThat(MdcSnapshot.from(Context.of(ReactorContextHolder.MDC_CONTEXT_KEY, mdc))).isSameAs(mdc);
+        assertThat(MdcSnapshot.from(Context.of(ReactorContextHolder.MDC_CONTEXT_KEY, Map.of("b", "2"))))
+                .isEqualTo(Map.of("b", "2"));
+        assertThat(MdcSnapshot.from(Context.empty())).isSameAs(MdcSnapshot.empty());
+        assertThat(MdcSnapshot.from(null)).isSameAs(MdcSnapshot.empty());
+    }
+
+    @Test
+    void runSetsAndRestoresThreadLocalMdc() {
+        MDC.put("initial", "value");
+        MdcSnapshot mdc = MdcSnapshot.empty().with("a", "1").with("b", () -> "2");
+
+        Map<String, String> captured = new LinkedHashMap<>();
+        mdc.run(() -> captured.putAll(MDC.getCopyOfContextMap()));
+
+        assertThat(captured).isEqualTo(Map.of("a", "1", "b", "2"));
+        assertThat(MDC.getCopyOfContextMap()).isEqualTo(Map.of("initial", "value"));
+    }
+
+    @Test
+    void runClearsThreadLocalMdcIfThereWasNone() {
+        MdcSnapshot.empty().with("a", "1").run(() -> assertThat(MDC.get("a")).isEqualTo("1"));
+        assertThat(MDC.get("a")).isNull();
+    }
+
+    @Test
+    void reactorContextHolderExtractsSnapshot() {
+        MdcSnapshot mdc = MdcSnapshot.empty().with("a", "1").with("b", () -> "2");
+        Context context = Context.of(ReactorContextHolder.MDC_CONTEXT_KEY, mdc);
+        assertThat(ReactorContextHolder.extractMdcMapFromContext(context)).isEqualTo(Map.of("a", "1", "b", "2"));
+    }
+}
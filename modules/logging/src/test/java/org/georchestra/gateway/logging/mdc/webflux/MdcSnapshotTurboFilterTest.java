@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.mdc.webflux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+
+class MdcSnapshotTurboFilterTest {
+
+    private final MdcThreadLocalAccessor accessor = new MdcThreadLocalAccessor();
+
+    private final Logger log = (Logger) LoggerFactory.getLogger(MdcSnapshotTurboFilterTest.class);
+
+    private final AtomicInteger resolved = new AtomicInteger();
+
+    private MdcSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        MdcSnapshotTurboFilter.install();
+        log.setLevel(Level.INFO);
+        snapshot = MdcSnapshot.empty().with("http.request.id", "id").with("enduser.id", () -> {
+            resolved.incrementAndGet();
+            return "user";
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        log.detachAndStopAllAppenders();
+        accessor.setValue();
+        log.setLevel(null);
+        MdcSnapshotTurboFilter.uninstall();
+    }
+
+    private ListAppender<ILoggingEvent> appender() {
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        log.addAppender(appender);
+        return appender;
+    }
+
+    @Test
+    void installedOnce() {
+        MdcSnapshotTurboFilter.install();
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        assertThat(context.getTurboFilterList()).first().isInstanceOf(MdcSnapshotTurboFilter.class);
+        assertThat(context.getTurboFilterList()).filteredOn(MdcSnapshotTurboFilter.class::isInstance).hasSize(1);
+    }
+
+    @Test
+    void snapshotNotCopiedUntilLogged() {
+        MDC.put("previous-key", "previous-value");
+        accessor.setValue(snapshot);
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+
+        log.debug("disabled");
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+        assertThat(resolved).hasValue(0);
+
+        log.info("enabled");
+        assertThat(MDC.getCopyOfContextMap()).isEqualTo(Map.of("http.request.id", "id", "enduser.id", "user"));
+        assertThat(resolved).hasValue(1);
+    }
+
+    @Test
+    void snapshotCopiedOncePerThread() {
+        accessor.setValue(snapshot);
+        log.info("first");
+        MDC.put("other-key", "other-value");
+        log.info("second");
+        // not copied again
+        assertThat(MDC.get("other-key")).isEqualTo("other-value");
+
+        accessor.setValue(MdcSnapshot.empty().with("http.request.id", "other"));
+        log.info("third");
+        assertThat(MDC.getCopyOfContextMap()).isEqualTo(Map.of("http.request.id", "other"));
+    }
+
+    @Test
+    void localEntriesKeptWhenCopied() {
+        ListAppender<ILoggingEvent> appender = appender();
+        accessor.setValue(snapshot);
+        MDC.put("http.status_code", "200");
+        MDC.put("enduser.id", "local");
+        log.info("access");
+
+        assertThat(appender.list).singleElement().extracting(ILoggingEvent::getMDCPropertyMap)
+                .isEqualTo(Map.of("http.request.id", "id", "enduser.id", "local", "http.status_code", "200"));
+        assertThat(resolved).hasValue(0);
+    }
+
+    @Test
+    void localEntriesKeptAfterSchedulerHop() throws InterruptedException {
+        ListAppender<ILoggingEvent> appender = appender();
+        // doFinally runs after the completion reaches block()
+        CountDownLatch logged = new CountDownLatch(1);
+        Hooks.enableAutomaticContextPropagation();
+        try {
+            Mono.delay(Duration.ofMillis(10)).doFinally(signal -> {
+                MDC.put("http.request.method", "GET");
+                MDC.put("http.status_code", "200");
+                log.info("access");
+                logged.countDown();
+            }).contextWrite(context -> context.put(ReactorContextHolder.MDC_CONTEXT_KEY, snapshot)).block();
+        } finally {
+            Hooks.disableAutomaticContextPropagation();
+        }
+        assertThat(logged.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(appender.list).singleElement().satisfies(event -> {
+            assertThat(event.getThreadName()).startsWith("parallel-");
+            assertThat(event.getMDCPropertyMap()).isEqualTo(Map.of("http.request.id", "id", "enduser.id", "user",
+                    "http.request.method", "GET", "http.status_code", "200"));
+        });
+    }
+
+    @Test
+    void eagerWhenUninstalled() {
+        MdcSnapshotTurboFilter.uninstall();
+        accessor.setValue(snapshot);
+        assertThat(MDC.getCopyOfContextMap()).isEqualTo(Map.of("http.request.id", "id", "enduser.id", "user"));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.mdc.webflux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import io.micrometer.context.ContextRegistry;
+
+class MdcThreadLocalAccessorTest {
+
+    private final MdcThreadLocalAccessor accessor = new MdcThreadLocalAccessor();
+
+    @BeforeEach
+    void setUp() {
+        // copy snapshots to the MDC as soon as they're set
+        MdcSnapshotTurboFilter.uninstall();
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessor.setValue();
+    }
+
+    @Test
+    void registeredWithContextRegistry() {
+        assertThat(ContextRegistry.getInstance().getThreadLocalAccessors())
+                .anyMatch(MdcThreadLocalAccessor.class::isInstance);
+        assertThat(accessor.key()).isEqualTo(ReactorContextHolder.MDC_CONTEXT_KEY);
+    }
+
+    @Test
+    void setAndRestoreSnapshot() {
+        MDC.put("initial-key", "initial-value");
+        Map<String, String> previous = accessor.getValue();
+        assertThat(previous).isEqualTo(Map.of("initial-key", "initial-value"));
+
+        MdcSnapshot snapshot = MdcSnapshot.empty().with("http.request.id", "id").with("enduser.id", () -> "user");
+        accessor.setValue(snapshot);
+        assertThat(MDC.getCopyOfContextMap()).isEqualTo(Map.of("http.request.id", "id", "enduser.id", "user"));
+        assertThat(accessor.getValue()).isSameAs(snapshot);
+
+        accessor.restore(previous);
+        assertThat(MDC.getCopyOfContextMap()).isEqualTo(Map.of("initial-key", "initial-value"));
+        // not tracked, the MDC may change
+        MDC.put("other-key", "other-value");
+        assertThat(accessor.getValue()).isEqualTo(Map.of("initial-key", "initial-value", "other-key", "other-value"));
+    }
+
+    @Test
+    void reset() {
+        accessor.setValue(MdcSnapshot.empty().with("http.request.id", "id"));
+        accessor.setValue();
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+        assertThat(accessor.getValue()).isNullOrEmpty();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.requestid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+class RequestIdConfigPropertiesTest {
+
+    private RequestIdConfigProperties config;
+
+    @BeforeEach
+    void setUp() {
+        config = new RequestIdConfigProperties();
+    }
+
+    @Test
+    void findRequestIdHeaderPrecedence() {
+        HttpHeaders headers = new HttpHeaders();
+        assertThat(config.findRequestId(headers)).isNull();
+
+        headers.set("X-Request-ID", "x-request-id");
+        assertThat(config.findRequestId(headers)).isEqualTo("x-request-id");
+        assertThat(RequestIdConfigProperties.findDefaultRequestId(headers)).isEqualTo("x-request-id");
+
+        headers.set("http.request.id", "http-request-id");
+        assertThat(config.findRequestId(headers)).isEqualTo("http-request-id");
+
+        headers.set("trace-id", "trace-id");
+        assertThat(config.findRequestId(headers)).isEqualTo("trace-id");
+        assertThat(RequestIdConfigProperties.findDefaultRequestId(headers)).isEqualTo("trace-id");
+    }
+
+    @Test
+    void configuredHeaderIsAFallback() {
+        config.setHeader("X-Correlation-ID");
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("x-correlation-id", "correlation-id");
+        assertThat(config.findRequestId(headers)).isEqualTo("correlation-id");
+        assertThat(RequestIdConfigProperties.findDefaultRequestId(headers)).isNull();
+
+        headers.set("X-Request-ID", "x-request-id");
+        assertThat(config.findRequestId(headers)).isEqualTo("x-request-id");
+    }
+
+    @Test
+    void invalidRequestIdsAreIgnored() {
+        assertThat(RequestIdConfigProperties.isValid("01jq4v7c9x3h2k8m5n6p7q8r9s")).isTrue();
+        assertThat(RequestIdConfigProperties.isValid("a.b_c-D")).isTrue();
+        assertThat(RequestIdConfigProperties.isValid("a".repeat(64))).isTrue();
+        assertThat(RequestIdConfigProperties.isValid("a".repeat(65))).isFalse();
+        assertThat(RequestIdConfigProperties.isValid("")).isFalse();
+        assertThat(RequestIdConfigProperties.isValid(null)).isFalse();
+        assertThat(RequestIdConfigProperties.isValid("id with spaces")).isFalse();
+        assertThat(RequestIdConfigProperties.isValid("id\r\nX-Injected: true")).isFalse();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("trace-id", "<script>");
+        headers.set("X-Request-ID", "x-request-id");
+        assertThat(config.findRequestId(headers)).isEqualTo("x-request-id");
+
+        MockServerWebExchange exchange = MockServerWebExchange
+                .from(MockServerHttpRequest.get("/").header("X-Request-ID", "a".repeat(100)));
+        String id = config.requestId(exchange);
+        assertThat(id).hasSize(RequestIdGenerator.LENGTH).isNotEqualTo("a".repeat(100));
+    }
+
+    @Test
+    void requestIdFromHeaderIsResolvedOnce() {
+        MockServerWebExchange exchange = MockServerWebExchange
+                .from(MockServerHttpRequest.get("/").header("X-Request-ID", "abc"));
+
+        assertThat(config.requestId(exchange)).isEqualTo("abc");
+        assertThat(exchange.<String>getAttribute(RequestIdConfigProperties.REQUEST_ID_ATTRIBUTE)).isEqualTo("abc");
+    }
+
+    @Test
+    void requestIdIsGeneratedOnce() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+
+        String id = config.requestId(exchange);
+        assertThat(id).hasSize(RequestIdGenerator.LENGTH);
+        assertThat(config.requestId(exchange)).isSameAs(id);
+        assertThat(config.requestId(exchange.mutate().request(r -> r.header("X-Request-ID", "other")).build()))
+                .isSameAs(id);
+    }
+
+    @Test
+    void propagationHeader() {
+        assertThat(config.propagationHeader()).isEqualTo("X-Request-ID");
+        config.setHeader("X-Correlation-ID");
+        assertThat(config.propagationHeader()).isEqualTo("X-Correlation-ID");
+        config.setHeader(" ");
+        assertThat(config.propagationHeader()).isNull();
+        config.setHeader("X-Request-ID");
+        config.setPropagate(false);
+        assertThat(config.propagationHeader()).isNull();
+    }
+}
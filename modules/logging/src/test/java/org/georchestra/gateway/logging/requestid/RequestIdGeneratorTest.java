@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2025 by the geOrchestra PSC
+ *
+ * This file is part of geOrchestra.
+ *
+ * geOrchestra is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ *
+ * geOrchestra is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * geOrchestra.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.georchestra.gateway.logging.requestid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.f4b6a3.ulid.Ulid;
+
+class RequestIdGeneratorTest {
+
+    @Test
+    void generatesLowercaseUlids() {
+        long before = System.currentTimeMillis();
+        String id = RequestIdGenerator.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(id).hasSize(RequestIdGenerator.LENGTH).isLowerCase();
+        assertThat(Ulid.isValid(id)).isTrue();
+        assertThat(Ulid.from(id).getTime()).isBetween(before, after);
+    }
+
+    @Test
+    void encodesLikeUlidCreator() {
+        long time = 0x0000_FFFF_FFFF_FFFFL;
+        assertEncoding(time, 0xFFFFL, -1L);
+        assertEncoding(0, 0, 0);
+        assertEncoding(1742811330123L, 0x1234L, 0x0123_4567_89AB_CDEFL);
+        assertEncoding(1742811330123L, 0x8000L, 0x8000_0000_0000_0001L);
+    }
+
+    private void assertEncoding(long time, long randomHi, long randomLo) {
+        Ulid expected = new Ulid((time << 16) | randomHi, randomLo);
+        assertThat(RequestIdGenerator.encode(time, randomHi, randomLo)).isEqualTo(expected.toLowerCase());
+    }
+
+    @Test
+    void monotonicWithinTheSameMillisecond() {
+        RequestIdGenerator.State state = new RequestIdGenerator.State();
+        long now = System.currentTimeMillis();
+        String previous = state.next(now);
+        for (int i = 0; i < 1000; i++) {
+            String id = state.next(now);
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+        // clock going backwards keeps increasing
+        assertThat(state.next(now - 1000)).isGreaterThan(previous);
+    }
+
+    @Test
+    void encodingSortsByTimestampFirst() {
+        String id = RequestIdGenerator.encode(1000, 0xFFFFL, -1L);
+        Ulid ulid = Ulid.from(id);
+        assertThat(ulid.getTime()).isEqualTo(1000);
+        assertThat(Ulid.from(RequestIdGenerator.encode(1001, 0, 0))).isGreaterThan(ulid);
+    }
+
+    @Test
+    void uniqueAcrossThreads() throws Exception {
+        final int threads = 4;
+        final int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(RequestIdGenerator.next());
+                    }
+                    return ids;
+                }));
+            }
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                List<String> ids = future.get();
+                assertThat(ids).isSorted();
+                all.addAll(ids);
+            }
+            assertThat(all).hasSize(threads * perThread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}